@@ -35,7 +35,9 @@ export default defineConfig({
           { text: '核心库集成', link: '/advanced/core-library' },
           { text: '手动与动态编译', link: '/advanced/dynamic-compilation' },
           { text: '生命周期钩子', link: '/advanced/hooks-lifecycle' },
-          { text: '扩展 Graph Compiler', link: '/advanced/extend-compiler' }
+          { text: '扩展 Graph Compiler', link: '/advanced/extend-compiler' },
+          { text: '启动性能优化', link: '/advanced/startup-performance' },
+          { text: '可观测性', link: '/advanced/observability' }
         ]
       }
     ],
@@ -0,0 +1,216 @@
+package cn.teacy.ai.processor;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders the source of a {@code <Composer>GraphDefinition} class from a
+ * {@link GraphComposerProcessor.ComposerModel}.
+ * <p>
+ * All type references are fully qualified, so the generated file needs no imports and
+ * cannot clash with names declared in the composer package.
+ */
+class DefinitionWriter {
+
+    private static final String METADATA = "cn.teacy.ai.metadata.ComposerMetadata";
+
+    private final GraphComposerProcessor.ComposerModel model;
+    private final StringBuilder out = new StringBuilder();
+
+    DefinitionWriter(GraphComposerProcessor.ComposerModel model) {
+        this.model = model;
+    }
+
+    String write() {
+        if (!model.packageName.isEmpty()) {
+            out.append("package ").append(model.packageName).append(";\n\n");
+        }
+
+        out.append("@javax.annotation.processing.Generated(\"").append(GraphComposerProcessor.class.getName()).append("\")\n");
+        out.append("public final class ").append(model.definitionName)
+                .append(" implements cn.teacy.ai.interfaces.GeneratedGraphDefinition {\n\n");
+
+        out.append("    private static final ").append(METADATA).append(" METADATA = new ").append(METADATA).append("(\n");
+        out.append("            ").append(model.composer.getQualifiedName()).append(".class,\n");
+        writeKeys();
+        out.append(",\n");
+        writeNodes();
+        out.append(",\n");
+        writeEdges();
+        out.append(",\n");
+        writeCompileConfig();
+        out.append("\n    );\n\n");
+
+        out.append("    @Override\n");
+        out.append("    public ").append(METADATA).append(" metadata() {\n");
+        out.append("        return METADATA;\n");
+        out.append("    }\n\n");
+        out.append("}\n");
+
+        return out.toString();
+    }
+
+    private void writeKeys() {
+        out.append("            java.util.List.of(");
+        Iterator<GraphComposerProcessor.KeyModel> it = model.keys.iterator();
+        while (it.hasNext()) {
+            GraphComposerProcessor.KeyModel key = it.next();
+            out.append("\n                    new ").append(METADATA).append(".KeyMetadata(")
+                    .append(literal(key.fieldName())).append(", ")
+                    .append(literal(key.key())).append(", ")
+                    .append(key.strategy()).append(".class, ")
+                    .append(key.maxEntries()).append(", ")
+                    .append(GraphComposerProcessor.GRAPH_KEY).append(".Overflow.").append(key.overflow()).append(", ")
+                    .append(key.overflowHook()).append(".class, ")
+                    .append(key.offload()).append(")");
+            if (it.hasNext()) {
+                out.append(",");
+            }
+        }
+        out.append(")");
+    }
+
+    private void writeNodes() {
+        out.append("            java.util.List.of(");
+        Iterator<GraphComposerProcessor.NodeModel> it = model.nodes.iterator();
+        while (it.hasNext()) {
+            GraphComposerProcessor.NodeModel node = it.next();
+            out.append("\n                    new ").append(METADATA).append(".NodeMetadata(")
+                    .append(literal(node.fieldName())).append(", ")
+                    .append(literal(node.nodeId())).append(", ")
+                    .append(stringList(node.next())).append(", ")
+                    .append(node.isStart()).append(", ")
+                    .append(node.accessor()).append(", ")
+                    .append(node.executor().isBlank() ? "null" : literal(node.executor())).append(", ")
+                    .append(policies(node)).append(")");
+            if (it.hasNext()) {
+                out.append(",");
+            }
+        }
+        out.append(")");
+    }
+
+    private static String policies(GraphComposerProcessor.NodeModel node) {
+        if (node.timeout().isBlank() && node.timeoutFallback().isBlank() && node.timeoutErrorKey().isBlank()
+                && node.policies().isEmpty()) {
+            return METADATA + ".NodePolicies.NONE";
+        }
+
+        StringBuilder sb = new StringBuilder("new ").append(METADATA).append(".NodePolicies(")
+                .append(optionalLiteral(node.timeout())).append(", ")
+                .append(optionalLiteral(node.timeoutFallback())).append(", ")
+                .append(optionalLiteral(node.timeoutErrorKey()));
+        for (GraphComposerProcessor.PolicyType policy : GraphComposerProcessor.NODE_POLICIES) {
+            List<Object> values = node.policies().get(policy);
+            sb.append(", ");
+            if (values == null) {
+                sb.append("null");
+                continue;
+            }
+            sb.append("new ").append(METADATA).append(".NodePolicies.").append(policy.metadata()).append("(");
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(value(values.get(i)));
+            }
+            sb.append(")");
+        }
+        return sb.append(")").toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String value(Object value) {
+        if (value instanceof String string) {
+            return literal(string);
+        }
+        if (value instanceof List<?> list) {
+            return stringList((List<String>) list);
+        }
+        if (value instanceof Double number) {
+            return Double.isFinite(number) ? number + "d"
+                    : "java.lang.Double.longBitsToDouble(" + Double.doubleToRawLongBits(number) + "L)";
+        }
+        return String.valueOf(value);
+    }
+
+    private static String optionalLiteral(String value) {
+        return value.isBlank() ? "null" : literal(value);
+    }
+
+    private void writeEdges() {
+        out.append("            java.util.List.of(");
+        Iterator<GraphComposerProcessor.EdgeModel> it = model.edges.iterator();
+        while (it.hasNext()) {
+            GraphComposerProcessor.EdgeModel edge = it.next();
+            out.append("\n                    new ").append(METADATA).append(".EdgeMetadata(")
+                    .append(literal(edge.fieldName())).append(", ")
+                    .append(literal(edge.source())).append(", ")
+                    .append(stringMap(edge.routes())).append(", ")
+                    .append(edge.accessor()).append(")");
+            if (it.hasNext()) {
+                out.append(",");
+            }
+        }
+        out.append(")");
+    }
+
+    private void writeCompileConfig() {
+        GraphComposerProcessor.FieldModel config = model.compileConfig;
+        if (config == null) {
+            out.append("            null");
+            return;
+        }
+        out.append("            new ").append(METADATA).append(".CompileConfigMetadata(")
+                .append(literal(config.fieldName())).append(", ")
+                .append(config.accessor()).append(")");
+    }
+
+    private static String stringList(List<String> values) {
+        StringBuilder sb = new StringBuilder("java.util.List.of(");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(literal(values.get(i)));
+        }
+        return sb.append(")").toString();
+    }
+
+    private static String stringMap(Map<String, String> values) {
+        StringBuilder sb = new StringBuilder("java.util.Map.ofEntries(");
+        Iterator<Map.Entry<String, String>> it = values.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            sb.append("java.util.Map.entry(").append(literal(entry.getKey())).append(", ")
+                    .append(literal(entry.getValue())).append(")");
+            if (it.hasNext()) {
+                sb.append(", ");
+            }
+        }
+        return sb.append(")").toString();
+    }
+
+    static String literal(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append("\"").toString();
+    }
+
+}
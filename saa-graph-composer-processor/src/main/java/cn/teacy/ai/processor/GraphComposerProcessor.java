@@ -0,0 +1,640 @@
+package cn.teacy.ai.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Annotation processor that reads {@code @GraphKey}, {@code @GraphNode}, {@code @ConditionalEdge}
+ * and {@code @GraphCompileConfig} fields of every {@code @GraphComposer} class at build time and
+ * generates a {@code <Composer>GraphDefinition} class next to it.
+ * <p>
+ * The generated class implements {@code cn.teacy.ai.interfaces.GeneratedGraphDefinition} and exposes
+ * the composer structure with direct field accessors, so that {@code GeneratedGraphCompiler} does
+ * not need to walk the composer reflectively at startup.
+ * <p>
+ * Malformed mappings, duplicate keys and invalid {@code @GraphKey} fields are reported as compile
+ * errors. Composers whose fields cannot be read from the generated class (e.g. {@code private}
+ * fields), or which use attributes this processor does not understand, are skipped with a note and
+ * keep being compiled by reflection.
+ *
+ * @since 0.4.0
+ */
+@SupportedAnnotationTypes(GraphComposerProcessor.GRAPH_COMPOSER)
+public class GraphComposerProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION_PACKAGE = "cn.teacy.ai.annotation";
+
+    static final String GRAPH_COMPOSER = ANNOTATION_PACKAGE + ".GraphComposer";
+    static final String GRAPH_KEY = ANNOTATION_PACKAGE + ".GraphKey";
+    static final String GRAPH_NODE = ANNOTATION_PACKAGE + ".GraphNode";
+    static final String CONDITIONAL_EDGE = ANNOTATION_PACKAGE + ".ConditionalEdge";
+    static final String GRAPH_COMPILE_CONFIG = ANNOTATION_PACKAGE + ".GraphCompileConfig";
+
+    // same order as the components of ComposerMetadata.NodePolicies, attributes as the components of each policy
+    static final List<PolicyType> NODE_POLICIES = List.of(
+            new PolicyType(ANNOTATION_PACKAGE + ".NodeConcurrency", "ConcurrencyPolicy",
+                    List.of("maxConcurrent", "maxQueued", "queueTimeout")),
+            new PolicyType(ANNOTATION_PACKAGE + ".NodeCache", "CachePolicy", List.of("keys", "maxSize", "ttl", "maxBytes")),
+            new PolicyType(ANNOTATION_PACKAGE + ".Hedge", "HedgePolicy", List.of("delay", "percentile", "maxAttempts")),
+            new PolicyType(ANNOTATION_PACKAGE + ".Coalesce", "CoalescePolicy", List.of("keys")),
+            new PolicyType(ANNOTATION_PACKAGE + ".BatchNode", "BatchPolicy", List.of("maxBatchSize", "maxWait")),
+            new PolicyType(ANNOTATION_PACKAGE + ".ParallelBranches", "ParallelBranchesPolicy",
+                    List.of("executor", "maxParallelism"))
+    );
+
+    // keep in sync with GeneratedGraphDefinition.CLASS_NAME_SUFFIX
+    static final String CLASS_NAME_SUFFIX = "GraphDefinition";
+
+    // keep in sync with ComposerConfigConstants.COMPOSER_INDEX_LOCATION
+    static final String INDEX_LOCATION = "META-INF/saa-graph-composers.idx";
+
+    private static final String DEFAULT_KEY_STRATEGY = "com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy";
+
+    private static final String DEFAULT_OVERFLOW = "DROP_OLDEST";
+
+    private static final String DEFAULT_OVERFLOW_HOOK = "cn.teacy.ai.interfaces.AppendOverflowHook";
+
+    private static final Set<String> KEY_ATTRIBUTES = Set.of("strategy", "description", "internal",
+            "maxEntries", "overflow", "overflowHook", "offload");
+    private static final Set<String> NODE_ATTRIBUTES = Set.of("id", "next", "isStart", "description", "executor",
+            "timeout", "timeoutFallback", "timeoutErrorKey");
+    private static final Set<String> EDGE_ATTRIBUTES = Set.of("source", "mappings", "routes", "description");
+    private static final Set<String> CONFIG_ATTRIBUTES = Set.of("description");
+
+    private final Set<String> indexedComposers = new LinkedHashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement composerAnnotation = processingEnv.getElementUtils().getTypeElement(GRAPH_COMPOSER);
+        if (composerAnnotation == null) {
+            return false;
+        }
+
+        for (TypeElement composer : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(composerAnnotation))) {
+            if (composer.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+
+            if (isIndexable(composer)) {
+                indexedComposers.add(processingEnv.getElementUtils().getBinaryName(composer).toString());
+            }
+
+            ComposerModel model = new ComposerAnalyzer(composer).analyze();
+            if (model == null) {
+                continue;
+            }
+
+            writeDefinition(model);
+        }
+
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+
+        return false;
+    }
+
+    /**
+     * Writes {@code META-INF/saa-graph-composers.idx}, keeping the entries of a previous
+     * (incremental) compilation that still resolve to a {@code @GraphComposer} class.
+     */
+    private void writeIndex() {
+        Set<String> entries = new TreeSet<>(indexedComposers);
+        Elements elements = processingEnv.getElementUtils();
+
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (BufferedReader reader = new BufferedReader(existing.openReader(true))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    TypeElement type = elements.getTypeElement(line.replace('$', '.'));
+                    if (type != null && hasAnnotation(type, GRAPH_COMPOSER) && isIndexable(type)) {
+                        entries.add(line);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // no index from a previous compilation
+        }
+
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try {
+            FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (Writer writer = index.openWriter()) {
+                writer.write("# Generated by " + GraphComposerProcessor.class.getName() + "\n");
+                for (String entry : entries) {
+                    writer.write(entry);
+                    writer.write("\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Failed to write graph composer index " + INDEX_LOCATION + ": " + e.getMessage());
+        }
+    }
+
+    private void writeDefinition(ComposerModel model) {
+        String qualifiedName = model.packageName.isEmpty()
+                ? model.definitionName
+                : model.packageName + "." + model.definitionName;
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, model.composer);
+            try (Writer writer = file.openWriter()) {
+                writer.write(new DefinitionWriter(model).write());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write graph definition " + qualifiedName + ": " + e.getMessage(), model.composer);
+        }
+    }
+
+    /**
+     * Walks the fields of a single composer, validating them and collecting the generation model.
+     * Returns null when errors were reported or the composer must fall back to reflection.
+     */
+    private class ComposerAnalyzer {
+
+        private final TypeElement composer;
+        private final Messager messager = processingEnv.getMessager();
+        private final Elements elements = processingEnv.getElementUtils();
+
+        private final ComposerModel model;
+
+        private boolean hasErrors = false;
+        private String fallbackReason = null;
+
+        ComposerAnalyzer(TypeElement composer) {
+            this.composer = composer;
+            this.model = new ComposerModel(composer, elements.getPackageOf(composer).getQualifiedName().toString());
+        }
+
+        ComposerModel analyze() {
+            if (!isAccessibleType(composer)) {
+                fallback("the composer class is not accessible from its package");
+            }
+
+            // same order as ReflectionUtils.doWithFields: declared fields first, then the superclasses
+            TypeElement current = composer;
+            while (current != null && !"java.lang.Object".contentEquals(current.getQualifiedName())) {
+                for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                    analyzeField(current, field);
+                }
+                current = superclassOf(current);
+            }
+
+            if (hasErrors) {
+                return null;
+            }
+
+            if (fallbackReason != null) {
+                messager.printMessage(Diagnostic.Kind.NOTE, String.format(
+                        "No graph definition generated for %s, it will be compiled by reflection: %s.",
+                        composer.getQualifiedName(), fallbackReason), composer);
+                return null;
+            }
+
+            return model;
+        }
+
+        private void analyzeField(TypeElement declaringType, VariableElement field) {
+            Map<String, AnnotationMirror> mirrors = new HashMap<>();
+            for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+                TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+                mirrors.put(annotationType.getQualifiedName().toString(), mirror);
+            }
+
+            // annotations added to the framework after this processor must be handled reflectively
+            for (Map.Entry<String, AnnotationMirror> entry : mirrors.entrySet()) {
+                String annotationName = entry.getKey();
+                if (annotationName.startsWith(ANNOTATION_PACKAGE + ".")) {
+                    if (!isCoreAnnotation(annotationName)) {
+                        fallback(String.format("field '%s' uses @%s", field.getSimpleName(),
+                                annotationName.substring(ANNOTATION_PACKAGE.length() + 1)));
+                    }
+                } else if (isComposedAnnotation(entry.getValue())) {
+                    // composed annotations are merged by the reflective path
+                    fallback(String.format("field '%s' uses the composed annotation @%s", field.getSimpleName(), annotationName));
+                }
+            }
+
+            // same precedence as ReflectiveGraphCompiler#collectGraphDefinition
+            if (mirrors.containsKey(GRAPH_KEY)) {
+                analyzeGraphKey(field, mirrors.get(GRAPH_KEY));
+            } else if (mirrors.containsKey(GRAPH_NODE)) {
+                analyzeGraphNode(declaringType, field, mirrors.get(GRAPH_NODE), mirrors);
+            } else if (mirrors.containsKey(CONDITIONAL_EDGE)) {
+                analyzeConditionalEdge(declaringType, field, mirrors.get(CONDITIONAL_EDGE));
+            } else if (mirrors.containsKey(GRAPH_COMPILE_CONFIG)) {
+                analyzeCompileConfig(declaringType, field, mirrors.get(GRAPH_COMPILE_CONFIG));
+            }
+        }
+
+        private void analyzeGraphKey(VariableElement field, AnnotationMirror mirror) {
+            checkKnownAttributes(field, mirror, KEY_ATTRIBUTES);
+
+            Set<Modifier> modifiers = field.getModifiers();
+            if (!modifiers.contains(Modifier.FINAL)) {
+                error(field, "Field '%s' must be 'final'. Graph keys should be immutable constants.", field.getSimpleName());
+                return;
+            }
+            if (!modifiers.contains(Modifier.STATIC)) {
+                error(field, "Field '%s' must be 'static'. Graph keys supposed to be global constants (e.g., public static final String).", field.getSimpleName());
+                return;
+            }
+            if (!isType(field.asType(), "java.lang.String")) {
+                error(field, "Field '%s' annotated with @GraphKey must be of type String.", field.getSimpleName());
+                return;
+            }
+
+            Object constant = field.getConstantValue();
+            if (!(constant instanceof String key)) {
+                fallback(String.format("@GraphKey field '%s' is not a compile-time constant", field.getSimpleName()));
+                return;
+            }
+
+            String previous = model.keyFields.putIfAbsent(key, field.getSimpleName().toString());
+            if (previous != null) {
+                error(field, "Duplicate Graph Key: %s. Defined in fields: %s, %s", key, previous, field.getSimpleName());
+                return;
+            }
+
+            TypeElement strategy = typeValue(mirror, "strategy");
+            String strategyName = DEFAULT_KEY_STRATEGY;
+            if (strategy != null) {
+                if (!isAccessibleType(strategy)) {
+                    fallback(String.format("key strategy %s of field '%s' is not accessible", strategy.getQualifiedName(), field.getSimpleName()));
+                    return;
+                }
+                strategyName = strategy.getQualifiedName().toString();
+            }
+
+            TypeElement overflowHook = typeValue(mirror, "overflowHook");
+            String overflowHookName = DEFAULT_OVERFLOW_HOOK;
+            if (overflowHook != null) {
+                if (!isAccessibleType(overflowHook)) {
+                    fallback(String.format("overflow hook %s of field '%s' is not accessible", overflowHook.getQualifiedName(), field.getSimpleName()));
+                    return;
+                }
+                overflowHookName = overflowHook.getQualifiedName().toString();
+            }
+
+            Object maxEntries = value(mirror, "maxEntries");
+            Object overflow = value(mirror, "overflow");
+            model.keys.add(new KeyModel(field.getSimpleName().toString(), key, strategyName,
+                    maxEntries instanceof Integer bound ? bound : 0,
+                    overflow instanceof VariableElement policy ? policy.getSimpleName().toString() : DEFAULT_OVERFLOW,
+                    overflowHookName,
+                    Boolean.TRUE.equals(value(mirror, "offload"))));
+        }
+
+        private void analyzeGraphNode(TypeElement declaringType, VariableElement field, AnnotationMirror mirror,
+                                      Map<String, AnnotationMirror> mirrors) {
+            checkKnownAttributes(field, mirror, NODE_ATTRIBUTES);
+            checkAccessible(declaringType, field);
+
+            String fieldName = field.getSimpleName().toString();
+            String id = stringValue(mirror, "id");
+
+            List<String> next = new ArrayList<>();
+            for (String target : stringArrayValue(mirror, "next")) {
+                if (!target.isBlank()) {
+                    next.add(target);
+                }
+            }
+
+            Map<PolicyType, List<Object>> policies = new LinkedHashMap<>();
+            for (PolicyType policy : NODE_POLICIES) {
+                AnnotationMirror policyMirror = mirrors.get(policy.annotation());
+                if (policyMirror != null) {
+                    checkKnownAttributes(field, policyMirror, new HashSet<>(policy.attributes()));
+                    policies.put(policy, policyValues(policyMirror, policy));
+                }
+            }
+
+            model.nodes.add(new NodeModel(
+                    fieldName,
+                    id.isBlank() ? fieldName : id,
+                    next,
+                    Boolean.TRUE.equals(value(mirror, "isStart")),
+                    accessor(declaringType, field),
+                    stringValue(mirror, "executor"),
+                    stringValue(mirror, "timeout"),
+                    stringValue(mirror, "timeoutFallback"),
+                    stringValue(mirror, "timeoutErrorKey"),
+                    policies
+            ));
+        }
+
+        /**
+         * Reads the attributes of a policy annotation, including the defaults, in the order of the
+         * policy components.
+         */
+        private List<Object> policyValues(AnnotationMirror mirror, PolicyType policy) {
+            Map<String, Object> values = new HashMap<>();
+            elements.getElementValuesWithDefaults(mirror).forEach((attribute, value) -> {
+                Object raw = value.getValue();
+                if (raw instanceof List<?> list) {
+                    List<String> strings = new ArrayList<>(list.size());
+                    for (Object element : list) {
+                        strings.add((String) ((AnnotationValue) element).getValue());
+                    }
+                    raw = strings;
+                }
+                values.put(attribute.getSimpleName().toString(), raw);
+            });
+
+            List<Object> ordered = new ArrayList<>(policy.attributes().size());
+            for (String attribute : policy.attributes()) {
+                ordered.add(values.get(attribute));
+            }
+            return ordered;
+        }
+
+        private boolean isComposedAnnotation(AnnotationMirror mirror) {
+            for (AnnotationMirror meta : mirror.getAnnotationType().asElement().getAnnotationMirrors()) {
+                String name = ((TypeElement) meta.getAnnotationType().asElement()).getQualifiedName().toString();
+                if (name.startsWith(ANNOTATION_PACKAGE + ".")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void analyzeConditionalEdge(TypeElement declaringType, VariableElement field, AnnotationMirror mirror) {
+            checkKnownAttributes(field, mirror, EDGE_ATTRIBUTES);
+
+            List<String> mappings = stringArrayValue(mirror, "mappings");
+            List<String> routes = stringArrayValue(mirror, "routes");
+
+            if (mappings.size() % 2 != 0) {
+                error(field, "Mappings must be pairs in field: %s", field.getSimpleName());
+                return;
+            }
+            if (mappings.isEmpty() && routes.isEmpty()) {
+                error(field, "Either mappings or routes must be provided in field: %s", field.getSimpleName());
+                return;
+            }
+
+            checkAccessible(declaringType, field);
+
+            Map<String, String> routeMap = new LinkedHashMap<>();
+            for (String route : routes) {
+                routeMap.put(route, route);
+            }
+            for (int i = 0; i < mappings.size(); i += 2) {
+                routeMap.put(mappings.get(i), mappings.get(i + 1));
+            }
+
+            model.edges.add(new EdgeModel(
+                    field.getSimpleName().toString(),
+                    stringValue(mirror, "source"),
+                    routeMap,
+                    accessor(declaringType, field)
+            ));
+        }
+
+        private void analyzeCompileConfig(TypeElement declaringType, VariableElement field, AnnotationMirror mirror) {
+            checkKnownAttributes(field, mirror, CONFIG_ATTRIBUTES);
+
+            if (model.compileConfig != null) {
+                error(field, "Multiple @GraphCompileConfig fields found in %s: %s, %s",
+                        composer.getSimpleName(), model.compileConfig.fieldName, field.getSimpleName());
+                return;
+            }
+
+            checkAccessible(declaringType, field);
+
+            model.compileConfig = new FieldModel(field.getSimpleName().toString(), accessor(declaringType, field));
+        }
+
+        private void checkKnownAttributes(VariableElement field, AnnotationMirror mirror, Set<String> known) {
+            for (ExecutableElement attribute : mirror.getElementValues().keySet()) {
+                String name = attribute.getSimpleName().toString();
+                if (!known.contains(name)) {
+                    fallback(String.format("attribute '%s' on field '%s' is not supported by the processor", name, field.getSimpleName()));
+                }
+            }
+        }
+
+        private void checkAccessible(TypeElement declaringType, VariableElement field) {
+            Set<Modifier> modifiers = field.getModifiers();
+
+            boolean accessible;
+            if (modifiers.contains(Modifier.PRIVATE) || !isAccessibleType(declaringType)) {
+                accessible = false;
+            } else if (elements.getPackageOf(declaringType).equals(elements.getPackageOf(composer))) {
+                accessible = true;
+            } else {
+                accessible = modifiers.contains(Modifier.PUBLIC) && isPublicType(declaringType);
+            }
+
+            if (!accessible) {
+                fallback(String.format("field '%s' is not accessible from the generated class", field.getSimpleName()));
+            }
+        }
+
+        private String accessor(TypeElement declaringType, VariableElement field) {
+            String typeName = declaringType.getQualifiedName().toString();
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                return "composer -> " + typeName + "." + field.getSimpleName();
+            }
+            return "composer -> ((" + typeName + ") composer)." + field.getSimpleName();
+        }
+
+        private void error(Element element, String format, Object... args) {
+            hasErrors = true;
+            // errors on inherited fields are reported against the composer being processed
+            Element target = composer.getEnclosedElements().contains(element) ? element : composer;
+            messager.printMessage(Diagnostic.Kind.ERROR, String.format(format, args), target);
+        }
+
+        private void fallback(String reason) {
+            if (fallbackReason == null) {
+                fallbackReason = reason;
+            }
+        }
+
+    }
+
+    private static boolean isCoreAnnotation(String annotationName) {
+        return GRAPH_COMPOSER.equals(annotationName)
+                || GRAPH_KEY.equals(annotationName)
+                || GRAPH_NODE.equals(annotationName)
+                || CONDITIONAL_EDGE.equals(annotationName)
+                || GRAPH_COMPILE_CONFIG.equals(annotationName)
+                || NODE_POLICIES.stream().anyMatch(policy -> policy.annotation().equals(annotationName));
+    }
+
+    /**
+     * Only classes the classpath scanner would accept are indexed: concrete and independent.
+     */
+    private static boolean isIndexable(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        NestingKind nesting = type.getNestingKind();
+        return nesting == NestingKind.TOP_LEVEL
+                || (nesting == NestingKind.MEMBER && type.getModifiers().contains(Modifier.STATIC));
+    }
+
+    private static boolean hasAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static TypeElement superclassOf(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    private static boolean isAccessibleType(TypeElement type) {
+        Element current = type;
+        while (current instanceof TypeElement typeElement) {
+            if (typeElement.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            NestingKind nesting = typeElement.getNestingKind();
+            if (nesting == NestingKind.LOCAL || nesting == NestingKind.ANONYMOUS) {
+                return false;
+            }
+            current = typeElement.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private static boolean isPublicType(TypeElement type) {
+        Element current = type;
+        while (current instanceof TypeElement typeElement) {
+            if (!typeElement.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            current = typeElement.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private static boolean isType(TypeMirror type, String qualifiedName) {
+        return type.getKind() == TypeKind.DECLARED
+                && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(qualifiedName);
+    }
+
+    private static Object value(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String stringValue(AnnotationMirror mirror, String name) {
+        Object value = value(mirror, name);
+        return value instanceof String string ? string : "";
+    }
+
+    private static List<String> stringArrayValue(AnnotationMirror mirror, String name) {
+        Object value = value(mirror, name);
+        if (!(value instanceof List<?> values)) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>(values.size());
+        for (Object element : values) {
+            result.add((String) ((AnnotationValue) element).getValue());
+        }
+        return result;
+    }
+
+    private static TypeElement typeValue(AnnotationMirror mirror, String name) {
+        Object value = value(mirror, name);
+        if (value instanceof DeclaredType declaredType) {
+            return (TypeElement) declaredType.asElement();
+        }
+        return null;
+    }
+
+    static final class ComposerModel {
+        final TypeElement composer;
+        final String packageName;
+        final String definitionName;
+
+        final Map<String, String> keyFields = new HashMap<>();
+        final List<KeyModel> keys = new ArrayList<>();
+        final List<NodeModel> nodes = new ArrayList<>();
+        final List<EdgeModel> edges = new ArrayList<>();
+        FieldModel compileConfig;
+
+        ComposerModel(TypeElement composer, String packageName) {
+            this.composer = composer;
+            this.packageName = packageName;
+            this.definitionName = definitionName(composer);
+        }
+
+        /**
+         * {@code Outer.Inner} becomes {@code Outer_InnerGraphDefinition}.
+         */
+        private static String definitionName(TypeElement composer) {
+            Deque<String> names = new ArrayDeque<>();
+            Element current = composer;
+            while (current instanceof TypeElement typeElement) {
+                names.addFirst(typeElement.getSimpleName().toString());
+                current = typeElement.getEnclosingElement();
+            }
+            return String.join("_", names) + CLASS_NAME_SUFFIX;
+        }
+    }
+
+    record KeyModel(String fieldName, String key, String strategy, int maxEntries, String overflow,
+                    String overflowHook, boolean offload) {}
+
+    record NodeModel(String fieldName, String nodeId, List<String> next, boolean isStart, String accessor, String executor,
+                     String timeout, String timeoutFallback, String timeoutErrorKey, Map<PolicyType, List<Object>> policies) {}
+
+    /**
+     * @param annotation the qualified name of the policy annotation
+     * @param metadata   the simple name of the policy record nested in {@code ComposerMetadata.NodePolicies}
+     * @param attributes the attributes of the annotation, in the order of the record components
+     */
+    record PolicyType(String annotation, String metadata, List<String> attributes) {}
+
+    record EdgeModel(String fieldName, String source, Map<String, String> routes, String accessor) {}
+
+    record FieldModel(String fieldName, String accessor) {}
+
+}
@@ -0,0 +1,348 @@
+package cn.teacy.ai.processor;
+
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.core.GeneratedGraphCompiler;
+import cn.teacy.ai.interfaces.AppendOverflowHook;
+import cn.teacy.ai.interfaces.GeneratedGraphDefinition;
+import cn.teacy.ai.metadata.ComposerMetadata;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import javax.tools.*;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GraphComposerProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private record Result(boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics, Path classes) {
+
+        String errors() {
+            return diagnostics.stream()
+                    .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                    .map(d -> d.getMessage(null))
+                    .collect(Collectors.joining("\n"));
+        }
+
+        String notes() {
+            return diagnostics.stream()
+                    .filter(d -> d.getKind() == Diagnostic.Kind.NOTE)
+                    .map(d -> d.getMessage(null))
+                    .collect(Collectors.joining("\n"));
+        }
+
+    }
+
+    private Result compile(String className, String source) throws Exception {
+        Path sources = Files.createDirectories(tempDir.resolve("src"));
+        Path classes = Files.createDirectories(tempDir.resolve("classes"));
+
+        Path file = sources.resolve(className.replace('.', '/') + ".java");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source);
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    List.of("-d", classes.toString(), "-s", classes.toString(),
+                            "-classpath", System.getProperty("java.class.path")),
+                    null, fileManager.getJavaFileObjects(file));
+            task.setProcessors(List.of(new GraphComposerProcessor()));
+
+            return new Result(task.call(), diagnostics.getDiagnostics(), classes);
+        }
+    }
+
+    @Test
+    @DisplayName("Should generate a graph definition with direct field accessors")
+    void shouldGenerateDefinition() throws Exception {
+        Result result = compile("com.example.DemoComposer", """
+                package com.example;
+
+                import cn.teacy.ai.annotation.*;
+                import com.alibaba.cloud.ai.graph.CompileConfig;
+                import com.alibaba.cloud.ai.graph.StateGraph;
+                import com.alibaba.cloud.ai.graph.action.EdgeAction;
+                import com.alibaba.cloud.ai.graph.action.NodeAction;
+                import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+
+                import java.util.Map;
+
+                @GraphComposer
+                public class DemoComposer {
+
+                    @GraphKey
+                    private static final String KEY_QUERY = "query";
+
+                    @GraphKey(strategy = AppendStrategy.class, maxEntries = 10)
+                    public static final String KEY_LOGS = "logs";
+
+                    @GraphKey
+                    static final String KEY_RESULT = "result";
+
+                    @GraphKey(offload = true)
+                    static final String KEY_DOCUMENT = "document";
+
+                    @ConditionalEdge(source = StateGraph.START, routes = "b", mappings = {"c", "nodeC"})
+                    final EdgeAction route = state -> state.value(KEY_QUERY).orElse("").toString().contains("b") ? "b" : "c";
+
+                    @GraphNode(next = StateGraph.END)
+                    final NodeAction b = state -> Map.of(KEY_RESULT, "b");
+
+                    @GraphNode(id = "nodeC", next = {"", StateGraph.END}, executor = "direct")
+                    final NodeAction c = state -> Map.of(KEY_RESULT, "c");
+
+                    @GraphCompileConfig
+                    final CompileConfig config = CompileConfig.builder().build();
+
+                }
+                """);
+
+        assertThat(result.success()).as(result.errors()).isTrue();
+        assertThat(result.classes().resolve("com/example/DemoComposerGraphDefinition.java")).exists();
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{result.classes().toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> composerClass = loader.loadClass("com.example.DemoComposer");
+            GeneratedGraphDefinition definition = (GeneratedGraphDefinition) loader
+                    .loadClass("com.example.DemoComposerGraphDefinition").getDeclaredConstructor().newInstance();
+
+            ComposerMetadata metadata = definition.metadata();
+            assertThat(metadata.composerType()).isEqualTo(composerClass);
+            assertThat(metadata.keys()).extracting(ComposerMetadata.KeyMetadata::key).containsExactly("query", "logs", "result", "document");
+            assertThat(metadata.keys().get(1).strategy()).isEqualTo(AppendStrategy.class);
+            assertThat(metadata.keys().get(1).maxEntries()).isEqualTo(10);
+            assertThat(metadata.keys().get(1).overflow()).isEqualTo(GraphKey.Overflow.DROP_OLDEST);
+            assertThat(metadata.keys().get(1).overflowHook()).isEqualTo(AppendOverflowHook.class);
+            assertThat(metadata.keys()).extracting(ComposerMetadata.KeyMetadata::offload).containsExactly(false, false, false, true);
+            assertThat(metadata.nodes()).extracting(ComposerMetadata.NodeMetadata::nodeId).containsExactly("b", "nodeC");
+            assertThat(metadata.nodes().get(1).next()).containsExactly("__END__");
+            assertThat(metadata.nodes()).extracting(ComposerMetadata.NodeMetadata::executor).containsExactly(null, "direct");
+            assertThat(metadata.edges().get(0).routes()).containsEntry("b", "b").containsEntry("c", "nodeC");
+            assertThat(metadata.compileConfig()).isNotNull();
+
+            Object composer = composerClass.getDeclaredConstructor().newInstance();
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            beanFactory.registerSingleton("direct", (Executor) Runnable::run);
+            CompiledGraph graph = new GeneratedGraphCompiler(beanFactory).compile(composer);
+
+            OverAllState state = graph.invoke(Map.of("query", "a-b")).orElseThrow();
+            assertThat(state.value("result").orElseThrow()).isEqualTo("b");
+
+            state = graph.invoke(Map.of("query", "a")).orElseThrow();
+            assertThat(state.value("result").orElseThrow()).isEqualTo("c");
+        }
+    }
+
+    @Test
+    @DisplayName("Should generate the timeout and the policies of nodes, including default attributes")
+    void shouldGenerateNodePolicies() throws Exception {
+        Result result = compile("com.example.PolicyComposer", """
+                package com.example;
+
+                import cn.teacy.ai.annotation.*;
+                import com.alibaba.cloud.ai.graph.StateGraph;
+                import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+                import java.util.Map;
+
+                @GraphComposer
+                public class PolicyComposer {
+
+                    @GraphKey
+                    static final String KEY_PROMPT = "prompt";
+
+                    @NodeConcurrency(maxConcurrent = 2)
+                    @NodeCache(keys = KEY_PROMPT, ttl = "1m", maxBytes = "1MB")
+                    @Coalesce(keys = KEY_PROMPT)
+                    @GraphNode(isStart = true, next = StateGraph.END, timeout = "2s", timeoutErrorKey = "error")
+                    final NodeAction answer = state -> Map.of();
+
+                    @GraphNode(next = StateGraph.END)
+                    final NodeAction plain = state -> Map.of();
+
+                }
+                """);
+
+        assertThat(result.success()).as(result.errors()).isTrue();
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{result.classes().toUri().toURL()}, getClass().getClassLoader())) {
+            GeneratedGraphDefinition definition = (GeneratedGraphDefinition) loader
+                    .loadClass("com.example.PolicyComposerGraphDefinition").getDeclaredConstructor().newInstance();
+
+            ComposerMetadata.NodePolicies policies = definition.metadata().nodes().get(0).policies();
+            assertThat(policies.timeout()).isEqualTo("2s");
+            assertThat(policies.timeoutFallback()).isNull();
+            assertThat(policies.timeoutErrorKey()).isEqualTo("error");
+            assertThat(policies.concurrency()).isEqualTo(new ComposerMetadata.NodePolicies.ConcurrencyPolicy(2, 0, ""));
+            assertThat(policies.cache()).isEqualTo(new ComposerMetadata.NodePolicies.CachePolicy(List.of("prompt"), 1000, "1m", "1MB"));
+            assertThat(policies.coalesce()).isEqualTo(new ComposerMetadata.NodePolicies.CoalescePolicy(List.of("prompt")));
+            assertThat(policies.hedge()).isNull();
+            assertThat(policies.batch()).isNull();
+            assertThat(policies.parallelBranches()).isNull();
+            assertThat(definition.metadata().nodes().get(1).policies()).isSameAs(ComposerMetadata.NodePolicies.NONE);
+        }
+    }
+
+    @Test
+    @DisplayName("Should list concrete composers in the composer index")
+    void shouldWriteComposerIndex() throws Exception {
+        Result result = compile("com.example.IndexedOuter", """
+                package com.example;
+
+                import cn.teacy.ai.annotation.*;
+
+                public class IndexedOuter {
+
+                    @GraphComposer
+                    public static class StaticComposer {}
+
+                    @GraphComposer
+                    public class InnerComposer {}
+
+                    @GraphComposer
+                    public abstract static class AbstractComposer {}
+
+                }
+                """);
+
+        assertThat(result.success()).as(result.errors()).isTrue();
+        assertThat(Files.readAllLines(result.classes().resolve(GraphComposerProcessor.INDEX_LOCATION)))
+                .filteredOn(line -> !line.startsWith("#"))
+                .containsExactly("com.example.IndexedOuter$StaticComposer");
+    }
+
+    @Test
+    @DisplayName("Should flatten nested composer names")
+    void shouldFlattenNestedComposerName() throws Exception {
+        Result result = compile("com.example.Outer", """
+                package com.example;
+
+                import cn.teacy.ai.annotation.*;
+                import com.alibaba.cloud.ai.graph.StateGraph;
+                import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+                import java.util.Map;
+
+                public class Outer {
+
+                    @GraphComposer
+                    static class Inner {
+                        @GraphNode(isStart = true, next = StateGraph.END)
+                        final NodeAction only = state -> Map.of();
+                    }
+
+                }
+                """);
+
+        assertThat(result.success()).as(result.errors()).isTrue();
+        assertThat(result.classes().resolve("com/example/Outer_InnerGraphDefinition.class")).exists();
+    }
+
+    @Test
+    @DisplayName("Should fall back to reflection when a field is private")
+    void shouldSkipPrivateFields() throws Exception {
+        Result result = compile("com.example.PrivateComposer", """
+                package com.example;
+
+                import cn.teacy.ai.annotation.*;
+                import com.alibaba.cloud.ai.graph.StateGraph;
+                import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+                import java.util.Map;
+
+                @GraphComposer
+                public class PrivateComposer {
+                    @GraphNode(isStart = true, next = StateGraph.END)
+                    private final NodeAction only = state -> Map.of();
+                }
+                """);
+
+        assertThat(result.success()).as(result.errors()).isTrue();
+        assertThat(result.notes()).contains("field 'only' is not accessible");
+        assertThat(result.classes().resolve("com/example/PrivateComposerGraphDefinition.class")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Should report a non-static @GraphKey field as a compile error")
+    void shouldRejectNonStaticKey() throws Exception {
+        Result result = compile("com.example.BadKeyComposer", """
+                package com.example;
+
+                import cn.teacy.ai.annotation.*;
+
+                @GraphComposer
+                public class BadKeyComposer {
+                    @GraphKey
+                    final String key = "key";
+                }
+                """);
+
+        assertThat(result.success()).isFalse();
+        assertThat(result.errors()).contains("Field 'key' must be 'static'");
+    }
+
+    @Test
+    @DisplayName("Should report duplicate graph keys as a compile error")
+    void shouldRejectDuplicateKeys() throws Exception {
+        Result result = compile("com.example.DuplicateKeyComposer", """
+                package com.example;
+
+                import cn.teacy.ai.annotation.*;
+
+                @GraphComposer
+                public class DuplicateKeyComposer {
+                    @GraphKey
+                    static final String KEY_A = "same";
+
+                    @GraphKey
+                    static final String KEY_B = "same";
+                }
+                """);
+
+        assertThat(result.success()).isFalse();
+        assertThat(result.errors()).contains("Duplicate Graph Key: same");
+    }
+
+    @Test
+    @DisplayName("Should report malformed conditional edge mappings as a compile error")
+    void shouldRejectMalformedMappings() throws Exception {
+        Result result = compile("com.example.BadEdgeComposer", """
+                package com.example;
+
+                import cn.teacy.ai.annotation.*;
+                import com.alibaba.cloud.ai.graph.action.EdgeAction;
+
+                @GraphComposer
+                public class BadEdgeComposer {
+                    @ConditionalEdge(source = "a", mappings = {"x", "y", "z"})
+                    final EdgeAction odd = state -> "x";
+
+                    @ConditionalEdge(source = "a")
+                    final EdgeAction empty = state -> "x";
+                }
+                """);
+
+        assertThat(result.success()).isFalse();
+        assertThat(result.errors())
+                .contains("Mappings must be pairs in field: odd")
+                .contains("Either mappings or routes must be provided in field: empty");
+    }
+
+}
@@ -45,6 +45,7 @@ public class BootGraphAutoRegistrar extends GraphAutoRegistrar implements BeanFa
 
     @Override
     public void setEnvironment(@Nonnull Environment environment) {
+        super.setEnvironment(environment);
         this.environment = environment;
     }
 
@@ -53,6 +54,18 @@ public class BootGraphAutoRegistrar extends GraphAutoRegistrar implements BeanFa
         // pass here to disable default compiler registration
     }
 
+    @Override
+    protected boolean isLazyCompileByDefault() {
+        if (this.environment == null) {
+            return false;
+        }
+
+        Binder binder = Binder.get(this.environment);
+        // dev mode swaps graphs behind lazy handles
+        return binder.bind("spring.ai.graph-composer.lazy-compile", Bindable.of(Boolean.class)).orElse(false)
+                || binder.bind("spring.ai.graph-composer.dev.enabled", Bindable.of(Boolean.class)).orElse(false);
+    }
+
     @Override
     protected Collection<String> resolveEmptyBasePackage(AnnotationMetadata importingClassMetadata) {
         if (this.environment != null) {
@@ -1,16 +1,32 @@
 package cn.teacy.ai.autoconfigure;
 
+import cn.teacy.ai.autoconfigure.dev.ComposerClassWatcher;
+import cn.teacy.ai.autoconfigure.metrics.MicrometerGraphActionDecorator;
+import cn.teacy.ai.autoconfigure.metrics.MicrometerGraphCompileListener;
+import cn.teacy.ai.autoconfigure.metrics.MicrometerNodePolicyListener;
+import cn.teacy.ai.autoconfigure.observation.ObservationGraphActionDecorator;
+import cn.teacy.ai.core.GeneratedGraphCompiler;
 import cn.teacy.ai.core.GraphCompiler;
-import cn.teacy.ai.core.SpringReflectiveGraphCompiler;
+import cn.teacy.ai.core.ParallelGraphCompiler;
+import cn.teacy.ai.support.BlobStore;
 import cn.teacy.ai.support.GraphComposerMarker;
+import cn.teacy.ai.support.GraphHotSwapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.system.JavaVersion;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 
 import static cn.teacy.ai.constants.ComposerConfigConstants.GRAPH_COMPILER_BEAN_NAME;
 
@@ -20,10 +36,106 @@ import static cn.teacy.ai.constants.ComposerConfigConstants.GRAPH_COMPILER_BEAN_
 @ConditionalOnProperty(prefix = "spring.ai.graph-composer", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class SaaGraphComposerAutoConfiguration {
 
+    private static final Logger log = LoggerFactory.getLogger(SaaGraphComposerAutoConfiguration.class);
+
+    static final String VIRTUAL_THREAD_NAME_PREFIX = "graph-node-";
+
     @Bean(GRAPH_COMPILER_BEAN_NAME)
     @ConditionalOnMissingBean(name = GRAPH_COMPILER_BEAN_NAME)
-    public GraphCompiler graphCompiler(ConfigurableListableBeanFactory beanFactory) {
-        return new SpringReflectiveGraphCompiler(beanFactory);
+    public GraphCompiler graphCompiler(ConfigurableListableBeanFactory beanFactory, SaaGraphComposerProperties properties,
+                                       ObjectProvider<BlobStore> blobStore) {
+        GeneratedGraphCompiler compiler = new GeneratedGraphCompiler(beanFactory);
+
+        if (properties.getExecution().getMode() == SaaGraphComposerProperties.Execution.Mode.VIRTUAL) {
+            if (JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+                compiler.setDefaultExecutor(new VirtualThreadTaskExecutor(VIRTUAL_THREAD_NAME_PREFIX));
+            } else {
+                log.warn("Virtual thread execution requires JDK 21 or later, running synchronous graph nodes on the calling thread on JDK {}.",
+                        JavaVersion.getJavaVersion());
+            }
+        }
+
+        SaaGraphComposerProperties.State state = properties.getState();
+        if (state.getMaxBytes() != null) {
+            compiler.setDefaultMaxStateBytes(state.getMaxBytes().toBytes());
+        }
+        compiler.setStateSampleInterval(state.getSampleInterval());
+        blobStore.ifAvailable(compiler::setBlobStore);
+
+        int parallelism = properties.getCompile().getParallelism();
+        return parallelism > 1
+                ? new ParallelGraphCompiler(compiler, beanFactory, parallelism)
+                : compiler;
+    }
+
+    /**
+     * The store of offloaded state values, whose segment files are only created once a value is stored.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public BlobStore graphBlobStore(SaaGraphComposerProperties properties) {
+        SaaGraphComposerProperties.Offload offload = properties.getOffload();
+        return new BlobStore(offload.getDirectory(), Math.toIntExact(offload.getSegmentSize().toBytes()));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class MetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public MicrometerGraphCompileListener micrometerGraphCompileListener(ObjectProvider<MeterRegistry> meterRegistry) {
+            return new MicrometerGraphCompileListener(meterRegistry);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public MicrometerNodePolicyListener micrometerNodePolicyListener(ObjectProvider<MeterRegistry> meterRegistry) {
+            return new MicrometerNodePolicyListener(meterRegistry);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(prefix = "spring.ai.graph-composer.metrics", name = "enabled", havingValue = "true")
+        public MicrometerGraphActionDecorator micrometerGraphActionDecorator(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                             SaaGraphComposerProperties properties) {
+            return new MicrometerGraphActionDecorator(meterRegistry, properties.getMetrics().isHistogram());
+        }
+
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.observation.ObservationRegistry")
+    @ConditionalOnProperty(prefix = "spring.ai.graph-composer.tracing", name = "enabled", havingValue = "true")
+    static class TracingConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ObservationGraphActionDecorator observationGraphActionDecorator(ObjectProvider<ObservationRegistry> observationRegistry) {
+            return new ObservationGraphActionDecorator(observationRegistry);
+        }
+
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "spring.ai.graph-composer.dev", name = "enabled", havingValue = "true")
+    static class DevConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public GraphHotSwapper graphHotSwapper(ConfigurableListableBeanFactory beanFactory) {
+            return new GraphHotSwapper(beanFactory);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ComposerClassWatcher composerClassWatcher(ConfigurableListableBeanFactory beanFactory,
+                                                         GraphHotSwapper graphHotSwapper,
+                                                         SaaGraphComposerProperties properties) {
+            return new ComposerClassWatcher(beanFactory, graphHotSwapper, properties.getDev().getPollInterval(),
+                    properties.getDev().getQuietPeriod());
+        }
+
     }
 
     @Configuration(proxyBeanMethods = false)
@@ -1,8 +1,12 @@
 package cn.teacy.ai.autoconfigure;
 
 
+import cn.teacy.ai.support.BlobStore;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -38,6 +42,65 @@ public class SaaGraphComposerProperties {
      */
     private List<String> basePackages = new ArrayList<>();
 
+    /**
+     * Whether to register every auto-compiled graph as a lazy {@code CompiledGraph} handle, compiled on
+     * first use instead of at startup, as if all composers declared {@code @GraphComposer(lazy = true)}.
+     * <p>
+     * Defaults to {@code false}.
+     *
+     * @since 0.4.0
+     */
+    private boolean lazyCompile = false;
+
+    /**
+     * Compilation settings of the auto-registered {@code CompiledGraph} beans.
+     *
+     * @since 0.4.0
+     */
+    private final Compile compile = new Compile();
+
+    /**
+     * Execution settings of the graph nodes.
+     *
+     * @since 0.4.0
+     */
+    private final Execution execution = new Execution();
+
+    /**
+     * State size accounting of the graph runs.
+     *
+     * @since 0.4.0
+     */
+    private final State state = new State();
+
+    /**
+     * The store of the state values offloaded by {@code @GraphKey(offload = true)}.
+     *
+     * @since 0.4.0
+     */
+    private final Offload offload = new Offload();
+
+    /**
+     * Development mode settings.
+     *
+     * @since 0.4.0
+     */
+    private final Dev dev = new Dev();
+
+    /**
+     * Metrics of the graph executions.
+     *
+     * @since 0.4.0
+     */
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * Tracing of the graph executions.
+     *
+     * @since 0.4.0
+     */
+    private final Tracing tracing = new Tracing();
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -62,4 +125,270 @@ public class SaaGraphComposerProperties {
         this.basePackages = basePackages;
     }
 
+    public boolean isLazyCompile() {
+        return lazyCompile;
+    }
+
+    public void setLazyCompile(boolean lazyCompile) {
+        this.lazyCompile = lazyCompile;
+    }
+
+    public Compile getCompile() {
+        return compile;
+    }
+
+    public Execution getExecution() {
+        return execution;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Offload getOffload() {
+        return offload;
+    }
+
+    public Dev getDev() {
+        return dev;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public Tracing getTracing() {
+        return tracing;
+    }
+
+    public static class Compile {
+
+        /**
+         * Number of threads used to compile the graphs in parallel during startup.
+         * <p>
+         * Graphs are compiled one after another when set to {@code 1} or less. Defaults to {@code 1}.
+         *
+         * @see cn.teacy.ai.core.ParallelGraphCompiler
+         */
+        private int parallelism = 1;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+    }
+
+    public static class Execution {
+
+        /**
+         * Where synchronous node actions without an executor of their own run.
+         * <p>
+         * Defaults to {@link Mode#CALLER}.
+         */
+        private Mode mode = Mode.CALLER;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public enum Mode {
+
+            /**
+             * On the thread driving the graph.
+             */
+            CALLER,
+
+            /**
+             * On a new virtual thread per execution. Requires JDK 21 or later, falls back to
+             * {@link #CALLER} on older runtimes.
+             */
+            VIRTUAL
+
+        }
+
+    }
+
+    public static class State {
+
+        /**
+         * The maximum estimated size of the state of a run of every graph that declares no
+         * {@code @GraphComposer(maxStateBytes)} of its own, e.g. {@code 16MB}.
+         * <p>
+         * Not set by default, i.e. no limit.
+         *
+         * @see cn.teacy.ai.support.StateSizeMonitor
+         */
+        private DataSize maxBytes;
+
+        /**
+         * How many node executions pass between two measurements of the state size of graphs
+         * without a budget, published as metrics.
+         * <p>
+         * Defaults to {@code 0}, i.e. only the state of graphs with a budget is measured.
+         */
+        private int sampleInterval = 0;
+
+        public DataSize getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(DataSize maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public int getSampleInterval() {
+            return sampleInterval;
+        }
+
+        public void setSampleInterval(int sampleInterval) {
+            this.sampleInterval = sampleInterval;
+        }
+
+    }
+
+    public static class Offload {
+
+        /**
+         * The directory of the memory-mapped segment files, created only accessible to its owner if missing.
+         * <p>
+         * Not set by default, i.e. a new temporary directory, deleted on shutdown.
+         */
+        private Path directory;
+
+        /**
+         * The size of a segment file. Values larger than that get a segment of their own.
+         */
+        private DataSize segmentSize = DataSize.ofBytes(BlobStore.DEFAULT_SEGMENT_BYTES);
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+    }
+
+    public static class Dev {
+
+        /**
+         * Whether to swap in recompiled graphs when composer classes change, e.g. after a JVM hot swap.
+         * <p>
+         * Implies {@code lazy-compile}, so that every graph bean is a stable handle. Defaults to {@code false}.
+         *
+         * @see cn.teacy.ai.support.GraphHotSwapper
+         */
+        private boolean enabled = false;
+
+        /**
+         * How often the class files of the composers are checked for changes. Defaults to 1 second.
+         */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /**
+         * How long a changed class file must be left unchanged before its graphs are swapped, so that
+         * the JVM has redefined the class in the meantime. Defaults to 400 milliseconds.
+         */
+        private Duration quietPeriod = Duration.ofMillis(400);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public Duration getQuietPeriod() {
+            return quietPeriod;
+        }
+
+        public void setQuietPeriod(Duration quietPeriod) {
+            this.quietPeriod = quietPeriod;
+        }
+
+    }
+
+    public static class Metrics {
+
+        /**
+         * Whether to time every node and conditional edge action, and count the routing decisions,
+         * in the {@code MeterRegistry} of the application.
+         * <p>
+         * Defaults to {@code false}.
+         *
+         * @see cn.teacy.ai.autoconfigure.metrics.MicrometerGraphActionDecorator
+         */
+        private boolean enabled = false;
+
+        /**
+         * Whether the node and edge timers publish a percentile histogram. Defaults to {@code true}.
+         */
+        private boolean histogram = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isHistogram() {
+            return histogram;
+        }
+
+        public void setHistogram(boolean histogram) {
+            this.histogram = histogram;
+        }
+
+    }
+
+    public static class Tracing {
+
+        /**
+         * Whether to record an observation for every graph run and every node execution in the
+         * {@code ObservationRegistry} of the application.
+         * <p>
+         * Defaults to {@code false}.
+         *
+         * @see cn.teacy.ai.autoconfigure.observation.ObservationGraphActionDecorator
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+    }
+
 }
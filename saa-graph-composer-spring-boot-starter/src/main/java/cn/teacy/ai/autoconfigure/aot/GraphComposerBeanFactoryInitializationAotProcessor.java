@@ -0,0 +1,193 @@
+package cn.teacy.ai.autoconfigure.aot;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.ParallelBranches;
+import cn.teacy.ai.core.GeneratedGraphCompiler;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.interfaces.AppendOverflowHook;
+import cn.teacy.ai.strategy.DoubleMax;
+import cn.teacy.ai.strategy.Histogram;
+import cn.teacy.ai.strategy.HistogramStrategy;
+import cn.teacy.ai.strategy.LongSum;
+import cn.teacy.ai.strategy.MaxDoubleStrategy;
+import cn.teacy.ai.strategy.PersistentAppendStrategy;
+import cn.teacy.ai.strategy.PersistentHashMap;
+import cn.teacy.ai.strategy.PersistentMergeStrategy;
+import cn.teacy.ai.strategy.PersistentVector;
+import cn.teacy.ai.strategy.SumLongStrategy;
+import cn.teacy.ai.support.BlobRef;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import jakarta.annotation.Nullable;
+import org.springframework.aot.generate.GenerationContext;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.ReflectionHints;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationCode;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static cn.teacy.ai.constants.ComposerConfigConstants.COMPOSER_INDEX_LOCATION;
+import static cn.teacy.ai.constants.ComposerConfigConstants.GRAPH_COMPILER_BEAN_NAME;
+
+/**
+ * Registers the {@link RuntimeHints} needed to compile the {@code @GraphComposer} beans of the
+ * application in a native image.
+ * <p>
+ * The {@code CompiledGraph} bean definitions registered by the graph registrar are generated ahead
+ * of time like any other bean definition, so no classpath scanning happens at runtime. Compiling a
+ * composer still reads its fields, either reflectively or through a generated definition; this
+ * processor exposes every composer field, the generated definitions, the custom key strategies,
+ * the overflow hooks and the compiler hierarchy to reflection, as well as the node factories of
+ * compiled graphs if a composer declares {@code @ParallelBranches}. The state values of the
+ * predefined strategies and the handles of offloaded keys are registered for serialization, since
+ * checkpoints and state snapshots serialize them.
+ *
+ * @since 0.4.0
+ */
+public class GraphComposerBeanFactoryInitializationAotProcessor implements BeanFactoryInitializationAotProcessor {
+
+    private static final String JDK_VALUE_SERIALIZER = "cn.teacy.ai.strategy.JdkValueSerializer";
+
+    /**
+     * The types serialized with the state values of the predefined strategies, including their
+     * serialization proxies.
+     */
+    private static final Map<Class<? extends KeyStrategy>, List<TypeReference>> STATE_VALUE_TYPES = stateValueTypes();
+
+    @Nullable
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+        Set<Class<?>> composerTypes = new LinkedHashSet<>();
+
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Class<?> beanType = beanFactory.getType(beanName, false);
+            if (beanType != null) {
+                Class<?> userType = ClassUtils.getUserClass(beanType);
+                if (AnnotatedElementUtils.hasAnnotation(userType, GraphComposer.class)) {
+                    composerTypes.add(userType);
+                }
+            }
+        }
+
+        if (composerTypes.isEmpty()) {
+            return null;
+        }
+
+        Class<?> compilerType = beanFactory.containsBean(GRAPH_COMPILER_BEAN_NAME)
+                ? beanFactory.getType(GRAPH_COMPILER_BEAN_NAME, false)
+                : null;
+
+        return new GraphComposerHintsContribution(composerTypes, compilerType);
+    }
+
+    private static Map<Class<? extends KeyStrategy>, List<TypeReference>> stateValueTypes() {
+        Map<Class<? extends KeyStrategy>, List<TypeReference>> types = new LinkedHashMap<>();
+        types.put(SumLongStrategy.class, List.of(TypeReference.of(LongSum.class), TypeReference.of(Long.class)));
+        types.put(MaxDoubleStrategy.class, List.of(TypeReference.of(DoubleMax.class), TypeReference.of(Double.class)));
+        types.put(HistogramStrategy.class, List.of(TypeReference.of(Histogram.class), TypeReference.of(AtomicLongArray.class),
+                TypeReference.of(AtomicLong.class), TypeReference.of(long[].class)));
+        types.put(PersistentAppendStrategy.class, List.of(TypeReference.of(PersistentVector.class),
+                TypeReference.of(PersistentVector.class.getName() + "$SerializedForm"), TypeReference.of(Object[].class)));
+        types.put(PersistentMergeStrategy.class, List.of(TypeReference.of(PersistentHashMap.class),
+                TypeReference.of(PersistentHashMap.class.getName() + "$SerializedForm"), TypeReference.of(Object[].class)));
+        return types;
+    }
+
+    private record GraphComposerHintsContribution(Set<Class<?>> composerTypes, @Nullable Class<?> compilerType)
+            implements BeanFactoryInitializationAotContribution {
+
+        @Override
+        public void applyTo(GenerationContext generationContext, BeanFactoryInitializationCode beanFactoryInitializationCode) {
+            RuntimeHints hints = generationContext.getRuntimeHints();
+            ReflectionHints reflection = hints.reflection();
+
+            hints.resources().registerPattern(COMPOSER_INDEX_LOCATION);
+
+            boolean parallelBranches = false;
+            for (Class<?> composerType : composerTypes) {
+                parallelBranches |= registerComposerHints(hints, composerType);
+            }
+
+            if (parallelBranches) {
+                Field nodeFactories = ReflectionUtils.findField(CompiledGraph.class, ReflectiveGraphCompiler.NODE_FACTORIES_FIELD);
+                if (nodeFactories != null) {
+                    reflection.registerField(nodeFactories);
+                }
+            }
+
+            // the compiler checks whether its field based hooks are overridden
+            for (Class<?> type = compilerType; type != null && type != Object.class; type = type.getSuperclass()) {
+                reflection.registerType(type, MemberCategory.INTROSPECT_DECLARED_METHODS);
+            }
+        }
+
+        /**
+         * @return whether the composer declares {@code @ParallelBranches}
+         */
+        private boolean registerComposerHints(RuntimeHints hints, Class<?> composerType) {
+            ReflectionHints reflection = hints.reflection();
+            for (Class<?> type = composerType; type != null && type != Object.class; type = type.getSuperclass()) {
+                reflection.registerType(type, MemberCategory.DECLARED_FIELDS, MemberCategory.INTROSPECT_DECLARED_CONSTRUCTORS);
+            }
+
+            boolean[] parallelBranches = new boolean[1];
+            ReflectionUtils.doWithFields(composerType, field -> {
+                reflection.registerField(field);
+                parallelBranches[0] |= AnnotatedElementUtils.hasAnnotation(field, ParallelBranches.class);
+
+                GraphKey graphKey = field.getAnnotation(GraphKey.class);
+                if (graphKey != null) {
+                    reflection.registerType(graphKey.strategy(), MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+                    if (graphKey.overflowHook() != AppendOverflowHook.class) {
+                        reflection.registerType(graphKey.overflowHook(), MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+                    }
+                    registerStateValueHints(hints, graphKey);
+                }
+            }, field -> field.getDeclaredAnnotations().length > 0);
+
+            String definitionClassName = GeneratedGraphCompiler.definitionClassName(composerType);
+            if (ClassUtils.isPresent(definitionClassName, composerType.getClassLoader())) {
+                reflection.registerType(TypeReference.of(definitionClassName), MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            }
+            return parallelBranches[0];
+        }
+
+        private void registerStateValueHints(RuntimeHints hints, GraphKey graphKey) {
+            STATE_VALUE_TYPES.forEach((strategyType, valueTypes) -> {
+                if (strategyType.isAssignableFrom(graphKey.strategy())) {
+                    for (TypeReference valueType : valueTypes) {
+                        hints.serialization().registerType(valueType);
+                        // Jackson reads the serializer from the annotations of the value types
+                        hints.reflection().registerType(valueType);
+                    }
+                    hints.reflection().registerType(TypeReference.of(JDK_VALUE_SERIALIZER),
+                            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+                }
+            });
+
+            if (graphKey.offload()) {
+                // handles are written by Jackson from their fields and restored by their creator method
+                hints.reflection().registerType(BlobRef.class, MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_DECLARED_METHODS);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,30 @@
+package cn.teacy.ai.autoconfigure.aot;
+
+import cn.teacy.ai.support.LazyCompiledGraphFactoryBean;
+import jakarta.annotation.Nullable;
+import org.springframework.beans.factory.aot.BeanRegistrationAotContribution;
+import org.springframework.beans.factory.aot.BeanRegistrationAotProcessor;
+import org.springframework.beans.factory.support.RegisteredBean;
+
+/**
+ * Generates the proxy class of the lazy {@code CompiledGraph} handles ahead of time.
+ * <p>
+ * Class based proxies cannot be defined at runtime in a native image. Creating the proxy class
+ * while the application is processed ahead of time lets Spring capture it with the generated code,
+ * and the handles load it instead of generating it on first use.
+ *
+ * @since 0.4.0
+ * @see LazyCompiledGraphFactoryBean
+ */
+public class LazyCompiledGraphBeanRegistrationAotProcessor implements BeanRegistrationAotProcessor {
+
+    @Nullable
+    @Override
+    public BeanRegistrationAotContribution processAheadOfTime(RegisteredBean registeredBean) {
+        if (LazyCompiledGraphFactoryBean.class.isAssignableFrom(registeredBean.getBeanClass())) {
+            LazyCompiledGraphFactoryBean.getProxyClass(registeredBean.getBeanFactory().getBeanClassLoader());
+        }
+        return null;
+    }
+
+}
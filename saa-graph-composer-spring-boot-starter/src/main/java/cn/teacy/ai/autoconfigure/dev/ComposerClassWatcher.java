@@ -0,0 +1,167 @@
+package cn.teacy.ai.autoconfigure.dev;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.support.GraphHotSwapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ResourceUtils;
+
+import java.io.File;
+import java.net.URL;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the class files of the composers of the context and hands the changed classes to the
+ * {@link GraphHotSwapper}.
+ * <p>
+ * Only classes loaded from a directory are watched, which is the case for the classes of the
+ * project being developed. A changed class file only matters once the JVM has redefined the class,
+ * e.g. through the hot swap of a debugger, which happens some time after the compiler wrote the
+ * file. A change is therefore only handed over once the file has been left unchanged for a quiet
+ * period. Restarting tools such as devtools create a new context instead.
+ *
+ * @since 0.4.0
+ */
+public class ComposerClassWatcher implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ComposerClassWatcher.class);
+
+    private final ConfigurableListableBeanFactory beanFactory;
+
+    private final GraphHotSwapper hotSwapper;
+
+    private final Duration pollInterval;
+
+    private final Duration quietPeriod;
+
+    private final Map<Class<?>, File> classFiles = new LinkedHashMap<>();
+
+    private final Map<Class<?>, Long> lastModified = new HashMap<>();
+
+    /**
+     * The time of the last observed change of each changed class file that was not handed over yet.
+     */
+    private final Map<Class<?>, Long> pendingSince = new HashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    public ComposerClassWatcher(ConfigurableListableBeanFactory beanFactory, GraphHotSwapper hotSwapper, Duration pollInterval) {
+        this(beanFactory, hotSwapper, pollInterval, Duration.ZERO);
+    }
+
+    /**
+     * @param quietPeriod how long a changed class file must be left unchanged before its class is
+     *                    handed over, so that the JVM has redefined it
+     */
+    public ComposerClassWatcher(ConfigurableListableBeanFactory beanFactory, GraphHotSwapper hotSwapper,
+                                Duration pollInterval, Duration quietPeriod) {
+        this.beanFactory = beanFactory;
+        this.hotSwapper = hotSwapper;
+        this.pollInterval = pollInterval;
+        this.quietPeriod = quietPeriod;
+    }
+
+    @Override
+    public synchronized void start() {
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Class<?> beanType = beanFactory.getType(beanName, false);
+            if (beanType == null) {
+                continue;
+            }
+
+            Class<?> composerType = ClassUtils.getUserClass(beanType);
+            if (AnnotatedElementUtils.hasAnnotation(composerType, GraphComposer.class)) {
+                File classFile = findClassFile(composerType);
+                if (classFile != null) {
+                    classFiles.put(composerType, classFile);
+                    lastModified.put(composerType, classFile.lastModified());
+                }
+            }
+        }
+
+        if (classFiles.isEmpty()) {
+            log.info("No composer class loaded from a directory, graph hot swap is inactive.");
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "graph-composer-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long interval = Math.max(1, pollInterval.toMillis());
+        executor.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+
+        log.info("Watching {} composer class(es) for changes every {} ms.", classFiles.size(), interval);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        classFiles.clear();
+        lastModified.clear();
+        pendingSince.clear();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+
+    private void poll() {
+        List<Class<?>> changed = new ArrayList<>();
+
+        synchronized (this) {
+            long now = System.nanoTime();
+            classFiles.forEach((type, file) -> {
+                long modified = file.lastModified();
+                if (modified != lastModified.get(type)) {
+                    lastModified.put(type, modified);
+                    pendingSince.put(type, now);
+                }
+            });
+
+            pendingSince.entrySet().removeIf(pending -> {
+                if (now - pending.getValue() < quietPeriod.toNanos()) {
+                    return false;
+                }
+                changed.add(pending.getKey());
+                return true;
+            });
+        }
+
+        if (!changed.isEmpty()) {
+            try {
+                hotSwapper.refresh(changed);
+            } catch (RuntimeException e) {
+                log.error("Failed to swap the graphs of changed composers {}.", changed, e);
+            }
+        }
+    }
+
+    private static File findClassFile(Class<?> type) {
+        URL url = type.getResource(ClassUtils.getClassFileName(type));
+        if (url == null || !ResourceUtils.URL_PROTOCOL_FILE.equals(url.getProtocol())) {
+            return null;
+        }
+
+        try {
+            return ResourceUtils.getFile(url);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package cn.teacy.ai.autoconfigure.metrics;
+
+import cn.teacy.ai.interfaces.GraphActionDecorator;
+import cn.teacy.ai.metadata.EdgeDescriptor;
+import cn.teacy.ai.metadata.NodeDescriptor;
+import com.alibaba.cloud.ai.graph.action.AsyncCommandAction;
+import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import com.alibaba.cloud.ai.graph.action.Command;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every node and conditional edge action, and counts the routing decisions of the
+ * conditional edges.
+ * <p>
+ * Meters are registered when a graph is compiled, so recording only reads the clock twice and
+ * updates a pre-bound meter. Graphs compiled while no {@link MeterRegistry} is available are not
+ * instrumented.
+ *
+ * @since 0.4.0
+ */
+public class MicrometerGraphActionDecorator implements GraphActionDecorator {
+
+    public static final String NODE_METRIC_NAME = "graph.composer.node";
+
+    public static final String EDGE_METRIC_NAME = "graph.composer.edge";
+
+    public static final String ROUTE_METRIC_NAME = "graph.composer.route";
+
+    private static final String OUTCOME_SUCCESS = "success";
+
+    private static final String OUTCOME_FAILURE = "failure";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final boolean histogram;
+
+    public MicrometerGraphActionDecorator(ObjectProvider<MeterRegistry> meterRegistry, boolean histogram) {
+        this.meterRegistry = meterRegistry;
+        this.histogram = histogram;
+    }
+
+    @Override
+    public AsyncNodeActionWithConfig decorateNode(NodeDescriptor node, AsyncNodeActionWithConfig action) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return action;
+        }
+
+        Timer success = timer(registry, NODE_METRIC_NAME, "Execution time of graph node actions", node.graphId(), node.nodeId(), OUTCOME_SUCCESS);
+        Timer failure = timer(registry, NODE_METRIC_NAME, "Execution time of graph node actions", node.graphId(), node.nodeId(), OUTCOME_FAILURE);
+
+        return (state, config) -> {
+            long startTime = System.nanoTime();
+            CompletableFuture<Map<String, Object>> result;
+            try {
+                result = action.apply(state, config);
+            } catch (RuntimeException | Error e) {
+                failure.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+
+            result.whenComplete((update, e) ->
+                    (e == null ? success : failure).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS));
+            return result;
+        };
+    }
+
+    @Override
+    public AsyncCommandAction decorateEdge(EdgeDescriptor edge, AsyncCommandAction action) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return action;
+        }
+
+        Timer success = timer(registry, EDGE_METRIC_NAME, "Execution time of graph conditional edge actions", edge.graphId(), edge.sourceNodeId(), OUTCOME_SUCCESS);
+        Timer failure = timer(registry, EDGE_METRIC_NAME, "Execution time of graph conditional edge actions", edge.graphId(), edge.sourceNodeId(), OUTCOME_FAILURE);
+
+        Map<String, Counter> routes = new ConcurrentHashMap<>();
+        for (String route : edge.routes().keySet()) {
+            routes.put(route, routeCounter(registry, edge, route));
+        }
+
+        return (state, config) -> {
+            long startTime = System.nanoTime();
+            CompletableFuture<Command> result;
+            try {
+                result = action.apply(state, config);
+            } catch (RuntimeException | Error e) {
+                failure.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+
+            result.whenComplete((command, e) -> {
+                (e == null ? success : failure).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+                if (command != null && command.gotoNode() != null) {
+                    routes.computeIfAbsent(command.gotoNode(), route -> routeCounter(registry, edge, route)).increment();
+                }
+            });
+            return result;
+        };
+    }
+
+    private Timer timer(MeterRegistry registry, String name, String description, String graphId, String nodeId, String outcome) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("graph", graphId)
+                .tag("node", nodeId)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram(histogram)
+                .register(registry);
+    }
+
+    private static Counter routeCounter(MeterRegistry registry, EdgeDescriptor edge, String route) {
+        return Counter.builder(ROUTE_METRIC_NAME)
+                .description("Routing decisions of graph conditional edges")
+                .tag("graph", edge.graphId())
+                .tag("node", edge.sourceNodeId())
+                .tag("route", route)
+                .register(registry);
+    }
+
+}
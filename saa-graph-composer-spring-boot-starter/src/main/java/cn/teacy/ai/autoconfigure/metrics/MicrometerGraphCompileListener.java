@@ -0,0 +1,44 @@
+package cn.teacy.ai.autoconfigure.metrics;
+
+import cn.teacy.ai.interfaces.GraphCompileListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Records each compile phase in the {@value #METRIC_NAME} timer, tagged with the graph id, the
+ * phase and the outcome.
+ * <p>
+ * The registry is looked up when a phase starts, so graphs compiled before any
+ * {@link MeterRegistry} is available are not recorded.
+ *
+ * @since 0.4.0
+ */
+public class MicrometerGraphCompileListener implements GraphCompileListener {
+
+    public static final String METRIC_NAME = "graph.composer.compile";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public MicrometerGraphCompileListener(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public PhaseScope onPhaseStart(String graphId, Class<?> composerType, Phase phase) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return PhaseScope.NOOP;
+        }
+
+        Timer.Sample sample = Timer.start(registry);
+
+        return failure -> sample.stop(Timer.builder(METRIC_NAME)
+                .description("Time spent in each phase of compiling a graph composer")
+                .tag("graph", graphId)
+                .tag("phase", phase.getValue())
+                .tag("outcome", failure == null ? "success" : "failure")
+                .register(registry));
+    }
+
+}
@@ -0,0 +1,419 @@
+package cn.teacy.ai.autoconfigure.metrics;
+
+import cn.teacy.ai.interfaces.NodePolicyListener;
+import cn.teacy.ai.metadata.GraphDescriptor;
+import cn.teacy.ai.metadata.NodeDescriptor;
+import cn.teacy.ai.support.NodeBatcher;
+import cn.teacy.ai.support.NodeBulkhead;
+import cn.teacy.ai.support.NodeCoalescer;
+import cn.teacy.ai.support.NodeHedger;
+import cn.teacy.ai.support.NodeResultCache;
+import cn.teacy.ai.support.ParallelBranchDispatcher;
+import cn.teacy.ai.support.StateSizeMonitor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the live state of the node bulkheads as the {@value #BULKHEAD_PERMITS_METRIC_NAME} and
+ * {@value #BULKHEAD_QUEUED_METRIC_NAME} gauges, the hits and misses of the node caches as the
+ * {@value #CACHE_REQUESTS_METRIC_NAME} counter, the hedged attempts of nodes as the
+ * {@value #HEDGE_ATTEMPTS_METRIC_NAME} counter, the coalesced executions of nodes as the
+ * {@value #COALESCE_REQUESTS_METRIC_NAME} counter, the fill ratio and queueing delay of node
+ * batches as the {@value #BATCH_FILL_METRIC_NAME} summary and the {@value #BATCH_QUEUEING_METRIC_NAME}
+ * timer, and the time parallel branches wait to start as the {@value #BRANCH_WAIT_METRIC_NAME}
+ * timer, all tagged with the graph and node id. The measured state sizes of graphs are published
+ * as the {@value #STATE_SIZE_METRIC_NAME} and {@value #STATE_KEY_SIZE_METRIC_NAME} summaries and the
+ * updates exceeding their budget as the {@value #STATE_BUDGET_EXCEEDED_METRIC_NAME} counter, tagged
+ * with the graph id.
+ * <p>
+ * The meters of a node follow the policies of its latest compilation, so they keep reporting after
+ * a graph is recompiled, and the counters keep the counts of the replaced policies. Graphs
+ * compiled while no {@link MeterRegistry} is available are not instrumented.
+ *
+ * @since 0.4.0
+ */
+public class MicrometerNodePolicyListener implements NodePolicyListener {
+
+    public static final String BULKHEAD_PERMITS_METRIC_NAME = "graph.composer.node.bulkhead.available";
+
+    public static final String BULKHEAD_QUEUED_METRIC_NAME = "graph.composer.node.bulkhead.queued";
+
+    public static final String CACHE_REQUESTS_METRIC_NAME = "graph.composer.node.cache.requests";
+
+    public static final String CACHE_EVICTIONS_METRIC_NAME = "graph.composer.node.cache.evictions";
+
+    public static final String CACHE_SIZE_METRIC_NAME = "graph.composer.node.cache.size";
+
+    public static final String HEDGE_ATTEMPTS_METRIC_NAME = "graph.composer.node.hedge.attempts";
+
+    public static final String HEDGE_WINS_METRIC_NAME = "graph.composer.node.hedge.wins";
+
+    public static final String HEDGE_DELAY_METRIC_NAME = "graph.composer.node.hedge.delay";
+
+    public static final String COALESCE_REQUESTS_METRIC_NAME = "graph.composer.node.coalesce.requests";
+
+    public static final String COALESCE_IN_FLIGHT_METRIC_NAME = "graph.composer.node.coalesce.inflight";
+
+    public static final String BATCH_FILL_METRIC_NAME = "graph.composer.node.batch.fill";
+
+    public static final String BATCH_QUEUEING_METRIC_NAME = "graph.composer.node.batch.queueing";
+
+    public static final String BRANCH_WAIT_METRIC_NAME = "graph.composer.node.branch.wait";
+
+    public static final String STATE_SIZE_METRIC_NAME = "graph.composer.state.size";
+
+    public static final String STATE_KEY_SIZE_METRIC_NAME = "graph.composer.state.key.size";
+
+    public static final String STATE_BUDGET_EXCEEDED_METRIC_NAME = "graph.composer.state.budget.exceeded";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<String, AtomicReference<NodeBulkhead>> bulkheads = new ConcurrentHashMap<>();
+
+    private final Map<String, CacheCounts> caches = new ConcurrentHashMap<>();
+
+    private final Map<String, HedgeCounts> hedgers = new ConcurrentHashMap<>();
+
+    private final Map<String, CoalesceCounts> coalescers = new ConcurrentHashMap<>();
+
+    private final Map<String, ExceededCounts> stateMonitors = new ConcurrentHashMap<>();
+
+    public MicrometerNodePolicyListener(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onBulkhead(NodeDescriptor node, NodeBulkhead bulkhead) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+
+        AtomicReference<NodeBulkhead> current = bulkheads.computeIfAbsent(node.graphId() + "/" + node.nodeId(), key -> {
+            AtomicReference<NodeBulkhead> holder = new AtomicReference<>();
+            gauge(registry, BULKHEAD_PERMITS_METRIC_NAME, "Permits available in the bulkhead of a graph node",
+                    node, holder, NodeBulkhead::getAvailablePermits);
+            gauge(registry, BULKHEAD_QUEUED_METRIC_NAME, "Executions waiting for a permit of the bulkhead of a graph node",
+                    node, holder, NodeBulkhead::getQueueDepth);
+            return holder;
+        });
+        current.set(bulkhead);
+    }
+
+    @Override
+    public void onCache(NodeDescriptor node, NodeResultCache cache) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+
+        caches.computeIfAbsent(node.graphId() + "/" + node.nodeId(), key -> {
+            CacheCounts counts = new CacheCounts();
+            counter(registry, CACHE_REQUESTS_METRIC_NAME, "Lookups in the result cache of a graph node",
+                    node, counts, CacheCounts::hits, "result", "hit");
+            counter(registry, CACHE_REQUESTS_METRIC_NAME, "Lookups in the result cache of a graph node",
+                    node, counts, CacheCounts::misses, "result", "miss");
+            counter(registry, CACHE_EVICTIONS_METRIC_NAME, "Outputs evicted from the result cache of a graph node",
+                    node, counts, CacheCounts::evictions);
+            Gauge.builder(CACHE_SIZE_METRIC_NAME, counts, CacheCounts::size)
+                    .description("Outputs held in the result cache of a graph node")
+                    .tag("graph", node.graphId())
+                    .tag("node", node.nodeId())
+                    .strongReference(true)
+                    .register(registry);
+            return counts;
+        }).replace(cache);
+    }
+
+    @Override
+    public void onHedge(NodeDescriptor node, NodeHedger hedger) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+
+        hedgers.computeIfAbsent(node.graphId() + "/" + node.nodeId(), key -> {
+            HedgeCounts counts = new HedgeCounts();
+            counter(registry, HEDGE_ATTEMPTS_METRIC_NAME, "Attempts started beyond the first one by the hedger of a graph node",
+                    node, counts, HedgeCounts::hedges);
+            counter(registry, HEDGE_WINS_METRIC_NAME, "Executions of a graph node won by a hedged attempt",
+                    node, counts, HedgeCounts::wins);
+            TimeGauge.builder(HEDGE_DELAY_METRIC_NAME, counts, TimeUnit.NANOSECONDS, HedgeCounts::delayNanos)
+                    .description("Current delay before the hedger of a graph node starts another attempt")
+                    .tag("graph", node.graphId())
+                    .tag("node", node.nodeId())
+                    .strongReference(true)
+                    .register(registry);
+            return counts;
+        }).replace(hedger);
+    }
+
+    @Override
+    public void onCoalesce(NodeDescriptor node, NodeCoalescer coalescer) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+
+        coalescers.computeIfAbsent(node.graphId() + "/" + node.nodeId(), key -> {
+            CoalesceCounts counts = new CoalesceCounts();
+            counter(registry, COALESCE_REQUESTS_METRIC_NAME, "Executions of a graph node, by whether they invoked the node or joined another",
+                    node, counts, CoalesceCounts::executions, "result", "executed");
+            counter(registry, COALESCE_REQUESTS_METRIC_NAME, "Executions of a graph node, by whether they invoked the node or joined another",
+                    node, counts, CoalesceCounts::joins, "result", "joined");
+            Gauge.builder(COALESCE_IN_FLIGHT_METRIC_NAME, counts, CoalesceCounts::inFlight)
+                    .description("Shared executions of a graph node currently in flight")
+                    .tag("graph", node.graphId())
+                    .tag("node", node.nodeId())
+                    .strongReference(true)
+                    .register(registry);
+            return counts;
+        }).replace(coalescer);
+    }
+
+    @Override
+    public void onBatcher(NodeDescriptor node, NodeBatcher batcher) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+
+        // registering returns the existing meters when the graph is recompiled
+        DistributionSummary fill = DistributionSummary.builder(BATCH_FILL_METRIC_NAME)
+                .description("Size of the batches of a graph node relative to their maximum size")
+                .tag("graph", node.graphId())
+                .tag("node", node.nodeId())
+                .register(registry);
+        Timer queueing = Timer.builder(BATCH_QUEUEING_METRIC_NAME)
+                .description("Time executions of a graph node waited for their batch")
+                .tag("graph", node.graphId())
+                .tag("node", node.nodeId())
+                .register(registry);
+
+        int maxBatchSize = batcher.getMaxBatchSize();
+        batcher.addObserver((size, queueingNanos) -> {
+            fill.record((double) size / maxBatchSize);
+            for (long nanos : queueingNanos) {
+                queueing.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    @Override
+    public void onParallelBranches(NodeDescriptor node, ParallelBranchDispatcher dispatcher) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+
+        Timer wait = Timer.builder(BRANCH_WAIT_METRIC_NAME)
+                .description("Time the parallel branches of a graph node waited for a thread after the fan-out")
+                .tag("graph", node.graphId())
+                .tag("node", node.nodeId())
+                .register(registry);
+        dispatcher.addObserver(waitNanos -> wait.record(waitNanos, TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void onStateSize(GraphDescriptor graph, StateSizeMonitor monitor) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+
+        // registering returns the existing meters when the graph is recompiled
+        DistributionSummary stateSize = DistributionSummary.builder(STATE_SIZE_METRIC_NAME)
+                .description("Estimated size of the state of a graph after its node actions")
+                .baseUnit("bytes")
+                .tag("graph", graph.graphId())
+                .register(registry);
+        Map<String, DistributionSummary> keySizes = new HashMap<>();
+        for (String key : monitor.getKeySizes().keySet()) {
+            keySizes.put(key, DistributionSummary.builder(STATE_KEY_SIZE_METRIC_NAME)
+                    .description("Estimated size of a state key of a graph after its node actions")
+                    .baseUnit("bytes")
+                    .tag("graph", graph.graphId())
+                    .tag("key", key)
+                    .register(registry));
+        }
+        stateMonitors.computeIfAbsent(graph.graphId(), key -> {
+            ExceededCounts counts = new ExceededCounts();
+            FunctionCounter.builder(STATE_BUDGET_EXCEEDED_METRIC_NAME, counts, ExceededCounts::exceeded)
+                    .description("Updates of a graph that exceeded the budget of its state size")
+                    .tag("graph", graph.graphId())
+                    .register(registry);
+            return counts;
+        }).replace(monitor);
+
+        monitor.addObserver((stateBytes, keyBytes) -> {
+            stateSize.record(stateBytes);
+            keyBytes.forEach((key, bytes) -> keySizes.get(key).record(bytes));
+        });
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, String description, NodeDescriptor node,
+                                    T counts, ToDoubleFunction<T> value, String... tags) {
+        FunctionCounter.builder(name, counts, value)
+                .description(description)
+                .tag("graph", node.graphId())
+                .tag("node", node.nodeId())
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static void gauge(MeterRegistry registry, String name, String description, NodeDescriptor node,
+                              AtomicReference<NodeBulkhead> holder, ToDoubleFunction<NodeBulkhead> value) {
+        Gauge.builder(name, holder, it -> {
+                    NodeBulkhead bulkhead = it.get();
+                    return bulkhead != null ? value.applyAsDouble(bulkhead) : Double.NaN;
+                })
+                .description(description)
+                .tag("graph", node.graphId())
+                .tag("node", node.nodeId())
+                .strongReference(true)
+                .register(registry);
+    }
+
+    /**
+     * The counts of the current cache of a node, plus those of the caches it replaced.
+     */
+    private static final class CacheCounts {
+
+        private NodeResultCache current;
+
+        private long retiredHits;
+
+        private long retiredMisses;
+
+        private long retiredEvictions;
+
+        synchronized void replace(NodeResultCache cache) {
+            if (current != null) {
+                retiredHits += current.getHitCount();
+                retiredMisses += current.getMissCount();
+                retiredEvictions += current.getEvictionCount();
+            }
+            current = cache;
+        }
+
+        synchronized double hits() {
+            return retiredHits + (current != null ? current.getHitCount() : 0);
+        }
+
+        synchronized double misses() {
+            return retiredMisses + (current != null ? current.getMissCount() : 0);
+        }
+
+        synchronized double evictions() {
+            return retiredEvictions + (current != null ? current.getEvictionCount() : 0);
+        }
+
+        synchronized double size() {
+            return current != null ? current.size() : 0;
+        }
+
+    }
+
+    /**
+     * The counts of the current hedger of a node, plus those of the hedgers it replaced.
+     */
+    private static final class HedgeCounts {
+
+        private NodeHedger current;
+
+        private long retiredHedges;
+
+        private long retiredWins;
+
+        synchronized void replace(NodeHedger hedger) {
+            if (current != null) {
+                retiredHedges += current.getHedgeCount();
+                retiredWins += current.getHedgeWinCount();
+            }
+            current = hedger;
+        }
+
+        synchronized double hedges() {
+            return retiredHedges + (current != null ? current.getHedgeCount() : 0);
+        }
+
+        synchronized double wins() {
+            return retiredWins + (current != null ? current.getHedgeWinCount() : 0);
+        }
+
+        synchronized double delayNanos() {
+            Duration delay = current != null ? current.getCurrentDelay() : null;
+            return delay != null ? delay.toNanos() : Double.NaN;
+        }
+
+    }
+
+    /**
+     * The exceeded budgets of the current state monitor of a graph, plus those of the monitors it replaced.
+     */
+    private static final class ExceededCounts {
+
+        private StateSizeMonitor current;
+
+        private long retiredExceeded;
+
+        synchronized void replace(StateSizeMonitor monitor) {
+            if (current != null) {
+                retiredExceeded += current.getExceededCount();
+            }
+            current = monitor;
+        }
+
+        synchronized double exceeded() {
+            return retiredExceeded + (current != null ? current.getExceededCount() : 0);
+        }
+
+    }
+
+    /**
+     * The counts of the current coalescer of a node, plus those of the coalescers it replaced.
+     */
+    private static final class CoalesceCounts {
+
+        private NodeCoalescer current;
+
+        private long retiredExecutions;
+
+        private long retiredJoins;
+
+        synchronized void replace(NodeCoalescer coalescer) {
+            if (current != null) {
+                retiredExecutions += current.getExecutionCount();
+                retiredJoins += current.getJoinCount();
+            }
+            current = coalescer;
+        }
+
+        synchronized double executions() {
+            return retiredExecutions + (current != null ? current.getExecutionCount() : 0);
+        }
+
+        synchronized double joins() {
+            return retiredJoins + (current != null ? current.getJoinCount() : 0);
+        }
+
+        synchronized double inFlight() {
+            return current != null ? current.getInFlightCount() : 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,219 @@
+package cn.teacy.ai.autoconfigure.observation;
+
+import cn.teacy.ai.interfaces.GraphActionDecorator;
+import cn.teacy.ai.metadata.GraphDescriptor;
+import cn.teacy.ai.metadata.NodeDescriptor;
+import com.alibaba.cloud.ai.graph.GraphLifecycleListener;
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.Nullable;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Observes every graph run and every node execution through the Micrometer Observation API.
+ * <p>
+ * A run observation is started when a graph starts and becomes the parent of the observations of
+ * its nodes. It is kept in the {@link RunnableConfig#context()} of the run rather than in a thread
+ * local, so the linkage survives the executor hops between nodes. Subgraph nodes get an
+ * observation of their own, which becomes the parent of the subgraph run; the two are matched by
+ * the execution id the subgraph inherits from the parent state and the id of the subgraph. A run
+ * that is not part of a parent graph is linked to the observation current on the invoking thread.
+ *
+ * @since 0.4.0
+ */
+public class ObservationGraphActionDecorator implements GraphActionDecorator {
+
+    public static final String GRAPH_OBSERVATION_NAME = "graph.composer.run";
+
+    public static final String NODE_OBSERVATION_NAME = "graph.composer.node.run";
+
+    private static final String RUN_CONTEXT_KEY = ObservationGraphActionDecorator.class.getName() + ".run";
+
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+
+    /**
+     * Observations of subgraph nodes whose subgraph run has not started yet, keyed by execution id
+     * and subgraph id.
+     */
+    private final Map<String, Deque<Observation>> pendingSubgraphs = new ConcurrentHashMap<>();
+
+    public ObservationGraphActionDecorator(ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public AsyncNodeActionWithConfig decorateNode(NodeDescriptor node, AsyncNodeActionWithConfig action) {
+        ObservationRegistry registry = resolveRegistry();
+        if (registry == null) {
+            return action;
+        }
+
+        return (state, config) -> {
+            Observation observation = nodeObservation(registry, node.graphId(), node.nodeId(), "action", config).start();
+
+            CompletableFuture<Map<String, Object>> result;
+            try (Observation.Scope scope = observation.openScope()) {
+                result = action.apply(state, config);
+            } catch (RuntimeException | Error e) {
+                observation.error(e).stop();
+                throw e;
+            }
+
+            result.whenComplete((update, e) -> {
+                if (e != null) {
+                    observation.error(e);
+                }
+                observation.stop();
+            });
+            return result;
+        };
+    }
+
+    @Override
+    public GraphLifecycleListener lifecycleListener(GraphDescriptor graph) {
+        ObservationRegistry registry = resolveRegistry();
+        return registry != null ? new RunListener(registry, graph) : null;
+    }
+
+    @Nullable
+    private ObservationRegistry resolveRegistry() {
+        ObservationRegistry registry = observationRegistry.getIfAvailable();
+        return registry == null || registry.isNoop() ? null : registry;
+    }
+
+    private static Observation nodeObservation(ObservationRegistry registry, String graphId, String nodeId,
+                                               String type, RunnableConfig config) {
+        Observation observation = Observation.createNotStarted(NODE_OBSERVATION_NAME, registry)
+                .contextualName(graphId + " " + nodeId)
+                .lowCardinalityKeyValue("graph", graphId)
+                .lowCardinalityKeyValue("node", nodeId)
+                .lowCardinalityKeyValue("node.type", type);
+
+        RunObservation run = (RunObservation) config.context().get(RUN_CONTEXT_KEY);
+        return run != null ? observation.parentObservation(run.observation) : observation;
+    }
+
+    private static String pendingKey(Object executionId, String subgraphId) {
+        return executionId + "/" + subgraphId;
+    }
+
+    private void removePending(String key, Observation observation) {
+        pendingSubgraphs.computeIfPresent(key, (k, observations) -> {
+            observations.remove(observation);
+            return observations.isEmpty() ? null : observations;
+        });
+    }
+
+    private record RunObservation(Observation observation, Map<String, Observation> subgraphNodes) {
+    }
+
+    private class RunListener implements GraphLifecycleListener {
+
+        private final ObservationRegistry registry;
+
+        private final GraphDescriptor graph;
+
+        RunListener(ObservationRegistry registry, GraphDescriptor graph) {
+            this.registry = registry;
+            this.graph = graph;
+        }
+
+        @Override
+        public void onStart(String nodeId, Map<String, Object> state, RunnableConfig config) {
+            Observation observation = Observation.createNotStarted(GRAPH_OBSERVATION_NAME, registry)
+                    .contextualName(graph.graphId())
+                    .lowCardinalityKeyValue("graph", graph.graphId());
+
+            Observation parent = pollPendingSubgraph(state.get(EXECUTION_ID_KEY));
+            if (parent != null) {
+                observation.parentObservation(parent);
+            }
+
+            config.context().put(RUN_CONTEXT_KEY, new RunObservation(observation.start(), new ConcurrentHashMap<>()));
+        }
+
+        @Override
+        public void before(String nodeId, Map<String, Object> state, RunnableConfig config, Long curTime) {
+            String subgraphId = graph.subgraphs().get(nodeId);
+            RunObservation run = (RunObservation) config.context().get(RUN_CONTEXT_KEY);
+            if (subgraphId == null || run == null) {
+                return;
+            }
+
+            Observation observation = nodeObservation(registry, graph.graphId(), nodeId, "subgraph", config).start();
+            run.subgraphNodes.put(nodeId, observation);
+            pendingSubgraphs.computeIfAbsent(pendingKey(state.get(EXECUTION_ID_KEY), subgraphId),
+                    key -> new ConcurrentLinkedDeque<>()).add(observation);
+        }
+
+        @Override
+        public void after(String nodeId, Map<String, Object> state, RunnableConfig config, Long curTime) {
+            String subgraphId = graph.subgraphs().get(nodeId);
+            RunObservation run = (RunObservation) config.context().get(RUN_CONTEXT_KEY);
+            if (subgraphId == null || run == null) {
+                return;
+            }
+
+            Observation observation = run.subgraphNodes.remove(nodeId);
+            if (observation != null) {
+                removePending(pendingKey(state.get(EXECUTION_ID_KEY), subgraphId), observation);
+                observation.stop();
+            }
+        }
+
+        @Override
+        public void onComplete(String nodeId, Map<String, Object> state, RunnableConfig config) {
+            stop(state, config, null);
+        }
+
+        @Override
+        public void onError(String nodeId, Map<String, Object> state, Throwable ex, RunnableConfig config) {
+            stop(state, config, ex);
+        }
+
+        @Nullable
+        private Observation pollPendingSubgraph(@Nullable Object executionId) {
+            if (executionId == null) {
+                return null;
+            }
+
+            Observation[] parent = new Observation[1];
+            pendingSubgraphs.computeIfPresent(pendingKey(executionId, graph.graphId()), (key, observations) -> {
+                parent[0] = observations.poll();
+                return observations.isEmpty() ? null : observations;
+            });
+            return parent[0];
+        }
+
+        private void stop(Map<String, Object> state, RunnableConfig config, @Nullable Throwable error) {
+            RunObservation run = (RunObservation) config.context().remove(RUN_CONTEXT_KEY);
+            if (run == null) {
+                return;
+            }
+
+            // subgraph nodes left open by a failing subgraph
+            run.subgraphNodes.forEach((nodeId, observation) -> {
+                removePending(pendingKey(state.get(EXECUTION_ID_KEY), graph.subgraphs().get(nodeId)), observation);
+                if (error != null) {
+                    observation.error(error);
+                }
+                observation.stop();
+            });
+
+            if (error != null) {
+                run.observation.error(error);
+            }
+            run.observation.stop();
+        }
+
+    }
+
+}
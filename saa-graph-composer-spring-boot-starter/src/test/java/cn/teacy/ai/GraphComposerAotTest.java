@@ -0,0 +1,138 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.constants.ComposerConfigConstants;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.strategy.DoubleMax;
+import cn.teacy.ai.strategy.LongSum;
+import cn.teacy.ai.strategy.PersistentHashMap;
+import cn.teacy.ai.strategy.PersistentVector;
+import cn.teacy.ai.support.BlobRef;
+import cn.teacy.ai.support.LazyCompiledGraphFactoryBean;
+import cn.teacy.ai.tests.aot.AotTestGraphConfig;
+import cn.teacy.ai.tests.aot.EagerAotGraphComposer;
+import cn.teacy.ai.tests.aot.LazyAotGraphComposer;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.generate.GeneratedFiles;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.aot.test.generate.TestGenerationContext;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.aot.ApplicationContextAotGenerator;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.test.tools.TestCompiler;
+import org.springframework.javapoet.ClassName;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GraphComposerAotTest {
+
+    // generated classes are only captured the first time they are defined, so process once
+    private static TestGenerationContext generationContext;
+
+    private static ClassName initializerClassName;
+
+    @BeforeAll
+    static void processAheadOfTime() {
+        AnnotationConfigApplicationContext applicationContext = new AnnotationConfigApplicationContext();
+        applicationContext.register(AotTestGraphConfig.class);
+
+        generationContext = new TestGenerationContext();
+        initializerClassName = new ApplicationContextAotGenerator().processAheadOfTime(applicationContext, generationContext);
+        generationContext.writeGeneratedContent();
+    }
+
+    @Test
+    @DisplayName("Should register reflection hints for composer fields")
+    void shouldRegisterComposerHints() {
+        compileGenerated((generationContext, initializer) -> {
+            RuntimeHints hints = generationContext.getRuntimeHints();
+
+            assertThat(RuntimeHintsPredicates.reflection().onField(EagerAotGraphComposer.class, "eager")).accepts(hints);
+            assertThat(RuntimeHintsPredicates.reflection().onField(EagerAotGraphComposer.class, "KEY_RESULT")).accepts(hints);
+            assertThat(RuntimeHintsPredicates.reflection().onField(LazyAotGraphComposer.class, "lazy")).accepts(hints);
+            assertThat(RuntimeHintsPredicates.resource().forResource(ComposerConfigConstants.COMPOSER_INDEX_LOCATION)).accepts(hints);
+        });
+    }
+
+    @Test
+    @DisplayName("Should register a reflection hint for the node factories of graphs with parallel branches")
+    void shouldRegisterNodeFactoriesHint() {
+        compileGenerated((generationContext, initializer) -> assertThat(RuntimeHintsPredicates.reflection()
+                .onField(CompiledGraph.class, ReflectiveGraphCompiler.NODE_FACTORIES_FIELD))
+                .accepts(generationContext.getRuntimeHints()));
+    }
+
+    @Test
+    @DisplayName("Should register hints for the overflow hooks, the state values of predefined strategies and offloaded handles")
+    void shouldRegisterStateValueHints() {
+        compileGenerated((generationContext, initializer) -> {
+            RuntimeHints hints = generationContext.getRuntimeHints();
+
+            assertThat(RuntimeHintsPredicates.reflection().onType(LazyAotGraphComposer.CountingHook.class)
+                    .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+            assertThat(RuntimeHintsPredicates.serialization().onType(LongSum.class)).accepts(hints);
+            assertThat(RuntimeHintsPredicates.serialization().onType(PersistentVector.class)).accepts(hints);
+            assertThat(RuntimeHintsPredicates.serialization()
+                    .onType(TypeReference.of(PersistentVector.class.getName() + "$SerializedForm"))).accepts(hints);
+            assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of("cn.teacy.ai.strategy.JdkValueSerializer"))
+                    .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+            assertThat(RuntimeHintsPredicates.reflection().onType(BlobRef.class)
+                    .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_METHODS)).accepts(hints);
+            // no composer uses the strategies of these values
+            assertThat(RuntimeHintsPredicates.serialization().onType(DoubleMax.class)).rejects(hints);
+            assertThat(RuntimeHintsPredicates.serialization().onType(PersistentHashMap.class)).rejects(hints);
+        });
+    }
+
+    @Test
+    @DisplayName("Should generate the lazy graph proxy class ahead of time")
+    void shouldGenerateLazyProxyClass() {
+        compileGenerated((generationContext, initializer) -> {
+            String proxyClassName = LazyCompiledGraphFactoryBean.getProxyClass(getClass().getClassLoader()).getName();
+
+            assertThat(generationContext.getGeneratedFiles().getGeneratedFiles(GeneratedFiles.Kind.CLASS))
+                    .containsKey(proxyClassName.replace('.', '/') + ".class");
+        });
+    }
+
+    @Test
+    @DisplayName("Should compile graphs from the generated bean definitions")
+    void shouldRunFromGeneratedCode() {
+        compileGenerated((generationContext, initializer) -> {
+            GenericApplicationContext context = new GenericApplicationContext();
+            initializer.initialize(context);
+            context.refresh();
+
+            try {
+                CompiledGraph eager = context.getBean("eagerAotGraph", CompiledGraph.class);
+                CompiledGraph lazy = context.getBean("lazyAotGraph", CompiledGraph.class);
+
+                OverAllState eagerState = eager.invoke(Map.of()).orElseThrow();
+                OverAllState lazyState = lazy.invoke(Map.of()).orElseThrow();
+
+                assertThat(eagerState.value(EagerAotGraphComposer.KEY_RESULT)).contains("eager");
+                assertThat(eagerState.value(EagerAotGraphComposer.KEY_CHECKED)).contains(true);
+                assertThat(lazyState.value(LazyAotGraphComposer.KEY_RESULT)).contains("lazy");
+            } finally {
+                context.close();
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void compileGenerated(BiConsumer<TestGenerationContext, ApplicationContextInitializer<GenericApplicationContext>> assertions) {
+        TestCompiler.forSystem().with(generationContext).compile(compiled -> assertions.accept(generationContext,
+                compiled.getInstance(ApplicationContextInitializer.class, initializerClassName.reflectionName())));
+    }
+
+}
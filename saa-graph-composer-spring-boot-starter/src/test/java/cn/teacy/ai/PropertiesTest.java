@@ -4,7 +4,10 @@ import cn.teacy.ai.autoconfigure.SaaGraphComposerProperties;
 import org.assertj.core.api.InstanceOfAssertFactories;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -19,6 +22,19 @@ public class PropertiesTest {
         assertThat(properties.isEnabled()).isTrue();
         assertThat(properties.isAutoCompiler()).isTrue();
         assertThat(properties.getBasePackages().isEmpty()).isTrue();
+        assertThat(properties.isLazyCompile()).isFalse();
+        assertThat(properties.getCompile().getParallelism()).isEqualTo(1);
+        assertThat(properties.getDev().isEnabled()).isFalse();
+        assertThat(properties.getDev().getPollInterval()).isEqualTo(Duration.ofSeconds(1));
+        assertThat(properties.getDev().getQuietPeriod()).isEqualTo(Duration.ofMillis(400));
+        assertThat(properties.getMetrics().isEnabled()).isFalse();
+        assertThat(properties.getMetrics().isHistogram()).isTrue();
+        assertThat(properties.getTracing().isEnabled()).isFalse();
+        assertThat(properties.getExecution().getMode()).isEqualTo(SaaGraphComposerProperties.Execution.Mode.CALLER);
+        assertThat(properties.getState().getMaxBytes()).isNull();
+        assertThat(properties.getState().getSampleInterval()).isZero();
+        assertThat(properties.getOffload().getDirectory()).isNull();
+        assertThat(properties.getOffload().getSegmentSize()).isEqualTo(DataSize.ofMegabytes(64));
 
         properties.setEnabled(false);
         assertThat(properties.isEnabled()).isFalse();
@@ -30,6 +46,45 @@ public class PropertiesTest {
         assertThat(properties.getBasePackages())
                 .asInstanceOf(InstanceOfAssertFactories.list(String.class))
                 .containsExactly("cn.teacy.ai.tests");
+
+        properties.setLazyCompile(true);
+        assertThat(properties.isLazyCompile()).isTrue();
+
+        properties.getCompile().setParallelism(4);
+        assertThat(properties.getCompile().getParallelism()).isEqualTo(4);
+
+        properties.getDev().setEnabled(true);
+        assertThat(properties.getDev().isEnabled()).isTrue();
+
+        properties.getDev().setPollInterval(Duration.ofMillis(200));
+        assertThat(properties.getDev().getPollInterval()).isEqualTo(Duration.ofMillis(200));
+
+        properties.getDev().setQuietPeriod(Duration.ofSeconds(1));
+        assertThat(properties.getDev().getQuietPeriod()).isEqualTo(Duration.ofSeconds(1));
+
+        properties.getMetrics().setEnabled(true);
+        assertThat(properties.getMetrics().isEnabled()).isTrue();
+
+        properties.getMetrics().setHistogram(false);
+        assertThat(properties.getMetrics().isHistogram()).isFalse();
+
+        properties.getTracing().setEnabled(true);
+        assertThat(properties.getTracing().isEnabled()).isTrue();
+
+        properties.getExecution().setMode(SaaGraphComposerProperties.Execution.Mode.VIRTUAL);
+        assertThat(properties.getExecution().getMode()).isEqualTo(SaaGraphComposerProperties.Execution.Mode.VIRTUAL);
+
+        properties.getState().setMaxBytes(DataSize.ofMegabytes(16));
+        assertThat(properties.getState().getMaxBytes()).isEqualTo(DataSize.ofMegabytes(16));
+
+        properties.getState().setSampleInterval(100);
+        assertThat(properties.getState().getSampleInterval()).isEqualTo(100);
+
+        properties.getOffload().setDirectory(Path.of("blobs"));
+        assertThat(properties.getOffload().getDirectory()).isEqualTo(Path.of("blobs"));
+
+        properties.getOffload().setSegmentSize(DataSize.ofMegabytes(8));
+        assertThat(properties.getOffload().getSegmentSize()).isEqualTo(DataSize.ofMegabytes(8));
     }
 
 }
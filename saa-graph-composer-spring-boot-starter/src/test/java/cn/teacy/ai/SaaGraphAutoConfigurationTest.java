@@ -3,13 +3,40 @@ package cn.teacy.ai;
 import cn.teacy.ai.annotation.EnableGraphComposer;
 import cn.teacy.ai.autoconfigure.BootGraphAutoRegistrar;
 import cn.teacy.ai.autoconfigure.SaaGraphComposerAutoConfiguration;
+import cn.teacy.ai.autoconfigure.dev.ComposerClassWatcher;
+import cn.teacy.ai.autoconfigure.metrics.MicrometerGraphActionDecorator;
+import cn.teacy.ai.autoconfigure.metrics.MicrometerGraphCompileListener;
+import cn.teacy.ai.autoconfigure.metrics.MicrometerNodePolicyListener;
+import cn.teacy.ai.autoconfigure.observation.ObservationGraphActionDecorator;
 import cn.teacy.ai.constants.ComposerConfigConstants;
 import cn.teacy.ai.core.GraphCompiler;
+import cn.teacy.ai.core.ParallelGraphCompiler;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.support.BlobStore;
+import cn.teacy.ai.support.GraphHotSwapper;
+import cn.teacy.ai.support.LazyCompiledGraphFactoryBean;
 import cn.teacy.ai.tests.another.AnotherTestGraphConfig;
+import cn.teacy.ai.tests.execution.ThreadRecordingWorkflow;
+import cn.teacy.ai.tests.metrics.CachedWorkflow;
+import cn.teacy.ai.tests.metrics.FanOutWorkflow;
+import cn.teacy.ai.tests.metrics.RoutingWorkflow;
+import cn.teacy.ai.tests.other.OtherWorkflow;
 import cn.teacy.ai.tests.scoped.TestGraphConfig;
+import cn.teacy.ai.tests.tracing.TracedWorkflow;
 import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
@@ -17,10 +44,19 @@ import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.util.ResourceUtils;
 
+import java.io.File;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
 public class SaaGraphAutoConfigurationTest {
@@ -72,6 +108,423 @@ public class SaaGraphAutoConfigurationTest {
                 });
     }
 
+    @Test
+    @DisplayName("Should compile graphs in parallel when compile parallelism is configured")
+    void testParallelCompilation() {
+        runner.withInitializer(context -> {
+                    AutoConfigurationPackages.register((BeanDefinitionRegistry) context, "cn.teacy.ai.tests.other");
+                })
+                .withPropertyValues("spring.ai.graph-composer.compile.parallelism=4")
+                .run(context -> {
+                    assertThat(context.getBean(GraphCompiler.class)).isInstanceOf(ParallelGraphCompiler.class);
+
+                    CompiledGraph graph = context.getBean("otherWorkflowCompiled", CompiledGraph.class);
+                    assertThat(graph.invoke(Map.of()).isPresent()).isTrue();
+                });
+    }
+
+    @Test
+    @DisplayName("Should register lazy graphs when lazy-compile is enabled")
+    void testLazyCompilation() {
+        runner.withInitializer(context -> {
+                    AutoConfigurationPackages.register((BeanDefinitionRegistry) context, "cn.teacy.ai.tests.other");
+                })
+                .withPropertyValues("spring.ai.graph-composer.lazy-compile=true")
+                .run(context -> {
+                    CompiledGraph graph = context.getBean("otherWorkflowCompiled", CompiledGraph.class);
+                    assertThat(context.getBeanFactory().containsSingleton("otherWorkflow")).isFalse();
+
+                    assertThat(graph.invoke(Map.of()).isPresent()).isTrue();
+                    assertThat(context.getBeanFactory().containsSingleton("otherWorkflow")).isTrue();
+                });
+    }
+
+    @Test
+    @DisplayName("Should record compile phases in the meter registry")
+    void testCompileMetrics() {
+        runner.withInitializer(context -> {
+                    AutoConfigurationPackages.register((BeanDefinitionRegistry) context, "cn.teacy.ai.tests.other");
+                })
+                .withBean(SimpleMeterRegistry.class)
+                .run(context -> {
+                    assertThat(context).hasSingleBean(MicrometerGraphCompileListener.class);
+
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+                    Timer timer = registry.find(MicrometerGraphCompileListener.METRIC_NAME)
+                            .tags("graph", "otherWorkflow", "phase", "compile", "outcome", "success")
+                            .timer();
+
+                    assertThat(timer).isNotNull();
+                    assertThat(timer.count()).isEqualTo(1);
+                });
+    }
+
+    @Test
+    @DisplayName("Should time node and edge actions and count routes when metrics are enabled")
+    void testNodeMetrics() {
+        runner.withInitializer(context -> {
+                    AutoConfigurationPackages.register((BeanDefinitionRegistry) context, "cn.teacy.ai.tests.metrics");
+                })
+                .withBean(SimpleMeterRegistry.class)
+                .withPropertyValues("spring.ai.graph-composer.metrics.enabled=true")
+                .run(context -> {
+                    CompiledGraph graph = context.getBean("routingWorkflowCompiled", CompiledGraph.class);
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+                    graph.invoke(Map.of(RoutingWorkflow.KEY_INPUT, "yes"));
+                    graph.invoke(Map.of(RoutingWorkflow.KEY_INPUT, "yes"));
+                    assertThatThrownBy(() -> graph.invoke(Map.of(RoutingWorkflow.KEY_INPUT, "no")));
+
+                    assertThat(registry.get(MicrometerGraphActionDecorator.NODE_METRIC_NAME)
+                            .tags("graph", "routingWorkflow", "node", "check", "outcome", "success").timer().count())
+                            .isEqualTo(3);
+                    assertThat(registry.get(MicrometerGraphActionDecorator.NODE_METRIC_NAME)
+                            .tags("graph", "routingWorkflow", "node", "reject", "outcome", "failure").timer().count())
+                            .isEqualTo(1);
+                    assertThat(registry.get(MicrometerGraphActionDecorator.EDGE_METRIC_NAME)
+                            .tags("graph", "routingWorkflow", "node", "check", "outcome", "success").timer().count())
+                            .isEqualTo(3);
+                    assertThat(registry.get(MicrometerGraphActionDecorator.ROUTE_METRIC_NAME)
+                            .tags("graph", "routingWorkflow", "node", "check", "route", "yes").counter().count())
+                            .isEqualTo(2);
+                    assertThat(registry.get(MicrometerGraphActionDecorator.ROUTE_METRIC_NAME)
+                            .tags("graph", "routingWorkflow", "node", "check", "route", "no").counter().count())
+                            .isEqualTo(1);
+                });
+    }
+
+    @Test
+    @DisplayName("Should publish the permits and queue depth of node bulkheads")
+    void testBulkheadGauges() {
+        runner.withInitializer(context -> {
+                    AutoConfigurationPackages.register((BeanDefinitionRegistry) context, "cn.teacy.ai.tests.metrics");
+                })
+                .withBean(SimpleMeterRegistry.class)
+                .run(context -> {
+                    CompiledGraph graph = context.getBean("limitedWorkflowCompiled", CompiledGraph.class);
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+                    graph.invoke(Map.of());
+
+                    assertThat(registry.get(MicrometerNodePolicyListener.BULKHEAD_PERMITS_METRIC_NAME)
+                            .tags("graph", "limitedWorkflow", "node", "call").gauge().value())
+                            .isEqualTo(3);
+                    assertThat(registry.get(MicrometerNodePolicyListener.BULKHEAD_QUEUED_METRIC_NAME)
+                            .tags("graph", "limitedWorkflow", "node", "call").gauge().value())
+                            .isEqualTo(0);
+                });
+    }
+
+    @Test
+    @DisplayName("Should count the hits and misses of node caches")
+    void testCacheMetrics() {
+        runner.withInitializer(context -> {
+                    AutoConfigurationPackages.register((BeanDefinitionRegistry) context, "cn.teacy.ai.tests.metrics");
+                })
+                .withBean(SimpleMeterRegistry.class)
+                .run(context -> {
+                    CompiledGraph graph = context.getBean("cachedWorkflowCompiled", CompiledGraph.class);
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+                    graph.invoke(Map.of(CachedWorkflow.KEY_INPUT, "a"));
+                    graph.invoke(Map.of(CachedWorkflow.KEY_INPUT, "a"));
+                    graph.invoke(Map.of(CachedWorkflow.KEY_INPUT, "b"));
+
+                    assertThat(registry.get(MicrometerNodePolicyListener.CACHE_REQUESTS_METRIC_NAME)
+                            .tags("graph", "cachedWorkflow", "node", "render", "result", "hit").functionCounter().count())
+                            .isEqualTo(1);
+                    assertThat(registry.get(MicrometerNodePolicyListener.CACHE_REQUESTS_METRIC_NAME)
+                            .tags("graph", "cachedWorkflow", "node", "render", "result", "miss").functionCounter().count())
+                            .isEqualTo(2);
+                    assertThat(registry.get(MicrometerNodePolicyListener.CACHE_SIZE_METRIC_NAME)
+                            .tags("graph", "cachedWorkflow", "node", "render").gauge().value())
+                            .isEqualTo(2);
+                });
+    }
+
+    @Test
+    @DisplayName("Should count the hedged attempts of nodes")
+    void testHedgeMetrics() {
+        runner.withInitializer(context -> {
+                    AutoConfigurationPackages.register((BeanDefinitionRegistry) context, "cn.teacy.ai.tests.metrics");
+                })
+                .withBean(SimpleMeterRegistry.class)
+                .run(context -> {
+                    CompiledGraph graph = context.getBean("hedgedWorkflowCompiled", CompiledGraph.class);
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+                    graph.invoke(Map.of());
+
+                    assertThat(registry.get(MicrometerNodePolicyListener.HEDGE_ATTEMPTS_METRIC_NAME)
+                            .tags("graph", "hedgedWorkflow", "node", "lookup").functionCounter().count())
+                            .isEqualTo(1);
+                    assertThat(registry.get(MicrometerNodePolicyListener.HEDGE_WINS_METRIC_NAME)
+                            .tags("graph", "hedgedWorkflow", "node", "lookup").functionCounter().count())
+                            .isEqualTo(1);
+                    assertThat(registry.get(MicrometerNodePolicyListener.HEDGE_DELAY_METRIC_NAME)
+                            .tags("graph", "hedgedWorkflow", "node", "lookup").timeGauge().value(TimeUnit.MILLISECONDS))
+                            .isEqualTo(10);
+                });
+    }
+
+    @Test
+    @DisplayName("Should record the fill ratio and queueing delay of node batches")
+    void testBatchMetrics() {
+        runner.withInitializer(context -> {
+                    AutoConfigurationPackages.register((BeanDefinitionRegistry) context, "cn.teacy.ai.tests.metrics");
+                })
+                .withBean(SimpleMeterRegistry.class)
+                .run(context -> {
+                    CompiledGraph graph = context.getBean("batchedWorkflowCompiled", CompiledGraph.class);
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+                    graph.invoke(Map.of());
+
+                    DistributionSummary fill = registry.get(MicrometerNodePolicyListener.BATCH_FILL_METRIC_NAME)
+                            .tags("graph", "batchedWorkflow", "node", "embed").summary();
+                    assertThat(fill.count()).isEqualTo(1);
+                    assertThat(fill.totalAmount()).isEqualTo(0.25);
+                    assertThat(registry.get(MicrometerNodePolicyListener.BATCH_QUEUEING_METRIC_NAME)
+                            .tags("graph", "batchedWorkflow", "node", "embed").timer().count())
+                            .isEqualTo(1);
+                });
+    }
+
+    @Test
+    @DisplayName("Should record the time parallel branches wait to start")
+    void testParallelBranchMetrics() {
+        runner.withInitializer(context -> {
+                    AutoConfigurationPackages.register((BeanDefinitionRegistry) context, "cn.teacy.ai.tests.metrics");
+                })
+                .withBean(SimpleMeterRegistry.class)
+                .run(context -> {
+                    CompiledGraph graph = context.getBean("fanOutWorkflowCompiled", CompiledGraph.class);
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+                    OverAllState state = graph.invoke(Map.of()).orElseThrow();
+
+                    assertThat(state.value(FanOutWorkflow.KEY_LEFT)).contains(true);
+                    assertThat(state.value(FanOutWorkflow.KEY_RIGHT)).contains(true);
+                    assertThat(registry.get(MicrometerNodePolicyListener.BRANCH_WAIT_METRIC_NAME)
+                            .tags("graph", "fanOutWorkflow", "node", "fork").timer().count())
+                            .isEqualTo(2);
+                });
+    }
+
+    @Test
+    @DisplayName("Should record the sampled state sizes of graphs")
+    void testStateSizeMetrics() {
+        runner.withInitializer(context -> {
+                    AutoConfigurationPackages.register((BeanDefinitionRegistry) context, "cn.teacy.ai.tests.metrics");
+                })
+                .withBean(SimpleMeterRegistry.class)
+                .withPropertyValues("spring.ai.graph-composer.state.sample-interval=1")
+                .run(context -> {
+                    CompiledGraph graph = context.getBean("routingWorkflowCompiled", CompiledGraph.class);
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+                    graph.invoke(Map.of(RoutingWorkflow.KEY_INPUT, "yes"));
+
+                    assertThat(registry.get(MicrometerNodePolicyListener.STATE_SIZE_METRIC_NAME)
+                            .tags("graph", "routingWorkflow").summary().count())
+                            .isEqualTo(2);
+                    assertThat(registry.get(MicrometerNodePolicyListener.STATE_KEY_SIZE_METRIC_NAME)
+                            .tags("graph", "routingWorkflow", "key", RoutingWorkflow.KEY_INPUT).summary().max())
+                            .isGreaterThan(0);
+                    assertThat(registry.get(MicrometerNodePolicyListener.STATE_BUDGET_EXCEEDED_METRIC_NAME)
+                            .tags("graph", "routingWorkflow").functionCounter().count())
+                            .isZero();
+                });
+    }
+
+    @Test
+    @DisplayName("Should configure the blob store of offloaded state values")
+    void testBlobStore() {
+        runner.withPropertyValues("spring.ai.graph-composer.offload.segment-size=1MB")
+                .run(context -> {
+                    BlobStore store = context.getBean(BlobStore.class);
+
+                    assertThat(store.getSegmentBytes()).isEqualTo(1024 * 1024);
+                    assertThat(context.getBean(ReflectiveGraphCompiler.class).getBlobStore()).isSameAs(store);
+                    assertThat(store.put("payload").get()).isEqualTo("payload");
+                });
+    }
+
+    @Test
+    @DisplayName("Should not instrument node actions unless metrics are enabled")
+    void testNodeMetricsDisabledByDefault() {
+        runner.withBean(SimpleMeterRegistry.class)
+                .run(context -> assertThat(context).doesNotHaveBean(MicrometerGraphActionDecorator.class));
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    @DisplayName("Should run synchronous nodes on virtual threads in virtual execution mode")
+    void testVirtualExecutionMode() {
+        runner.withInitializer(context -> {
+                    AutoConfigurationPackages.register((BeanDefinitionRegistry) context, "cn.teacy.ai.tests.execution");
+                })
+                .withPropertyValues("spring.ai.graph-composer.execution.mode=virtual")
+                .run(context -> {
+                    CompiledGraph graph = context.getBean("threadRecordingWorkflowCompiled", CompiledGraph.class);
+
+                    assertThat(graph.invoke(Map.of()).orElseThrow().value(ThreadRecordingWorkflow.KEY_THREAD, ""))
+                            .startsWith("graph-node-");
+                });
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    @DisplayName("Should keep running synchronous nodes on the calling thread before JDK 21")
+    void testVirtualExecutionModeFallback() {
+        runner.withInitializer(context -> {
+                    AutoConfigurationPackages.register((BeanDefinitionRegistry) context, "cn.teacy.ai.tests.execution");
+                })
+                .withPropertyValues("spring.ai.graph-composer.execution.mode=virtual")
+                .run(context -> {
+                    CompiledGraph graph = context.getBean("threadRecordingWorkflowCompiled", CompiledGraph.class);
+
+                    assertThat(graph.invoke(Map.of()).orElseThrow().value(ThreadRecordingWorkflow.KEY_THREAD, ""))
+                            .isEqualTo(Thread.currentThread().getName());
+                });
+    }
+
+    @Test
+    @DisplayName("Should link the observations of graph runs, nodes and subgraphs")
+    void testTracing() {
+        runner.withInitializer(context -> {
+                    AutoConfigurationPackages.register((BeanDefinitionRegistry) context, "cn.teacy.ai.tests.tracing");
+                })
+                .withUserConfiguration(InMemoryObservationConfig.class)
+                .withPropertyValues("spring.ai.graph-composer.tracing.enabled=true")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(ObservationGraphActionDecorator.class);
+
+                    CompiledGraph graph = context.getBean("tracedWorkflowCompiled", CompiledGraph.class);
+                    ObservationRegistry registry = context.getBean(ObservationRegistry.class);
+                    InMemoryObservationHandler handler = context.getBean(InMemoryObservationHandler.class);
+
+                    Observation.createNotStarted("request", registry).observe(() -> graph.invoke(Map.of()));
+
+                    Observation.Context request = handler.find("request", null);
+                    Observation.Context parentRun = handler.find(ObservationGraphActionDecorator.GRAPH_OBSERVATION_NAME, "tracedWorkflow");
+                    Observation.Context subgraphNode = handler.find(ObservationGraphActionDecorator.NODE_OBSERVATION_NAME, "subgraph");
+                    Observation.Context subgraphRun = handler.find(ObservationGraphActionDecorator.GRAPH_OBSERVATION_NAME, "reviewWorkflow");
+
+                    assertThat(parentRun.getParentObservation().getContextView()).isSameAs(request);
+                    assertThat(handler.find(ObservationGraphActionDecorator.NODE_OBSERVATION_NAME, "prepare")
+                            .getParentObservation().getContextView()).isSameAs(parentRun);
+                    assertThat(handler.find(ObservationGraphActionDecorator.NODE_OBSERVATION_NAME, "finish")
+                            .getParentObservation().getContextView()).isSameAs(parentRun);
+                    assertThat(subgraphNode.getParentObservation().getContextView()).isSameAs(parentRun);
+                    assertThat(subgraphRun.getParentObservation().getContextView()).isSameAs(subgraphNode);
+                    assertThat(handler.find(ObservationGraphActionDecorator.NODE_OBSERVATION_NAME, "review")
+                            .getParentObservation().getContextView()).isSameAs(subgraphRun);
+                });
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class InMemoryObservationConfig {
+
+        @Bean
+        InMemoryObservationHandler inMemoryObservationHandler() {
+            return new InMemoryObservationHandler();
+        }
+
+        @Bean
+        ObservationRegistry observationRegistry(InMemoryObservationHandler handler) {
+            ObservationRegistry registry = ObservationRegistry.create();
+            registry.observationConfig().observationHandler(handler);
+            return registry;
+        }
+
+    }
+
+    static class InMemoryObservationHandler implements ObservationHandler<Observation.Context> {
+
+        final List<Observation.Context> stopped = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onStop(Observation.Context context) {
+            stopped.add(context);
+        }
+
+        @Override
+        public boolean supportsContext(Observation.Context context) {
+            return true;
+        }
+
+        Observation.Context find(String name, String graphOrNode) {
+            return stopped.stream()
+                    .filter(context -> context.getName().equals(name))
+                    .filter(context -> graphOrNode == null
+                            || graphOrNode.equals(context.getLowCardinalityKeyValues().stream()
+                            .filter(keyValue -> keyValue.getKey().equals(name.equals(ObservationGraphActionDecorator.GRAPH_OBSERVATION_NAME) ? "graph" : "node"))
+                            .findFirst().orElseThrow().getValue()))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("No observation " + name + " for " + graphOrNode + " in " + stopped));
+        }
+
+    }
+
+    @Test
+    @DisplayName("Should swap graphs of changed composer classes in dev mode")
+    void testDevMode() {
+        runner.withInitializer(context -> {
+                    AutoConfigurationPackages.register((BeanDefinitionRegistry) context, "cn.teacy.ai.tests.other");
+                })
+                .withUserConfiguration(RecordingHotSwapperConfig.class)
+                .withPropertyValues("spring.ai.graph-composer.dev.enabled=true",
+                        "spring.ai.graph-composer.dev.poll-interval=20ms")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(ComposerClassWatcher.class);
+
+                    CompiledGraph graph = context.getBean("otherWorkflowCompiled", CompiledGraph.class);
+                    assertThat(LazyCompiledGraphFactoryBean.resolve(graph)).isNotSameAs(graph);
+
+                    RecordingHotSwapper swapper = context.getBean(RecordingHotSwapper.class);
+                    File classFile = ResourceUtils.getFile(OtherWorkflow.class.getResource("OtherWorkflow.class"));
+                    long lastModified = classFile.lastModified();
+
+                    try {
+                        assertThat(classFile.setLastModified(lastModified + 10_000)).isTrue();
+                        assertThat(swapper.refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+                    } finally {
+                        classFile.setLastModified(lastModified);
+                    }
+
+                    assertThat(swapper.changedTypes).contains(OtherWorkflow.class);
+                });
+    }
+
+    @Configuration
+    static class RecordingHotSwapperConfig {
+        @Bean
+        public RecordingHotSwapper graphHotSwapper(ConfigurableListableBeanFactory beanFactory) {
+            return new RecordingHotSwapper(beanFactory);
+        }
+    }
+
+    static class RecordingHotSwapper extends GraphHotSwapper {
+
+        final CountDownLatch refreshed = new CountDownLatch(1);
+
+        final Set<Class<?>> changedTypes = ConcurrentHashMap.newKeySet();
+
+        RecordingHotSwapper(ConfigurableListableBeanFactory beanFactory) {
+            super(beanFactory);
+        }
+
+        @Override
+        public synchronized List<String> refresh(Collection<Class<?>> changedComposerTypes) {
+            changedTypes.addAll(changedComposerTypes);
+            List<String> swapped = super.refresh(changedComposerTypes);
+            refreshed.countDown();
+            return swapped;
+        }
+
+    }
+
     @Test
     @DisplayName("Bean should be overridden by user-defined Bean")
     void testUserOverride() {
@@ -0,0 +1,34 @@
+package cn.teacy.ai.tests.aot;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.annotation.ParallelBranches;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+import java.util.Map;
+
+@GraphComposer
+public class EagerAotGraphComposer {
+
+    @GraphKey
+    public static final String KEY_RESULT = "result";
+
+    @GraphKey
+    public static final String KEY_CHECKED = "checked";
+
+    @GraphNode(isStart = true, next = {"eager", "check"})
+    @ParallelBranches(maxParallelism = 2)
+    final NodeAction fork = state -> Map.of();
+
+    @GraphNode(next = "join")
+    final NodeAction eager = state -> Map.of(KEY_RESULT, "eager");
+
+    @GraphNode(next = "join")
+    final NodeAction check = state -> Map.of(KEY_CHECKED, true);
+
+    @GraphNode(next = StateGraph.END)
+    final NodeAction join = state -> Map.of();
+
+}
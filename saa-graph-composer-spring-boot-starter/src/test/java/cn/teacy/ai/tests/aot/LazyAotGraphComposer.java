@@ -0,0 +1,47 @@
+package cn.teacy.ai.tests.aot;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.interfaces.AppendOverflowHook;
+import cn.teacy.ai.strategy.BoundedAppendStrategy;
+import cn.teacy.ai.strategy.PersistentAppendStrategy;
+import cn.teacy.ai.strategy.SumLongStrategy;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+import java.util.List;
+import java.util.Map;
+
+@GraphComposer(lazy = true)
+public class LazyAotGraphComposer {
+
+    @GraphKey
+    public static final String KEY_RESULT = "result";
+
+    @GraphKey(strategy = SumLongStrategy.class)
+    public static final String KEY_TOKENS = "tokens";
+
+    @GraphKey(strategy = PersistentAppendStrategy.class)
+    public static final String KEY_HISTORY = "history";
+
+    @GraphKey(strategy = BoundedAppendStrategy.class, maxEntries = 4, overflow = GraphKey.Overflow.SUMMARIZE_HOOK,
+            overflowHook = CountingHook.class)
+    public static final String KEY_NOTES = "notes";
+
+    @GraphKey(offload = true)
+    public static final String KEY_DOCUMENT = "document";
+
+    @GraphNode(isStart = true, next = StateGraph.END)
+    final NodeAction lazy = state -> Map.of(KEY_RESULT, "lazy");
+
+    public static class CountingHook implements AppendOverflowHook {
+
+        @Override
+        public List<?> summarize(List<Object> evicted) {
+            return List.of(evicted.size() + " notes");
+        }
+
+    }
+
+}
@@ -0,0 +1,20 @@
+package cn.teacy.ai.tests.execution;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+import java.util.Map;
+
+@GraphComposer(id = "threadRecordingWorkflow")
+public class ThreadRecordingWorkflow {
+
+    @GraphKey
+    public static final String KEY_THREAD = "thread";
+
+    @GraphNode(id = "record", isStart = true, next = StateGraph.END)
+    final NodeAction record = state -> Map.of(KEY_THREAD, Thread.currentThread().getName());
+
+}
@@ -0,0 +1,24 @@
+package cn.teacy.ai.tests.metrics;
+
+import cn.teacy.ai.annotation.BatchNode;
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.interfaces.BatchNodeAction;
+import com.alibaba.cloud.ai.graph.StateGraph;
+
+import java.util.Map;
+
+@GraphComposer(id = "batchedWorkflow")
+public class BatchedWorkflow {
+
+    @GraphKey
+    public static final String KEY_OUTPUT = "output";
+
+    @GraphNode(id = "embed", isStart = true, next = StateGraph.END)
+    @BatchNode(maxBatchSize = 4, maxWait = "5ms")
+    final BatchNodeAction embed = states -> states.stream()
+            .map(state -> Map.<String, Object>of(KEY_OUTPUT, "embedded"))
+            .toList();
+
+}
@@ -0,0 +1,25 @@
+package cn.teacy.ai.tests.metrics;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.annotation.NodeCache;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+import java.util.Map;
+
+@GraphComposer(id = "cachedWorkflow")
+public class CachedWorkflow {
+
+    @GraphKey
+    public static final String KEY_INPUT = "input";
+
+    @GraphKey
+    public static final String KEY_OUTPUT = "output";
+
+    @GraphNode(id = "render", isStart = true, next = StateGraph.END)
+    @NodeCache(keys = KEY_INPUT, maxSize = 10)
+    final NodeAction render = state -> Map.of(KEY_OUTPUT, "rendered " + state.value(KEY_INPUT, ""));
+
+}
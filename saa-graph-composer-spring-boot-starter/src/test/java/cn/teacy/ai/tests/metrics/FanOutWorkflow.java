@@ -0,0 +1,34 @@
+package cn.teacy.ai.tests.metrics;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.annotation.ParallelBranches;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+import java.util.Map;
+
+@GraphComposer(id = "fanOutWorkflow")
+public class FanOutWorkflow {
+
+    @GraphKey
+    public static final String KEY_LEFT = "left";
+
+    @GraphKey
+    public static final String KEY_RIGHT = "right";
+
+    @GraphNode(id = "fork", isStart = true, next = {"left", "right"})
+    @ParallelBranches(maxParallelism = 1)
+    final NodeAction fork = state -> Map.of();
+
+    @GraphNode(id = "left", next = "join")
+    final NodeAction left = state -> Map.of(KEY_LEFT, true);
+
+    @GraphNode(id = "right", next = "join")
+    final NodeAction right = state -> Map.of(KEY_RIGHT, true);
+
+    @GraphNode(id = "join", next = StateGraph.END)
+    final NodeAction join = state -> Map.of();
+
+}
@@ -0,0 +1,29 @@
+package cn.teacy.ai.tests.metrics;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.annotation.Hedge;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.AsyncNodeAction;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@GraphComposer(id = "hedgedWorkflow")
+public class HedgedWorkflow {
+
+    @GraphKey
+    public static final String KEY_OUTPUT = "output";
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    // the first attempt never completes, so the run is always won by the hedged attempt
+    @GraphNode(id = "lookup", isStart = true, next = StateGraph.END)
+    @Hedge(delay = "10ms")
+    final AsyncNodeAction lookup = state -> attempts.getAndIncrement() % 2 == 0
+            ? new CompletableFuture<>()
+            : CompletableFuture.completedFuture(Map.of(KEY_OUTPUT, "replica"));
+
+}
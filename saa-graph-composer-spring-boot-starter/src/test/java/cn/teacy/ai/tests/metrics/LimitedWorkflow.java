@@ -0,0 +1,18 @@
+package cn.teacy.ai.tests.metrics;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.annotation.NodeConcurrency;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+import java.util.Map;
+
+@GraphComposer(id = "limitedWorkflow")
+public class LimitedWorkflow {
+
+    @GraphNode(id = "call", isStart = true, next = StateGraph.END)
+    @NodeConcurrency(maxConcurrent = 3, maxQueued = 5)
+    final NodeAction call = state -> Map.of();
+
+}
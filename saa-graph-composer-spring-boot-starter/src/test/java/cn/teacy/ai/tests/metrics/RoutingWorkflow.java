@@ -0,0 +1,33 @@
+package cn.teacy.ai.tests.metrics;
+
+import cn.teacy.ai.annotation.ConditionalEdge;
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.EdgeAction;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+import java.util.Map;
+
+@GraphComposer(id = "routingWorkflow")
+public class RoutingWorkflow {
+
+    @GraphKey
+    public static final String KEY_INPUT = "input";
+
+    @GraphNode(id = "check", isStart = true)
+    final NodeAction check = state -> Map.of();
+
+    @ConditionalEdge(source = "check", mappings = {"yes", "accept", "no", "reject"})
+    final EdgeAction route = state -> state.value(KEY_INPUT, "no");
+
+    @GraphNode(id = "accept", next = StateGraph.END)
+    final NodeAction accept = state -> Map.of();
+
+    @GraphNode(id = "reject", next = StateGraph.END)
+    final NodeAction reject = state -> {
+        throw new IllegalStateException("rejected");
+    };
+
+}
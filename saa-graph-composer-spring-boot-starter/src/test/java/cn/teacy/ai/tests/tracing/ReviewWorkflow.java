@@ -0,0 +1,20 @@
+package cn.teacy.ai.tests.tracing;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+import java.util.Map;
+
+@GraphComposer(id = "reviewWorkflow")
+public class ReviewWorkflow {
+
+    @GraphKey
+    public static final String KEY_REVIEWED = "reviewed";
+
+    @GraphNode(id = "review", isStart = true, next = StateGraph.END)
+    final NodeAction review = state -> Map.of(KEY_REVIEWED, true);
+
+}
@@ -0,0 +1,33 @@
+package cn.teacy.ai.tests.tracing;
+
+import cn.teacy.ai.annotation.CompiledFrom;
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.AsyncNodeAction;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@GraphComposer(id = "tracedWorkflow")
+public class TracedWorkflow {
+
+    @GraphKey
+    public static final String KEY_PREPARED = "prepared";
+
+    @GraphNode(id = "prepare", isStart = true, next = "subgraph")
+    final AsyncNodeAction prepare = state -> CompletableFuture.supplyAsync(() -> Map.of(KEY_PREPARED, true));
+
+    @Autowired
+    @CompiledFrom(ReviewWorkflow.class)
+    @GraphNode(id = "subgraph", next = "finish")
+    CompiledGraph reviewWorkflow;
+
+    @GraphNode(id = "finish", next = StateGraph.END)
+    final NodeAction finish = state -> Map.of();
+
+}
@@ -0,0 +1,35 @@
+package cn.teacy.ai.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Batches the executions of a {@link GraphNode} declared as a
+ * {@link cn.teacy.ai.interfaces.BatchNodeAction} across concurrent graph runs: executions are queued
+ * until {@link #maxBatchSize()} of them are waiting or the oldest one has waited {@link #maxWait()},
+ * and the action is then invoked once for the whole batch.
+ * <p>
+ * The action runs on the node executor if there is one, and otherwise on the thread completing the
+ * batch. Not supported on other node types.
+ *
+ * @see cn.teacy.ai.support.NodeBatcher
+ * @since 0.4.0
+ */
+@Target({ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BatchNode {
+
+    /**
+     * The maximum number of executions in a batch.
+     */
+    int maxBatchSize();
+
+    /**
+     * How long an execution may wait for its batch to fill, e.g. {@code "5ms"} or {@code "PT0.1S"}.
+     * Defaults to 10 milliseconds.
+     */
+    String maxWait() default "10ms";
+
+}
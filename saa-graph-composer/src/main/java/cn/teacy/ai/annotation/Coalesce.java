@@ -0,0 +1,31 @@
+package cn.teacy.ai.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Coalesces concurrent executions of a deterministic {@link GraphNode} whose given state keys have
+ * equal values: only the first one invokes the node, and the others share its output.
+ * <p>
+ * Unlike {@link NodeCache}, nothing is kept once the shared execution completes. The state values
+ * must implement {@code equals} and {@code hashCode}, and the node must not depend on anything else,
+ * such as the {@code RunnableConfig}. Not supported on subgraph nodes.
+ * <p>
+ * Every run gets a shallow copy of the output: the values are shared between the runs, so neither
+ * the node nor the nodes reading them may mutate them in place.
+ *
+ * @see cn.teacy.ai.support.NodeCoalescer
+ * @since 0.4.0
+ */
+@Target({ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesce {
+
+    /**
+     * The state keys whose values identify executions that can be shared.
+     */
+    String[] keys();
+
+}
@@ -28,4 +28,63 @@ public @interface GraphComposer {
      * The target bean name for the generated {@link com.alibaba.cloud.ai.graph.CompiledGraph} Bean
      */
     String targetBeanName() default "";
+
+    /**
+     * Whether to register a lazy {@link com.alibaba.cloud.ai.graph.CompiledGraph} handle that resolves and
+     * compiles the composer on first use instead of at startup
+     *
+     * @since 0.4.0
+     */
+    boolean lazy() default false;
+
+    /**
+     * Name of the default {@link java.util.concurrent.Executor} for the synchronous node actions of
+     * the graph, see {@link GraphNode#executor()}. Asynchronous actions and subgraphs are not
+     * affected.
+     *
+     * @since 0.4.0
+     */
+    String executor() default "";
+
+    /**
+     * Default timeout of the node actions of the graph, e.g. {@code "30s"}, see
+     * {@link GraphNode#timeout()}. Subgraph nodes are not affected.
+     *
+     * @since 0.4.0
+     */
+    String nodeTimeout() default "";
+
+    /**
+     * The maximum estimated size of the state of a run, e.g. {@code "16MB"}, checked after every
+     * node action. Defaults to the budget of the compiler, {@code "0"} means no limit.
+     *
+     * @see cn.teacy.ai.support.StateSizeMonitor
+     * @since 0.4.0
+     */
+    String maxStateBytes() default "";
+
+    /**
+     * What happens when an update would exceed {@link #maxStateBytes()}.
+     *
+     * @since 0.4.0
+     */
+    StateOverflow stateOverflow() default StateOverflow.FAIL;
+
+    /**
+     * @since 0.4.0
+     */
+    enum StateOverflow {
+
+        /**
+         * Fails the run with an {@link IllegalStateException}.
+         */
+        FAIL,
+
+        /**
+         * Discards the whole update of the node action and continues the run, so that the state
+         * keeps its last size within the budget.
+         */
+        DISCARD
+
+    }
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package cn.teacy.ai.annotation;
 
+import cn.teacy.ai.interfaces.AppendOverflowHook;
+import cn.teacy.ai.strategy.BoundedAppendStrategy;
 import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
 import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
 
 import java.lang.annotation.ElementType;
@@ -37,4 +40,56 @@ public @interface GraphKey {
      */
     boolean internal() default false;
 
+    /**
+     * The maximum number of entries kept by an append key, or 0, the default, to keep all of them.
+     * Requires {@link AppendStrategy} or {@link BoundedAppendStrategy} as {@link #strategy()}.
+     *
+     * @see BoundedAppendStrategy
+     * @since 0.4.0
+     */
+    int maxEntries() default 0;
+
+    /**
+     * What happens to the oldest entries once an append key holds more than {@link #maxEntries()}.
+     *
+     * @since 0.4.0
+     */
+    Overflow overflow() default Overflow.DROP_OLDEST;
+
+    /**
+     * The hook summarizing the oldest entries with {@link Overflow#SUMMARIZE_HOOK}. It is instantiated
+     * once with its no-argument constructor and shared by every key declaring it.
+     *
+     * @since 0.4.0
+     */
+    Class<? extends AppendOverflowHook> overflowHook() default AppendOverflowHook.class;
+
+    /**
+     * Whether the values written to this key are offloaded to the {@link cn.teacy.ai.support.BlobStore}
+     * of the compiler, so that the state holds {@link cn.teacy.ai.support.BlobRef} handles in their
+     * place. Requires {@link ReplaceStrategy} or an append strategy.
+     *
+     * @see cn.teacy.ai.strategy.OffloadStrategy
+     * @since 0.4.0
+     */
+    boolean offload() default false;
+
+    /**
+     * @since 0.4.0
+     */
+    enum Overflow {
+
+        /**
+         * Drops the oldest entries, keeping the newest {@code maxEntries} ones.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Passes the oldest entries to the {@link #overflowHook()} and keeps the entries it returns in
+         * their place, followed by the newest half of {@code maxEntries}.
+         */
+        SUMMARIZE_HOOK
+
+    }
+
 }
@@ -42,4 +42,40 @@ public @interface GraphNode {
      */
     String description() default "";
 
+    /**
+     * Name of the {@link java.util.concurrent.Executor} a synchronous {@code NodeAction} or
+     * {@code NodeActionWithConfig} is dispatched to, so that it runs off the thread driving the
+     * graph. Defaults to {@link GraphComposer#executor()}. Not supported on asynchronous actions
+     * and subgraphs, which manage their own threads.
+     *
+     * @since 0.4.0
+     */
+    String executor() default "";
+
+    /**
+     * How long the node may take, e.g. {@code "5s"} or {@code "PT1M"}, before its work is cancelled
+     * and it fails with a {@link java.util.concurrent.TimeoutException}. Defaults to
+     * {@link GraphComposer#nodeTimeout()}, {@code "0"} disables that default. Not supported on
+     * subgraphs.
+     *
+     * @since 0.4.0
+     */
+    String timeout() default "";
+
+    /**
+     * Id of the node the graph continues with instead of {@link #next()} when this node times out.
+     * Requires exactly one next node.
+     *
+     * @since 0.4.0
+     */
+    String timeoutFallback() default "";
+
+    /**
+     * State key the timeout message is written to when this node times out, so that the graph
+     * completes instead of failing.
+     *
+     * @since 0.4.0
+     */
+    String timeoutErrorKey() default "";
+
 }
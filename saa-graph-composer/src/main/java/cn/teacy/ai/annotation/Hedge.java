@@ -0,0 +1,41 @@
+package cn.teacy.ai.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Hedges the executions of an idempotent {@link GraphNode}, e.g. one calling a replicated backend:
+ * if an execution has not completed after the hedge delay, another attempt is started, the first
+ * attempt to succeed wins and the others are cancelled.
+ * <p>
+ * The delay is either fixed by {@link #delay()}, or follows the given {@link #percentile()} of the
+ * latencies the node has recently shown. Synchronous nodes must run on a node executor, and subgraph
+ * nodes are not supported.
+ *
+ * @see cn.teacy.ai.support.NodeHedger
+ * @since 0.4.0
+ */
+@Target({ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Hedge {
+
+    /**
+     * How long to wait for an attempt before starting the next one, e.g. {@code "200ms"} or
+     * {@code "PT1S"}. Defaults to the {@link #percentile()} of the observed latencies.
+     */
+    String delay() default "";
+
+    /**
+     * The percentile of the observed latencies used as the delay when no {@link #delay()} is given.
+     * Defaults to the 95th percentile.
+     */
+    double percentile() default 0.95;
+
+    /**
+     * The maximum number of attempts per execution, including the first one. Defaults to 2.
+     */
+    int maxAttempts() default 2;
+
+}
@@ -0,0 +1,51 @@
+package cn.teacy.ai.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the output of a deterministic {@link GraphNode}, keyed on the values of the given state
+ * keys. A hit returns the cached output without invoking the node.
+ * <p>
+ * The state values making up the key must implement {@code equals} and {@code hashCode}, and the
+ * node must not depend on anything else, such as the {@code RunnableConfig}. Collections, maps and
+ * arrays among them are copied into the key; other values must not be mutated once they are part
+ * of a key. Only successful
+ * outputs are cached. Not supported on subgraph nodes.
+ * <p>
+ * Outputs are copied shallowly: the values are shared between the cache and every run that hits
+ * it, so neither the node nor the nodes reading them may mutate them in place.
+ *
+ * @see cn.teacy.ai.support.NodeResultCache
+ * @since 0.4.0
+ */
+@Target({ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NodeCache {
+
+    /**
+     * The state keys whose values make up the cache key.
+     */
+    String[] keys();
+
+    /**
+     * The maximum number of cached outputs. Defaults to 1000.
+     */
+    int maxSize() default 1000;
+
+    /**
+     * The maximum estimated size of the cached keys and outputs, e.g. {@code "64MB"}, as estimated
+     * by {@link cn.teacy.ai.support.StateSizeEstimator}. Outputs larger than that are not cached.
+     * Defaults to bounding the cache by {@link #maxSize()} only.
+     */
+    String maxBytes() default "";
+
+    /**
+     * How long an output stays cached after it was computed, e.g. {@code "10m"} or {@code "PT1H"}.
+     * Defaults to keeping it until it is evicted.
+     */
+    String ttl() default "";
+
+}
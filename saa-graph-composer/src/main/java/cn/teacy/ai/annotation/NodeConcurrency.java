@@ -0,0 +1,40 @@
+package cn.teacy.ai.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits how many executions of a {@link GraphNode} run at once, across all runs of the graph, e.g.
+ * to protect a rate-limited downstream model.
+ * <p>
+ * Executions beyond {@link #maxConcurrent()} wait in a bounded queue and fail with a
+ * {@link java.util.concurrent.RejectedExecutionException} when the queue is full or they have waited
+ * longer than {@link #queueTimeout()}. Not supported on subgraph nodes.
+ *
+ * @see cn.teacy.ai.support.NodeBulkhead
+ * @since 0.4.0
+ */
+@Target({ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NodeConcurrency {
+
+    /**
+     * The maximum number of executions running at once.
+     */
+    int maxConcurrent();
+
+    /**
+     * The maximum number of executions waiting for a permit. Defaults to 0, rejecting executions
+     * as soon as all permits are taken.
+     */
+    int maxQueued() default 0;
+
+    /**
+     * How long an execution may wait for a permit, e.g. {@code "500ms"} or {@code "PT2S"}. Defaults
+     * to waiting until a permit is released.
+     */
+    String queueTimeout() default "";
+
+}
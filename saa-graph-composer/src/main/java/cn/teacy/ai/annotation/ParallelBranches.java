@@ -0,0 +1,40 @@
+package cn.teacy.ai.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Configures how the parallel branches of a {@link GraphNode} with several {@code next} nodes are
+ * run: on which executor, and how many of the branches of a run may run at the same time.
+ * <p>
+ * Branches beyond {@link #maxParallelism()} wait for a running branch of the same run to finish
+ * without holding a thread. The time from the fan-out until a branch starts is reported to
+ * {@link cn.teacy.ai.interfaces.NodePolicyListener}s.
+ * <p>
+ * The engine has no public way to replace the action of a node, so this depends on engine
+ * internals: the compiler replaces the action factory of the parallel node in a private field of
+ * {@link com.alibaba.cloud.ai.graph.CompiledGraph}. It is verified against the engine version the
+ * project is built with, and compiling fails if the field is missing.
+ *
+ * @see cn.teacy.ai.support.ParallelBranchDispatcher
+ * @since 0.4.0
+ */
+@Target({ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ParallelBranches {
+
+    /**
+     * The name of the executor running the branches. Empty, the default, uses the executor of the
+     * run config, or the default parallel executor of the engine.
+     */
+    String executor() default "";
+
+    /**
+     * The maximum number of branches of a run running at the same time. Zero, the default, runs all
+     * of them at once.
+     */
+    int maxParallelism() default 0;
+
+}
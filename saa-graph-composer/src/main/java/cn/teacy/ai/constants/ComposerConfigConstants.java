@@ -4,4 +4,20 @@ public interface ComposerConfigConstants {
 
     String GRAPH_COMPILER_BEAN_NAME = "graphCompiler";
 
+    /**
+     * Location of the build-time index listing {@code @GraphComposer} classes, one binary class name per line.
+     *
+     * @since 0.4.0
+     */
+    String COMPOSER_INDEX_LOCATION = "META-INF/saa-graph-composers.idx";
+
+    /**
+     * Environment or {@link org.springframework.core.SpringProperties} flag to ignore the
+     * {@link #COMPOSER_INDEX_LOCATION index} and always scan the base packages, like Spring's
+     * {@code spring.index.ignore}.
+     *
+     * @since 0.4.0
+     */
+    String IGNORE_COMPOSER_INDEX_PROPERTY = "spring.ai.graph-composer.index.ignore";
+
 }
@@ -0,0 +1,36 @@
+package cn.teacy.ai.core;
+
+import cn.teacy.ai.interfaces.GraphCompileListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+/**
+ * Reports each compile phase as a {@link StartupStep} named {@code graph-composer.compile.<phase>}.
+ *
+ * @since 0.4.0
+ */
+class ApplicationStartupCompileListener implements GraphCompileListener {
+
+    static final String STEP_NAME_PREFIX = "graph-composer.compile.";
+
+    private final ApplicationStartup applicationStartup;
+
+    ApplicationStartupCompileListener(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+    }
+
+    @Override
+    public PhaseScope onPhaseStart(String graphId, Class<?> composerType, Phase phase) {
+        StartupStep step = applicationStartup.start(STEP_NAME_PREFIX + phase.getValue())
+                .tag("graphId", graphId)
+                .tag("composer", composerType.getName());
+
+        return failure -> {
+            if (failure != null) {
+                step.tag("failure", failure.getClass().getName());
+            }
+            step.end();
+        };
+    }
+
+}
@@ -0,0 +1,86 @@
+package cn.teacy.ai.core;
+
+import cn.teacy.ai.interfaces.GraphCompileListener;
+import cn.teacy.ai.interfaces.GraphCompileListener.Phase;
+import cn.teacy.ai.interfaces.GraphCompileListener.PhaseScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Reports the phases of one compilation to the compile listeners and as JFR events.
+ *
+ * @since 0.4.0
+ */
+final class CompilePhaseRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(CompilePhaseRecorder.class);
+
+    @FunctionalInterface
+    interface PhaseAction<T> {
+        T run() throws Exception;
+    }
+
+    private final String graphId;
+
+    private final Class<?> composerType;
+
+    private final List<GraphCompileListener> listeners;
+
+    CompilePhaseRecorder(String graphId, Class<?> composerType, List<GraphCompileListener> listeners) {
+        this.graphId = graphId;
+        this.composerType = composerType;
+        this.listeners = listeners;
+    }
+
+    <T> T record(Phase phase, PhaseAction<T> action) throws Exception {
+        GraphCompilePhaseEvent event = new GraphCompilePhaseEvent();
+        event.begin();
+
+        PhaseScope[] scopes = new PhaseScope[listeners.size()];
+        for (int i = 0; i < scopes.length; i++) {
+            scopes[i] = start(listeners.get(i), phase);
+        }
+
+        Throwable failure = null;
+        try {
+            return action.run();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            for (int i = scopes.length - 1; i >= 0; i--) {
+                end(scopes[i], phase, failure);
+            }
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.graphId = graphId;
+                event.composer = composerType;
+                event.phase = phase.getValue();
+                event.failed = failure != null;
+                event.commit();
+            }
+        }
+    }
+
+    private PhaseScope start(GraphCompileListener listener, Phase phase) {
+        try {
+            PhaseScope scope = listener.onPhaseStart(graphId, composerType, phase);
+            return scope != null ? scope : PhaseScope.NOOP;
+        } catch (RuntimeException e) {
+            log.warn("Graph compile listener {} failed on start of phase {} of graph {}.", listener, phase, graphId, e);
+            return PhaseScope.NOOP;
+        }
+    }
+
+    private void end(PhaseScope scope, Phase phase, Throwable failure) {
+        try {
+            scope.end(failure);
+        } catch (RuntimeException e) {
+            log.warn("Graph compile listener failed on end of phase {} of graph {}.", phase, graphId, e);
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+package cn.teacy.ai.core;
+
+import cn.teacy.ai.annotation.*;
+import cn.teacy.ai.exception.GraphDefinitionException;
+import cn.teacy.ai.metadata.ComposerMetadata;
+import jakarta.annotation.Nonnull;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Derives the {@link ComposerMetadata} of a composer class from its annotated fields, applying the
+ * same validation as the field based hooks of {@link ReflectiveGraphCompiler}.
+ * <p>
+ * The result is cached per class, so compiling the same composer class again only reads the field
+ * values, through {@link MethodHandle} getters bound once per field, until the class is
+ * {@linkplain ReflectiveGraphCompiler#invalidateMetadata(Class) invalidated}.
+ *
+ * @since 0.4.0
+ */
+final class ComposerIntrospector {
+
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<ComposerMetadata> metadataCache = new ClassValue<>() {
+        @Override
+        protected ComposerMetadata computeValue(@Nonnull Class<?> type) {
+            return introspect(type);
+        }
+    };
+
+    private ComposerIntrospector() {}
+
+    static ComposerMetadata metadataOf(Class<?> composerClass) {
+        return metadataCache.get(composerClass);
+    }
+
+    static void invalidate(Class<?> composerClass) {
+        metadataCache.remove(composerClass);
+    }
+
+    private static ComposerMetadata introspect(Class<?> composerClass) {
+        List<ComposerMetadata.KeyMetadata> keys = new ArrayList<>();
+        List<ComposerMetadata.NodeMetadata> nodes = new ArrayList<>();
+        List<ComposerMetadata.EdgeMetadata> edges = new ArrayList<>();
+        List<ComposerMetadata.CompileConfigMetadata> compileConfigs = new ArrayList<>(1);
+
+        ReflectionUtils.doWithFields(composerClass, field -> {
+            if (field.isAnnotationPresent(GraphKey.class)) {
+                keys.add(keyMetadata(field, readGraphKey(field), field.getAnnotation(GraphKey.class)));
+
+            } else if (field.isAnnotationPresent(GraphNode.class)) {
+                GraphNode annotation = field.getAnnotation(GraphNode.class);
+                String nodeId = StringUtils.hasText(annotation.id()) ? annotation.id() : field.getName();
+
+                nodes.add(new ComposerMetadata.NodeMetadata(field.getName(), nodeId,
+                        Arrays.asList(annotation.next()), annotation.isStart(), accessor(field),
+                        StringUtils.hasText(annotation.executor()) ? annotation.executor() : null,
+                        readNodePolicies(field)));
+
+            } else if (field.isAnnotationPresent(ConditionalEdge.class)) {
+                ConditionalEdge annotation = field.getAnnotation(ConditionalEdge.class);
+
+                edges.add(new ComposerMetadata.EdgeMetadata(field.getName(), annotation.source(),
+                        parseMappings(annotation.mappings(), annotation.routes(), field.getName()), accessor(field)));
+
+            } else if (field.isAnnotationPresent(GraphCompileConfig.class)) {
+                if (!compileConfigs.isEmpty()) {
+                    throw new IllegalStateException("Multiple @GraphCompileConfig fields found in " + composerClass.getSimpleName());
+                }
+                compileConfigs.add(new ComposerMetadata.CompileConfigMetadata(field.getName(), accessor(field)));
+            }
+        });
+
+        return new ComposerMetadata(composerClass, keys, nodes, edges,
+                compileConfigs.isEmpty() ? null : compileConfigs.get(0));
+    }
+
+    /**
+     * Validates a {@code @GraphKey} field and reads its constant value.
+     */
+    static String readGraphKey(Field field) {
+        if (!Modifier.isFinal(field.getModifiers())) {
+            throw new GraphDefinitionException(
+                    String.format("Field '%s' must be 'final'. Graph keys should be immutable constants.", field.getName()));
+        }
+
+        if (!Modifier.isStatic(field.getModifiers())) {
+            throw new GraphDefinitionException(
+                    String.format("Field '%s' must be 'static'. Graph keys supposed to be global constants (e.g., public static final String).", field.getName()));
+        }
+
+        if (field.getType() != String.class) {
+            throw new GraphDefinitionException("Field type must be String.");
+        }
+
+        ReflectionUtils.makeAccessible(field);
+        return (String) ReflectionUtils.getField(field, null);
+    }
+
+    static ComposerMetadata.KeyMetadata keyMetadata(Field field, String key, GraphKey annotation) {
+        return new ComposerMetadata.KeyMetadata(field.getName(), key, annotation.strategy(), annotation.maxEntries(),
+                annotation.overflow(), annotation.overflowHook(), annotation.offload());
+    }
+
+    /**
+     * Reads the timeout and the policy annotations of a {@code @GraphNode} field, including
+     * composed annotations.
+     */
+    static ComposerMetadata.NodePolicies readNodePolicies(Field field) {
+        GraphNode node = AnnotatedElementUtils.findMergedAnnotation(field, GraphNode.class);
+        NodeConcurrency concurrency = AnnotatedElementUtils.findMergedAnnotation(field, NodeConcurrency.class);
+        NodeCache cache = AnnotatedElementUtils.findMergedAnnotation(field, NodeCache.class);
+        Hedge hedge = AnnotatedElementUtils.findMergedAnnotation(field, Hedge.class);
+        Coalesce coalesce = AnnotatedElementUtils.findMergedAnnotation(field, Coalesce.class);
+        BatchNode batch = AnnotatedElementUtils.findMergedAnnotation(field, BatchNode.class);
+        ParallelBranches parallelBranches = AnnotatedElementUtils.findMergedAnnotation(field, ParallelBranches.class);
+
+        return new ComposerMetadata.NodePolicies(
+                node != null && StringUtils.hasText(node.timeout()) ? node.timeout() : null,
+                node != null && StringUtils.hasText(node.timeoutFallback()) ? node.timeoutFallback() : null,
+                node != null && StringUtils.hasText(node.timeoutErrorKey()) ? node.timeoutErrorKey() : null,
+                concurrency != null ? new ComposerMetadata.NodePolicies.ConcurrencyPolicy(
+                        concurrency.maxConcurrent(), concurrency.maxQueued(), concurrency.queueTimeout()) : null,
+                cache != null ? new ComposerMetadata.NodePolicies.CachePolicy(
+                        Arrays.asList(cache.keys()), cache.maxSize(), cache.ttl(), cache.maxBytes()) : null,
+                hedge != null ? new ComposerMetadata.NodePolicies.HedgePolicy(
+                        hedge.delay(), hedge.percentile(), hedge.maxAttempts()) : null,
+                coalesce != null ? new ComposerMetadata.NodePolicies.CoalescePolicy(Arrays.asList(coalesce.keys())) : null,
+                batch != null ? new ComposerMetadata.NodePolicies.BatchPolicy(batch.maxBatchSize(), batch.maxWait()) : null,
+                parallelBranches != null ? new ComposerMetadata.NodePolicies.ParallelBranchesPolicy(
+                        parallelBranches.executor(), parallelBranches.maxParallelism()) : null
+        );
+    }
+
+    static Map<String, String> parseMappings(String[] mappings, String[] routes, String fieldName) {
+        if (mappings.length % 2 != 0) {
+            throw new IllegalArgumentException("Mappings must be pairs in field: " + fieldName);
+        }
+        if (mappings.length == 0 && routes.length == 0) {
+            throw new IllegalArgumentException("Either mappings or routes must be provided in field: " + fieldName);
+        }
+        Map<String, String> map = new HashMap<>();
+        for (String route : routes) {
+            map.put(route, route);
+        }
+        for (int i = 0; i < mappings.length; i += 2) {
+            map.put(mappings[i], mappings[i + 1]);
+        }
+        return map;
+    }
+
+    private static Function<Object, Object> accessor(Field field) {
+        MethodHandle getter;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+            getter = lookup.unreflectGetter(field).asType(ACCESSOR_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            // e.g. a composer in a module that is not open to this library
+            ReflectionUtils.makeAccessible(field);
+            return composer -> ReflectionUtils.getField(field, composer);
+        }
+
+        return composer -> {
+            try {
+                return (Object) getter.invokeExact(composer);
+            } catch (Throwable e) {
+                ReflectionUtils.rethrowRuntimeException(e);
+                return null;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,110 @@
+package cn.teacy.ai.core;
+
+import cn.teacy.ai.interfaces.GraphActionDecorator;
+import cn.teacy.ai.metadata.EdgeDescriptor;
+import cn.teacy.ai.metadata.NodeDescriptor;
+import com.alibaba.cloud.ai.graph.action.AsyncCommandAction;
+import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import com.alibaba.cloud.ai.graph.action.Command;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Records {@link GraphNodeExecutionEvent} and {@link GraphRouteDecisionEvent} around the actions
+ * registered by the compiler. While no recording enables the events, the wrapped actions only
+ * pay for an allocation and a flag check.
+ *
+ * @since 0.4.0
+ */
+final class FlightRecorderActionDecorator implements GraphActionDecorator {
+
+    static final FlightRecorderActionDecorator INSTANCE = new FlightRecorderActionDecorator();
+
+    private static final String OUTCOME_SUCCESS = "success";
+
+    private static final String OUTCOME_FAILURE = "failure";
+
+    private FlightRecorderActionDecorator() {
+    }
+
+    @Override
+    public AsyncNodeActionWithConfig decorateNode(NodeDescriptor node, AsyncNodeActionWithConfig action) {
+        String graphId = node.graphId();
+        String nodeId = node.nodeId();
+
+        return (state, config) -> {
+            GraphNodeExecutionEvent event = new GraphNodeExecutionEvent();
+            if (!event.isEnabled()) {
+                return action.apply(state, config);
+            }
+
+            event.invokingThread = Thread.currentThread();
+            event.begin();
+            CompletableFuture<Map<String, Object>> result;
+            try {
+                result = action.apply(state, config);
+            } catch (RuntimeException | Error e) {
+                commit(event, graphId, nodeId, false);
+                throw e;
+            }
+
+            result.whenComplete((update, e) -> commit(event, graphId, nodeId, e == null));
+            return result;
+        };
+    }
+
+    @Override
+    public AsyncCommandAction decorateEdge(EdgeDescriptor edge, AsyncCommandAction action) {
+        String graphId = edge.graphId();
+        String sourceNodeId = edge.sourceNodeId();
+        Map<String, String> routes = edge.routes();
+
+        return (state, config) -> {
+            GraphRouteDecisionEvent event = new GraphRouteDecisionEvent();
+            if (!event.isEnabled()) {
+                return action.apply(state, config);
+            }
+
+            event.invokingThread = Thread.currentThread();
+            event.begin();
+            CompletableFuture<Command> result;
+            try {
+                result = action.apply(state, config);
+            } catch (RuntimeException | Error e) {
+                commit(event, graphId, sourceNodeId, null, null, false);
+                throw e;
+            }
+
+            result.whenComplete((command, e) -> {
+                String route = command != null ? command.gotoNode() : null;
+                commit(event, graphId, sourceNodeId, route, route != null ? routes.get(route) : null, e == null);
+            });
+            return result;
+        };
+    }
+
+    private static void commit(GraphNodeExecutionEvent event, String graphId, String nodeId, boolean success) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.graphId = graphId;
+            event.nodeId = nodeId;
+            event.outcome = success ? OUTCOME_SUCCESS : OUTCOME_FAILURE;
+            event.commit();
+        }
+    }
+
+    private static void commit(GraphRouteDecisionEvent event, String graphId, String sourceNodeId,
+                               String route, String targetNodeId, boolean success) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.graphId = graphId;
+            event.sourceNodeId = sourceNodeId;
+            event.route = route;
+            event.targetNodeId = targetNodeId;
+            event.outcome = success ? OUTCOME_SUCCESS : OUTCOME_FAILURE;
+            event.commit();
+        }
+    }
+
+}
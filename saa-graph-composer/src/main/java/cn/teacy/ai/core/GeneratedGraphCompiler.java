@@ -0,0 +1,96 @@
+package cn.teacy.ai.core;
+
+import cn.teacy.ai.interfaces.GeneratedGraphDefinition;
+import cn.teacy.ai.metadata.ComposerMetadata;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.util.ClassUtils;
+
+import java.util.Optional;
+
+/**
+ * A GraphCompiler that prefers the {@code <Composer>GraphDefinition} classes generated by the
+ * {@code saa-graph-composer-processor} annotation processor over runtime reflection.
+ * <p>
+ * When no generated definition is found for a composer (the processor is not on the annotation
+ * processor path, or it skipped the class), compilation falls back to the reflective path of
+ * {@link SpringReflectiveGraphCompiler}. Note that the field based {@code handle*} hooks are not
+ * invoked for composers with a generated definition; subclasses relying on them should override
+ * {@link #resolveComposerMetadata(Class)} to return null.
+ *
+ * @since 0.4.0
+ */
+public class GeneratedGraphCompiler extends SpringReflectiveGraphCompiler {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneratedGraphCompiler.class);
+
+    private static final ClassValue<Optional<ComposerMetadata>> generatedMetadata = new ClassValue<>() {
+        @Override
+        protected Optional<ComposerMetadata> computeValue(@Nonnull Class<?> type) {
+            return Optional.ofNullable(loadGeneratedMetadata(type));
+        }
+    };
+
+    public GeneratedGraphCompiler(@Nonnull ConfigurableListableBeanFactory beanFactory) {
+        super(beanFactory);
+    }
+
+    @Nullable
+    @Override
+    protected ComposerMetadata resolveComposerMetadata(Class<?> composerClass) {
+        return generatedMetadata.get(composerClass)
+                .orElseGet(() -> super.resolveComposerMetadata(composerClass));
+    }
+
+    static void invalidate(Class<?> composerClass) {
+        generatedMetadata.remove(composerClass);
+    }
+
+    /**
+     * Resolves the name of the generated definition class for a composer,
+     * e.g. {@code com.example.Outer$Inner} to {@code com.example.Outer_InnerGraphDefinition}.
+     */
+    public static String definitionClassName(Class<?> composerClass) {
+        String packageName = composerClass.getPackageName();
+        String localName = packageName.isEmpty()
+                ? composerClass.getName()
+                : composerClass.getName().substring(packageName.length() + 1);
+
+        String simpleName = localName.replace('$', '_') + GeneratedGraphDefinition.CLASS_NAME_SUFFIX;
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    @Nullable
+    private static ComposerMetadata loadGeneratedMetadata(Class<?> composerClass) {
+        String className = definitionClassName(composerClass);
+
+        Class<?> definitionClass;
+        try {
+            definitionClass = ClassUtils.forName(className, composerClass.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            log.debug("No generated graph definition found for {}, falling back to reflection.", composerClass.getName());
+            return null;
+        }
+
+        if (!GeneratedGraphDefinition.class.isAssignableFrom(definitionClass)) {
+            log.warn("Class {} does not implement {}, falling back to reflection for {}.",
+                    className, GeneratedGraphDefinition.class.getSimpleName(), composerClass.getName());
+            return null;
+        }
+
+        ComposerMetadata metadata = ((GeneratedGraphDefinition) BeanUtils.instantiateClass(definitionClass)).metadata();
+
+        if (metadata.composerType() != composerClass) {
+            log.warn("Generated graph definition {} describes {} instead of {}, falling back to reflection.",
+                    className, metadata.composerType().getName(), composerClass.getName());
+            return null;
+        }
+
+        return metadata;
+    }
+
+}
@@ -3,29 +3,42 @@ package cn.teacy.ai.core;
 import cn.teacy.ai.annotation.CompiledFrom;
 import cn.teacy.ai.annotation.EnableGraphComposer;
 import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.support.GraphComposerIndex;
+import cn.teacy.ai.support.LazyCompiledGraphFactoryBean;
 import com.alibaba.cloud.ai.graph.CompiledGraph;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.support.*;
+import org.springframework.context.EnvironmentAware;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.AnnotationBeanNameGenerator;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.env.Environment;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
 import java.util.*;
 
+import static cn.teacy.ai.constants.ComposerConfigConstants.COMPOSER_INDEX_LOCATION;
 import static cn.teacy.ai.constants.ComposerConfigConstants.GRAPH_COMPILER_BEAN_NAME;
+import static cn.teacy.ai.constants.ComposerConfigConstants.IGNORE_COMPOSER_INDEX_PROPERTY;
 
-public class GraphAutoRegistrar implements ImportBeanDefinitionRegistrar, ResourceLoaderAware {
+public class GraphAutoRegistrar implements ImportBeanDefinitionRegistrar, ResourceLoaderAware, EnvironmentAware {
 
     private static final Logger log = LoggerFactory.getLogger(GraphAutoRegistrar.class);
 
@@ -33,23 +46,64 @@ public class GraphAutoRegistrar implements ImportBeanDefinitionRegistrar, Resour
 
     private ResourceLoader resourceLoader;
 
+    private MetadataReaderFactory metadataReaderFactory;
+
+    @Nullable
+    private Environment environment;
+
     @Override
     public void setResourceLoader(@Nonnull ResourceLoader resourceLoader) {
         this.resourceLoader = resourceLoader;
     }
 
+    @Override
+    public void setEnvironment(@Nonnull Environment environment) {
+        this.environment = environment;
+    }
+
     @Override
     public void registerBeanDefinitions(@Nonnull AnnotationMetadata importingClassMetadata, @Nonnull BeanDefinitionRegistry registry) {
         registerDefaultCompilerIfNecessary(registry);
 
         Set<String> basePackages = getBasePackages(importingClassMetadata);
 
-        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
-        scanner.setResourceLoader(resourceLoader);
-        scanner.addIncludeFilter(new AnnotationTypeFilter(GraphComposer.class));
+        GraphComposerIndex index = ignoreIndex() ? null : GraphComposerIndex.load(getClassLoader());
+        if (index == null) {
+            log.debug("No graph composer index found at [{}], scanning base packages {}.", COMPOSER_INDEX_LOCATION, basePackages);
+        }
+
+        ApplicationStartup applicationStartup = registry instanceof ConfigurableBeanFactory beanFactory
+                ? beanFactory.getApplicationStartup()
+                : ApplicationStartup.DEFAULT;
+
+        ClassPathScanningCandidateComponentProvider scanner = null;
 
         for (String basePackage : basePackages) {
-            Set<BeanDefinition> candidateComponents = scanner.findCandidateComponents(basePackage);
+            StartupStep step = applicationStartup.start("graph-composer.scan").tag("basePackage", basePackage);
+            GraphComposerScanEvent event = new GraphComposerScanEvent();
+            event.begin();
+
+            Set<BeanDefinition> candidateComponents = index != null
+                    ? index.findCandidateComponents(basePackage, getMetadataReaderFactory())
+                    : null;
+            String source = "index";
+
+            if (candidateComponents == null) {
+                if (scanner == null) {
+                    scanner = createScanner();
+                }
+                candidateComponents = scanner.findCandidateComponents(basePackage);
+                source = "classpath";
+            }
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.basePackage = basePackage;
+                event.source = source;
+                event.candidates = candidateComponents.size();
+                event.commit();
+            }
+            step.tag("source", source).tag("candidates", String.valueOf(candidateComponents.size())).end();
 
             for (BeanDefinition candidate : candidateComponents) {
                 registerCompiledGraphBean(registry, candidate);
@@ -57,10 +111,37 @@ public class GraphAutoRegistrar implements ImportBeanDefinitionRegistrar, Resour
         }
     }
 
+    private boolean ignoreIndex() {
+        return SpringProperties.getFlag(IGNORE_COMPOSER_INDEX_PROPERTY)
+                || (environment != null && environment.getProperty(IGNORE_COMPOSER_INDEX_PROPERTY, Boolean.class, false));
+    }
+
+    private ClassPathScanningCandidateComponentProvider createScanner() {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.setResourceLoader(resourceLoader);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(GraphComposer.class));
+        return scanner;
+    }
+
+    private MetadataReaderFactory getMetadataReaderFactory() {
+        if (this.metadataReaderFactory == null) {
+            this.metadataReaderFactory = this.resourceLoader != null
+                    ? new CachingMetadataReaderFactory(this.resourceLoader)
+                    : new CachingMetadataReaderFactory();
+        }
+        return this.metadataReaderFactory;
+    }
+
+    private ClassLoader getClassLoader() {
+        return this.resourceLoader != null
+                ? this.resourceLoader.getClassLoader()
+                : ClassUtils.getDefaultClassLoader();
+    }
+
     protected void registerDefaultCompilerIfNecessary(BeanDefinitionRegistry registry) {
         if (!registry.containsBeanDefinition(GRAPH_COMPILER_BEAN_NAME)) {
 
-            BeanDefinitionBuilder builder = BeanDefinitionBuilder.genericBeanDefinition(SpringReflectiveGraphCompiler.class);
+            BeanDefinitionBuilder builder = BeanDefinitionBuilder.genericBeanDefinition(GeneratedGraphCompiler.class);
             registry.registerBeanDefinition(GRAPH_COMPILER_BEAN_NAME, builder.getBeanDefinition());
         }
     }
@@ -98,20 +179,35 @@ public class GraphAutoRegistrar implements ImportBeanDefinitionRegistrar, Resour
     private void registerCompiledGraphBean(BeanDefinitionRegistry registry, BeanDefinition composerBeanDefinition) {
         String composerBeanName = beanNameGenerator.generateBeanName(composerBeanDefinition, registry);
 
-        if (!registry.containsBeanDefinition(composerBeanName)) {
-            registry.registerBeanDefinition(composerBeanName, composerBeanDefinition);
-        }
-
         String targetBeanName = null;
+        boolean autoRegister = true;
+        boolean lazy = isLazyCompileByDefault();
+
         if (composerBeanDefinition instanceof AnnotatedBeanDefinition annotatedDef) {
             Map<String, Object> attributes = annotatedDef.getMetadata()
                     .getAnnotationAttributes(GraphComposer.class.getName());
 
             if (attributes != null) {
                 targetBeanName = (String) attributes.get("targetBeanName");
+                autoRegister = !Boolean.FALSE.equals(attributes.get("autoRegister"));
+                lazy = lazy || Boolean.TRUE.equals(attributes.get("lazy"));
             }
         }
 
+        if (autoRegister && lazy) {
+            // keep the composer and its dependencies out of startup as well
+            composerBeanDefinition.setLazyInit(true);
+        }
+
+        if (!registry.containsBeanDefinition(composerBeanName)) {
+            registry.registerBeanDefinition(composerBeanName, composerBeanDefinition);
+        }
+
+        if (!autoRegister) {
+            log.debug("Skipping CompiledGraph registration for composer '{}', autoRegister is disabled.", composerBeanName);
+            return;
+        }
+
         if (!StringUtils.hasText(targetBeanName)) {
             if (composerBeanName.endsWith("Composer")) {
                 // "logAnalyseGraphComposer" -> "logAnalyseGraph"
@@ -122,26 +218,38 @@ public class GraphAutoRegistrar implements ImportBeanDefinitionRegistrar, Resour
             }
         }
 
-        BeanDefinitionBuilder builder = BeanDefinitionBuilder.genericBeanDefinition(CompiledGraph.class);
-        builder.setFactoryMethodOnBean("compile", GRAPH_COMPILER_BEAN_NAME);
-
-        builder.addConstructorArgReference(composerBeanName);
+        BeanDefinitionBuilder builder;
+        if (lazy) {
+            builder = BeanDefinitionBuilder.genericBeanDefinition(LazyCompiledGraphFactoryBean.class);
+            builder.addConstructorArgValue(composerBeanName);
+        } else {
+            builder = BeanDefinitionBuilder.genericBeanDefinition(CompiledGraph.class);
+            builder.setFactoryMethodOnBean("compile", GRAPH_COMPILER_BEAN_NAME);
+            builder.addConstructorArgReference(composerBeanName);
+        }
 
         addCompiledFromQualifier(builder.getBeanDefinition(), composerBeanDefinition.getBeanClassName());
 
         registry.registerBeanDefinition(targetBeanName, builder.getBeanDefinition());
     }
 
+    /**
+     * Whether composers that do not declare {@code @GraphComposer(lazy = true)} should be registered as
+     * lazy {@link CompiledGraph} handles as well.
+     *
+     * @since 0.4.0
+     */
+    protected boolean isLazyCompileByDefault() {
+        return false;
+    }
+
     protected void addCompiledFromQualifier(AbstractBeanDefinition graphBeanDefinition, String composerClassName) {
         if (!StringUtils.hasText(composerClassName)) {
             return;
         }
 
         try {
-            ClassLoader classLoader = this.resourceLoader != null
-                    ? this.resourceLoader.getClassLoader()
-                    : ClassUtils.getDefaultClassLoader();
-            Class<?> composerClass = ClassUtils.forName(composerClassName, classLoader);
+            Class<?> composerClass = ClassUtils.forName(composerClassName, getClassLoader());
 
             AutowireCandidateQualifier qualifier = new AutowireCandidateQualifier(CompiledFrom.class, composerClass);
 
@@ -0,0 +1,29 @@
+package cn.teacy.ai.core;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event recorded for each phase of compiling a composer.
+ *
+ * @since 0.4.0
+ */
+@Name("cn.teacy.ai.GraphCompilePhase")
+@Label("Graph Compile Phase")
+@Category({"Spring AI Alibaba", "Graph Composer"})
+@Description("A phase of compiling a @GraphComposer into a CompiledGraph")
+@StackTrace(false)
+class GraphCompilePhaseEvent extends Event {
+
+    @Label("Graph Id")
+    String graphId;
+
+    @Label("Composer")
+    Class<?> composer;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Failed")
+    boolean failed;
+
+}
@@ -0,0 +1,27 @@
+package cn.teacy.ai.core;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event recorded for each base package searched for composers.
+ *
+ * @since 0.4.0
+ */
+@Name("cn.teacy.ai.GraphComposerScan")
+@Label("Graph Composer Scan")
+@Category({"Spring AI Alibaba", "Graph Composer"})
+@Description("Resolving the @GraphComposer candidates of a base package")
+@StackTrace(false)
+class GraphComposerScanEvent extends Event {
+
+    @Label("Base Package")
+    String basePackage;
+
+    @Label("Source")
+    @Description("Whether the candidates were read from the composer index or found by classpath scanning")
+    String source;
+
+    @Label("Candidates")
+    int candidates;
+
+}
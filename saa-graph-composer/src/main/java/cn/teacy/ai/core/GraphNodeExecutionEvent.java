@@ -0,0 +1,30 @@
+package cn.teacy.ai.core;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event recorded for each execution of a node action.
+ *
+ * @since 0.4.0
+ */
+@Name("cn.teacy.ai.GraphNodeExecution")
+@Label("Graph Node Execution")
+@Category({"Spring AI Alibaba", "Graph Composer"})
+@Description("Execution of a @GraphNode action, from invocation until its future completes")
+@StackTrace(false)
+class GraphNodeExecutionEvent extends Event {
+
+    @Label("Graph Id")
+    String graphId;
+
+    @Label("Node Id")
+    String nodeId;
+
+    @Label("Invoking Thread")
+    @Description("The thread that invoked the action, the event thread is the one completing it")
+    Thread invokingThread;
+
+    @Label("Outcome")
+    String outcome;
+
+}
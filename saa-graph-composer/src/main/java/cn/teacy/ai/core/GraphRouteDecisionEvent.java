@@ -0,0 +1,38 @@
+package cn.teacy.ai.core;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event recorded for each evaluation of a conditional edge.
+ *
+ * @since 0.4.0
+ */
+@Name("cn.teacy.ai.GraphRouteDecision")
+@Label("Graph Route Decision")
+@Category({"Spring AI Alibaba", "Graph Composer"})
+@Description("Evaluation of a @ConditionalEdge action and the node it routed to")
+@StackTrace(false)
+class GraphRouteDecisionEvent extends Event {
+
+    @Label("Graph Id")
+    String graphId;
+
+    @Label("Source Node")
+    String sourceNodeId;
+
+    @Label("Route")
+    @Description("The key returned by the edge action")
+    String route;
+
+    @Label("Target Node")
+    @Description("The node the route is mapped to, null if the route is not mapped")
+    String targetNodeId;
+
+    @Label("Invoking Thread")
+    @Description("The thread that invoked the action, the event thread is the one completing it")
+    Thread invokingThread;
+
+    @Label("Outcome")
+    String outcome;
+
+}
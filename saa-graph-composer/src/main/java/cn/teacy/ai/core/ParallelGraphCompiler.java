@@ -0,0 +1,377 @@
+package cn.teacy.ai.core;
+
+import cn.teacy.ai.annotation.CompiledFrom;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.exception.GraphDefinitionException;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Parameter;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static cn.teacy.ai.constants.ComposerConfigConstants.GRAPH_COMPILER_BEAN_NAME;
+
+/**
+ * A {@link GraphCompiler} that compiles the auto-registered {@link CompiledGraph} beans in parallel
+ * as soon as the first of them is requested from the bean factory.
+ * <p>
+ * Composers are ordered by the compiled graphs they embed as subgraphs, so a graph is only built once
+ * the graphs it depends on are available. Each level of that dependency graph is prepared on the calling
+ * thread, where missing fields may be resolved from the bean factory, and then built concurrently on a
+ * {@link ForkJoinPool}. Compilation therefore finishes while the context is still being refreshed, and
+ * the first failing level aborts the refresh with a single exception reporting every broken graph.
+ * <p>
+ * Graphs depending on the graph whose creation triggered the compilation cannot be prepared before that
+ * bean exists; they are compiled in a further round once one of them is requested. Graphs whose
+ * dependencies cannot be determined from their composer are compiled last, while lazy graphs and
+ * composers that are not singletons are compiled sequentially when requested.
+ *
+ * @since 0.4.0
+ */
+public class ParallelGraphCompiler implements GraphCompiler {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelGraphCompiler.class);
+
+    private static final String COMPILE_METHOD_NAME = "compile";
+
+    private final ReflectiveGraphCompiler delegate;
+
+    private final ConfigurableListableBeanFactory beanFactory;
+
+    private final int parallelism;
+
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    private final Map<Object, CompiledGraph> compiledGraphs = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    public ParallelGraphCompiler(@Nonnull ReflectiveGraphCompiler delegate,
+                                 @Nonnull ConfigurableListableBeanFactory beanFactory,
+                                 int parallelism) {
+        Assert.isTrue(parallelism > 0, "parallelism must be positive");
+        this.delegate = delegate;
+        this.beanFactory = beanFactory;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public CompiledGraph compile(Object graphComposer) {
+        CompiledGraph compiled = compiledGraphs.remove(graphComposer);
+        if (compiled != null) {
+            return compiled;
+        }
+
+        synchronized (this) {
+            compileRound(graphComposer);
+        }
+
+        compiled = compiledGraphs.remove(graphComposer);
+        return compiled != null ? compiled : delegate.compile(graphComposer);
+    }
+
+    /**
+     * A {@link CompiledGraph} bean produced by the graph compiler, and the graphs its composer embeds.
+     */
+    private record GraphTask(String graphBeanName, String composerBeanName, Set<String> dependencies) {}
+
+    /**
+     * Compiles every pending graph bean, triggered by the creation of the graph of the given composer.
+     * Graphs depending on that graph cannot be prepared until its bean exists, they are left to the round
+     * triggered by their own creation.
+     */
+    private void compileRound(Object triggeringComposer) {
+        Map<String, GraphTask> tasks = collectGraphTasks();
+        String triggeringGraph = findGraphOf(tasks, triggeringComposer);
+        if (triggeringGraph == null) {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+
+        Set<String> deferred = dependentsOf(tasks, triggeringGraph);
+        List<List<GraphTask>> levels = sortByDependencies(tasks, deferred);
+
+        AtomicLong sequentialNanos = new AtomicLong();
+        int compiled = 0;
+
+        ForkJoinPool pool = createPool();
+        try {
+            for (List<GraphTask> level : levels) {
+                compiled += compileLevel(level, triggeringGraph, triggeringComposer, deferred, pool, sequentialNanos);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        long sequentialMillis = TimeUnit.NANOSECONDS.toMillis(sequentialNanos.get());
+
+        log.info("Compiled {} graph(s) in {} level(s) with parallelism {} in {} ms (sequential compile time {} ms, saved {} ms).",
+                compiled, levels.size(), parallelism, wallMillis, sequentialMillis, Math.max(0, sequentialMillis - wallMillis));
+    }
+
+    private int compileLevel(List<GraphTask> level, @Nullable String triggeringGraph, Object triggeringComposer,
+                             Set<String> deferred, ForkJoinPool pool, AtomicLong sequentialNanos) {
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        Map<String, Future<?>> builds = new LinkedHashMap<>();
+
+        for (GraphTask task : level) {
+            String graphBeanName = task.graphBeanName();
+            if (deferred.contains(graphBeanName) || beanFactory.containsSingleton(graphBeanName)) {
+                continue;
+            }
+
+            try {
+                Object composer = graphBeanName.equals(triggeringGraph)
+                        ? triggeringComposer
+                        : beanFactory.getBean(task.composerBeanName());
+
+                long prepareStart = System.nanoTime();
+                ReflectiveGraphCompiler.PreparedGraph prepared = delegate.prepare(composer);
+                sequentialNanos.addAndGet(System.nanoTime() - prepareStart);
+
+                builds.put(graphBeanName, pool.submit(() -> {
+                    long buildStart = System.nanoTime();
+                    compiledGraphs.put(composer, delegate.build(prepared));
+                    sequentialNanos.addAndGet(System.nanoTime() - buildStart);
+                }));
+
+            } catch (BeansException e) {
+                if (!e.contains(BeanCurrentlyInCreationException.class)) {
+                    throw e;
+                }
+                log.debug("Deferring compilation of graph '{}', its composer depends on a graph currently in creation.", graphBeanName);
+                deferred.add(graphBeanName);
+
+            } catch (RuntimeException e) {
+                failures.put(graphBeanName, e);
+            }
+        }
+
+        for (Map.Entry<String, Future<?>> build : builds.entrySet()) {
+            try {
+                build.getValue().get();
+            } catch (ExecutionException e) {
+                failures.put(build.getKey(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GraphDefinitionException("Interrupted while compiling graph: " + build.getKey(), e);
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw aggregate(failures);
+        }
+
+        return builds.size();
+    }
+
+    private GraphDefinitionException aggregate(Map<String, Throwable> failures) {
+        StringBuilder message = new StringBuilder(String.format("Failed to compile %d graph(s):", failures.size()));
+        failures.forEach((graph, cause) -> message.append("\n - ").append(graph).append(": ").append(cause.getMessage()));
+
+        Iterator<Throwable> causes = failures.values().iterator();
+        GraphDefinitionException exception = new GraphDefinitionException(message.toString(), causes.next());
+        causes.forEachRemaining(exception::addSuppressed);
+
+        return exception;
+    }
+
+    private ForkJoinPool createPool() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("graph-compile-" + thread.getPoolIndex());
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        }, null, false);
+    }
+
+    private Map<String, GraphTask> collectGraphTasks() {
+        Map<String, String> composerBeanNames = new LinkedHashMap<>();
+
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+
+            // definitions generated ahead of time keep the factory bean but not the factory method name
+            String factoryMethodName = definition.getFactoryMethodName();
+            if (!GRAPH_COMPILER_BEAN_NAME.equals(definition.getFactoryBeanName())
+                    || (factoryMethodName != null && !COMPILE_METHOD_NAME.equals(factoryMethodName))
+                    || definition.isLazyInit() || !definition.isSingleton()
+                    || beanFactory.containsSingleton(beanName)) {
+                continue;
+            }
+
+            ValueHolder argument = definition.getConstructorArgumentValues().getIndexedArgumentValue(0, null);
+            if (argument != null && argument.getValue() instanceof RuntimeBeanReference reference
+                    && beanFactory.containsBeanDefinition(reference.getBeanName())
+                    && beanFactory.isSingleton(reference.getBeanName())
+                    && !isCompiled(reference.getBeanName())) {
+                composerBeanNames.put(beanName, reference.getBeanName());
+            }
+        }
+
+        Map<String, GraphTask> tasks = new LinkedHashMap<>();
+        composerBeanNames.forEach((graphBeanName, composerBeanName) -> tasks.put(graphBeanName,
+                new GraphTask(graphBeanName, composerBeanName, resolveDependencies(composerBeanName, composerBeanNames))));
+
+        return tasks;
+    }
+
+    private boolean isCompiled(String composerBeanName) {
+        return beanFactory.containsSingleton(composerBeanName)
+                && compiledGraphs.containsKey(beanFactory.getSingleton(composerBeanName));
+    }
+
+    @Nullable
+    private String findGraphOf(Map<String, GraphTask> tasks, Object composer) {
+        for (GraphTask task : tasks.values()) {
+            if (beanFactory.containsSingleton(task.composerBeanName())
+                    && beanFactory.getSingleton(task.composerBeanName()) == composer) {
+                return task.graphBeanName();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolves the graph beans a composer embeds, from its {@link CompiledGraph} typed fields and constructor
+     * parameters. A dependency that cannot be matched to a known graph makes the composer depend on all of them.
+     */
+    private Set<String> resolveDependencies(String composerBeanName, Map<String, String> composerBeanNames) {
+        Class<?> composerClass = beanFactory.getType(composerBeanName);
+        if (composerClass == null) {
+            return new LinkedHashSet<>(composerBeanNames.keySet());
+        }
+
+        Set<String> dependencies = new LinkedHashSet<>();
+        boolean[] unresolved = new boolean[1];
+
+        ReflectionUtils.doWithFields(composerClass, field -> {
+            if (CompiledGraph.class.isAssignableFrom(field.getType())) {
+                GraphNode graphNode = field.getAnnotation(GraphNode.class);
+                String nodeId = graphNode != null && StringUtils.hasText(graphNode.id()) ? graphNode.id() : null;
+
+                unresolved[0] |= !matchGraph(field, composerBeanNames, dependencies, nodeId, field.getName());
+            }
+        });
+
+        for (Constructor<?> constructor : composerClass.getDeclaredConstructors()) {
+            String[] parameterNames = parameterNameDiscoverer.getParameterNames(constructor);
+            Parameter[] parameters = constructor.getParameters();
+
+            for (int i = 0; i < parameters.length; i++) {
+                if (CompiledGraph.class.isAssignableFrom(parameters[i].getType())) {
+                    String parameterName = parameterNames != null ? parameterNames[i] : null;
+                    unresolved[0] |= !matchGraph(parameters[i], composerBeanNames, dependencies, parameterName);
+                }
+            }
+        }
+
+        if (unresolved[0]) {
+            dependencies.addAll(composerBeanNames.keySet());
+        }
+
+        dependencies.removeIf(graph -> composerBeanName.equals(composerBeanNames.get(graph)));
+        return dependencies;
+    }
+
+    private boolean matchGraph(AnnotatedElement injectionPoint, Map<String, String> composerBeanNames,
+                               Set<String> dependencies, @Nullable String... candidateNames) {
+        CompiledFrom compiledFrom = injectionPoint.getAnnotation(CompiledFrom.class);
+        if (compiledFrom != null) {
+            boolean matched = false;
+            for (Map.Entry<String, String> entry : composerBeanNames.entrySet()) {
+                Class<?> type = beanFactory.getType(entry.getValue());
+                if (type != null && compiledFrom.value().isAssignableFrom(type)) {
+                    dependencies.add(entry.getKey());
+                    matched = true;
+                }
+            }
+            return matched;
+        }
+
+        Qualifier qualifier = injectionPoint.getAnnotation(Qualifier.class);
+        if (qualifier != null && composerBeanNames.containsKey(qualifier.value())) {
+            dependencies.add(qualifier.value());
+            return true;
+        }
+
+        for (String candidateName : candidateNames) {
+            if (candidateName != null && composerBeanNames.containsKey(candidateName)) {
+                dependencies.add(candidateName);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private Set<String> dependentsOf(Map<String, GraphTask> tasks, String graphBeanName) {
+        Set<String> dependents = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>(List.of(graphBeanName));
+
+        while (!pending.isEmpty()) {
+            String current = pending.pop();
+            for (GraphTask task : tasks.values()) {
+                if (task.dependencies().contains(current) && dependents.add(task.graphBeanName())) {
+                    pending.push(task.graphBeanName());
+                }
+            }
+        }
+
+        dependents.remove(graphBeanName);
+        return dependents;
+    }
+
+    /**
+     * Groups the graphs into levels whose members only depend on graphs of earlier levels. Graphs caught in a
+     * dependency cycle are left to the sequential compilation.
+     */
+    private List<List<GraphTask>> sortByDependencies(Map<String, GraphTask> tasks, Set<String> deferred) {
+        List<List<GraphTask>> levels = new ArrayList<>();
+        Map<String, GraphTask> remaining = new LinkedHashMap<>(tasks);
+        remaining.keySet().removeAll(deferred);
+
+        while (!remaining.isEmpty()) {
+            List<GraphTask> level = remaining.values().stream()
+                    .filter(task -> task.dependencies().stream().noneMatch(remaining::containsKey))
+                    .toList();
+
+            if (level.isEmpty()) {
+                log.debug("Graphs {} have cyclic dependencies and will be compiled sequentially.", remaining.keySet());
+                deferred.addAll(remaining.keySet());
+                break;
+            }
+
+            level.forEach(task -> remaining.remove(task.graphBeanName()));
+            levels.add(level);
+        }
+
+        return levels;
+    }
+
+}
@@ -2,11 +2,39 @@ package cn.teacy.ai.core;
 
 import cn.teacy.ai.annotation.*;
 import cn.teacy.ai.exception.GraphDefinitionException;
+import cn.teacy.ai.interfaces.AppendOverflowHook;
+import cn.teacy.ai.interfaces.BatchNodeAction;
+import cn.teacy.ai.interfaces.GraphActionDecorator;
 import cn.teacy.ai.interfaces.GraphBuildLifecycle;
+import cn.teacy.ai.interfaces.GraphCompileListener;
+import cn.teacy.ai.interfaces.GraphCompileListener.Phase;
+import cn.teacy.ai.interfaces.NodePolicyListener;
+import cn.teacy.ai.metadata.ComposerMetadata;
+import cn.teacy.ai.metadata.EdgeDescriptor;
+import cn.teacy.ai.metadata.GraphDescriptor;
+import cn.teacy.ai.metadata.NodeDescriptor;
+import cn.teacy.ai.strategy.BoundedAppendStrategy;
+import cn.teacy.ai.strategy.HistogramStrategy;
+import cn.teacy.ai.strategy.MaxDoubleStrategy;
+import cn.teacy.ai.strategy.OffloadStrategy;
+import cn.teacy.ai.strategy.PersistentAppendStrategy;
+import cn.teacy.ai.strategy.PersistentMergeStrategy;
+import cn.teacy.ai.strategy.SumLongStrategy;
+import cn.teacy.ai.support.BlobStore;
+import cn.teacy.ai.support.LazyCompiledGraphFactoryBean;
+import cn.teacy.ai.support.NodeBatcher;
+import cn.teacy.ai.support.NodeBulkhead;
+import cn.teacy.ai.support.NodeCoalescer;
+import cn.teacy.ai.support.NodeHedger;
+import cn.teacy.ai.support.NodeResultCache;
+import cn.teacy.ai.support.ParallelBranchDispatcher;
+import cn.teacy.ai.support.StateSizeMonitor;
 import cn.teacy.ai.utils.UnifyUtils;
 import com.alibaba.cloud.ai.graph.*;
 import com.alibaba.cloud.ai.graph.action.*;
 import com.alibaba.cloud.ai.graph.exception.GraphStateException;
+import com.alibaba.cloud.ai.graph.internal.node.Node;
+import com.alibaba.cloud.ai.graph.internal.node.ParallelNode;
 import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
 import com.alibaba.cloud.ai.graph.state.strategy.MergeStrategy;
 import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
@@ -15,22 +43,79 @@ import jakarta.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
+import org.springframework.format.datetime.standard.DurationFormatterUtils;
+import org.springframework.util.Assert;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
+import java.lang.reflect.Method;
+import java.time.DateTimeException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 public class ReflectiveGraphCompiler implements GraphCompiler {
 
     private static final Logger log = LoggerFactory.getLogger(ReflectiveGraphCompiler.class);
 
+    /**
+     * The name of the field holding the node action factories of a {@link CompiledGraph}, which has
+     * no public way to replace the action of a node.
+     *
+     * @since 0.4.0
+     */
+    public static final String NODE_FACTORIES_FIELD = "nodeFactories";
+
+    /**
+     * The accessible node factories field, or null if this version of the engine has none or it
+     * cannot be made accessible, in which case {@link ParallelBranches} is rejected.
+     */
+    @Nullable
+    private static final Field nodeFactoriesField = findNodeFactoriesField();
+
+    private static final ClassValue<Boolean> overridesFieldHooks = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(@Nonnull Class<?> compilerType) {
+            return overrides(compilerType, "handleGraphKey", CompileContext.class, Field.class, GraphKey.class)
+                    || overrides(compilerType, "handleGraphNode", CompileContext.class, Field.class, GraphNode.class)
+                    || overrides(compilerType, "handleConditionalEdge", CompileContext.class, Field.class, ConditionalEdge.class)
+                    || overrides(compilerType, "handleCompileConfig", CompileContext.class, Field.class, GraphCompileConfig.class)
+                    || overrides(compilerType, "handleOtherField", CompileContext.class, Field.class);
+        }
+
+        private boolean overrides(Class<?> compilerType, String name, Class<?>... parameterTypes) {
+            Method method = ReflectionUtils.findMethod(compilerType, name, parameterTypes);
+            return method != null && method.getDeclaringClass() != ReflectiveGraphCompiler.class;
+        }
+    };
+
     protected static class CompileContext {
+        private final String graphId;
         private final Object composerInstance;
         private final Map<String, KeyStrategy> keyStrategies = new HashMap<>();
         private final List<GraphOperation> operations = new ArrayList<>();
+        private final Map<String, String> subgraphs = new LinkedHashMap<>();
+        private final List<CompiledGraphOperation> compiledOperations = new ArrayList<>();
+        private final Set<String> graphKeys = new LinkedHashSet<>();
+
+        /**
+         * The budget of the state size and its monitor, which is set once all keys are registered,
+         * or null if the graph does not account its state size.
+         */
+        private long maxStateBytes;
+        @Nullable
+        private AtomicReference<StateSizeMonitor> stateSizeMonitor;
         private CompileConfig compileConfig;
 
         private static final ClassValue<KeyStrategy> strategyCache = new ClassValue<>() {
@@ -40,10 +125,46 @@ public class ReflectiveGraphCompiler implements GraphCompiler {
             }
         };
 
+        private static final KeyStrategy PERSISTENT_APPEND = new PersistentAppendStrategy();
+
+        private static final KeyStrategy PERSISTENT_MERGE = new PersistentMergeStrategy();
+
+        private static final KeyStrategy SUM_LONG = new SumLongStrategy();
+
+        private static final KeyStrategy MAX_DOUBLE = new MaxDoubleStrategy();
+
+        private static final KeyStrategy HISTOGRAM = new HistogramStrategy();
+
+        private static final ClassValue<AppendOverflowHook> overflowHookCache = new ClassValue<>() {
+            @Override
+            protected AppendOverflowHook computeValue(@Nonnull Class<?> type) {
+                return (AppendOverflowHook) BeanUtils.instantiateClass(type);
+            }
+        };
+
+        private record BoundedAppend(int maxEntries, GraphKey.Overflow overflow, Class<? extends AppendOverflowHook> hook) {}
+
+        private static final Map<BoundedAppend, KeyStrategy> boundedStrategyCache = new ConcurrentHashMap<>();
+
         protected CompileContext(Object composerInstance) {
+            this(composerInstance.getClass().getSimpleName(), composerInstance);
+        }
+
+        /**
+         * @since 0.4.0
+         */
+        protected CompileContext(String graphId, Object composerInstance) {
+            this.graphId = graphId;
             this.composerInstance = composerInstance;
         }
 
+        /**
+         * @since 0.4.0
+         */
+        public String graphId() {
+            return graphId;
+        }
+
         public Object composerInstance() {
             return composerInstance;
         }
@@ -56,6 +177,17 @@ public class ReflectiveGraphCompiler implements GraphCompiler {
             this.keyStrategies.put(key, strategy);
         }
 
+        /**
+         * Registers the strategy of a key declared by a {@code @GraphKey}, whose size is accounted
+         * separately by the {@link StateSizeMonitor} of the graph.
+         *
+         * @since 0.4.0
+         */
+        public void addGraphKey(String key, KeyStrategy strategy) {
+            addKeyStrategy(key, strategy);
+            this.graphKeys.add(key);
+        }
+
         public boolean hasCompileConfig() {
             return this.compileConfig != null;
         }
@@ -80,7 +212,8 @@ public class ReflectiveGraphCompiler implements GraphCompiler {
                     composerInstance,
                     Map.copyOf(keyStrategies),
                     List.copyOf(operations),
-                    compileConfig
+                    compileConfig,
+                    List.copyOf(compiledOperations)
             );
         }
 
@@ -92,27 +225,267 @@ public class ReflectiveGraphCompiler implements GraphCompiler {
                 return KeyStrategy.APPEND;
             } else if (keyStrategyClass == MergeStrategy.class) {
                 return KeyStrategy.MERGE;
+            } else if (keyStrategyClass == PersistentAppendStrategy.class) {
+                return PERSISTENT_APPEND;
+            } else if (keyStrategyClass == PersistentMergeStrategy.class) {
+                return PERSISTENT_MERGE;
+            } else if (keyStrategyClass == SumLongStrategy.class) {
+                return SUM_LONG;
+            } else if (keyStrategyClass == MaxDoubleStrategy.class) {
+                return MAX_DOUBLE;
+            } else if (keyStrategyClass == HistogramStrategy.class) {
+                return HISTOGRAM;
             }
 
             return strategyCache.get(keyStrategyClass);
         }
 
+        /**
+         * Resolves the strategy declared by a {@code @GraphKey}, bounded by its
+         * {@link GraphKey#maxEntries()}. Bounded strategies are cached by their settings.
+         *
+         * @throws IllegalArgumentException if the bounding settings are invalid
+         * @since 0.4.0
+         */
+        public KeyStrategy getKeyStrategy(@Nonnull GraphKey annotation) {
+            return getKeyStrategy(annotation.strategy(), annotation.maxEntries(), annotation.overflow(), annotation.overflowHook());
+        }
+
+        /**
+         * Resolves the strategy of a key described by the composer metadata, like
+         * {@link #getKeyStrategy(GraphKey)}.
+         *
+         * @throws IllegalArgumentException if the bounding settings are invalid
+         * @since 0.4.0
+         */
+        public KeyStrategy getKeyStrategy(@Nonnull ComposerMetadata.KeyMetadata key) {
+            return getKeyStrategy(key.strategy(), key.maxEntries(), key.overflow(), key.overflowHook());
+        }
+
+        private KeyStrategy getKeyStrategy(Class<? extends KeyStrategy> type, int maxEntries, GraphKey.Overflow overflow,
+                                           Class<? extends AppendOverflowHook> overflowHook) {
+            if (maxEntries == 0) {
+                Assert.isTrue(type != BoundedAppendStrategy.class, "BoundedAppendStrategy requires maxEntries");
+                return getKeyStrategy(type);
+            }
+            Assert.isTrue(type == AppendStrategy.class || type == BoundedAppendStrategy.class,
+                    () -> "maxEntries requires AppendStrategy or BoundedAppendStrategy, but the strategy is " + type.getSimpleName());
+
+            BoundedAppend settings = new BoundedAppend(maxEntries, overflow, overflowHook);
+            KeyStrategy cached = boundedStrategyCache.get(settings);
+            if (cached != null) {
+                return cached;
+            }
+            AppendOverflowHook hook = settings.hook() == AppendOverflowHook.class ? null : overflowHookCache.get(settings.hook());
+            KeyStrategy strategy = new BoundedAppendStrategy(settings.maxEntries(), settings.overflow(), hook);
+            KeyStrategy previous = boundedStrategyCache.putIfAbsent(settings, strategy);
+            return previous != null ? previous : strategy;
+        }
+
     }
 
     protected record GraphDefinition(
             @Nonnull Object composerInstance,
             @Nonnull Map<String, KeyStrategy> keyStrategies,
             @Nonnull List<GraphOperation> operations,
-            @Nullable CompileConfig compileConfig
-    ) {}
+            @Nullable CompileConfig compileConfig,
+            @Nonnull List<CompiledGraphOperation> compiledOperations
+    ) {
+
+        protected GraphDefinition(Object composerInstance, Map<String, KeyStrategy> keyStrategies,
+                                  List<GraphOperation> operations, @Nullable CompileConfig compileConfig) {
+            this(composerInstance, keyStrategies, operations, compileConfig, List.of());
+        }
+
+    }
 
     @FunctionalInterface
     protected interface GraphOperation {
         void execute(StateGraph builder) throws GraphStateException;
     }
 
+    /**
+     * An operation applied to the graph once it has been compiled.
+     *
+     * @since 0.4.0
+     */
+    @FunctionalInterface
+    protected interface CompiledGraphOperation {
+        void execute(CompiledGraph graph);
+    }
+
+    /**
+     * A composer whose definition has been collected but not yet built into a {@link StateGraph}.
+     *
+     * @since 0.4.0
+     */
+    protected record PreparedGraph(
+            @Nonnull String graphId,
+            @Nonnull Object composerInstance,
+            @Nonnull GraphDefinition definition
+    ) {}
+
+    private final List<GraphCompileListener> compileListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a listener that is notified of the phases of every subsequent compilation.
+     *
+     * @since 0.4.0
+     */
+    public void addCompileListener(GraphCompileListener listener) {
+        this.compileListeners.add(listener);
+    }
+
+    /**
+     * Returns the listeners notified of the phases of a compilation. Called on the compiling thread
+     * when a graph is prepared and again when it is built.
+     *
+     * @since 0.4.0
+     */
+    protected List<GraphCompileListener> getCompileListeners() {
+        return this.compileListeners;
+    }
+
+    private final List<GraphActionDecorator> actionDecorators = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a decorator applied to the node and conditional edge actions of every subsequent
+     * compilation.
+     *
+     * @since 0.4.0
+     */
+    public void addActionDecorator(GraphActionDecorator decorator) {
+        this.actionDecorators.add(decorator);
+    }
+
+    /**
+     * Returns the decorators applied to the node and conditional edge actions, in order. Called on
+     * the thread preparing a graph.
+     *
+     * @since 0.4.0
+     */
+    protected List<GraphActionDecorator> getActionDecorators() {
+        return this.actionDecorators;
+    }
+
+    private final List<NodePolicyListener> policyListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a listener that is notified of the node policies of every subsequent compilation.
+     *
+     * @since 0.4.0
+     */
+    public void addPolicyListener(NodePolicyListener listener) {
+        this.policyListeners.add(listener);
+    }
+
+    /**
+     * Returns the listeners notified of the node policies. Called on the thread preparing a graph.
+     *
+     * @since 0.4.0
+     */
+    protected List<NodePolicyListener> getPolicyListeners() {
+        return this.policyListeners;
+    }
+
+    private final Map<String, Executor> executors = new ConcurrentHashMap<>();
+
+    @Nullable
+    private volatile Executor defaultExecutor;
+
+    /**
+     * Registers an executor that {@code @GraphNode#executor()} and {@code @GraphComposer#executor()}
+     * can refer to by name.
+     *
+     * @since 0.4.0
+     */
+    public void addExecutor(String name, Executor executor) {
+        this.executors.put(name, executor);
+    }
+
+    /**
+     * Sets the executor for the synchronous node actions of every subsequently compiled graph that
+     * declares no executor of its own, e.g. a virtual thread executor. Null, the default, runs them
+     * on the thread driving the graph.
+     *
+     * @since 0.4.0
+     */
+    public void setDefaultExecutor(@Nullable Executor defaultExecutor) {
+        this.defaultExecutor = defaultExecutor;
+    }
+
+    private long defaultMaxStateBytes;
+
+    private int stateSampleInterval;
+
+    @Nullable
+    private BlobStore blobStore;
+
+    /**
+     * Sets the store of the values of keys declared with {@link GraphKey#offload()} in every
+     * subsequently compiled graph. Defaults to {@link BlobStore#shared()}.
+     *
+     * @since 0.4.0
+     */
+    public void setBlobStore(@Nullable BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    /**
+     * @since 0.4.0
+     */
+    public BlobStore getBlobStore() {
+        return blobStore != null ? blobStore : BlobStore.shared();
+    }
+
+    /**
+     * Sets the budget of the state size of every subsequently compiled graph that declares no
+     * {@link GraphComposer#maxStateBytes()} of its own. 0, the default, means no limit.
+     *
+     * @since 0.4.0
+     */
+    public void setDefaultMaxStateBytes(long defaultMaxStateBytes) {
+        Assert.isTrue(defaultMaxStateBytes >= 0, "defaultMaxStateBytes must not be negative");
+        this.defaultMaxStateBytes = defaultMaxStateBytes;
+    }
+
+    /**
+     * Sets how many node executions pass between two measurements of the state size of graphs
+     * without a budget, e.g. to publish the sizes as metrics. 0, the default, only measures the
+     * state of graphs with a budget.
+     *
+     * @since 0.4.0
+     */
+    public void setStateSampleInterval(int stateSampleInterval) {
+        Assert.isTrue(stateSampleInterval >= 0, "stateSampleInterval must not be negative");
+        this.stateSampleInterval = stateSampleInterval;
+    }
+
+    /**
+     * Resolves an executor referenced by a node or composer.
+     *
+     * @param name the name of the executor
+     * @return the executor, or null if there is none with this name
+     * @since 0.4.0
+     */
+    @Nullable
+    protected Executor resolveExecutor(String name) {
+        return this.executors.get(name);
+    }
+
     @Override
     public final CompiledGraph compile(Object graphComposer) {
+        return build(prepare(graphComposer));
+    }
+
+    /**
+     * Collects the graph definition of a composer. This phase reads the composer fields and may
+     * resolve missing ones from the surrounding container, so it must run on the thread that owns
+     * the composer's lifecycle.
+     *
+     * @since 0.4.0
+     */
+    protected final PreparedGraph prepare(Object graphComposer) {
         Class<?> clazz = graphComposer.getClass();
         GraphComposer composerAnno = clazz.getAnnotation(GraphComposer.class);
 
@@ -124,28 +497,73 @@ public class ReflectiveGraphCompiler implements GraphCompiler {
                 ? composerAnno.id()
                 : clazz.getSimpleName();
 
+        CompilePhaseRecorder recorder = new CompilePhaseRecorder(graphId, clazz, getCompileListeners());
+
         try {
-            GraphDefinition definition = collectGraphDefinition(graphComposer);
+            GraphDefinition definition = recorder.record(Phase.COLLECT_DEFINITION, () -> {
+                ComposerMetadata metadata = resolveComposerMetadata(clazz);
+                return metadata != null
+                        ? collectGraphDefinition(graphId, graphComposer, metadata)
+                        : collectGraphDefinition(graphId, graphComposer);
+            });
+
+            return new PreparedGraph(graphId, graphComposer, definition);
+
+        } catch (GraphDefinitionException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GraphDefinitionException("Unexpected error building graph: " + graphId, e);
+        }
+    }
+
+    /**
+     * Builds and compiles a prepared graph. This phase only touches the prepared definition and the
+     * composer's {@link GraphBuildLifecycle} hooks, so independent graphs may be built concurrently.
+     *
+     * @since 0.4.0
+     */
+    protected final CompiledGraph build(PreparedGraph prepared) {
+        String graphId = prepared.graphId();
+        Object graphComposer = prepared.composerInstance();
+        GraphDefinition definition = prepared.definition();
 
+        CompilePhaseRecorder recorder = new CompilePhaseRecorder(graphId, graphComposer.getClass(), getCompileListeners());
+
+        try {
             StateGraph builder = new StateGraph(graphId, definition::keyStrategies);
 
             if (graphComposer instanceof GraphBuildLifecycle lifecycleHook) {
-                lifecycleHook.afterKeyRegistration(builder);
+                recorder.record(Phase.AFTER_KEY_REGISTRATION, () -> {
+                    lifecycleHook.afterKeyRegistration(builder);
+                    return null;
+                });
             }
 
-            for (GraphOperation modification : definition.operations) {
-                modification.execute(builder);
-            }
+            recorder.record(Phase.REPLAY_OPERATIONS, () -> {
+                for (GraphOperation modification : definition.operations) {
+                    modification.execute(builder);
+                }
+                return null;
+            });
 
             if (graphComposer instanceof GraphBuildLifecycle lifecycleHook) {
-                lifecycleHook.beforeCompile(builder);
+                recorder.record(Phase.BEFORE_COMPILE, () -> {
+                    lifecycleHook.beforeCompile(builder);
+                    return null;
+                });
             }
 
             CompileConfig compileConfig = definition.compileConfig;
 
-            return compileConfig == null
-                    ? builder.compile()
-                    : builder.compile(compileConfig);
+            return recorder.record(Phase.COMPILE, () -> {
+                CompiledGraph compiled = compileConfig == null
+                        ? builder.compile()
+                        : builder.compile(compileConfig);
+                for (CompiledGraphOperation operation : definition.compiledOperations) {
+                    operation.execute(compiled);
+                }
+                return compiled;
+            });
 
         } catch (GraphStateException e) {
             throw new GraphDefinitionException(
@@ -158,10 +576,11 @@ public class ReflectiveGraphCompiler implements GraphCompiler {
         }
     }
 
-    private GraphDefinition collectGraphDefinition(Object composer) {
+    private GraphDefinition collectGraphDefinition(String graphId, Object composer) {
         Class<?> clazz = composer.getClass();
 
-        CompileContext context = new CompileContext(composer);
+        CompileContext context = new CompileContext(graphId, composer);
+        prepareStateAccounting(context);
 
         ReflectionUtils.doWithFields(clazz, field -> {
             if (field.isAnnotationPresent(GraphKey.class)) {
@@ -177,34 +596,130 @@ public class ReflectiveGraphCompiler implements GraphCompiler {
             }
         });
 
+        registerLifecycleListeners(context);
+        registerStateSizeMonitor(context);
         return context.toDefinition();
     }
 
-    protected void handleGraphKey(CompileContext context, Field field, GraphKey annotation) {
-        if (!Modifier.isFinal(field.getModifiers())) {
-            throw new GraphDefinitionException(
-                    String.format("Field '%s' must be 'final'. Graph keys should be immutable constants.", field.getName()));
+    private GraphDefinition collectGraphDefinition(String graphId, Object composer, ComposerMetadata metadata) {
+        CompileContext context = new CompileContext(graphId, composer);
+        prepareStateAccounting(context);
+
+        for (ComposerMetadata.KeyMetadata key : metadata.keys()) {
+            if (context.containsKey(key.key())) {
+                throw new GraphDefinitionException("Duplicate Graph Key: " + key.key() + ". Defined in field: " + key.fieldName());
+            }
+            context.addGraphKey(key.key(), resolveKeyStrategy(context, key));
         }
 
-        if (!Modifier.isStatic(field.getModifiers())) {
-            throw new GraphDefinitionException(
-                    String.format("Field '%s' must be 'static'. Graph keys supposed to be global constants (e.g., public static final String).", field.getName()));
+        for (ComposerMetadata.NodeMetadata node : metadata.nodes()) {
+            Object nodeInstance = node.accessor().apply(composer);
+
+            if (nodeInstance == null) {
+                nodeInstance = resolveMissingField(findField(composer, node.fieldName()), node.nodeId());
+            }
+
+            if (nodeInstance == null) {
+                throw new IllegalStateException("GraphNode field '" + node.fieldName() + "' is null. Please initialize it.");
+            }
+
+            registerGraphNode(context, node.nodeId(), node.fieldName(), nodeInstance, node.isStart(), node.next(),
+                    node.executor(), node.policies());
         }
 
-        if (field.getType() != String.class) {
-            throw new GraphDefinitionException("Field type must be String.");
+        for (ComposerMetadata.EdgeMetadata edge : metadata.edges()) {
+            Object fieldVal = edge.accessor().apply(composer);
+
+            if (fieldVal == null) {
+                fieldVal = resolveMissingField(findField(composer, edge.fieldName()), null);
+            }
+
+            if (fieldVal == null) {
+                throw new GraphDefinitionException("Conditional Edge field '"
+                        + edge.fieldName()
+                        + "' is null. Please initialize it with a lambda expression or instance.");
+            }
+
+            registerConditionalEdge(context, edge.source(), edge.fieldName(), fieldVal, edge.routes());
         }
 
-        ReflectionUtils.makeAccessible(field);
-        String keyName = (String) ReflectionUtils.getField(field, null);
+        ComposerMetadata.CompileConfigMetadata config = metadata.compileConfig();
+        if (config != null) {
+            Object value = config.accessor().apply(composer);
+
+            if (value == null) {
+                value = resolveMissingField(findField(composer, config.fieldName()), null);
+            }
+
+            registerCompileConfig(context, config.fieldName(), value);
+        }
+
+        registerLifecycleListeners(context);
+        registerStateSizeMonitor(context);
+        return context.toDefinition();
+    }
+
+    private static Field findField(Object composer, String fieldName) {
+        Field field = ReflectionUtils.findField(composer.getClass(), fieldName);
+        if (field == null) {
+            throw new GraphDefinitionException(String.format(
+                    "Field '%s' described by the metadata of %s does not exist. The generated definition may be stale.",
+                    fieldName, composer.getClass().getName()));
+        }
+        return field;
+    }
+
+    /**
+     * Extension point for supplying pre-parsed composer metadata.
+     * <p>
+     * When a non-null value is returned, the composer is compiled from the metadata and the
+     * field based hooks ({@link #handleGraphKey}, {@link #handleGraphNode},
+     * {@link #handleConditionalEdge}, {@link #handleCompileConfig} and {@link #handleOtherField})
+     * are not invoked. The default implementation returns metadata derived from the composer
+     * fields once per class, unless this compiler overrides one of those hooks, in which case it
+     * returns null and every composer is inspected field by field.
+     *
+     * @param composerClass the class of the composer being compiled
+     * @return the metadata of the composer, or null to fall back to the field based hooks
+     * @since 0.4.0
+     */
+    @Nullable
+    protected ComposerMetadata resolveComposerMetadata(Class<?> composerClass) {
+        return overridesFieldHooks.get(getClass()) ? null : ComposerIntrospector.metadataOf(composerClass);
+    }
+
+    /**
+     * Discards the cached metadata of a composer class, both derived and generated, so that the
+     * next compilation reads the annotations again, e.g. after the class has been redefined.
+     *
+     * @see cn.teacy.ai.support.GraphHotSwapper
+     * @since 0.4.0
+     */
+    public static void invalidateMetadata(Class<?> composerClass) {
+        ComposerIntrospector.invalidate(composerClass);
+        GeneratedGraphCompiler.invalidate(composerClass);
+    }
+
+    protected void handleGraphKey(CompileContext context, Field field, GraphKey annotation) {
+        String keyName = ComposerIntrospector.readGraphKey(field);
 
         if (context.containsKey(keyName)) {
             throw new GraphDefinitionException("Duplicate Graph Key: " + keyName + ". Defined in field: " + field.getName());
         }
 
-        KeyStrategy strategy = context.getKeyStrategy(annotation.strategy());
+        KeyStrategy strategy = resolveKeyStrategy(context, ComposerIntrospector.keyMetadata(field, keyName, annotation));
 
-        context.addKeyStrategy(keyName, strategy);
+        context.addGraphKey(keyName, strategy);
+    }
+
+    private KeyStrategy resolveKeyStrategy(CompileContext context, ComposerMetadata.KeyMetadata key) {
+        try {
+            KeyStrategy strategy = context.getKeyStrategy(key);
+            return key.offload() ? new OffloadStrategy(strategy, getBlobStore()) : strategy;
+        } catch (IllegalArgumentException e) {
+            throw new GraphDefinitionException(String.format("Invalid @GraphKey on field '%s': %s",
+                    key.fieldName(), e.getMessage()), e);
+        }
     }
 
     protected void handleGraphNode(CompileContext context, Field field, GraphNode annotation) {
@@ -221,29 +736,95 @@ public class ReflectiveGraphCompiler implements GraphCompiler {
             throw new IllegalStateException("GraphNode field '" + field.getName() + "' is null. Please initialize it.");
         }
 
-        String fieldName = field.getName();
+        registerGraphNode(context, nodeId, field.getName(), nodeInstance, annotation.isStart(), Arrays.asList(annotation.next()),
+                StringUtils.hasText(annotation.executor()) ? annotation.executor() : null,
+                ComposerIntrospector.readNodePolicies(field));
+    }
+
+    /**
+     * Registers the node and its outgoing edges, reading its timeout and policies from the
+     * declaring field.
+     *
+     * @since 0.4.0
+     */
+    protected void registerGraphNode(CompileContext context, String nodeId, String fieldName,
+                                     Object nodeInstance, boolean isStart, List<String> nextNodes,
+                                     @Nullable String executorName) {
+        Field field = ReflectionUtils.findField(context.composerInstance().getClass(), fieldName);
+        registerGraphNode(context, nodeId, fieldName, nodeInstance, isStart, nextNodes, executorName,
+                field != null ? ComposerIntrospector.readNodePolicies(field) : ComposerMetadata.NodePolicies.NONE);
+    }
+
+    /**
+     * Registers the node and its outgoing edges, shared by the reflective and the metadata path.
+     *
+     * @param policies the timeout and the policies of the node
+     * @since 0.4.0
+     */
+    protected void registerGraphNode(CompileContext context, String nodeId, String fieldName,
+                                     Object nodeInstance, boolean isStart, List<String> nextNodes,
+                                     @Nullable String executorName, ComposerMetadata.NodePolicies policies) {
+        boolean blocking = UnifyUtils.isSynchronousNodeAction(nodeInstance) || nodeInstance instanceof BatchNodeAction;
+        if (executorName != null && !blocking) {
+            throw new GraphDefinitionException(String.format(
+                    "Field '%s' of node '%s' declares executor '%s', but only NodeAction, NodeActionWithConfig and BatchNodeAction can be dispatched to an executor.",
+                    fieldName, nodeId, executorName));
+        }
+
+        NodeDescriptor node = new NodeDescriptor(context.graphId(), nodeId, context.composerInstance().getClass(), fieldName);
+        TimeoutPolicy timeoutPolicy = resolveTimeoutPolicy(context, node, policies, nodeInstance instanceof CompiledGraph, nextNodes);
+        registerParallelBranches(context, node, policies.parallelBranches(), nextNodes);
 
         try {
-            if (nodeInstance instanceof CompiledGraph subGraph) {
+            if (nodeInstance instanceof CompiledGraph compiledGraph) {
+                Class<? extends Annotation> policyType = nodeActionPolicy(policies);
+                if (policyType != null) {
+                    throw new GraphDefinitionException(String.format(
+                            "Field '%s' of subgraph node '%s' declares @%s, which is only supported on node actions.",
+                            fieldName, nodeId, policyType.getSimpleName()));
+                }
+                CompiledGraph subGraph = LazyCompiledGraphFactoryBean.resolve(compiledGraph);
+                context.subgraphs.put(nodeId, subGraph.stateGraph.getName());
                 context.registerOperation(b -> b.addNode(nodeId, subGraph),
                         "add SubGraph node '%s' (field: %s)", nodeId, fieldName);
             } else {
-                AsyncNodeActionWithConfig action = UnifyUtils.getUnifiedNodeAction(nodeInstance);
-                context.registerOperation(b -> b.addNode(nodeId, action),
+                if (!(nodeInstance instanceof BatchNodeAction) && policies.batch() != null) {
+                    throw new GraphDefinitionException(String.format(
+                            "Field '%s' of node '%s' declares @BatchNode, which is only supported on BatchNodeAction fields.",
+                            fieldName, nodeId));
+                }
+                Executor executor = blocking ? resolveNodeExecutor(context, nodeId, executorName) : null;
+                AsyncNodeActionWithConfig unified = nodeInstance instanceof BatchNodeAction batchAction
+                        ? createBatchAction(node, policies.batch(), batchAction, executor)
+                        : UnifyUtils.getUnifiedNodeAction(nodeInstance, executor);
+                AsyncNodeActionWithConfig action = applyPolicies(node, policies, blocking && executor == null, unified);
+                if (timeoutPolicy != null) {
+                    action = applyTimeout(node, timeoutPolicy, action);
+                }
+                if (context.stateSizeMonitor != null) {
+                    action = accountState(nodeId, context.stateSizeMonitor, action);
+                }
+                AsyncNodeActionWithConfig decorated = decorateNode(node, action);
+                context.registerOperation(b -> b.addNode(nodeId, decorated),
                         "add NodeAction node '%s' (field: %s)", nodeId, fieldName);
             }
         } catch (IllegalArgumentException e) {
             throw new GraphDefinitionException(String.format(
-                    "Field '%s' type [%s] for @GraphNode is not supported. Must be one of: [CompiledGraph, NodeAction, AsyncNodeAction, NodeActionWithConfig, AsyncNodeActionWithConfig]",
+                    "Field '%s' type [%s] for @GraphNode is not supported. Must be one of: [CompiledGraph, NodeAction, AsyncNodeAction, NodeActionWithConfig, AsyncNodeActionWithConfig, BatchNodeAction]",
                     fieldName, nodeInstance.getClass().getSimpleName()), e);
         }
 
-        if (annotation.isStart()) {
+        if (isStart) {
             context.registerOperation(builder -> builder.addEdge(StateGraph.START, nodeId),
                     "add start edge to node '%s' (field: %s)", nodeId, fieldName);
         }
 
-        for (String next : annotation.next()) {
+        if (timeoutPolicy != null && timeoutPolicy.routeKey() != null) {
+            registerTimeoutRoute(context, node, timeoutPolicy);
+            return;
+        }
+
+        for (String next : nextNodes) {
             if (!StringUtils.hasText(next)) {
                 continue;
             }
@@ -253,8 +834,269 @@ public class ReflectiveGraphCompiler implements GraphCompiler {
 
     }
 
+    /**
+     * @param routeKey the internal state key the node writes the fallback to on a timeout, or null without a fallback
+     * @param next     the next node of a node with a fallback
+     */
+    private record TimeoutPolicy(
+            Duration timeout,
+            @Nullable String fallback,
+            @Nullable String errorKey,
+            @Nullable String routeKey,
+            @Nullable String next
+    ) {}
+
+    /**
+     * Returns the first policy declared on a node that is only supported on node actions, or null.
+     */
+    @Nullable
+    private static Class<? extends Annotation> nodeActionPolicy(ComposerMetadata.NodePolicies policies) {
+        if (policies.concurrency() != null) {
+            return NodeConcurrency.class;
+        }
+        if (policies.cache() != null) {
+            return NodeCache.class;
+        }
+        if (policies.hedge() != null) {
+            return Hedge.class;
+        }
+        if (policies.coalesce() != null) {
+            return Coalesce.class;
+        }
+        return policies.batch() != null ? BatchNode.class : null;
+    }
+
+    @Nullable
+    private TimeoutPolicy resolveTimeoutPolicy(CompileContext context, NodeDescriptor node,
+                                               ComposerMetadata.NodePolicies policies, boolean subgraph,
+                                               List<String> nextNodes) {
+        String value = policies.timeout();
+        String fallback = policies.timeoutFallback();
+        String errorKey = policies.timeoutErrorKey();
+
+        if (subgraph) {
+            if (StringUtils.hasText(value) || fallback != null || errorKey != null) {
+                throw new GraphDefinitionException(String.format(
+                        "Field '%s' of subgraph node '%s' declares a timeout, which is only supported on node actions.",
+                        node.fieldName(), node.nodeId()));
+            }
+            return null;
+        }
+
+        if (!StringUtils.hasText(value)) {
+            GraphComposer composerAnno = context.composerInstance().getClass().getAnnotation(GraphComposer.class);
+            value = composerAnno != null ? composerAnno.nodeTimeout() : "";
+        }
+        String timeoutValue = value;
+        Duration timeout = createPolicy(node, GraphNode.class, () -> {
+            Duration parsed = parseDuration(timeoutValue);
+            Assert.isTrue(parsed == null || !parsed.isNegative(), "timeout must not be negative");
+            return parsed;
+        });
+
+        if (timeout == null || timeout.isZero()) {
+            if (fallback != null || errorKey != null) {
+                throw new GraphDefinitionException(String.format(
+                        "Field '%s' of node '%s' declares how to handle a timeout, but no timeout.",
+                        node.fieldName(), node.nodeId()));
+            }
+            return null;
+        }
+
+        if (fallback == null) {
+            return new TimeoutPolicy(timeout, null, errorKey, null, null);
+        }
+
+        List<String> targets = nextNodes.stream().filter(StringUtils::hasText).toList();
+        if (targets.size() != 1 || targets.get(0).equals(fallback)) {
+            throw new GraphDefinitionException(String.format(
+                    "Field '%s' of node '%s' declares timeout fallback '%s', which requires exactly one other next node, but has %s.",
+                    node.fieldName(), node.nodeId(), fallback, targets));
+        }
+        String routeKey = "_timeout_route_" + node.nodeId() + "_";
+        if (!context.containsKey(routeKey)) {
+            context.addKeyStrategy(routeKey, KeyStrategy.REPLACE);
+        }
+        return new TimeoutPolicy(timeout, fallback, errorKey, routeKey, targets.get(0));
+    }
+
+    private static AsyncNodeActionWithConfig applyTimeout(NodeDescriptor node, TimeoutPolicy policy,
+                                                          AsyncNodeActionWithConfig action) {
+        AsyncNodeActionWithConfig bounded = UnifyUtils.withTimeout(action, policy.timeout(), node.nodeId());
+        if (policy.fallback() == null && policy.errorKey() == null) {
+            return bounded;
+        }
+
+        return (state, config) -> bounded.apply(state, config).handle((update, e) -> {
+            if (e == null) {
+                return update;
+            }
+
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (!(cause instanceof TimeoutException)) {
+                throw e instanceof CompletionException completion ? completion : new CompletionException(e);
+            }
+            Map<String, Object> handled = new HashMap<>();
+            if (policy.errorKey() != null) {
+                handled.put(policy.errorKey(), cause.getMessage());
+            }
+            if (policy.routeKey() != null) {
+                handled.put(policy.routeKey(), policy.fallback());
+            }
+            return handled;
+        });
+    }
+
+    private static void registerTimeoutRoute(CompileContext context, NodeDescriptor node, TimeoutPolicy policy) {
+        String nodeId = node.nodeId();
+        String routeKey = policy.routeKey();
+        String next = policy.next();
+        Map<String, String> routes = Map.of(next, next, policy.fallback(), policy.fallback());
+        // the route key is only written on a timeout, and removed again once it has been followed
+        AsyncCommandAction route = (state, config) -> CompletableFuture.completedFuture(state.value(routeKey, String.class)
+                .map(target -> new Command(target, Map.of(routeKey, OverAllState.MARK_FOR_REMOVAL)))
+                .orElseGet(() -> new Command(next)));
+
+        context.registerOperation(builder -> builder.addConditionalEdges(nodeId, route, routes),
+                "add timeout route from node '%s' to '%s' or fallback '%s' (field: %s)",
+                nodeId, next, policy.fallback(), node.fieldName());
+    }
+
+    private void prepareStateAccounting(CompileContext context) {
+        GraphComposer composerAnno = context.composerInstance().getClass().getAnnotation(GraphComposer.class);
+        String value = composerAnno != null ? composerAnno.maxStateBytes() : "";
+        long maxBytes = defaultMaxStateBytes;
+        if (StringUtils.hasText(value)) {
+            try {
+                maxBytes = DataSize.parse(value).toBytes();
+                Assert.isTrue(maxBytes >= 0, "maxStateBytes must not be negative");
+            } catch (IllegalArgumentException e) {
+                throw new GraphDefinitionException(String.format("Invalid maxStateBytes '%s' of graph '%s': %s",
+                        value, context.graphId(), e.getMessage()), e);
+            }
+        }
+
+        if (maxBytes > 0 || stateSampleInterval > 0) {
+            context.maxStateBytes = maxBytes;
+            context.stateSizeMonitor = new AtomicReference<>();
+        }
+    }
+
+    private void registerStateSizeMonitor(CompileContext context) {
+        if (context.stateSizeMonitor == null) {
+            return;
+        }
+
+        GraphComposer composerAnno = context.composerInstance().getClass().getAnnotation(GraphComposer.class);
+        GraphComposer.StateOverflow overflow = composerAnno != null ? composerAnno.stateOverflow() : GraphComposer.StateOverflow.FAIL;
+        StateSizeMonitor monitor = new StateSizeMonitor(context.graphId(), context.graphKeys, context.maxStateBytes,
+                overflow, stateSampleInterval);
+        GraphDescriptor graph = new GraphDescriptor(context.graphId(), context.composerInstance().getClass(),
+                Map.copyOf(context.subgraphs));
+        for (NodePolicyListener listener : getPolicyListeners()) {
+            listener.onStateSize(graph, monitor);
+        }
+        context.stateSizeMonitor.set(monitor);
+    }
+
+    /**
+     * Measures the state after every execution of a node. The monitor is created once all keys of
+     * the graph are registered, before the graph is built.
+     */
+    private static AsyncNodeActionWithConfig accountState(String nodeId, AtomicReference<StateSizeMonitor> monitor,
+                                                          AsyncNodeActionWithConfig action) {
+        return (state, config) -> action.apply(state, config)
+                .thenApply(update -> monitor.get().check(nodeId, state, update));
+    }
+
+    private void registerParallelBranches(CompileContext context, NodeDescriptor node,
+                                          @Nullable ComposerMetadata.NodePolicies.ParallelBranchesPolicy branches,
+                                          List<String> nextNodes) {
+        if (branches == null) {
+            return;
+        }
+
+        List<String> targets = nextNodes.stream().filter(StringUtils::hasText).distinct().toList();
+        if (targets.size() < 2) {
+            throw new GraphDefinitionException(String.format(
+                    "Field '%s' of node '%s' declares @ParallelBranches, which requires several next nodes, but has %s.",
+                    node.fieldName(), node.nodeId(), targets));
+        }
+        if (nodeFactoriesField == null) {
+            throw new GraphDefinitionException(String.format(
+                    "Field '%s' of node '%s' declares @ParallelBranches, which requires access to the field '%s' of %s, "
+                            + "but this version of the graph engine has no such field or it is not accessible, "
+                            + "e.g. because no reflection hint was registered in a native image.",
+                    node.fieldName(), node.nodeId(), NODE_FACTORIES_FIELD, CompiledGraph.class.getName()));
+        }
+
+        Executor executor = null;
+        if (StringUtils.hasText(branches.executor())) {
+            executor = resolveExecutor(branches.executor());
+            if (executor == null) {
+                throw new GraphDefinitionException(String.format("No executor named '%s' found for node '%s'.",
+                        branches.executor(), node.nodeId()));
+            }
+        }
+
+        ParallelBranchDispatcher dispatcher = createPolicy(node, ParallelBranches.class,
+                () -> new ParallelBranchDispatcher(policyName(node), branches.maxParallelism()));
+        for (NodePolicyListener listener : getPolicyListeners()) {
+            listener.onParallelBranches(node, dispatcher);
+        }
+
+        String nodeId = node.nodeId();
+        Executor branchExecutor = executor;
+        context.compiledOperations.add(graph -> replaceParallelNode(graph, node, parallel -> (state, config) -> {
+            Executor target = branchExecutor != null
+                    ? branchExecutor
+                    : ParallelNode.getExecutor(config, ParallelNode.formatNodeId(nodeId));
+            RunnableConfig branchConfig = RunnableConfig.builder(config)
+                    .addParallelNodeExecutor(nodeId, dispatcher.forRun(target))
+                    .build();
+            return parallel.apply(state, branchConfig);
+        }));
+    }
+
+    @Nullable
+    private static Field findNodeFactoriesField() {
+        Field field = ReflectionUtils.findField(CompiledGraph.class, NODE_FACTORIES_FIELD, Map.class);
+        if (field == null) {
+            return null;
+        }
+        try {
+            ReflectionUtils.makeAccessible(field);
+            return field;
+        } catch (RuntimeException e) {
+            log.debug("Field '{}' of {} is not accessible, @ParallelBranches is not supported", NODE_FACTORIES_FIELD,
+                    CompiledGraph.class.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Wraps the action the engine created for the parallel branches of a node. The engine takes the
+     * executor of the branches from the run config and offers no public way to replace the action
+     * of a node, so the action factory is replaced through {@link #NODE_FACTORIES_FIELD}.
+     */
+    @SuppressWarnings("unchecked")
+    private static void replaceParallelNode(CompiledGraph graph, NodeDescriptor node,
+                                            UnaryOperator<AsyncNodeActionWithConfig> wrapper) {
+        String parallelNodeId = ParallelNode.formatNodeId(node.nodeId());
+        Map<String, Node.ActionFactory> factories =
+                (Map<String, Node.ActionFactory>) ReflectionUtils.getField(Objects.requireNonNull(nodeFactoriesField), graph);
+
+        Node.ActionFactory factory = factories != null ? factories.get(parallelNodeId) : null;
+        if (factory == null) {
+            throw new GraphDefinitionException(String.format(
+                    "Field '%s' of node '%s' declares @ParallelBranches, but the compiled graph has no parallel node '%s'.",
+                    node.fieldName(), node.nodeId(), parallelNodeId));
+        }
+        factories.put(parallelNodeId, config -> wrapper.apply(factory.apply(config)));
+    }
+
     protected void handleConditionalEdge(CompileContext context, Field field, ConditionalEdge annotation) {
-        Map<String, String> routeMap = parseMappings(annotation.mappings(), annotation.routes(), field.getName());
+        Map<String, String> routeMap = ComposerIntrospector.parseMappings(annotation.mappings(), annotation.routes(), field.getName());
         String sourceNodeId = annotation.source();
 
         ReflectionUtils.makeAccessible(field);
@@ -270,9 +1112,19 @@ public class ReflectiveGraphCompiler implements GraphCompiler {
                     + "' is null. Please initialize it with a lambda expression or instance.");
         }
 
-        String fieldName = field.getName();
+        registerConditionalEdge(context, sourceNodeId, field.getName(), fieldVal, routeMap);
+    }
+
+    /**
+     * Registers the conditional edges, shared by the reflective and the metadata path.
+     *
+     * @since 0.4.0
+     */
+    protected void registerConditionalEdge(CompileContext context, String sourceNodeId, String fieldName,
+                                           Object fieldVal, Map<String, String> routeMap) {
         try {
-            AsyncCommandAction unifiedAction = UnifyUtils.getUnifiedCommandAction(fieldVal);
+            AsyncCommandAction unifiedAction = decorateEdge(context, sourceNodeId, fieldName, routeMap,
+                    UnifyUtils.getUnifiedCommandAction(fieldVal));
 
             context.registerOperation(builder -> builder.addConditionalEdges(sourceNodeId, unifiedAction, routeMap),
                     "add ConditionalEdges from source node '%s' (field: %s)", sourceNodeId, fieldName);
@@ -283,6 +1135,234 @@ public class ReflectiveGraphCompiler implements GraphCompiler {
         }
     }
 
+    @Nullable
+    private Executor resolveNodeExecutor(CompileContext context, String nodeId, @Nullable String executorName) {
+        String name = executorName;
+        if (name == null) {
+            GraphComposer composerAnno = context.composerInstance().getClass().getAnnotation(GraphComposer.class);
+            name = composerAnno != null && StringUtils.hasText(composerAnno.executor()) ? composerAnno.executor() : null;
+        }
+
+        if (name == null) {
+            return this.defaultExecutor;
+        }
+
+        Executor executor = resolveExecutor(name);
+        if (executor == null) {
+            throw new GraphDefinitionException(String.format("No executor named '%s' found for node '%s'.", name, nodeId));
+        }
+        return executor;
+    }
+
+    private AsyncNodeActionWithConfig createBatchAction(NodeDescriptor node,
+                                                        @Nullable ComposerMetadata.NodePolicies.BatchPolicy batch,
+                                                        BatchNodeAction batchAction, @Nullable Executor executor) {
+        if (batch == null) {
+            throw new GraphDefinitionException(String.format(
+                    "Field '%s' of node '%s' is a BatchNodeAction, but does not declare @BatchNode.",
+                    node.fieldName(), node.nodeId()));
+        }
+        NodeBatcher batcher = createPolicy(node, BatchNode.class, () -> {
+            Assert.hasText(batch.maxWait(), "maxWait must not be empty");
+            return new NodeBatcher(policyName(node), batch.maxBatchSize(), parseDuration(batch.maxWait()),
+                    batchAction, executor);
+        });
+        for (NodePolicyListener listener : getPolicyListeners()) {
+            listener.onBatcher(node, batcher);
+        }
+        return (state, config) -> batcher.submit(state);
+    }
+
+    private AsyncNodeActionWithConfig applyPolicies(NodeDescriptor node, ComposerMetadata.NodePolicies policies,
+                                                    boolean inline, AsyncNodeActionWithConfig action) {
+        ComposerMetadata.NodePolicies.ConcurrencyPolicy concurrency = policies.concurrency();
+        if (concurrency != null) {
+            NodeBulkhead bulkhead = createPolicy(node, NodeConcurrency.class, () -> new NodeBulkhead(policyName(node),
+                    concurrency.maxConcurrent(), concurrency.maxQueued(), parseDuration(concurrency.queueTimeout())));
+            for (NodePolicyListener listener : getPolicyListeners()) {
+                listener.onBulkhead(node, bulkhead);
+            }
+            AsyncNodeActionWithConfig limited = action;
+            action = (state, config) -> bulkhead.execute(() -> limited.apply(state, config));
+        }
+
+        // outside of the bulkhead, so that every attempt takes a permit of its own
+        ComposerMetadata.NodePolicies.HedgePolicy hedge = policies.hedge();
+        if (hedge != null) {
+            if (inline) {
+                throw new GraphDefinitionException(String.format(
+                        "Field '%s' of node '%s' declares @Hedge, but synchronous node actions can only be hedged on a node executor.",
+                        node.fieldName(), node.nodeId()));
+            }
+            NodeHedger hedger = createPolicy(node, Hedge.class, () -> new NodeHedger(policyName(node),
+                    parseDuration(hedge.delay()), hedge.percentile(), hedge.maxAttempts()));
+            for (NodePolicyListener listener : getPolicyListeners()) {
+                listener.onHedge(node, hedger);
+            }
+            AsyncNodeActionWithConfig hedged = action;
+            action = (state, config) -> hedger.execute(() -> hedged.apply(state, config));
+        }
+
+        // outside of the bulkhead and the hedger, so that shared executions only take one permit
+        ComposerMetadata.NodePolicies.CoalescePolicy coalesce = policies.coalesce();
+        if (coalesce != null) {
+            String[] keys = coalesce.keys().toArray(new String[0]);
+            NodeCoalescer coalescer = createPolicy(node, Coalesce.class, () -> {
+                Assert.notEmpty(keys, "keys must not be empty");
+                return new NodeCoalescer(policyName(node));
+            });
+            for (NodePolicyListener listener : getPolicyListeners()) {
+                listener.onCoalesce(node, coalescer);
+            }
+            AsyncNodeActionWithConfig shared = action;
+            action = (state, config) -> coalescer.execute(snapshotKey(stateKey(state, keys)), () -> shared.apply(state, config));
+        }
+
+        // outermost, so that hits neither wait for a permit nor join an execution
+        ComposerMetadata.NodePolicies.CachePolicy cache = policies.cache();
+        if (cache != null) {
+            String[] keys = cache.keys().toArray(new String[0]);
+            NodeResultCache resultCache = createPolicy(node, NodeCache.class, () -> {
+                Assert.notEmpty(keys, "keys must not be empty");
+                long maxBytes = StringUtils.hasText(cache.maxBytes()) ? DataSize.parse(cache.maxBytes()).toBytes() : 0;
+                return new NodeResultCache(policyName(node), cache.maxSize(), maxBytes, parseDuration(cache.ttl()));
+            });
+            for (NodePolicyListener listener : getPolicyListeners()) {
+                listener.onCache(node, resultCache);
+            }
+            AsyncNodeActionWithConfig computing = action;
+            action = (state, config) -> {
+                List<Object> key = stateKey(state, keys);
+                Map<String, Object> cached = resultCache.get(key);
+                if (cached != null) {
+                    return CompletableFuture.completedFuture(cached);
+                }
+                // taken before the node runs, so that neither the node nor later ones change the cached key
+                List<Object> cachedKey = snapshotKey(key);
+                CompletableFuture<Map<String, Object>> result = computing.apply(state, config);
+                result.whenComplete((update, e) -> {
+                    if (e == null) {
+                        resultCache.put(cachedKey, update);
+                    }
+                });
+                return result;
+            };
+        }
+        return action;
+    }
+
+    private static List<Object> stateKey(OverAllState state, String[] keys) {
+        Object[] values = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            Object value = state.value(keys[i]).orElse(null);
+            // arrays are compared by their elements, like in the snapshot of the key
+            values[i] = value instanceof Object[] array ? Arrays.asList(array) : value;
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Copies the collections and maps among the values of a state key, including the arrays that
+     * {@link #stateKey} views as lists, so that mutating the state in place does not change the
+     * hash of a key held by a cache or a coalescer.
+     */
+    private static List<Object> snapshotKey(List<Object> key) {
+        Object[] values = new Object[key.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = snapshotKeyValue(key.get(i));
+        }
+        return Arrays.asList(values);
+    }
+
+    @Nullable
+    private static Object snapshotKeyValue(@Nullable Object value) {
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                copy.add(snapshotKeyValue(element));
+            }
+            return copy;
+        }
+        if (value instanceof Set<?> set) {
+            Set<Object> copy = new LinkedHashSet<>();
+            for (Object element : set) {
+                copy.add(snapshotKeyValue(element));
+            }
+            return copy;
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((k, v) -> copy.put(snapshotKeyValue(k), snapshotKeyValue(v)));
+            return copy;
+        }
+        return value;
+    }
+
+    private static String policyName(NodeDescriptor node) {
+        return node.graphId() + "/" + node.nodeId();
+    }
+
+    @Nullable
+    private static Duration parseDuration(String value) {
+        return StringUtils.hasText(value) ? DurationFormatterUtils.detectAndParse(value) : null;
+    }
+
+    private static <T> T createPolicy(NodeDescriptor node, Class<? extends Annotation> policyType, Supplier<T> factory) {
+        try {
+            return factory.get();
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new GraphDefinitionException(String.format("Invalid @%s on field '%s' of node '%s': %s",
+                    policyType.getSimpleName(), node.fieldName(), node.nodeId(), e.getMessage()), e);
+        }
+    }
+
+    private AsyncNodeActionWithConfig decorateNode(NodeDescriptor node, AsyncNodeActionWithConfig action) {
+        String nodeId = node.nodeId();
+        action = FlightRecorderActionDecorator.INSTANCE.decorateNode(node, action);
+        for (GraphActionDecorator decorator : getActionDecorators()) {
+            action = Objects.requireNonNull(decorator.decorateNode(node, action),
+                    () -> decorator + " returned no action for node " + nodeId);
+        }
+        return action;
+    }
+
+    private AsyncCommandAction decorateEdge(CompileContext context, String sourceNodeId, String fieldName,
+                                            Map<String, String> routeMap, AsyncCommandAction action) {
+        EdgeDescriptor edge = new EdgeDescriptor(context.graphId(), sourceNodeId, context.composerInstance().getClass(),
+                fieldName, Map.copyOf(routeMap));
+        action = FlightRecorderActionDecorator.INSTANCE.decorateEdge(edge, action);
+        for (GraphActionDecorator decorator : getActionDecorators()) {
+            action = Objects.requireNonNull(decorator.decorateEdge(edge, action),
+                    () -> decorator + " returned no action for conditional edge " + fieldName);
+        }
+        return action;
+    }
+
+    private void registerLifecycleListeners(CompileContext context) {
+        List<GraphActionDecorator> decorators = getActionDecorators();
+        if (decorators.isEmpty()) {
+            return;
+        }
+
+        GraphDescriptor graph = new GraphDescriptor(context.graphId(), context.composerInstance().getClass(),
+                Map.copyOf(context.subgraphs));
+        List<GraphLifecycleListener> listeners = new ArrayList<>();
+        for (GraphActionDecorator decorator : decorators) {
+            GraphLifecycleListener listener = decorator.lifecycleListener(graph);
+            if (listener != null) {
+                listeners.add(listener);
+            }
+        }
+
+        if (!listeners.isEmpty()) {
+            CompileConfig.Builder builder = context.hasCompileConfig()
+                    ? CompileConfig.builder(context.compileConfig)
+                    : CompileConfig.builder();
+            listeners.forEach(builder::withLifecycleListener);
+            context.setCompileConfig(builder.build());
+        }
+    }
+
     protected void handleCompileConfig(CompileContext context, Field field, GraphCompileConfig annotation) {
         if (context.hasCompileConfig()) {
             throw new IllegalStateException("Multiple @GraphCompileConfig fields found in " + context.composerInstance().getClass().getSimpleName());
@@ -295,8 +1375,17 @@ public class ReflectiveGraphCompiler implements GraphCompiler {
             value = resolveMissingField(field, null);
         }
 
+        registerCompileConfig(context, field.getName(), value);
+    }
+
+    /**
+     * Resolves and sets the compile config, shared by the reflective and the metadata path.
+     *
+     * @since 0.4.0
+     */
+    protected void registerCompileConfig(CompileContext context, String fieldName, @Nullable Object value) {
         if (value == null) {
-            throw new GraphDefinitionException("@GraphCompileConfig field '" + field.getName() + "' must not be null.");
+            throw new GraphDefinitionException("@GraphCompileConfig field '" + fieldName + "' must not be null.");
         }
 
         if (value instanceof CompileConfig) {
@@ -306,31 +1395,14 @@ public class ReflectiveGraphCompiler implements GraphCompiler {
             if (suppliedValue instanceof CompileConfig) {
                 context.setCompileConfig((CompileConfig) suppliedValue);
             } else {
-                throw new GraphDefinitionException("The Supplier in field '" + field.getName() + "' returned null or an invalid type.");
+                throw new GraphDefinitionException("The Supplier in field '" + fieldName + "' returned null or an invalid type.");
             }
         } else {
-            throw new GraphDefinitionException("Field '" + field.getName() + "' must be of type CompileConfig or Supplier<CompileConfig>.");
+            throw new GraphDefinitionException("Field '" + fieldName + "' must be of type CompileConfig or Supplier<CompileConfig>.");
         }
 
     }
 
-    private Map<String, String> parseMappings(String[] mappings, String[] routes, String fieldName) {
-        if (mappings.length % 2 != 0) {
-            throw new IllegalArgumentException("Mappings must be pairs in field: " + fieldName);
-        }
-        if (mappings.length == 0 && routes.length == 0) {
-            throw new IllegalArgumentException("Either mappings or routes must be provided in field: " + fieldName);
-        }
-        Map<String, String> map = new HashMap<>();
-        for (String route : routes) {
-            map.put(route, route);
-        }
-        for (int i = 0; i < mappings.length; i += 2) {
-            map.put(mappings[i], mappings[i + 1]);
-        }
-        return map;
-    }
-
     /**
      * Extension point for handling fields that are not annotated with any of the
      * framework's recognized graph annotations.
@@ -1,5 +1,8 @@
 package cn.teacy.ai.core;
 
+import cn.teacy.ai.interfaces.GraphActionDecorator;
+import cn.teacy.ai.interfaces.GraphCompileListener;
+import cn.teacy.ai.interfaces.NodePolicyListener;
 import jakarta.annotation.Nonnull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -7,11 +10,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.config.DependencyDescriptor;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * A GraphCompiler that integrates with Spring's ApplicationContext to resolve dependencies.
@@ -24,10 +32,109 @@ public class SpringReflectiveGraphCompiler extends ReflectiveGraphCompiler {
 
     private final ConfigurableListableBeanFactory beanFactory;
 
+    private volatile List<GraphCompileListener> beanCompileListeners;
+
+    private volatile List<GraphActionDecorator> beanActionDecorators;
+
+    private volatile List<NodePolicyListener> beanPolicyListeners;
+
     public SpringReflectiveGraphCompiler(@Nonnull ConfigurableListableBeanFactory beanFactory) {
         this.beanFactory = beanFactory;
     }
 
+    /**
+     * Adds a {@link StartupStep} reporter when the context records its startup, and the
+     * {@link GraphCompileListener} beans of the context, resolved on first use.
+     *
+     * @since 0.4.0
+     */
+    @Override
+    protected List<GraphCompileListener> getCompileListeners() {
+        List<GraphCompileListener> resolved = this.beanCompileListeners;
+        if (resolved == null) {
+            // resolved once from the thread preparing the first graph, never from a parallel build
+            resolved = new ArrayList<>();
+            ApplicationStartup applicationStartup = beanFactory.getApplicationStartup();
+            if (applicationStartup != ApplicationStartup.DEFAULT) {
+                resolved.add(new ApplicationStartupCompileListener(applicationStartup));
+            }
+            beanFactory.getBeanProvider(GraphCompileListener.class).orderedStream().forEach(resolved::add);
+            this.beanCompileListeners = resolved = List.copyOf(resolved);
+        }
+
+        List<GraphCompileListener> listeners = super.getCompileListeners();
+        if (listeners.isEmpty()) {
+            return resolved;
+        }
+
+        List<GraphCompileListener> combined = new ArrayList<>(resolved);
+        combined.addAll(listeners);
+        return combined;
+    }
+
+    /**
+     * Applies the {@link GraphActionDecorator} beans of the context, resolved on first use, before
+     * the decorators added programmatically.
+     *
+     * @since 0.4.0
+     */
+    @Override
+    protected List<GraphActionDecorator> getActionDecorators() {
+        List<GraphActionDecorator> resolved = this.beanActionDecorators;
+        if (resolved == null) {
+            resolved = beanFactory.getBeanProvider(GraphActionDecorator.class).orderedStream().toList();
+            this.beanActionDecorators = resolved;
+        }
+
+        List<GraphActionDecorator> decorators = super.getActionDecorators();
+        if (decorators.isEmpty()) {
+            return resolved;
+        }
+
+        List<GraphActionDecorator> combined = new ArrayList<>(resolved);
+        combined.addAll(decorators);
+        return combined;
+    }
+
+    /**
+     * Notifies the {@link NodePolicyListener} beans of the context, resolved on first use, before
+     * the listeners added programmatically.
+     *
+     * @since 0.4.0
+     */
+    @Override
+    protected List<NodePolicyListener> getPolicyListeners() {
+        List<NodePolicyListener> resolved = this.beanPolicyListeners;
+        if (resolved == null) {
+            resolved = beanFactory.getBeanProvider(NodePolicyListener.class).orderedStream().toList();
+            this.beanPolicyListeners = resolved;
+        }
+
+        List<NodePolicyListener> listeners = super.getPolicyListeners();
+        if (listeners.isEmpty()) {
+            return resolved;
+        }
+
+        List<NodePolicyListener> combined = new ArrayList<>(resolved);
+        combined.addAll(listeners);
+        return combined;
+    }
+
+    /**
+     * Resolves executors programmatically registered first, then executor beans of the context.
+     *
+     * @since 0.4.0
+     */
+    @Nullable
+    @Override
+    protected Executor resolveExecutor(String name) {
+        Executor executor = super.resolveExecutor(name);
+        if (executor == null && beanFactory.containsBean(name) && beanFactory.isTypeMatch(name, Executor.class)) {
+            executor = beanFactory.getBean(name, Executor.class);
+        }
+        return executor;
+    }
+
     /**
      * Resolve missing field by looking up Spring ApplicationContext.
      *
@@ -0,0 +1,21 @@
+package cn.teacy.ai.interfaces;
+
+import java.util.List;
+
+/**
+ * Summarizes the oldest entries of a bounded append key once it overflows, e.g. by condensing old
+ * chat messages into a single summary message. Shared by all runs, so it must be thread-safe.
+ *
+ * @see cn.teacy.ai.annotation.GraphKey#overflowHook()
+ * @since 0.4.0
+ */
+@FunctionalInterface
+public interface AppendOverflowHook {
+
+    /**
+     * @param evicted the oldest entries of the key, in order, including earlier summaries
+     * @return the entries kept in place of the evicted ones
+     */
+    List<?> summarize(List<Object> evicted);
+
+}
@@ -0,0 +1,24 @@
+package cn.teacy.ai.interfaces;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A node action processing the states of several graph runs at once, e.g. to call an embedding or
+ * reranking endpoint with a batch of items. Declared on a {@link cn.teacy.ai.annotation.GraphNode}
+ * field together with {@link cn.teacy.ai.annotation.BatchNode}.
+ *
+ * @since 0.4.0
+ */
+@FunctionalInterface
+public interface BatchNodeAction {
+
+    /**
+     * @param states the states of the runs in the batch
+     * @return the updates of the runs, in the order of their states
+     */
+    List<Map<String, Object>> apply(List<OverAllState> states) throws Exception;
+
+}
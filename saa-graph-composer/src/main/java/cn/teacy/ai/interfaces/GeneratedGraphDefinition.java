@@ -0,0 +1,25 @@
+package cn.teacy.ai.interfaces;
+
+import cn.teacy.ai.metadata.ComposerMetadata;
+
+/**
+ * Contract implemented by the {@code <Composer>GraphDefinition} classes generated at build time
+ * by the {@code saa-graph-composer-processor} annotation processor.
+ * <p>
+ * A generated definition lives in the package of its composer and exposes the composer
+ * structure together with direct (non-reflective) field accessors.
+ *
+ * @since 0.4.0
+ * @see cn.teacy.ai.core.GeneratedGraphCompiler
+ */
+public interface GeneratedGraphDefinition {
+
+    /**
+     * Suffix appended to the composer name to form the generated class name.
+     * Nested composers are flattened with {@code '_'}, e.g. {@code Outer_InnerGraphDefinition}.
+     */
+    String CLASS_NAME_SUFFIX = "GraphDefinition";
+
+    ComposerMetadata metadata();
+
+}
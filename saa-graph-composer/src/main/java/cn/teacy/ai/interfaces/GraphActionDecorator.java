@@ -0,0 +1,41 @@
+package cn.teacy.ai.interfaces;
+
+import cn.teacy.ai.metadata.EdgeDescriptor;
+import cn.teacy.ai.metadata.GraphDescriptor;
+import cn.teacy.ai.metadata.NodeDescriptor;
+import com.alibaba.cloud.ai.graph.GraphLifecycleListener;
+import com.alibaba.cloud.ai.graph.action.AsyncCommandAction;
+import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import jakarta.annotation.Nullable;
+
+/**
+ * Wraps the node and conditional edge actions of a composer when it is compiled, e.g. to add
+ * instrumentation.
+ * <p>
+ * Decorators declared as beans are picked up by the Spring based compilers and applied in order,
+ * each one wrapping the result of the previous one. Subgraph nodes are not decorated, but are listed
+ * in the {@link GraphDescriptor} passed to {@link #lifecycleListener}. Decorators run once per
+ * compilation, the returned actions and listeners run on every graph execution.
+ *
+ * @since 0.4.0
+ */
+public interface GraphActionDecorator {
+
+    default AsyncNodeActionWithConfig decorateNode(NodeDescriptor node, AsyncNodeActionWithConfig action) {
+        return action;
+    }
+
+    default AsyncCommandAction decorateEdge(EdgeDescriptor edge, AsyncCommandAction action) {
+        return action;
+    }
+
+    /**
+     * Returns a listener to add to the compile config of the graph, or null. Called once per
+     * compilation, after the node and edge actions have been decorated.
+     */
+    @Nullable
+    default GraphLifecycleListener lifecycleListener(GraphDescriptor graph) {
+        return null;
+    }
+
+}
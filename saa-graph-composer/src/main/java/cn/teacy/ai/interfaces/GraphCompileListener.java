@@ -0,0 +1,73 @@
+package cn.teacy.ai.interfaces;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * Observes the phases of compiling a composer, e.g. to report them as metrics.
+ * <p>
+ * Listeners declared as beans are picked up by the Spring based compilers. A phase always starts
+ * and ends on the same thread, but phases of different graphs may run concurrently when graphs
+ * are compiled in parallel.
+ *
+ * @since 0.4.0
+ */
+@FunctionalInterface
+public interface GraphCompileListener {
+
+    /**
+     * Called when a phase starts. The returned scope is ended when the phase completes.
+     */
+    PhaseScope onPhaseStart(String graphId, Class<?> composerType, Phase phase);
+
+    @FunctionalInterface
+    interface PhaseScope {
+
+        PhaseScope NOOP = failure -> {};
+
+        /**
+         * @param failure the exception that aborted the phase, or null if it completed
+         */
+        void end(@Nullable Throwable failure);
+
+    }
+
+    enum Phase {
+
+        /**
+         * Reading the annotated fields of the composer into a graph definition.
+         */
+        COLLECT_DEFINITION("collect-definition"),
+
+        /**
+         * {@link GraphBuildLifecycle#afterKeyRegistration}.
+         */
+        AFTER_KEY_REGISTRATION("after-key-registration"),
+
+        /**
+         * Replaying the collected nodes and edges on the {@code StateGraph}.
+         */
+        REPLAY_OPERATIONS("replay-operations"),
+
+        /**
+         * {@link GraphBuildLifecycle#beforeCompile}.
+         */
+        BEFORE_COMPILE("before-compile"),
+
+        /**
+         * {@code StateGraph.compile}.
+         */
+        COMPILE("compile");
+
+        private final String value;
+
+        Phase(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+    }
+
+}
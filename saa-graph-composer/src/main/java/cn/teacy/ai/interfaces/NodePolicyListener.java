@@ -0,0 +1,67 @@
+package cn.teacy.ai.interfaces;
+
+import cn.teacy.ai.metadata.GraphDescriptor;
+import cn.teacy.ai.metadata.NodeDescriptor;
+import cn.teacy.ai.support.NodeBatcher;
+import cn.teacy.ai.support.NodeBulkhead;
+import cn.teacy.ai.support.NodeCoalescer;
+import cn.teacy.ai.support.NodeHedger;
+import cn.teacy.ai.support.NodeResultCache;
+import cn.teacy.ai.support.ParallelBranchDispatcher;
+import cn.teacy.ai.support.StateSizeMonitor;
+
+/**
+ * Notified of the runtime policies the compiler attaches to nodes, e.g. to publish their state as
+ * metrics.
+ * <p>
+ * Listeners declared as beans are picked up by the Spring based compilers. A graph that is
+ * recompiled gets new policy instances, which replace the previous ones of the same node.
+ *
+ * @since 0.4.0
+ */
+public interface NodePolicyListener {
+
+    /**
+     * Called when a node declaring {@link cn.teacy.ai.annotation.NodeConcurrency} is compiled.
+     */
+    default void onBulkhead(NodeDescriptor node, NodeBulkhead bulkhead) {
+    }
+
+    /**
+     * Called when a node declaring {@link cn.teacy.ai.annotation.NodeCache} is compiled.
+     */
+    default void onCache(NodeDescriptor node, NodeResultCache cache) {
+    }
+
+    /**
+     * Called when a node declaring {@link cn.teacy.ai.annotation.Hedge} is compiled.
+     */
+    default void onHedge(NodeDescriptor node, NodeHedger hedger) {
+    }
+
+    /**
+     * Called when a node declaring {@link cn.teacy.ai.annotation.Coalesce} is compiled.
+     */
+    default void onCoalesce(NodeDescriptor node, NodeCoalescer coalescer) {
+    }
+
+    /**
+     * Called when a node declaring {@link cn.teacy.ai.annotation.BatchNode} is compiled.
+     */
+    default void onBatcher(NodeDescriptor node, NodeBatcher batcher) {
+    }
+
+    /**
+     * Called when a node declaring {@link cn.teacy.ai.annotation.ParallelBranches} is compiled.
+     */
+    default void onParallelBranches(NodeDescriptor node, ParallelBranchDispatcher dispatcher) {
+    }
+
+    /**
+     * Called when a graph accounting the size of its state is compiled, see
+     * {@link cn.teacy.ai.annotation.GraphComposer#maxStateBytes()}.
+     */
+    default void onStateSize(GraphDescriptor graph, StateSizeMonitor monitor) {
+    }
+
+}
@@ -0,0 +1,212 @@
+package cn.teacy.ai.metadata;
+
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.interfaces.AppendOverflowHook;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable, pre-parsed description of a {@link cn.teacy.ai.annotation.GraphComposer} class.
+ * <p>
+ * Holds everything the compiler would otherwise discover by walking the composer fields
+ * reflectively: key names and strategies, node ids, edges and policies, conditional edge route
+ * maps, and accessors to read the field values from a composer instance.
+ *
+ * @param composerType  the composer class this metadata describes
+ * @param keys          the {@code @GraphKey} fields, in declaration order
+ * @param nodes         the {@code @GraphNode} fields, in declaration order
+ * @param edges         the {@code @ConditionalEdge} fields, in declaration order
+ * @param compileConfig the {@code @GraphCompileConfig} field, or null if absent
+ * @since 0.4.0
+ */
+public record ComposerMetadata(
+        @Nonnull Class<?> composerType,
+        @Nonnull List<KeyMetadata> keys,
+        @Nonnull List<NodeMetadata> nodes,
+        @Nonnull List<EdgeMetadata> edges,
+        @Nullable CompileConfigMetadata compileConfig
+) {
+
+    public ComposerMetadata {
+        keys = List.copyOf(keys);
+        nodes = List.copyOf(nodes);
+        edges = List.copyOf(edges);
+    }
+
+    /**
+     * @param fieldName    the name of the declaring field
+     * @param key          the constant value of the field, used as state key
+     * @param strategy     the key strategy type declared by {@code @GraphKey#strategy()}
+     * @param maxEntries   the bound declared by {@code @GraphKey#maxEntries()}, 0 if unbounded
+     * @param overflow     the overflow policy declared by {@code @GraphKey#overflow()}
+     * @param overflowHook the hook declared by {@code @GraphKey#overflowHook()}
+     * @param offload      whether the values are offloaded, see {@code @GraphKey#offload()}
+     */
+    public record KeyMetadata(
+            @Nonnull String fieldName,
+            @Nonnull String key,
+            @Nonnull Class<? extends KeyStrategy> strategy,
+            int maxEntries,
+            @Nonnull GraphKey.Overflow overflow,
+            @Nonnull Class<? extends AppendOverflowHook> overflowHook,
+            boolean offload
+    ) {
+
+        public KeyMetadata(String fieldName, String key, Class<? extends KeyStrategy> strategy) {
+            this(fieldName, key, strategy, 0, GraphKey.Overflow.DROP_OLDEST, AppendOverflowHook.class, false);
+        }
+
+    }
+
+    /**
+     * @param fieldName the name of the declaring field
+     * @param nodeId    the resolved node id, defaults to the field name
+     * @param next      the non-empty target node ids declared by {@code @GraphNode#next()}
+     * @param isStart   whether an edge from {@code START} should be added
+     * @param accessor  reads the node instance from a composer instance
+     * @param executor  the executor declared by {@code @GraphNode#executor()}, or null
+     * @param policies  the timeout and the policies declared on the field
+     */
+    public record NodeMetadata(
+            @Nonnull String fieldName,
+            @Nonnull String nodeId,
+            @Nonnull List<String> next,
+            boolean isStart,
+            @Nonnull Function<Object, Object> accessor,
+            @Nullable String executor,
+            @Nonnull NodePolicies policies
+    ) {
+
+        public NodeMetadata {
+            next = List.copyOf(next);
+        }
+
+        public NodeMetadata(String fieldName, String nodeId, List<String> next, boolean isStart,
+                            Function<Object, Object> accessor, @Nullable String executor) {
+            this(fieldName, nodeId, next, isStart, accessor, executor, NodePolicies.NONE);
+        }
+
+        public NodeMetadata(String fieldName, String nodeId, List<String> next, boolean isStart,
+                            Function<Object, Object> accessor) {
+            this(fieldName, nodeId, next, isStart, accessor, null);
+        }
+
+    }
+
+    /**
+     * The attributes of the timeout and the policy annotations of a node field, read once, so that
+     * compiling a graph does not look the annotations up again. The values are validated when the
+     * node is registered.
+     *
+     * @param timeout          {@code @GraphNode#timeout()}, or null to use the composer default
+     * @param timeoutFallback  {@code @GraphNode#timeoutFallback()}, or null
+     * @param timeoutErrorKey  {@code @GraphNode#timeoutErrorKey()}, or null
+     * @param concurrency      the {@code @NodeConcurrency} of the field, or null
+     * @param cache            the {@code @NodeCache} of the field, or null
+     * @param hedge            the {@code @Hedge} of the field, or null
+     * @param coalesce         the {@code @Coalesce} of the field, or null
+     * @param batch            the {@code @BatchNode} of the field, or null
+     * @param parallelBranches the {@code @ParallelBranches} of the field, or null
+     */
+    public record NodePolicies(
+            @Nullable String timeout,
+            @Nullable String timeoutFallback,
+            @Nullable String timeoutErrorKey,
+            @Nullable ConcurrencyPolicy concurrency,
+            @Nullable CachePolicy cache,
+            @Nullable HedgePolicy hedge,
+            @Nullable CoalescePolicy coalesce,
+            @Nullable BatchPolicy batch,
+            @Nullable ParallelBranchesPolicy parallelBranches
+    ) {
+
+        /**
+         * No timeout and no policies.
+         */
+        public static final NodePolicies NONE = new NodePolicies(null, null, null, null, null, null, null, null, null);
+
+        /**
+         * @see cn.teacy.ai.annotation.NodeConcurrency
+         */
+        public record ConcurrencyPolicy(int maxConcurrent, int maxQueued, @Nonnull String queueTimeout) {}
+
+        /**
+         * @see cn.teacy.ai.annotation.NodeCache
+         */
+        public record CachePolicy(@Nonnull List<String> keys, int maxSize, @Nonnull String ttl, @Nonnull String maxBytes) {
+
+            public CachePolicy {
+                keys = List.copyOf(keys);
+            }
+
+            /**
+             * A policy bounded by the number of cached outputs only.
+             */
+            public CachePolicy(@Nonnull List<String> keys, int maxSize, @Nonnull String ttl) {
+                this(keys, maxSize, ttl, "");
+            }
+
+        }
+
+        /**
+         * @see cn.teacy.ai.annotation.Hedge
+         */
+        public record HedgePolicy(@Nonnull String delay, double percentile, int maxAttempts) {}
+
+        /**
+         * @see cn.teacy.ai.annotation.Coalesce
+         */
+        public record CoalescePolicy(@Nonnull List<String> keys) {
+
+            public CoalescePolicy {
+                keys = List.copyOf(keys);
+            }
+
+        }
+
+        /**
+         * @see cn.teacy.ai.annotation.BatchNode
+         */
+        public record BatchPolicy(int maxBatchSize, @Nonnull String maxWait) {}
+
+        /**
+         * @see cn.teacy.ai.annotation.ParallelBranches
+         */
+        public record ParallelBranchesPolicy(@Nonnull String executor, int maxParallelism) {}
+
+    }
+
+    /**
+     * @param fieldName the name of the declaring field
+     * @param source    the source node id
+     * @param routes    the parsed route map (routing key to target node id)
+     * @param accessor  reads the edge action from a composer instance
+     */
+    public record EdgeMetadata(
+            @Nonnull String fieldName,
+            @Nonnull String source,
+            @Nonnull Map<String, String> routes,
+            @Nonnull Function<Object, Object> accessor
+    ) {
+
+        public EdgeMetadata {
+            routes = Map.copyOf(routes);
+        }
+
+    }
+
+    /**
+     * @param fieldName the name of the declaring field
+     * @param accessor  reads the config (or its supplier) from a composer instance
+     */
+    public record CompileConfigMetadata(
+            @Nonnull String fieldName,
+            @Nonnull Function<Object, Object> accessor
+    ) {}
+
+}
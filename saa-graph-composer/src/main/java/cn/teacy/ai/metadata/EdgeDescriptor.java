@@ -0,0 +1,47 @@
+package cn.teacy.ai.metadata;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.Map;
+
+/**
+ * Describes a {@code @ConditionalEdge} while its action is being registered.
+ *
+ * @param graphId      the id of the graph being compiled
+ * @param sourceNodeId the id of the node the edges start from
+ * @param composerType the composer class declaring the edge
+ * @param fieldName    the name of the declaring field
+ * @param routes       the route map, from the value returned by the action to the target node id
+ * @since 0.4.0
+ */
+public record EdgeDescriptor(
+        @Nonnull String graphId,
+        @Nonnull String sourceNodeId,
+        @Nonnull Class<?> composerType,
+        @Nonnull String fieldName,
+        @Nonnull Map<String, String> routes
+) {
+
+    /**
+     * Returns the declaring field, or null if it cannot be found.
+     */
+    @Nullable
+    public Field field() {
+        return ReflectionUtils.findField(composerType, fieldName);
+    }
+
+    /**
+     * Returns the merged annotation of the given type on the declaring field, or null.
+     */
+    @Nullable
+    public <A extends Annotation> A findAnnotation(Class<A> annotationType) {
+        Field field = field();
+        return field != null ? AnnotatedElementUtils.findMergedAnnotation(field, annotationType) : null;
+    }
+
+}
@@ -0,0 +1,20 @@
+package cn.teacy.ai.metadata;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.Map;
+
+/**
+ * Describes a graph after its nodes and edges have been registered.
+ *
+ * @param graphId      the id of the graph being compiled
+ * @param composerType the composer class declaring the graph
+ * @param subgraphs    the ids of the subgraphs embedded as nodes, keyed by node id
+ * @since 0.4.0
+ */
+public record GraphDescriptor(
+        @Nonnull String graphId,
+        @Nonnull Class<?> composerType,
+        @Nonnull Map<String, String> subgraphs
+) {
+}
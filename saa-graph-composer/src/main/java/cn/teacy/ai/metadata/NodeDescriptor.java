@@ -0,0 +1,44 @@
+package cn.teacy.ai.metadata;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+
+/**
+ * Describes a {@code @GraphNode} while its action is being registered.
+ *
+ * @param graphId      the id of the graph being compiled
+ * @param nodeId       the id of the node
+ * @param composerType the composer class declaring the node
+ * @param fieldName    the name of the declaring field
+ * @since 0.4.0
+ */
+public record NodeDescriptor(
+        @Nonnull String graphId,
+        @Nonnull String nodeId,
+        @Nonnull Class<?> composerType,
+        @Nonnull String fieldName
+) {
+
+    /**
+     * Returns the declaring field, or null if it cannot be found.
+     */
+    @Nullable
+    public Field field() {
+        return ReflectionUtils.findField(composerType, fieldName);
+    }
+
+    /**
+     * Returns the merged annotation of the given type on the declaring field, or null.
+     */
+    @Nullable
+    public <A extends Annotation> A findAnnotation(Class<A> annotationType) {
+        Field field = field();
+        return field != null ? AnnotatedElementUtils.findMergedAnnotation(field, annotationType) : null;
+    }
+
+}
@@ -0,0 +1,93 @@
+package cn.teacy.ai.strategy;
+
+import cn.teacy.ai.annotation.GraphKey.Overflow;
+import cn.teacy.ai.interfaces.AppendOverflowHook;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import jakarta.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link AppendStrategy} keeping at most a fixed number of entries, so that keys such as chat
+ * histories stop growing over long agent loops.
+ * <p>
+ * Updates are appended like with {@link AppendStrategy}, including removals and
+ * {@code ReplaceAllWith}, and the result is trimmed to the newest entries. Every update produces a
+ * new list, so the cost of an update is bounded by the maximum number of entries.
+ *
+ * @see cn.teacy.ai.annotation.GraphKey#maxEntries()
+ * @since 0.4.0
+ */
+public class BoundedAppendStrategy implements KeyStrategy {
+
+    private final KeyStrategy append = new AppendStrategy();
+
+    private final int maxEntries;
+
+    private final Overflow overflow;
+
+    @Nullable
+    private final AppendOverflowHook hook;
+
+    /**
+     * Creates a strategy dropping the oldest entries.
+     */
+    public BoundedAppendStrategy(int maxEntries) {
+        this(maxEntries, Overflow.DROP_OLDEST, null);
+    }
+
+    /**
+     * @param maxEntries the maximum number of entries kept
+     * @param overflow   what happens to the oldest entries
+     * @param hook       the hook summarizing the oldest entries, required with {@link Overflow#SUMMARIZE_HOOK}
+     */
+    public BoundedAppendStrategy(int maxEntries, Overflow overflow, @Nullable AppendOverflowHook hook) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1, but was " + maxEntries);
+        }
+        if (overflow == Overflow.SUMMARIZE_HOOK && hook == null) {
+            throw new IllegalArgumentException("SUMMARIZE_HOOK requires an overflow hook");
+        }
+        this.maxEntries = maxEntries;
+        this.overflow = overflow;
+        this.hook = hook;
+    }
+
+    @Override
+    public Object apply(Object oldValue, Object newValue) {
+        Object appended = append.apply(oldValue, newValue);
+        if (!(appended instanceof List<?> entries) || entries.size() <= maxEntries) {
+            return appended;
+        }
+
+        int size = entries.size();
+        if (overflow == Overflow.DROP_OLDEST) {
+            return new ArrayList<>(entries.subList(size - maxEntries, size));
+        }
+
+        // summarize down to half of the bound, so that the hook is not called on every update
+        int retained = maxEntries / 2;
+        List<?> summary = hook.summarize(new ArrayList<>(entries.subList(0, size - retained)));
+        if (summary == null || summary.size() > maxEntries - retained) {
+            throw new IllegalStateException(String.format(
+                    "Overflow hook %s returned %s entries, but at most %d fit next to the %d retained ones.",
+                    hook.getClass().getName(), summary == null ? "no" : String.valueOf(summary.size()),
+                    maxEntries - retained, retained));
+        }
+        List<Object> bounded = new ArrayList<>(summary.size() + retained);
+        bounded.addAll(summary);
+        bounded.addAll(entries.subList(size - retained, size));
+        return bounded;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public Overflow getOverflow() {
+        return overflow;
+    }
+
+}
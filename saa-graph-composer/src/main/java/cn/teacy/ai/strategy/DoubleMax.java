@@ -0,0 +1,75 @@
+package cn.teacy.ai.strategy;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.Serial;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The state value of a {@link MaxDoubleStrategy} key, a running maximum updated in place.
+ * <p>
+ * Read it as a {@link Number}. Snapshots of the state, e.g. checkpoints and the state returned
+ * by a run, hold the maximum as a {@link Double}, also when serialized with JDK serialization.
+ *
+ * @since 0.4.0
+ */
+@JsonSerialize(using = JdkValueSerializer.class)
+public final class DoubleMax extends Number {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final AtomicLong bits;
+
+    public DoubleMax(double initial) {
+        this.bits = new AtomicLong(Double.doubleToRawLongBits(initial));
+    }
+
+    void accumulate(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        long current = bits.get();
+        while (value > Double.longBitsToDouble(current) || Double.isNaN(Double.longBitsToDouble(current))) {
+            if (bits.compareAndSet(current, Double.doubleToRawLongBits(value))) {
+                return;
+            }
+            current = bits.get();
+        }
+    }
+
+    @Override
+    public double doubleValue() {
+        return Double.longBitsToDouble(bits.get());
+    }
+
+    @Override
+    public long longValue() {
+        return (long) doubleValue();
+    }
+
+    @Override
+    public int intValue() {
+        return (int) doubleValue();
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public String toString() {
+        return Double.toString(doubleValue());
+    }
+
+    /**
+     * Serializes the current maximum as a {@link Double}, so that a serialized snapshot does not
+     * change with later merges.
+     */
+    @Serial
+    private Object writeReplace() {
+        return doubleValue();
+    }
+
+}
@@ -0,0 +1,214 @@
+package cn.teacy.ai.strategy;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * The state value of a {@link HistogramStrategy} key, counting the recorded values in buckets
+ * whose bounds are powers of two, updated in place.
+ * <p>
+ * Bucket {@code 0} counts the values up to {@code 0}, bucket {@code i} the values up to
+ * {@link #upperBound(int) 2^(i - 21)}, and the last bucket every larger value. Percentiles are
+ * approximated by the upper bound of their bucket, clamped to the recorded minimum and maximum.
+ * Snapshots of the state, e.g. checkpoints and the state returned by a run, hold the histogram as
+ * the map of {@link #toMap()}.
+ *
+ * @since 0.4.0
+ */
+@JsonSerialize(using = JdkValueSerializer.class)
+public final class Histogram implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public static final int BUCKETS = 64;
+
+    private static final int MIN_EXPONENT = -21;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong sumBits = new AtomicLong(Double.doubleToRawLongBits(0));
+
+    private final AtomicLong minBits = new AtomicLong(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+
+    private final AtomicLong maxBits = new AtomicLong(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+
+    /**
+     * Records a value, ignoring {@code NaN}.
+     */
+    public void record(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        buckets.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        update(sumBits, value, Double::sum);
+        update(minBits, value, Math::min);
+        update(maxBits, value, Math::max);
+    }
+
+    /**
+     * Adds the values recorded by another histogram.
+     */
+    public void merge(Histogram other) {
+        if (other == this || other.getCount() == 0) {
+            return;
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = other.buckets.get(i);
+            if (bucketCount != 0) {
+                buckets.addAndGet(i, bucketCount);
+            }
+        }
+        count.addAndGet(other.getCount());
+        update(sumBits, other.getSum(), Double::sum);
+        update(minBits, other.getMin(), Math::min);
+        update(maxBits, other.getMax(), Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getSum() {
+        return Double.longBitsToDouble(sumBits.get());
+    }
+
+    /**
+     * Returns the smallest recorded value, or {@code NaN} if none was recorded.
+     */
+    public double getMin() {
+        return getCount() == 0 ? Double.NaN : Double.longBitsToDouble(minBits.get());
+    }
+
+    /**
+     * Returns the largest recorded value, or {@code NaN} if none was recorded.
+     */
+    public double getMax() {
+        return getCount() == 0 ? Double.NaN : Double.longBitsToDouble(maxBits.get());
+    }
+
+    public double getMean() {
+        long total = getCount();
+        return total == 0 ? Double.NaN : getSum() / total;
+    }
+
+    public long getBucketCount(int bucket) {
+        return buckets.get(bucket);
+    }
+
+    /**
+     * Returns the approximate value below which the given fraction of the recorded values lies.
+     *
+     * @param fraction between {@code 0} and {@code 1}, e.g. {@code 0.99}
+     */
+    public double percentile(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("fraction must be between 0 and 1, but was " + fraction);
+        }
+        long total = getCount();
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.max(getMin(), Math.min(upperBound(i), getMax()));
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Returns the largest value counted by a bucket, infinite for the last one.
+     */
+    public static double upperBound(int bucket) {
+        if (bucket == 0) {
+            return 0;
+        }
+        return bucket == BUCKETS - 1 ? Double.POSITIVE_INFINITY : Math.scalb(1.0, bucket + MIN_EXPONENT);
+    }
+
+    /**
+     * Returns the histogram as a map of {@code count}, {@code sum}, {@code min}, {@code max} and
+     * the {@code buckets} counts.
+     */
+    public Map<String, Object> toMap() {
+        List<Long> bucketCounts = new ArrayList<>(BUCKETS);
+        for (int i = 0; i < BUCKETS; i++) {
+            bucketCounts.add(buckets.get(i));
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", getCount());
+        map.put("sum", getSum());
+        map.put("min", getMin());
+        map.put("max", getMax());
+        map.put("buckets", bucketCounts);
+        return map;
+    }
+
+    /**
+     * Restores a histogram from the map of {@link #toMap()}.
+     *
+     * @throws IllegalArgumentException if the map is not a histogram
+     */
+    public static Histogram fromMap(Map<?, ?> map) {
+        if (!(map.get("count") instanceof Number total) || !(map.get("buckets") instanceof List<?> bucketCounts)
+                || bucketCounts.size() != BUCKETS) {
+            throw new IllegalArgumentException("Not a histogram: " + map);
+        }
+        Histogram histogram = new Histogram();
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram.buckets.set(i, ((Number) bucketCounts.get(i)).longValue());
+        }
+        histogram.count.set(total.longValue());
+        if (total.longValue() > 0) {
+            histogram.sumBits.set(Double.doubleToRawLongBits(((Number) map.get("sum")).doubleValue()));
+            histogram.minBits.set(Double.doubleToRawLongBits(((Number) map.get("min")).doubleValue()));
+            histogram.maxBits.set(Double.doubleToRawLongBits(((Number) map.get("max")).doubleValue()));
+        }
+        return histogram;
+    }
+
+    private static int bucketOf(double value) {
+        if (value <= 0) {
+            return 0;
+        }
+        // values in (2^(e - 1), 2^e] go to the bucket of upper bound 2^e
+        int exponent = Math.getExponent(value);
+        if (value != Math.scalb(1.0, exponent)) {
+            exponent++;
+        }
+        return Math.min(Math.max(exponent - MIN_EXPONENT, 1), BUCKETS - 1);
+    }
+
+    private static void update(AtomicLong bits, double value, DoubleBinaryOperator operator) {
+        long current = bits.get();
+        while (true) {
+            long next = Double.doubleToRawLongBits(operator.applyAsDouble(Double.longBitsToDouble(current), value));
+            if (next == current || bits.compareAndSet(current, next)) {
+                return;
+            }
+            current = bits.get();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram[count=" + getCount() + ", mean=" + getMean() + ", max=" + getMax() + "]";
+    }
+
+}
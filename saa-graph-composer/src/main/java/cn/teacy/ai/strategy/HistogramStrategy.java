@@ -0,0 +1,65 @@
+package cn.teacy.ai.strategy;
+
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+import static cn.teacy.ai.strategy.SumLongStrategy.toNumber;
+
+/**
+ * Records the numbers written to a key, e.g. the latencies or costs of parallel branches, in a
+ * {@link Histogram} updated in place, instead of keeping every value.
+ * <p>
+ * Updates may be a {@link Number}, a collection of numbers or another {@link Histogram}, which is
+ * merged; {@code null} leaves the histogram unchanged. Concurrent merges into the same histogram
+ * are safe.
+ *
+ * @since 0.4.0
+ */
+public class HistogramStrategy implements KeyStrategy {
+
+    @Override
+    public Object apply(Object oldValue, Object newValue) {
+        if (oldValue instanceof Optional<?> optional) {
+            oldValue = optional.orElse(null);
+        }
+        if (newValue instanceof Optional<?> optional) {
+            newValue = optional.orElse(null);
+        }
+        if (newValue == null || newValue == oldValue) {
+            return oldValue;
+        }
+
+        Histogram histogram = oldValue instanceof Histogram existing ? existing : toHistogram(oldValue);
+        if (newValue instanceof Histogram other) {
+            histogram.merge(other);
+        } else if (newValue instanceof Collection<?> values) {
+            for (Object value : values) {
+                histogram.record(toNumber(value).doubleValue());
+            }
+        } else if (newValue instanceof Map<?, ?> snapshot) {
+            histogram.merge(Histogram.fromMap(snapshot));
+        } else {
+            histogram.record(toNumber(newValue).doubleValue());
+        }
+        return histogram;
+    }
+
+    /**
+     * Creates the histogram on the first merge, or restores it from a snapshot of the state.
+     */
+    private static Histogram toHistogram(Object oldValue) {
+        if (oldValue == null) {
+            return new Histogram();
+        }
+        if (oldValue instanceof Map<?, ?> snapshot) {
+            return Histogram.fromMap(snapshot);
+        }
+        Histogram histogram = new Histogram();
+        histogram.record(toNumber(oldValue).doubleValue());
+        return histogram;
+    }
+
+}
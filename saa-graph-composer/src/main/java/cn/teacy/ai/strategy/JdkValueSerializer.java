@@ -0,0 +1,51 @@
+package cn.teacy.ai.strategy;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes the state values of the strategies in this package as their JDK counterparts, including
+ * the type ids of the state serializers, which only restore JDK types when the state is cloned.
+ */
+class JdkValueSerializer extends StdSerializer<Object> {
+
+    JdkValueSerializer() {
+        super(Object.class);
+    }
+
+    @Override
+    public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        provider.defaultSerializeValue(toJdk(value), gen);
+    }
+
+    @Override
+    public void serializeWithType(Object value, JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSer) throws IOException {
+        Object copy = toJdk(value);
+        provider.findPrimaryPropertySerializer(copy.getClass(), null).serializeWithType(copy, gen, provider, typeSer);
+    }
+
+    private static Object toJdk(Object value) {
+        if (value instanceof LongSum sum) {
+            return sum.longValue();
+        }
+        if (value instanceof DoubleMax max) {
+            return max.doubleValue();
+        }
+        if (value instanceof Histogram histogram) {
+            return histogram.toMap();
+        }
+        if (value instanceof Map<?, ?> map) {
+            return new HashMap<>(map);
+        }
+        return new ArrayList<>((Collection<?>) value);
+    }
+
+}
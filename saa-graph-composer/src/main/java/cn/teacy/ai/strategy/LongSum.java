@@ -0,0 +1,66 @@
+package cn.teacy.ai.strategy;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.Serial;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The state value of a {@link SumLongStrategy} key, a running sum updated in place.
+ * <p>
+ * Read it as a {@link Number}. Snapshots of the state, e.g. checkpoints and the state returned
+ * by a run, hold the sum as a {@link Long}, also when serialized with JDK serialization.
+ *
+ * @since 0.4.0
+ */
+@JsonSerialize(using = JdkValueSerializer.class)
+public final class LongSum extends Number {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final AtomicLong sum;
+
+    public LongSum(long initial) {
+        this.sum = new AtomicLong(initial);
+    }
+
+    void add(long value) {
+        sum.addAndGet(value);
+    }
+
+    @Override
+    public long longValue() {
+        return sum.get();
+    }
+
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    @Override
+    public float floatValue() {
+        return longValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return longValue();
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(longValue());
+    }
+
+    /**
+     * Serializes the current sum as a {@link Long}, so that a serialized snapshot does not change
+     * with later merges.
+     */
+    @Serial
+    private Object writeReplace() {
+        return longValue();
+    }
+
+}
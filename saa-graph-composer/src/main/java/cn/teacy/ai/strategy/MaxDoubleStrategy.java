@@ -0,0 +1,45 @@
+package cn.teacy.ai.strategy;
+
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+
+import java.util.Optional;
+
+import static cn.teacy.ai.strategy.SumLongStrategy.toNumber;
+
+/**
+ * Keeps the largest number written to a key, e.g. the best score of parallel branches, in a
+ * {@link DoubleMax} updated in place, so that merges do not box a new {@link Double}.
+ * <p>
+ * Updates may be any {@link Number}; {@code null} and {@code NaN} leave the maximum unchanged.
+ * Concurrent merges into the same maximum are safe.
+ *
+ * @since 0.4.0
+ */
+public class MaxDoubleStrategy implements KeyStrategy {
+
+    @Override
+    public Object apply(Object oldValue, Object newValue) {
+        if (oldValue instanceof Optional<?> optional) {
+            oldValue = optional.orElse(null);
+        }
+        if (newValue instanceof Optional<?> optional) {
+            newValue = optional.orElse(null);
+        }
+        if (newValue == null || newValue == oldValue) {
+            return oldValue;
+        }
+        double value = toNumber(newValue).doubleValue();
+
+        if (oldValue instanceof DoubleMax max) {
+            max.accumulate(value);
+            return max;
+        }
+        // the first merge, or a snapshot of the state holding the maximum as a plain number
+        DoubleMax max = new DoubleMax(value);
+        if (oldValue != null) {
+            max.accumulate(toNumber(oldValue).doubleValue());
+        }
+        return max;
+    }
+
+}
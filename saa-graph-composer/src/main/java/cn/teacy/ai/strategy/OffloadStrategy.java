@@ -0,0 +1,96 @@
+package cn.teacy.ai.strategy;
+
+import cn.teacy.ai.support.BlobRef;
+import cn.teacy.ai.support.BlobStore;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.state.AppenderChannel;
+import com.alibaba.cloud.ai.graph.state.ReplaceAllWith;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Offloads the values written to a key to a {@link BlobStore}, so that the state holds a
+ * {@link BlobRef} handle in place of each value.
+ * <p>
+ * With {@link ReplaceStrategy} the key holds the handle of the latest value. With
+ * {@link AppendStrategy} or {@link BoundedAppendStrategy} each appended entry is offloaded on its
+ * own and the key holds a list of handles; removals and {@code ReplaceAllWith} work as usual.
+ * Handles written to the key are kept as they are.
+ *
+ * @see cn.teacy.ai.annotation.GraphKey#offload()
+ * @since 0.4.0
+ */
+public class OffloadStrategy implements KeyStrategy {
+
+    private final KeyStrategy delegate;
+
+    private final BlobStore store;
+
+    private final boolean append;
+
+    /**
+     * @param delegate the strategy merging the handles, a replace or an append strategy
+     * @param store    the store of the offloaded values
+     */
+    public OffloadStrategy(KeyStrategy delegate, BlobStore store) {
+        if (!(delegate instanceof ReplaceStrategy || delegate instanceof AppendStrategy
+                || delegate instanceof BoundedAppendStrategy)) {
+            throw new IllegalArgumentException("offload requires ReplaceStrategy, AppendStrategy or BoundedAppendStrategy, but the strategy is "
+                    + delegate.getClass().getSimpleName());
+        }
+        this.delegate = delegate;
+        this.store = store;
+        this.append = !(delegate instanceof ReplaceStrategy);
+    }
+
+    @Override
+    public Object apply(Object oldValue, Object newValue) {
+        if (newValue instanceof Optional<?> optional) {
+            newValue = optional.orElse(null);
+        }
+        if (newValue == null) {
+            return delegate.apply(oldValue, null);
+        }
+        return delegate.apply(oldValue, append ? offloadEntries(newValue) : store.put(newValue));
+    }
+
+    private Object offloadEntries(Object newValue) {
+        if (newValue instanceof ReplaceAllWith<?> replacement) {
+            return ReplaceAllWith.of(offloadAll(replacement.newValues()));
+        }
+        if (newValue instanceof Collection<?> entries) {
+            return offloadAll(entries);
+        }
+        if (newValue instanceof Object[] entries) {
+            return offloadAll(Arrays.asList(entries));
+        }
+        return List.of(offload(newValue));
+    }
+
+    private List<Object> offloadAll(Collection<?> entries) {
+        List<Object> offloaded = new ArrayList<>(entries.size());
+        for (Object entry : entries) {
+            offloaded.add(offload(entry));
+        }
+        return offloaded;
+    }
+
+    private Object offload(Object entry) {
+        return entry == null || entry instanceof AppenderChannel.RemoveIdentifier<?> ? entry : store.put(entry);
+    }
+
+    public KeyStrategy getDelegate() {
+        return delegate;
+    }
+
+    public BlobStore getStore() {
+        return store;
+    }
+
+}
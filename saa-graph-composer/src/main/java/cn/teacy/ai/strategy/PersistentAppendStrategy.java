@@ -0,0 +1,81 @@
+package cn.teacy.ai.strategy;
+
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.state.AppenderChannel.RemoveIdentifier;
+import com.alibaba.cloud.ai.graph.state.ReplaceAllWith;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An {@link AppendStrategy} storing the values of the key in a {@link PersistentVector}, so that
+ * appending to a long list no longer copies it.
+ * <p>
+ * Updates are applied like with {@link AppendStrategy}, including removals and
+ * {@code ReplaceAllWith}. Appending copies one path of the trie of the vector, while removals copy
+ * the list.
+ *
+ * @since 0.4.0
+ */
+public class PersistentAppendStrategy implements KeyStrategy {
+
+    @Override
+    public Object apply(Object oldValue, Object newValue) {
+        if (newValue == null) {
+            return oldValue;
+        }
+        if (newValue instanceof ReplaceAllWith<?> replaceAll) {
+            return PersistentVector.copyOf(replaceAll.newValues());
+        }
+        if (newValue instanceof Optional<?> optional) {
+            newValue = optional.orElse(null);
+            if (newValue == null) {
+                return oldValue;
+            }
+        }
+        if (oldValue instanceof Optional<?> optional) {
+            oldValue = optional.orElse(null);
+        }
+
+        PersistentVector<Object> current = oldValue instanceof List<?> list
+                ? PersistentVector.copyOf(list)
+                : PersistentVector.empty();
+        if (newValue instanceof RemoveIdentifier<?> removal) {
+            return remove(current, removal);
+        }
+
+        Collection<?> values = newValue instanceof Collection<?> collection ? collection
+                : newValue instanceof Object[] array ? Arrays.asList(array)
+                : null;
+        if (values == null) {
+            return current.plus(newValue);
+        }
+
+        // removals apply to the previous values, before the new values are appended
+        List<Object> appended = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (value instanceof RemoveIdentifier<?> removal) {
+                current = remove(current, removal);
+            } else {
+                appended.add(value);
+            }
+        }
+        return current.plusAll(appended);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PersistentVector<Object> remove(PersistentVector<Object> values, RemoveIdentifier<?> removal) {
+        RemoveIdentifier<Object> identifier = (RemoveIdentifier<Object>) removal;
+        for (int i = 0; i < values.size(); i++) {
+            if (identifier.compareTo(values.get(i), i) == 0) {
+                return values.minus(i);
+            }
+        }
+        return values;
+    }
+
+}
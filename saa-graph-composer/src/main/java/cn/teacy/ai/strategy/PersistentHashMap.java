@@ -0,0 +1,511 @@
+package cn.teacy.ai.strategy;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable map sharing its structure with the maps it is derived from.
+ * <p>
+ * The entries are stored in a hash array mapped trie, so that {@link #plus(Object, Object)} copies
+ * one node per level of the trie instead of the whole map. Keys and values may be {@code null},
+ * and the mutating methods of {@link Map} throw {@link UnsupportedOperationException}.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @see PersistentMergeStrategy
+ * @since 0.4.0
+ */
+@JsonSerialize(using = JdkValueSerializer.class)
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> implements Serializable {
+
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final Object NOT_FOUND = new Object();
+
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(0, BitmapNode.EMPTY);
+
+    private final int size;
+
+    private final Node root;
+
+    private PersistentHashMap(int size, Node root) {
+        this.size = size;
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Returns a map of the given entries, or the map itself if it is a persistent map already.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+        if (map instanceof PersistentHashMap<?, ?> persistent) {
+            return (PersistentHashMap<K, V>) persistent;
+        }
+        return PersistentHashMap.<K, V>empty().plusAll(map);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return root.find(key, hash(key), 0) != NOT_FOUND;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        Object value = root.find(key, hash(key), 0);
+        return value == NOT_FOUND ? null : (V) value;
+    }
+
+    /**
+     * Returns a map with the key associated to the value.
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        Change change = new Change();
+        Node newRoot = root.put(key, value, hash(key), 0, change);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(change.added ? size + 1 : size, newRoot);
+    }
+
+    /**
+     * Returns a map with the entries of the given map added, replacing the values of existing keys.
+     */
+    public PersistentHashMap<K, V> plusAll(Map<? extends K, ? extends V> map) {
+        PersistentHashMap<K, V> result = this;
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            result = result.plus(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Returns a map without the key.
+     */
+    public PersistentHashMap<K, V> minus(Object key) {
+        Change change = new Change();
+        Node newRoot = root.remove(key, hash(key), 0, change);
+        if (!change.removed) {
+            return this;
+        }
+        return new PersistentHashMap<>(size - 1, newRoot == null ? BitmapNode.EMPTY : newRoot);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator<>(root);
+            }
+        };
+    }
+
+    private static int hash(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Change {
+        private boolean added;
+        private boolean removed;
+    }
+
+    private abstract static class Node {
+
+        abstract Object find(Object key, int hash, int shift);
+
+        abstract Node put(Object key, Object value, int hash, int shift, Change change);
+
+        /**
+         * Returns {@code null} when the node has no entries left.
+         */
+        abstract Node remove(Object key, int hash, int shift, Change change);
+
+        abstract int entryCount();
+
+        abstract Object key(int index);
+
+        abstract Object value(int index);
+
+        abstract int nodeCount();
+
+        abstract Node node(int index);
+
+    }
+
+    /**
+     * A node keeping its entries before its sub nodes, each indexed by a bitmap of the hash bits
+     * at the level of the node.
+     */
+    private static final class BitmapNode extends Node {
+
+        private static final BitmapNode EMPTY = new BitmapNode(0, 0, new Object[0]);
+
+        private final int dataMap;
+
+        private final int nodeMap;
+
+        private final Object[] content;
+
+        private BitmapNode(int dataMap, int nodeMap, Object[] content) {
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        private int dataIndex(int bit) {
+            return Integer.bitCount(dataMap & (bit - 1));
+        }
+
+        private int nodeIndex(int bit) {
+            return content.length - 1 - Integer.bitCount(nodeMap & (bit - 1));
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = dataIndex(bit);
+                return Objects.equals(content[2 * index], key) ? content[2 * index + 1] : NOT_FOUND;
+            }
+            if ((nodeMap & bit) != 0) {
+                return ((Node) content[nodeIndex(bit)]).find(key, hash, shift + BITS);
+            }
+            return NOT_FOUND;
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, Change change) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = dataIndex(bit);
+                Object existingKey = content[2 * index];
+                Object existingValue = content[2 * index + 1];
+                if (Objects.equals(existingKey, key)) {
+                    if (existingValue == value) {
+                        return this;
+                    }
+                    Object[] copy = content.clone();
+                    copy[2 * index + 1] = value;
+                    return new BitmapNode(dataMap, nodeMap, copy);
+                }
+                change.added = true;
+                Node merged = merge(existingKey, existingValue, hash(existingKey), key, value, hash, shift + BITS);
+                return migrateToNode(bit, index, merged);
+            }
+            if ((nodeMap & bit) != 0) {
+                int index = nodeIndex(bit);
+                Node child = (Node) content[index];
+                Node newChild = child.put(key, value, hash, shift + BITS, change);
+                if (newChild == child) {
+                    return this;
+                }
+                Object[] copy = content.clone();
+                copy[index] = newChild;
+                return new BitmapNode(dataMap, nodeMap, copy);
+            }
+
+            change.added = true;
+            int index = 2 * dataIndex(bit);
+            Object[] copy = new Object[content.length + 2];
+            System.arraycopy(content, 0, copy, 0, index);
+            copy[index] = key;
+            copy[index + 1] = value;
+            System.arraycopy(content, index, copy, index + 2, content.length - index);
+            return new BitmapNode(dataMap | bit, nodeMap, copy);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift, Change change) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = dataIndex(bit);
+                if (!Objects.equals(content[2 * index], key)) {
+                    return this;
+                }
+                change.removed = true;
+                if (content.length == 2) {
+                    return null;
+                }
+                Object[] copy = new Object[content.length - 2];
+                System.arraycopy(content, 0, copy, 0, 2 * index);
+                System.arraycopy(content, 2 * index + 2, copy, 2 * index, content.length - 2 * index - 2);
+                return new BitmapNode(dataMap ^ bit, nodeMap, copy);
+            }
+            if ((nodeMap & bit) != 0) {
+                int index = nodeIndex(bit);
+                Node child = (Node) content[index];
+                Node newChild = child.remove(key, hash, shift + BITS, change);
+                if (newChild == child) {
+                    return this;
+                }
+                if (newChild == null) {
+                    if (content.length == 1) {
+                        return null;
+                    }
+                    Object[] copy = new Object[content.length - 1];
+                    System.arraycopy(content, 0, copy, 0, index);
+                    System.arraycopy(content, index + 1, copy, index, content.length - index - 1);
+                    return new BitmapNode(dataMap, nodeMap ^ bit, copy);
+                }
+                if (newChild.nodeCount() == 0 && newChild.entryCount() == 1) {
+                    // a single remaining entry moves up into this node
+                    return migrateToData(bit, index, newChild.key(0), newChild.value(0));
+                }
+                Object[] copy = content.clone();
+                copy[index] = newChild;
+                return new BitmapNode(dataMap, nodeMap, copy);
+            }
+            return this;
+        }
+
+        private Node migrateToNode(int bit, int dataIndex, Node node) {
+            int oldIndex = 2 * dataIndex;
+            int newIndex = content.length - 2 - Integer.bitCount(nodeMap & (bit - 1));
+            Object[] copy = new Object[content.length - 1];
+            System.arraycopy(content, 0, copy, 0, oldIndex);
+            System.arraycopy(content, oldIndex + 2, copy, oldIndex, newIndex - oldIndex);
+            copy[newIndex] = node;
+            System.arraycopy(content, newIndex + 2, copy, newIndex + 1, content.length - newIndex - 2);
+            return new BitmapNode(dataMap ^ bit, nodeMap | bit, copy);
+        }
+
+        private Node migrateToData(int bit, int nodeIndex, Object key, Object value) {
+            int newIndex = 2 * Integer.bitCount(dataMap & (bit - 1));
+            Object[] copy = new Object[content.length + 1];
+            System.arraycopy(content, 0, copy, 0, newIndex);
+            copy[newIndex] = key;
+            copy[newIndex + 1] = value;
+            System.arraycopy(content, newIndex, copy, newIndex + 2, nodeIndex - newIndex);
+            System.arraycopy(content, nodeIndex + 1, copy, nodeIndex + 2, content.length - nodeIndex - 1);
+            return new BitmapNode(dataMap | bit, nodeMap ^ bit, copy);
+        }
+
+        private static Node merge(Object key1, Object value1, int hash1, Object key2, Object value2, int hash2, int shift) {
+            if (shift >= Integer.SIZE) {
+                return new CollisionNode(new Object[]{key1, value1, key2, value2});
+            }
+            int bit1 = bit(hash1, shift);
+            int bit2 = bit(hash2, shift);
+            if (bit1 == bit2) {
+                Node child = merge(key1, value1, hash1, key2, value2, hash2, shift + BITS);
+                return new BitmapNode(0, bit1, new Object[]{child});
+            }
+            Object[] content = Integer.compareUnsigned(bit1, bit2) < 0
+                    ? new Object[]{key1, value1, key2, value2}
+                    : new Object[]{key2, value2, key1, value1};
+            return new BitmapNode(bit1 | bit2, 0, content);
+        }
+
+        @Override
+        int entryCount() {
+            return Integer.bitCount(dataMap);
+        }
+
+        @Override
+        Object key(int index) {
+            return content[2 * index];
+        }
+
+        @Override
+        Object value(int index) {
+            return content[2 * index + 1];
+        }
+
+        @Override
+        int nodeCount() {
+            return Integer.bitCount(nodeMap);
+        }
+
+        @Override
+        Node node(int index) {
+            return (Node) content[content.length - 1 - index];
+        }
+
+    }
+
+    /**
+     * A node of the keys whose hashes are equal, once all hash bits are used.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final Object[] content;
+
+        private CollisionNode(Object[] content) {
+            this.content = content;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < content.length; i += 2) {
+                if (Objects.equals(content[i], key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            int index = indexOf(key);
+            return index < 0 ? NOT_FOUND : content[index + 1];
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, Change change) {
+            int index = indexOf(key);
+            if (index >= 0) {
+                if (content[index + 1] == value) {
+                    return this;
+                }
+                Object[] copy = content.clone();
+                copy[index + 1] = value;
+                return new CollisionNode(copy);
+            }
+            change.added = true;
+            Object[] copy = Arrays.copyOf(content, content.length + 2);
+            copy[content.length] = key;
+            copy[content.length + 1] = value;
+            return new CollisionNode(copy);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift, Change change) {
+            int index = indexOf(key);
+            if (index < 0) {
+                return this;
+            }
+            change.removed = true;
+            Object[] copy = new Object[content.length - 2];
+            System.arraycopy(content, 0, copy, 0, index);
+            System.arraycopy(content, index + 2, copy, index, content.length - index - 2);
+            return new CollisionNode(copy);
+        }
+
+        @Override
+        int entryCount() {
+            return content.length / 2;
+        }
+
+        @Override
+        Object key(int index) {
+            return content[2 * index];
+        }
+
+        @Override
+        Object value(int index) {
+            return content[2 * index + 1];
+        }
+
+        @Override
+        int nodeCount() {
+            return 0;
+        }
+
+        @Override
+        Node node(int index) {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+    }
+
+    private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+
+        private final Deque<Node> pending = new ArrayDeque<>();
+
+        private Node current;
+
+        private int index;
+
+        private EntryIterator(Node root) {
+            pending.push(root);
+            advance();
+        }
+
+        private void advance() {
+            while ((current == null || index >= current.entryCount()) && !pending.isEmpty()) {
+                current = pending.pop();
+                index = 0;
+                for (int i = 0; i < current.nodeCount(); i++) {
+                    pending.push(current.node(i));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current != null && index < current.entryCount();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> entry = new SimpleImmutableEntry<>((K) current.key(index), (V) current.value(index));
+            index++;
+            advance();
+            return entry;
+        }
+
+    }
+
+    @Serial
+    private Object writeReplace() {
+        Object[] entries = new Object[2 * size];
+        int i = 0;
+        for (Entry<K, V> entry : entrySet()) {
+            entries[i++] = entry.getKey();
+            entries[i++] = entry.getValue();
+        }
+        return new SerializedForm(entries);
+    }
+
+    private record SerializedForm(Object[] entries) implements Serializable {
+
+        @Serial
+        private Object readResolve() {
+            PersistentHashMap<Object, Object> map = empty();
+            for (int i = 0; i < entries.length; i += 2) {
+                map = map.plus(entries[i], entries[i + 1]);
+            }
+            return map;
+        }
+
+    }
+
+}
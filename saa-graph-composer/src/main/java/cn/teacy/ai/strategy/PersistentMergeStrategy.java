@@ -0,0 +1,45 @@
+package cn.teacy.ai.strategy;
+
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.state.strategy.MergeStrategy;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A {@link MergeStrategy} storing the values of the key in a {@link PersistentHashMap}, so that
+ * merging a few entries into a large map no longer copies it.
+ * <p>
+ * Updates are applied like with {@link MergeStrategy}: maps are merged with the new entries
+ * replacing the previous ones, and other values replace the previous value of the same type.
+ *
+ * @since 0.4.0
+ */
+public class PersistentMergeStrategy implements KeyStrategy {
+
+    @Override
+    public Object apply(Object oldValue, Object newValue) {
+        if (oldValue instanceof Optional<?> optional) {
+            oldValue = optional.orElse(null);
+        }
+        if (newValue instanceof Optional<?> optional) {
+            newValue = optional.orElse(null);
+        }
+        if (newValue == null) {
+            return oldValue;
+        }
+        if (oldValue == null) {
+            return newValue instanceof Map<?, ?> map ? PersistentHashMap.copyOf(map) : newValue;
+        }
+
+        if (oldValue instanceof Map<?, ?> oldMap && newValue instanceof Map<?, ?> newMap) {
+            return PersistentHashMap.<Object, Object>copyOf(oldMap).plusAll(newMap);
+        }
+        if (oldValue.getClass() != newValue.getClass()) {
+            throw new IllegalArgumentException("Cannot merge incompatible types: "
+                    + oldValue.getClass().getName() + " and " + newValue.getClass().getName());
+        }
+        return newValue;
+    }
+
+}
@@ -0,0 +1,207 @@
+package cn.teacy.ai.strategy;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list sharing its structure with the lists it is derived from.
+ * <p>
+ * The elements are stored in a trie of 32 wide arrays plus a tail array, so that
+ * {@link #plus(Object)} copies at most one path of the trie instead of the whole list. The
+ * mutating methods of {@link java.util.List} throw {@link UnsupportedOperationException}.
+ *
+ * @param <E> the type of the elements
+ * @see PersistentAppendStrategy
+ * @since 0.4.0
+ */
+@JsonSerialize(using = JdkValueSerializer.class)
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess, Serializable {
+
+    private static final int BITS = 5;
+
+    private static final int WIDTH = 1 << BITS;
+
+    private static final int MASK = WIDTH - 1;
+
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS, new Object[WIDTH], new Object[0]);
+
+    private final int size;
+
+    private final int shift;
+
+    private final Object[] root;
+
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Returns a vector of the given values, or the values themselves if they are a vector already.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> copyOf(Collection<? extends E> values) {
+        if (values instanceof PersistentVector<?> vector) {
+            return (PersistentVector<E>) vector;
+        }
+        return PersistentVector.<E>empty().plusAll(values);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        return (E) arrayFor(index)[index & MASK];
+    }
+
+    /**
+     * Returns a vector with the value appended.
+     */
+    public PersistentVector<E> plus(E value) {
+        if (size - tailOffset() < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = value;
+            return new PersistentVector<>(size + 1, shift, root, newTail);
+        }
+
+        // the tail is full, move it into the trie
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PersistentVector<>(size + 1, newShift, newRoot, new Object[]{value});
+    }
+
+    /**
+     * Returns a vector with the values appended.
+     */
+    public PersistentVector<E> plusAll(Collection<? extends E> values) {
+        PersistentVector<E> result = this;
+        for (E value : values) {
+            result = result.plus(value);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a vector without the value at the given index. Unlike appending, this copies the
+     * elements following the index.
+     */
+    public PersistentVector<E> minus(int index) {
+        Objects.checkIndex(index, size);
+        PersistentVector<E> result = empty();
+        for (int i = 0; i < size; i++) {
+            if (i != index) {
+                result = result.plus(get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int index;
+            private Object[] chunk;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                if ((index & MASK) == 0 || chunk == null) {
+                    chunk = arrayFor(index);
+                }
+                return (E) chunk[index++ & MASK];
+            }
+        };
+    }
+
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] arrayFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        int subIndex = ((size - 1) >>> level) & MASK;
+        Object[] result = parent.clone();
+        Object[] inserted;
+        if (level == BITS) {
+            inserted = tailNode;
+        } else {
+            Object[] child = (Object[]) parent[subIndex];
+            inserted = child != null ? pushTail(level - BITS, child, tailNode) : newPath(level - BITS, tailNode);
+        }
+        result[subIndex] = inserted;
+        return result;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (level == 0) {
+            return node;
+        }
+        Object[] path = new Object[WIDTH];
+        path[0] = newPath(level - BITS, node);
+        return path;
+    }
+
+    @Serial
+    private Object writeReplace() {
+        return new SerializedForm(toArray());
+    }
+
+    private record SerializedForm(Object[] elements) implements Serializable {
+
+        @Serial
+        private Object readResolve() {
+            return PersistentVector.copyOf(Arrays.asList(elements));
+        }
+
+    }
+
+}
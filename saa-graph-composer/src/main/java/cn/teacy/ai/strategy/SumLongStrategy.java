@@ -0,0 +1,46 @@
+package cn.teacy.ai.strategy;
+
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+
+import java.util.Optional;
+
+/**
+ * Sums the numbers written to a key, e.g. the token counts of parallel branches, into a
+ * {@link LongSum} updated in place, so that merges do not box a new {@link Long}.
+ * <p>
+ * Updates may be any {@link Number}, which is truncated to a {@code long}; {@code null} leaves the
+ * sum unchanged. Concurrent merges into the same sum are safe.
+ *
+ * @since 0.4.0
+ */
+public class SumLongStrategy implements KeyStrategy {
+
+    @Override
+    public Object apply(Object oldValue, Object newValue) {
+        if (oldValue instanceof Optional<?> optional) {
+            oldValue = optional.orElse(null);
+        }
+        if (newValue instanceof Optional<?> optional) {
+            newValue = optional.orElse(null);
+        }
+        if (newValue == null || newValue == oldValue) {
+            return oldValue;
+        }
+        long value = toNumber(newValue).longValue();
+
+        if (oldValue instanceof LongSum sum) {
+            sum.add(value);
+            return sum;
+        }
+        // the first merge, or a snapshot of the state holding the sum as a plain number
+        return new LongSum(oldValue == null ? value : toNumber(oldValue).longValue() + value);
+    }
+
+    static Number toNumber(Object value) {
+        if (value instanceof Number number) {
+            return number;
+        }
+        throw new IllegalArgumentException("Expected a number, but got " + value.getClass().getName());
+    }
+
+}
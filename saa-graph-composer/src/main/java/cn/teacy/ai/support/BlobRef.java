@@ -0,0 +1,97 @@
+package cn.teacy.ai.support;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * A handle to a value offloaded to a {@link BlobStore}, held by the state in place of the value.
+ * <p>
+ * The value is read from the store on every {@link #get()}, so that it is only on the heap while
+ * it is used. Snapshots of the state, e.g. checkpoints and the state returned by a run, hold
+ * copies of the handle, which keep the value stored as long as they are reachable.
+ *
+ * @see cn.teacy.ai.annotation.GraphKey#offload()
+ * @since 0.4.0
+ */
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.NONE, getterVisibility = JsonAutoDetect.Visibility.NONE,
+        isGetterVisibility = JsonAutoDetect.Visibility.NONE)
+public final class BlobRef {
+
+    @JsonProperty("store")
+    private final String storeId;
+
+    @JsonProperty("id")
+    private final long blobId;
+
+    /**
+     * The store holding the value, or null if the value was already released when the handle was restored.
+     */
+    @Nullable
+    private final BlobStore store;
+
+    BlobRef(String storeId, long blobId, @Nullable BlobStore store) {
+        this.storeId = storeId;
+        this.blobId = blobId;
+        this.store = store;
+    }
+
+    @JsonCreator
+    static BlobRef restore(@JsonProperty("store") String storeId, @JsonProperty("id") long blobId) {
+        return BlobStore.restore(storeId, blobId);
+    }
+
+    /**
+     * Reads the value from the store.
+     *
+     * @throws IllegalStateException if the value is no longer stored, e.g. the store was closed
+     */
+    public Object get() {
+        if (store == null) {
+            throw new IllegalStateException(String.format(
+                    "Blob %d of store '%s' is no longer available.", blobId, storeId));
+        }
+        return store.read(blobId);
+    }
+
+    /**
+     * Reads the value from the store as the given type.
+     */
+    public <T> T get(Class<T> type) {
+        return type.cast(get());
+    }
+
+    /**
+     * Returns the encoded size of the value in the store, or -1 if it is no longer stored.
+     */
+    public int size() {
+        return store != null ? store.length(blobId) : -1;
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+
+    public long getBlobId() {
+        return blobId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof BlobRef other && blobId == other.blobId && storeId.equals(other.storeId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(storeId, blobId);
+    }
+
+    @Override
+    public String toString() {
+        return "BlobRef[" + storeId + "/" + blobId + "]";
+    }
+
+}
@@ -0,0 +1,516 @@
+package cn.teacy.ai.support;
+
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A local store of large state values in memory-mapped files, so that they are neither kept on
+ * the heap nor copied into every snapshot of the state.
+ * <p>
+ * Values are appended to segment files of a fixed size, each mapped into memory once. A stored
+ * value is referenced by {@link BlobRef} handles, which read it back on demand. Every handle,
+ * including the copies made when the state is cloned for checkpoints and results, holds one
+ * reference to its value; a value is released once none of its handles is reachable anymore, and
+ * a segment file is deleted once all of its values are released. Releasing therefore follows the
+ * garbage collection of the handles.
+ * <p>
+ * Byte arrays, strings and float or double arrays are stored as raw bytes, other values must be
+ * {@link Serializable}. Reading a serialized value back only accepts the classes this store
+ * serialized itself, so that a modified segment file can not make it instantiate other classes.
+ * Handles only resolve within the process that stored their values, and the files of a store are
+ * deleted when it is closed. On POSIX file systems, directories and files created by a store are
+ * only accessible to their owner.
+ *
+ * @see cn.teacy.ai.annotation.GraphKey#offload()
+ * @since 0.4.0
+ */
+public final class BlobStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobStore.class);
+
+    /**
+     * The default size of a segment file.
+     */
+    public static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+
+    private static final byte BYTES = 0;
+
+    private static final byte STRING = 1;
+
+    private static final byte FLOATS = 2;
+
+    private static final byte DOUBLES = 3;
+
+    private static final byte SERIALIZED = 4;
+
+    private static final Cleaner cleaner = Cleaner.create();
+
+    /**
+     * The open stores by id, so that handles restored from a snapshot of the state find their store.
+     */
+    private static final Map<String, BlobStore> stores = new ConcurrentHashMap<>();
+
+    @Nullable
+    private static volatile BlobStore shared;
+
+    private final String id = UUID.randomUUID().toString();
+
+    @Nullable
+    private final Path configuredDirectory;
+
+    private final int segmentBytes;
+
+    private final Map<Long, Blob> blobs = new ConcurrentHashMap<>();
+
+    /**
+     * The classes of the serialized values and of the objects they reference, the only ones read back.
+     */
+    private final Set<Class<?>> serializedTypes = ConcurrentHashMap.newKeySet();
+
+    private final List<Segment> segments = new ArrayList<>();
+
+    private final AtomicLong nextBlobId = new AtomicLong();
+
+    private final LongAdder storedBytes = new LongAdder();
+
+    private final LongAdder released = new LongAdder();
+
+    @Nullable
+    private Path directory;
+
+    @Nullable
+    private Segment active;
+
+    private int nextSegment;
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a store in a new temporary directory, deleted when the store is closed.
+     */
+    public BlobStore() {
+        this(null, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * @param directory    the directory of the segment files, or null for a new temporary directory;
+     *                     it is created on the first stored value, only accessible to its owner
+     * @param segmentBytes the size of a segment file, values larger than that get a segment of their own
+     */
+    public BlobStore(@Nullable Path directory, int segmentBytes) {
+        if (segmentBytes < 1) {
+            throw new IllegalArgumentException("segmentBytes must be positive, but was " + segmentBytes);
+        }
+        this.configuredDirectory = directory;
+        this.segmentBytes = segmentBytes;
+        stores.put(id, this);
+    }
+
+    /**
+     * Returns the store shared by the compilers without a store of their own, created on first use
+     * and closed when the JVM shuts down.
+     */
+    public static BlobStore shared() {
+        BlobStore store = shared;
+        if (store == null) {
+            synchronized (BlobStore.class) {
+                store = shared;
+                if (store == null) {
+                    store = new BlobStore();
+                    Runtime.getRuntime().addShutdownHook(new Thread(store::close, "graph-composer-blob-store"));
+                    shared = store;
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Stores a value and returns the first handle referencing it.
+     *
+     * @throws IllegalArgumentException if the value can not be stored
+     * @throws IllegalStateException    if the store is closed
+     */
+    public BlobRef put(Object value) {
+        if (value instanceof BlobRef ref) {
+            return ref;
+        }
+        byte[] payload = encode(value);
+
+        long blobId = nextBlobId.incrementAndGet();
+        Blob blob = allocate(payload.length);
+        blob.segment.buffer.duplicate().position(blob.offset).put(payload);
+        blobs.put(blobId, blob);
+        storedBytes.add(payload.length);
+        return register(blobId);
+    }
+
+    /**
+     * Restores a handle from a snapshot of the state, referencing the value again if it is still stored.
+     */
+    static BlobRef restore(String storeId, long blobId) {
+        BlobStore store = stores.get(storeId);
+        if (store == null) {
+            return new BlobRef(storeId, blobId, null);
+        }
+        Blob blob = store.blobs.get(blobId);
+        return blob != null && blob.retain() ? store.register(blobId) : new BlobRef(storeId, blobId, null);
+    }
+
+    private BlobRef register(long blobId) {
+        BlobRef ref = new BlobRef(id, blobId, this);
+        // the action must not capture the handle, or it would never become unreachable
+        cleaner.register(ref, () -> release(blobId));
+        return ref;
+    }
+
+    Object read(long blobId) {
+        Blob blob = blobs.get(blobId);
+        if (closed || blob == null) {
+            throw new IllegalStateException(String.format(
+                    "Blob %d of store '%s' is no longer available.", blobId, id));
+        }
+        ByteBuffer buffer = blob.segment.buffer.duplicate();
+        buffer.position(blob.offset).limit(blob.offset + blob.length);
+        return decode(buffer.slice());
+    }
+
+    int length(long blobId) {
+        Blob blob = blobs.get(blobId);
+        return blob != null ? blob.length - 1 : -1;
+    }
+
+    private void release(long blobId) {
+        Blob blob = blobs.get(blobId);
+        if (blob == null || blob.refs.decrementAndGet() > 0) {
+            return;
+        }
+        blobs.remove(blobId);
+        storedBytes.add(-blob.length);
+        released.increment();
+        synchronized (this) {
+            if (blob.segment.live.decrementAndGet() == 0 && blob.segment != active) {
+                deleteSegment(blob.segment);
+            }
+        }
+    }
+
+    private synchronized Blob allocate(int length) {
+        if (closed) {
+            throw new IllegalStateException("Blob store '" + id + "' is closed.");
+        }
+        Segment segment;
+        if (length > segmentBytes) {
+            // values larger than a segment get one of their own, which is deleted with them
+            segment = openSegment(length);
+        } else {
+            segment = active;
+            if (segment == null || segment.buffer.capacity() - segment.position < length) {
+                if (segment != null && segment.live.get() == 0) {
+                    deleteSegment(segment);
+                }
+                segment = openSegment(segmentBytes);
+                active = segment;
+            }
+        }
+        Blob blob = new Blob(segment, segment.position, length);
+        segment.position += length;
+        segment.live.incrementAndGet();
+        return blob;
+    }
+
+    private Segment openSegment(int capacity) {
+        try {
+            if (directory == null) {
+                directory = configuredDirectory != null
+                        ? Files.createDirectories(configuredDirectory, ownerOnly(configuredDirectory, "rwx------"))
+                        : Files.createTempDirectory("graph-composer-blobs-");
+            }
+            Path file = directory.resolve(id + "-" + nextSegment++ + ".blob");
+            try (FileChannel channel = FileChannel.open(file, Set.of(StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE), ownerOnly(file, "rw-------"))) {
+                // the mapping stays valid after the channel is closed
+                Segment segment = new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+                segments.add(segment);
+                return segment;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create a segment of blob store '" + id + "'", e);
+        }
+    }
+
+    /**
+     * Returns the given POSIX permissions as attribute, or none if the file system does not support them.
+     */
+    private static FileAttribute<?>[] ownerOnly(Path path, String permissions) {
+        return path.getFileSystem().supportedFileAttributeViews().contains("posix")
+                ? new FileAttribute<?>[]{PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(permissions))}
+                : new FileAttribute<?>[0];
+    }
+
+    private void deleteSegment(Segment segment) {
+        segments.remove(segment);
+        try {
+            // the mapping itself is released once the buffer is garbage collected
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            log.warn("Failed to delete segment {} of blob store '{}'.", segment.file, id, e);
+        }
+    }
+
+    private byte[] encode(Object value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            if (value instanceof byte[] bytes) {
+                out.write(BYTES);
+                out.write(bytes);
+            } else if (value instanceof String text) {
+                out.write(STRING);
+                out.write(text.getBytes(StandardCharsets.UTF_8));
+            } else if (value instanceof float[] floats) {
+                ByteBuffer buffer = ByteBuffer.allocate(1 + 4 * floats.length).put(FLOATS);
+                buffer.asFloatBuffer().put(floats);
+                return buffer.array();
+            } else if (value instanceof double[] doubles) {
+                ByteBuffer buffer = ByteBuffer.allocate(1 + 8 * doubles.length).put(DOUBLES);
+                buffer.asDoubleBuffer().put(doubles);
+                return buffer.array();
+            } else if (value instanceof Serializable) {
+                out.write(SERIALIZED);
+                try (ObjectOutputStream objects = new TypeRecordingOutputStream(out)) {
+                    objects.writeObject(value);
+                }
+            } else {
+                throw new IllegalArgumentException(String.format(
+                        "Can not offload a value of type %s. Offloaded values must be byte arrays, strings, float or double arrays, or Serializable.",
+                        value.getClass().getName()));
+            }
+        } catch (NotSerializableException e) {
+            throw new IllegalArgumentException(String.format(
+                    "Can not offload a value of type %s, it references the non-serializable type %s.",
+                    value.getClass().getName(), e.getMessage()), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private Object decode(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case BYTES -> {
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                return bytes;
+            }
+            case STRING -> {
+                return StandardCharsets.UTF_8.decode(buffer).toString();
+            }
+            case FLOATS -> {
+                float[] floats = new float[buffer.remaining() / 4];
+                buffer.asFloatBuffer().get(floats);
+                return floats;
+            }
+            case DOUBLES -> {
+                double[] doubles = new double[buffer.remaining() / 8];
+                buffer.asDoubleBuffer().get(doubles);
+                return doubles;
+            }
+            default -> {
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    objects.setObjectInputFilter(this::checkSerializedType);
+                    return objects.readObject();
+                } catch (InvalidClassException e) {
+                    throw new IllegalStateException(
+                            "Refused to read an offloaded value referencing a class this store did not write", e);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException("Failed to read an offloaded value", e);
+                }
+            }
+        }
+    }
+
+    private ObjectInputFilter.Status checkSerializedType(ObjectInputFilter.FilterInfo info) {
+        // the process-wide filter, if any, still applies
+        ObjectInputFilter serialFilter = ObjectInputFilter.Config.getSerialFilter();
+        ObjectInputFilter.Status status = serialFilter != null
+                ? serialFilter.checkInput(info)
+                : ObjectInputFilter.Status.UNDECIDED;
+        Class<?> type = info.serialClass();
+        // arrays run no code of their component type, e.g. ArrayList checks an Object[] it never wrote
+        if (status == ObjectInputFilter.Status.REJECTED || type == null || type.isArray()) {
+            return status;
+        }
+        return serializedTypes.contains(type) ? ObjectInputFilter.Status.ALLOWED : ObjectInputFilter.Status.REJECTED;
+    }
+
+    /**
+     * Deletes the segment files of this store. Handles to its values can no longer be read.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        stores.remove(id);
+        blobs.clear();
+        storedBytes.reset();
+        active = null;
+        for (Segment segment : List.copyOf(segments)) {
+            deleteSegment(segment);
+        }
+        if (directory != null && configuredDirectory == null) {
+            try {
+                Files.deleteIfExists(directory);
+            } catch (IOException e) {
+                log.warn("Failed to delete the directory {} of blob store '{}'.", directory, id, e);
+            }
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getSegmentBytes() {
+        return segmentBytes;
+    }
+
+    /**
+     * Returns the number of values currently stored.
+     */
+    public int getBlobCount() {
+        return blobs.size();
+    }
+
+    /**
+     * Returns the number of bytes of the values currently stored.
+     */
+    public long getStoredBytes() {
+        return storedBytes.sum();
+    }
+
+    /**
+     * Returns the number of values released so far.
+     */
+    public long getReleasedCount() {
+        return released.sum();
+    }
+
+    /**
+     * Returns the number of segment files currently mapped.
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Records the class of every class descriptor written, i.e. of the value and of every object it references.
+     */
+    private final class TypeRecordingOutputStream extends ObjectOutputStream {
+
+        private TypeRecordingOutputStream(OutputStream out) throws IOException {
+            super(out);
+        }
+
+        @Override
+        protected void annotateClass(Class<?> type) {
+            serializedTypes.add(type);
+        }
+
+        @Override
+        protected void annotateProxyClass(Class<?> type) {
+            serializedTypes.add(type);
+            serializedTypes.addAll(List.of(type.getInterfaces()));
+        }
+
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+
+        private final MappedByteBuffer buffer;
+
+        /**
+         * The offset of the next value, guarded by the store.
+         */
+        private int position;
+
+        private final AtomicInteger live = new AtomicInteger();
+
+        private Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+    }
+
+    private static final class Blob {
+
+        private final Segment segment;
+
+        private final int offset;
+
+        private final int length;
+
+        private final AtomicInteger refs = new AtomicInteger(1);
+
+        private Blob(Segment segment, int offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * Adds a reference, unless the blob has already been released.
+         */
+        private boolean retain() {
+            for (int count = refs.get(); count > 0; count = refs.get()) {
+                if (refs.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+}
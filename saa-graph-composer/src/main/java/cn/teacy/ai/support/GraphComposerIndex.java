@@ -0,0 +1,140 @@
+package cn.teacy.ai.support;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ScannedGenericBeanDefinition;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static cn.teacy.ai.constants.ComposerConfigConstants.COMPOSER_INDEX_LOCATION;
+
+/**
+ * Build-time index of {@link GraphComposer} classes, generated by the
+ * {@code saa-graph-composer-processor} annotation processor at {@code META-INF/saa-graph-composers.idx}.
+ * <p>
+ * Lets the registrar resolve composer candidates without scanning the classpath. Packages without
+ * any indexed composer are still scanned, but within a package that has indexed composers, those
+ * packaged in jars built without the processor are not discovered. Set
+ * {@value cn.teacy.ai.constants.ComposerConfigConstants#IGNORE_COMPOSER_INDEX_PROPERTY} to ignore the
+ * index altogether.
+ *
+ * @since 0.4.0
+ * @see cn.teacy.ai.core.GraphAutoRegistrar
+ */
+public final class GraphComposerIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphComposerIndex.class);
+
+    private final Set<String> composerClassNames;
+
+    GraphComposerIndex(Set<String> composerClassNames) {
+        this.composerClassNames = composerClassNames;
+    }
+
+    /**
+     * Loads and merges every index visible to the given class loader.
+     *
+     * @return the index, or null if no index is present or it cannot be read
+     */
+    @Nullable
+    public static GraphComposerIndex load(@Nullable ClassLoader classLoader) {
+        ClassLoader loader = classLoader != null ? classLoader : GraphComposerIndex.class.getClassLoader();
+
+        try {
+            Enumeration<URL> urls = loader.getResources(COMPOSER_INDEX_LOCATION);
+            if (!urls.hasMoreElements()) {
+                return null;
+            }
+
+            Set<String> classNames = new LinkedHashSet<>();
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+                        if (!line.isEmpty() && !line.startsWith("#")) {
+                            classNames.add(line);
+                        }
+                    }
+                }
+            }
+            return new GraphComposerIndex(Collections.unmodifiableSet(classNames));
+
+        } catch (IOException e) {
+            log.warn("Failed to read graph composer index from [{}], falling back to classpath scanning.", COMPOSER_INDEX_LOCATION, e);
+            return null;
+        }
+    }
+
+    public Set<String> composerClassNames() {
+        return composerClassNames;
+    }
+
+    /**
+     * Resolves the indexed composers located in the given package or its sub-packages.
+     *
+     * @param basePackage           the package to resolve candidates for
+     * @param metadataReaderFactory factory used to read the class metadata of the indexed entries
+     * @return the candidate bean definitions, or null if the index cannot answer for this package
+     * (pattern based package, no indexed composer in it, or a stale entry) and the package must be
+     * scanned instead
+     */
+    @Nullable
+    public Set<BeanDefinition> findCandidateComponents(@Nonnull String basePackage,
+                                                       @Nonnull MetadataReaderFactory metadataReaderFactory) {
+        if (!StringUtils.hasText(basePackage) || basePackage.contains("*") || basePackage.contains("?")) {
+            return null;
+        }
+
+        Set<BeanDefinition> candidates = new LinkedHashSet<>();
+
+        for (String className : composerClassNames) {
+            if (!className.startsWith(basePackage + ".")) {
+                continue;
+            }
+
+            MetadataReader metadataReader;
+            try {
+                metadataReader = metadataReaderFactory.getMetadataReader(className);
+            } catch (IOException e) {
+                log.warn("Graph composer index is stale: class '{}' cannot be found. Falling back to scanning package '{}'.",
+                        className, basePackage);
+                return null;
+            }
+
+            AnnotationMetadata metadata = metadataReader.getAnnotationMetadata();
+            if (!metadata.hasAnnotation(GraphComposer.class.getName())
+                    || !metadata.isIndependent() || !metadata.isConcrete()) {
+                log.warn("Graph composer index is stale: class '{}' is no longer a concrete @GraphComposer. Falling back to scanning package '{}'.",
+                        className, basePackage);
+                return null;
+            }
+
+            ScannedGenericBeanDefinition beanDefinition = new ScannedGenericBeanDefinition(metadataReader);
+            beanDefinition.setSource(metadataReader.getResource());
+            candidates.add(beanDefinition);
+        }
+
+        if (candidates.isEmpty()) {
+            // e.g. composers of a jar built without the processor
+            log.debug("Graph composer index has no entries for package '{}', scanning it.", basePackage);
+            return null;
+        }
+        return candidates;
+    }
+
+}
@@ -0,0 +1,180 @@
+package cn.teacy.ai.support;
+
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import jakarta.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultSingletonBeanRegistry;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.*;
+
+/**
+ * Recompiles the graphs of changed composers in a running context, for development.
+ * <p>
+ * Only lazy graphs can be swapped: their {@link CompiledGraph} beans are stable handles, so every
+ * reference to them picks up the recompiled graph on the next call. The composer beans of the
+ * changed classes are recreated first, so field initializers such as node lambdas run again, and
+ * their cached metadata is discarded, so that changed annotations are read again. The graphs
+ * embedding a swapped graph as a subgraph are recompiled as well, children before parents.
+ * <p>
+ * Recreating a composer bean also destroys the beans that depend on the composer bean itself,
+ * which is why this is a development tool.
+ *
+ * @since 0.4.0
+ * @see LazyCompiledGraphFactoryBean
+ */
+public class GraphHotSwapper {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphHotSwapper.class);
+
+    private final ConfigurableListableBeanFactory beanFactory;
+
+    public GraphHotSwapper(@Nonnull ConfigurableListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * Recompiles the graphs of the given composer classes and of every graph embedding them.
+     *
+     * @return the names of the graph beans that were swapped, in recompilation order
+     */
+    public synchronized List<String> refresh(Collection<Class<?>> changedComposerTypes) {
+        Set<String> changedTypeNames = new HashSet<>();
+        for (Class<?> type : changedComposerTypes) {
+            changedTypeNames.add(ClassUtils.getUserClass(type).getName());
+            ReflectiveGraphCompiler.invalidateMetadata(type);
+            ReflectiveGraphCompiler.invalidateMetadata(ClassUtils.getUserClass(type));
+        }
+
+        Map<String, String> composerBeanNames = findSwappableGraphs();
+
+        Set<String> changed = new LinkedHashSet<>();
+        composerBeanNames.forEach((graphBeanName, composerBeanName) -> {
+            Class<?> composerType = beanFactory.getType(composerBeanName, false);
+            if (composerType != null && changedTypeNames.contains(ClassUtils.getUserClass(composerType).getName())) {
+                changed.add(graphBeanName);
+            }
+        });
+
+        if (changed.isEmpty()) {
+            log.debug("No swappable graph found for composer classes {}.", changedTypeNames);
+            return List.of();
+        }
+
+        long startTime = System.nanoTime();
+
+        for (String graphBeanName : changed) {
+            recreateComposer(composerBeanNames.get(graphBeanName));
+        }
+
+        List<String> order = orderWithEmbeddingGraphs(changed, composerBeanNames);
+        List<String> swapped = new ArrayList<>(order.size());
+
+        for (String graphBeanName : order) {
+            try {
+                LazyCompiledGraphFactoryBean.recompile(beanFactory.getBean(graphBeanName, CompiledGraph.class));
+                swapped.add(graphBeanName);
+            } catch (RuntimeException e) {
+                log.error("Failed to recompile graph '{}', keeping the previous graph.", graphBeanName, e);
+            }
+        }
+
+        log.info("Swapped {} graph(s) {} in {} ms.", swapped.size(), swapped,
+                (System.nanoTime() - startTime) / 1_000_000);
+
+        return swapped;
+    }
+
+    /**
+     * Maps the name of every lazy graph bean to the name of its composer bean.
+     */
+    private Map<String, String> findSwappableGraphs() {
+        Map<String, String> composerBeanNames = new LinkedHashMap<>();
+
+        for (String beanName : beanFactory.getBeanNamesForType(LazyCompiledGraphFactoryBean.class, true, false)) {
+            String graphBeanName = BeanFactoryUtils.transformedBeanName(beanName);
+            LazyCompiledGraphFactoryBean factoryBean = beanFactory.getBean(
+                    BeanFactory.FACTORY_BEAN_PREFIX + graphBeanName, LazyCompiledGraphFactoryBean.class);
+            composerBeanNames.put(graphBeanName, factoryBean.getComposerBeanName());
+        }
+
+        return composerBeanNames;
+    }
+
+    private void recreateComposer(String composerBeanName) {
+        BeanDefinition definition = beanFactory.getMergedBeanDefinition(composerBeanName);
+        if (!definition.isSingleton()) {
+            return;
+        }
+
+        if (beanFactory.containsSingleton(composerBeanName)
+                && beanFactory instanceof DefaultSingletonBeanRegistry registry) {
+            registry.destroySingleton(composerBeanName);
+        }
+    }
+
+    /**
+     * Adds the graphs whose composers embed one of the given graphs, transitively, and orders the
+     * result so that every graph comes after the graphs it embeds.
+     */
+    private List<String> orderWithEmbeddingGraphs(Set<String> changed, Map<String, String> composerBeanNames) {
+        Map<CompiledGraph, String> handles = new IdentityHashMap<>();
+        for (String graphBeanName : composerBeanNames.keySet()) {
+            handles.put(beanFactory.getBean(graphBeanName, CompiledGraph.class), graphBeanName);
+        }
+
+        Map<String, Set<String>> embedded = new HashMap<>();
+        composerBeanNames.forEach((graphBeanName, composerBeanName) -> {
+            Set<String> children = new HashSet<>();
+            // composers that were never created cannot embed a compiled graph yet
+            if (beanFactory.containsSingleton(composerBeanName)) {
+                Object composer = beanFactory.getBean(composerBeanName);
+                ReflectionUtils.doWithFields(composer.getClass(), field -> {
+                    ReflectionUtils.makeAccessible(field);
+                    if (ReflectionUtils.getField(field, composer) instanceof CompiledGraph child && handles.containsKey(child)) {
+                        children.add(handles.get(child));
+                    }
+                }, field -> CompiledGraph.class.isAssignableFrom(field.getType()));
+            }
+            embedded.put(graphBeanName, children);
+        });
+
+        Set<String> affected = new LinkedHashSet<>(changed);
+        boolean grown = true;
+        while (grown) {
+            grown = false;
+            for (Map.Entry<String, Set<String>> entry : embedded.entrySet()) {
+                if (!affected.contains(entry.getKey()) && !Collections.disjoint(entry.getValue(), affected)) {
+                    affected.add(entry.getKey());
+                    grown = true;
+                }
+            }
+        }
+
+        List<String> order = new ArrayList<>(affected.size());
+        Set<String> remaining = new LinkedHashSet<>(affected);
+        while (!remaining.isEmpty()) {
+            List<String> ready = remaining.stream()
+                    .filter(graph -> embedded.get(graph).stream().noneMatch(child -> remaining.contains(child) && !child.equals(graph)))
+                    .toList();
+
+            if (ready.isEmpty()) {
+                // a cycle, compile the rest in declaration order
+                ready = List.copyOf(remaining);
+            }
+
+            order.addAll(ready);
+            ready.forEach(remaining::remove);
+        }
+
+        return order;
+    }
+
+}
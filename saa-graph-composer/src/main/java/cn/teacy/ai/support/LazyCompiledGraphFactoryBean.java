@@ -0,0 +1,158 @@
+package cn.teacy.ai.support;
+
+import cn.teacy.ai.core.GraphCompiler;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.FactoryBean;
+
+import static cn.teacy.ai.constants.ComposerConfigConstants.GRAPH_COMPILER_BEAN_NAME;
+
+/**
+ * Exposes a lazy {@link CompiledGraph} handle for a {@code @GraphComposer(lazy = true)} composer.
+ * <p>
+ * The handle is a class-based proxy; the composer bean is resolved and compiled through the
+ * {@link GraphCompiler} exactly once, on the first method call, unless a {@link GraphHotSwapper}
+ * swaps in a recompiled graph. Public fields such as
+ * {@code stateGraph} are not populated on the handle, use {@link #resolve(CompiledGraph)} when the
+ * compiled instance itself is needed.
+ *
+ * @since 0.4.0
+ * @see cn.teacy.ai.core.GraphAutoRegistrar
+ */
+public class LazyCompiledGraphFactoryBean implements FactoryBean<CompiledGraph>, BeanFactoryAware, BeanClassLoaderAware {
+
+    private final String composerBeanName;
+
+    private BeanFactory beanFactory;
+
+    private ClassLoader beanClassLoader;
+
+    public LazyCompiledGraphFactoryBean(@Nonnull String composerBeanName) {
+        this.composerBeanName = composerBeanName;
+    }
+
+    @Override
+    public void setBeanFactory(@Nonnull BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void setBeanClassLoader(@Nonnull ClassLoader classLoader) {
+        this.beanClassLoader = classLoader;
+    }
+
+    public String getComposerBeanName() {
+        return composerBeanName;
+    }
+
+    @Override
+    public CompiledGraph getObject() {
+        return (CompiledGraph) createProxyFactory(new CompileOnFirstUseTargetSource(beanFactory, composerBeanName))
+                .getProxy(beanClassLoader);
+    }
+
+    @Override
+    public Class<?> getObjectType() {
+        return CompiledGraph.class;
+    }
+
+    /**
+     * Determines the class of the lazy handles without creating one, so that it can be generated
+     * ahead of time.
+     */
+    public static Class<?> getProxyClass(@Nullable ClassLoader classLoader) {
+        return createProxyFactory(new CompileOnFirstUseTargetSource(null, "")).getProxyClass(classLoader);
+    }
+
+    private static ProxyFactory createProxyFactory(CompileOnFirstUseTargetSource targetSource) {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.setTargetSource(targetSource);
+        proxyFactory.setProxyTargetClass(true);
+        return proxyFactory;
+    }
+
+    /**
+     * Returns the compiled graph behind a lazy handle, compiling it if necessary, or the given graph
+     * itself if it is not a lazy handle.
+     */
+    public static CompiledGraph resolve(CompiledGraph graph) {
+        if (graph instanceof Advised advised
+                && advised.getTargetSource() instanceof CompileOnFirstUseTargetSource targetSource) {
+            return (CompiledGraph) targetSource.getTarget();
+        }
+        return graph;
+    }
+
+    /**
+     * Compiles the graph behind a lazy handle again and swaps it in. The previous graph stays in
+     * place if the compilation fails.
+     *
+     * @return false if the given graph is not a lazy handle
+     */
+    static boolean recompile(CompiledGraph graph) {
+        if (graph instanceof Advised advised
+                && advised.getTargetSource() instanceof CompileOnFirstUseTargetSource targetSource) {
+            targetSource.recompile();
+            return true;
+        }
+        return false;
+    }
+
+    private static final class CompileOnFirstUseTargetSource implements TargetSource {
+
+        private final BeanFactory beanFactory;
+
+        private final String composerBeanName;
+
+        private volatile CompiledGraph target;
+
+        private CompileOnFirstUseTargetSource(BeanFactory beanFactory, String composerBeanName) {
+            this.beanFactory = beanFactory;
+            this.composerBeanName = composerBeanName;
+        }
+
+        @Override
+        public Class<?> getTargetClass() {
+            return CompiledGraph.class;
+        }
+
+        @Override
+        public boolean isStatic() {
+            return false;
+        }
+
+        @Override
+        public Object getTarget() {
+            CompiledGraph graph = this.target;
+            if (graph == null) {
+                synchronized (this) {
+                    graph = this.target;
+                    if (graph == null) {
+                        graph = compile();
+                        this.target = graph;
+                    }
+                }
+            }
+            return graph;
+        }
+
+        private synchronized void recompile() {
+            this.target = compile();
+        }
+
+        private CompiledGraph compile() {
+            Object composer = beanFactory.getBean(composerBeanName);
+            return beanFactory.getBean(GRAPH_COMPILER_BEAN_NAME, GraphCompiler.class).compile(composer);
+        }
+
+    }
+
+}
@@ -0,0 +1,219 @@
+package cn.teacy.ai.support;
+
+import cn.teacy.ai.interfaces.BatchNodeAction;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import jakarta.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects the executions of a batch node from concurrent graph runs and invokes its
+ * {@link BatchNodeAction} once per batch.
+ * <p>
+ * Executions are queued in a lock-free queue and counted with an atomic counter. The execution
+ * filling a batch dispatches it, and a timer armed by the first execution queued after the previous
+ * timer fired dispatches whatever is waiting once the maximum wait has passed. Executions whose
+ * future was cancelled while they were queued are left out of their batch.
+ *
+ * @see cn.teacy.ai.annotation.BatchNode
+ * @since 0.4.0
+ */
+public final class NodeBatcher {
+
+    private final String name;
+
+    private final int maxBatchSize;
+
+    private final Duration maxWait;
+
+    private final BatchNodeAction action;
+
+    @Nullable
+    private final Executor executor;
+
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicBoolean timerArmed = new AtomicBoolean();
+
+    private final List<BatchObserver> observers = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param name         the name of the batcher, e.g. the node id
+     * @param maxBatchSize the maximum number of executions in a batch
+     * @param maxWait      how long an execution may wait for its batch to fill
+     * @param action       the action invoked with each batch
+     * @param executor     the executor running the action, or null to run it on the thread completing the batch
+     */
+    public NodeBatcher(String name, int maxBatchSize, Duration maxWait, BatchNodeAction action,
+                       @Nullable Executor executor) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1, but was " + maxBatchSize);
+        }
+        if (maxWait.isNegative()) {
+            throw new IllegalArgumentException("maxWait must not be negative, but was " + maxWait);
+        }
+        this.name = name;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWait = maxWait;
+        this.action = action;
+        this.executor = executor;
+    }
+
+    /**
+     * Queues the state of a run for the next batch.
+     *
+     * @return the future of the update of the run
+     */
+    public CompletableFuture<Map<String, Object>> submit(OverAllState state) {
+        Pending pending = new Pending(state, System.nanoTime());
+        queue.offer(pending);
+        int size = queued.incrementAndGet();
+
+        if (size >= maxBatchSize) {
+            drain(false);
+        } else if (timerArmed.compareAndSet(false, true)) {
+            CompletableFuture.delayedExecutor(maxWait.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+                timerArmed.set(false);
+                drain(true);
+            });
+        }
+        return pending.result;
+    }
+
+    /**
+     * Registers an observer notified of every dispatched batch.
+     */
+    public void addObserver(BatchObserver observer) {
+        observers.add(observer);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    /**
+     * Returns the number of executions waiting for their batch.
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * Dispatches full batches, or with {@code force} everything that is queued.
+     */
+    private void drain(boolean force) {
+        while (true) {
+            int size = queued.get();
+            if (size == 0 || (!force && size < maxBatchSize)) {
+                return;
+            }
+            int take = Math.min(size, maxBatchSize);
+            if (!queued.compareAndSet(size, size - take)) {
+                continue;
+            }
+
+            // every counted execution was offered before it was counted
+            List<Pending> batch = new ArrayList<>(take);
+            for (int i = 0; i < take; i++) {
+                batch.add(queue.poll());
+            }
+            dispatch(batch);
+        }
+    }
+
+    private void dispatch(List<Pending> batch) {
+        long now = System.nanoTime();
+        List<Pending> live = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            if (!pending.result.isDone()) {
+                live.add(pending);
+            }
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+
+        long[] queueingNanos = new long[live.size()];
+        for (int i = 0; i < live.size(); i++) {
+            queueingNanos[i] = now - live.get(i).queuedAt;
+        }
+        for (BatchObserver observer : observers) {
+            observer.onBatch(live.size(), queueingNanos);
+        }
+
+        if (executor == null) {
+            run(live);
+            return;
+        }
+        try {
+            executor.execute(() -> run(live));
+        } catch (RejectedExecutionException e) {
+            live.forEach(pending -> pending.result.completeExceptionally(e));
+        }
+    }
+
+    private void run(List<Pending> batch) {
+        List<Map<String, Object>> updates;
+        try {
+            List<OverAllState> states = new ArrayList<>(batch.size());
+            batch.forEach(pending -> states.add(pending.state));
+            updates = action.apply(states);
+            if (updates == null || updates.size() != batch.size()) {
+                throw new IllegalStateException(String.format("Batch node '%s' returned %s updates for a batch of %d.",
+                        name, updates == null ? "no" : String.valueOf(updates.size()), batch.size()));
+            }
+        } catch (Throwable e) {
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(updates.get(i));
+        }
+    }
+
+    /**
+     * Notified of every batch before it is passed to the action.
+     */
+    @FunctionalInterface
+    public interface BatchObserver {
+
+        /**
+         * @param size          the number of executions in the batch
+         * @param queueingNanos how long each execution of the batch waited, in nanoseconds
+         */
+        void onBatch(int size, long[] queueingNanos);
+
+    }
+
+    private record Pending(OverAllState state, long queuedAt, CompletableFuture<Map<String, Object>> result) {
+
+        private Pending(OverAllState state, long queuedAt) {
+            this(state, queuedAt, new CompletableFuture<>());
+        }
+
+    }
+
+}
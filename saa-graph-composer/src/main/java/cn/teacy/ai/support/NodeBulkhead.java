@@ -0,0 +1,244 @@
+package cn.teacy.ai.support;
+
+import jakarta.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of concurrent executions of a node, queueing a bounded number of executions
+ * beyond that limit.
+ * <p>
+ * Permits and queue slots are counted with atomic counters, and waiting executions are parked in a
+ * lock-free queue instead of blocking a thread. A queued execution is started by the thread that
+ * releases a permit, so blocking actions should be combined with a node executor to keep that
+ * thread from running them inline. Queued executions completing inline release their permits to
+ * the loop that started them, which starts the next one, so that a long queue does not recurse.
+ *
+ * @see cn.teacy.ai.annotation.NodeConcurrency
+ * @since 0.4.0
+ */
+public final class NodeBulkhead {
+
+    private final String name;
+
+    private final int maxConcurrent;
+
+    private final int maxQueued;
+
+    @Nullable
+    private final Duration queueTimeout;
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Queue<Waiter<?>> waiters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Set while the current thread starts queued executions.
+     */
+    private final ThreadLocal<Boolean> draining = new ThreadLocal<>();
+
+    /**
+     * @param name          the name used in rejection messages, e.g. the node id
+     * @param maxConcurrent the maximum number of executions running at once
+     * @param maxQueued     the maximum number of executions waiting for a permit
+     * @param queueTimeout  how long an execution may wait for a permit, or null to wait indefinitely
+     */
+    public NodeBulkhead(String name, int maxConcurrent, int maxQueued, @Nullable Duration queueTimeout) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1, but was " + maxConcurrent);
+        }
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException("maxQueued must not be negative, but was " + maxQueued);
+        }
+        if (queueTimeout != null && queueTimeout.isNegative()) {
+            throw new IllegalArgumentException("queueTimeout must not be negative, but was " + queueTimeout);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueTimeout = queueTimeout;
+    }
+
+    /**
+     * Runs the task once a permit is available, and releases the permit when its future completes.
+     *
+     * @return the future of the task, failed with a {@link RejectedExecutionException} if the queue
+     * is full or the task waited longer than the queue timeout
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> task) {
+        if (tryAcquire()) {
+            return run(task);
+        }
+
+        if (!tryEnqueue()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(String.format(
+                    "Bulkhead of '%s' is full: %d executions running and %d queued.", name, maxConcurrent, maxQueued)));
+        }
+
+        Waiter<T> waiter = new Waiter<>(task);
+        waiter.result.whenComplete((value, e) -> {
+            if (waiter.result.isCancelled()) {
+                abandon(waiter);
+            }
+        });
+        waiters.offer(waiter);
+        if (queueTimeout != null) {
+            CompletableFuture.delayedExecutor(queueTimeout.toNanos(), TimeUnit.NANOSECONDS).execute(() -> expire(waiter));
+        }
+
+        // a permit may have been released before the waiter was visible to the releasing thread
+        drain();
+        return waiter.result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    /**
+     * Returns the number of permits currently available.
+     */
+    public int getAvailablePermits() {
+        return Math.max(0, maxConcurrent - active.get());
+    }
+
+    /**
+     * Returns the number of executions currently waiting for a permit.
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = active.get();
+            if (current >= maxConcurrent) {
+                return false;
+            }
+        } while (!active.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private boolean tryEnqueue() {
+        int current;
+        do {
+            current = queued.get();
+            if (current >= maxQueued) {
+                return false;
+            }
+        } while (!queued.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private <T> CompletableFuture<T> run(Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<T> result;
+        try {
+            result = task.get();
+        } catch (RuntimeException | Error e) {
+            release();
+            throw e;
+        }
+
+        result.whenComplete((value, e) -> release());
+        return result;
+    }
+
+    private void release() {
+        active.decrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        // a waiter completing inline releases its permit within start(), the loop below takes it then
+        if (draining.get() != null) {
+            return;
+        }
+        draining.set(Boolean.TRUE);
+        try {
+            while (!waiters.isEmpty() && tryAcquire()) {
+                Waiter<?> waiter = waiters.poll();
+                if (waiter == null || !waiter.claimed.compareAndSet(false, true)) {
+                    // taken by another thread or expired meanwhile, give the permit back and look again
+                    active.decrementAndGet();
+                    continue;
+                }
+
+                queued.decrementAndGet();
+                waiter.start();
+            }
+        } finally {
+            draining.remove();
+        }
+    }
+
+    private void expire(Waiter<?> waiter) {
+        if (abandon(waiter)) {
+            waiter.result.completeExceptionally(new RejectedExecutionException(String.format(
+                    "Execution of '%s' waited longer than %s for a permit of its bulkhead.", name, queueTimeout)));
+        }
+    }
+
+    private boolean abandon(Waiter<?> waiter) {
+        if (waiter.claimed.compareAndSet(false, true)) {
+            queued.decrementAndGet();
+            waiters.remove(waiter);
+            return true;
+        }
+        return false;
+    }
+
+    private final class Waiter<T> {
+
+        private final Supplier<CompletableFuture<T>> task;
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private Waiter(Supplier<CompletableFuture<T>> task) {
+            this.task = task;
+        }
+
+        private void start() {
+            try {
+                CompletableFuture<T> started = run(task);
+                // cancelling the queued execution, e.g. on a timeout, cancels the started task
+                result.whenComplete((value, e) -> {
+                    if (result.isCancelled()) {
+                        started.cancel(true);
+                    }
+                });
+                started.whenComplete((value, e) -> {
+                    if (e != null) {
+                        result.completeExceptionally(e);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+    }
+
+}
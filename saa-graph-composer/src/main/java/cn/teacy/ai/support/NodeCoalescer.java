@@ -0,0 +1,153 @@
+package cn.teacy.ai.support;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Shares one in-flight execution of a node between concurrent callers with the same key.
+ * <p>
+ * Each caller gets its own future completed with a shallow copy of the output: callers may add or
+ * remove entries without affecting each other, but share the values, which must therefore not be
+ * mutated. A null output is handed to every caller as it is. Cancelling the future of a caller only
+ * cancels the shared execution once every caller has cancelled. Executions are forgotten as soon as
+ * they complete.
+ *
+ * @see cn.teacy.ai.annotation.Coalesce
+ * @since 0.4.0
+ */
+public final class NodeCoalescer {
+
+    private final String name;
+
+    private final Map<List<Object>, Flight> flights = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+
+    private final LongAdder joins = new LongAdder();
+
+    /**
+     * @param name the name of the coalescer, e.g. the node id
+     */
+    public NodeCoalescer(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Joins the in-flight execution for the key, or starts one if there is none.
+     */
+    public CompletableFuture<Map<String, Object>> execute(List<Object> key,
+                                                          Supplier<CompletableFuture<Map<String, Object>>> task) {
+        boolean[] leader = new boolean[1];
+        Flight flight = flights.compute(key, (k, current) -> {
+            if (current == null) {
+                leader[0] = true;
+                current = new Flight();
+            }
+            current.callers++;
+            return current;
+        });
+
+        if (leader[0]) {
+            executions.increment();
+            flight.start(key, task);
+        } else {
+            joins.increment();
+        }
+
+        CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        flight.shared.whenComplete((update, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete(update != null ? new HashMap<>(update) : null);
+            }
+        });
+        result.whenComplete((update, e) -> {
+            if (result.isCancelled()) {
+                leave(key, flight);
+            }
+        });
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of executions currently in flight.
+     */
+    public int getInFlightCount() {
+        return flights.size();
+    }
+
+    /**
+     * Returns the number of executions that invoked the node.
+     */
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    /**
+     * Returns the number of callers that shared the execution of another one.
+     */
+    public long getJoinCount() {
+        return joins.sum();
+    }
+
+    private void leave(List<Object> key, Flight flight) {
+        boolean[] abandoned = new boolean[1];
+        flights.computeIfPresent(key, (k, current) -> {
+            if (current != flight || --current.callers > 0) {
+                return current;
+            }
+            abandoned[0] = true;
+            return null;
+        });
+        if (abandoned[0]) {
+            flight.shared.cancel(true);
+        }
+    }
+
+    private final class Flight {
+
+        private final CompletableFuture<Map<String, Object>> shared = new CompletableFuture<>();
+
+        /**
+         * The callers still waiting for the execution, guarded by the map entry of the flight.
+         */
+        private int callers;
+
+        private void start(List<Object> key, Supplier<CompletableFuture<Map<String, Object>>> task) {
+            CompletableFuture<Map<String, Object>> started;
+            try {
+                started = task.get();
+            } catch (RuntimeException | Error e) {
+                started = CompletableFuture.failedFuture(e);
+            }
+
+            CompletableFuture<Map<String, Object>> execution = started;
+            shared.whenComplete((update, e) -> {
+                if (shared.isCancelled()) {
+                    execution.cancel(true);
+                }
+            });
+            execution.whenComplete((update, e) -> {
+                // forgotten before the callers are completed, so that they never join a completed execution
+                flights.remove(key, this);
+                if (e != null) {
+                    shared.completeExceptionally(e);
+                } else {
+                    shared.complete(update);
+                }
+            });
+        }
+
+    }
+
+}
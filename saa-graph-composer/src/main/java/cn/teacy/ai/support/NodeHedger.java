@@ -0,0 +1,261 @@
+package cn.teacy.ai.support;
+
+import jakarta.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedges executions of a node: when an execution has not completed after the hedge delay, another
+ * attempt is started, up to a maximum number of attempts. The first attempt to succeed completes the
+ * execution and the others are cancelled, and the execution only fails once all started attempts
+ * have failed.
+ * <p>
+ * Without a fixed delay, the delay is the given percentile of a latency histogram of all attempts,
+ * each measured from its own start. Attempts cancelled because another one won are recorded with
+ * the time they ran until then, so that hedged slow attempts still count as slow. The histogram has
+ * logarithmic buckets with a relative error of 12.5% and is halved periodically, so that it follows
+ * the recent latencies. Executions are not hedged until enough latencies were recorded.
+ *
+ * @see cn.teacy.ai.annotation.Hedge
+ * @since 0.4.0
+ */
+public final class NodeHedger {
+
+    /**
+     * The number of latencies recorded before adaptive delays are used.
+     */
+    static final int MIN_SAMPLES = 20;
+
+    private final String name;
+
+    @Nullable
+    private final Duration delay;
+
+    private final double percentile;
+
+    private final int maxAttempts;
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    private final LongAdder hedges = new LongAdder();
+
+    private final LongAdder hedgeWins = new LongAdder();
+
+    /**
+     * @param name        the name of the hedger, e.g. the node id
+     * @param delay       the fixed hedge delay, or null to use the percentile of the observed latencies
+     * @param percentile  the percentile used as the delay without a fixed one, between 0 and 1
+     * @param maxAttempts the maximum number of attempts per execution, at least 2
+     */
+    public NodeHedger(String name, @Nullable Duration delay, double percentile, int maxAttempts) {
+        if (delay != null && delay.isNegative()) {
+            throw new IllegalArgumentException("delay must not be negative, but was " + delay);
+        }
+        if (!(percentile > 0 && percentile < 1)) {
+            throw new IllegalArgumentException("percentile must be between 0 and 1, but was " + percentile);
+        }
+        if (maxAttempts < 2) {
+            throw new IllegalArgumentException("maxAttempts must be at least 2, but was " + maxAttempts);
+        }
+        this.name = name;
+        this.delay = delay;
+        this.percentile = percentile;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Runs the first attempt, and further attempts each time the hedge delay passes without one of
+     * them succeeding.
+     *
+     * @param attempt starts an attempt; each call must be safe to run concurrently with the others
+     * @return the future of the first successful attempt; cancelling it cancels all attempts
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> attempt) {
+        Duration hedgeDelay = getCurrentDelay();
+        Execution<T> execution = new Execution<>(attempt);
+        execution.start();
+        if (hedgeDelay != null) {
+            execution.scheduleHedge(hedgeDelay.toNanos());
+        }
+        return execution.result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Returns the delay after which the next execution would be hedged, or null if not enough
+     * latencies were recorded yet to derive it.
+     */
+    @Nullable
+    public Duration getCurrentDelay() {
+        if (delay != null) {
+            return delay;
+        }
+        long nanos = latencies.percentile(percentile, MIN_SAMPLES);
+        return nanos >= 0 ? Duration.ofNanos(nanos) : null;
+    }
+
+    /**
+     * Returns the number of attempts started beyond the first one of their execution.
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * Returns the number of executions won by an attempt other than the first one.
+     */
+    public long getHedgeWinCount() {
+        return hedgeWins.sum();
+    }
+
+    private final class Execution<T> {
+
+        private final Supplier<CompletableFuture<T>> attempt;
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private final List<CompletableFuture<T>> attempts = new CopyOnWriteArrayList<>();
+
+        private final AtomicInteger started = new AtomicInteger();
+
+        private final AtomicInteger failed = new AtomicInteger();
+
+        private Execution(Supplier<CompletableFuture<T>> attempt) {
+            this.attempt = attempt;
+            result.whenComplete((value, e) -> attempts.forEach(it -> it.cancel(true)));
+        }
+
+        private void start() {
+            int index = started.getAndIncrement();
+            long startedAt = System.nanoTime();
+
+            CompletableFuture<T> future;
+            try {
+                future = attempt.get();
+            } catch (RuntimeException | Error e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            attempts.add(future);
+            if (result.isDone()) {
+                future.cancel(true);
+                return;
+            }
+
+            future.whenComplete((value, e) -> {
+                // a loser only ran until it was cancelled, which still bounds its latency from below;
+                // recording the winners alone would drop exactly the slow attempts that were hedged
+                if (e == null || e instanceof CancellationException && result.isDone()) {
+                    latencies.record(System.nanoTime() - startedAt);
+                }
+                if (e == null) {
+                    if (result.complete(value) && index > 0) {
+                        hedgeWins.increment();
+                    }
+                } else if (failed.incrementAndGet() == started.get()) {
+                    // every started attempt failed, report the latest failure
+                    result.completeExceptionally(e);
+                }
+            });
+        }
+
+        private void scheduleHedge(long delayNanos) {
+            CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                hedges.increment();
+                start();
+                if (started.get() < maxAttempts) {
+                    scheduleHedge(delayNanos);
+                }
+            });
+        }
+
+    }
+
+    /**
+     * Counts latencies in logarithmic buckets of 8 linear sub-buckets each, halving all counts
+     * after every {@value #DECAY_INTERVAL} recordings.
+     */
+    private static final class LatencyHistogram {
+
+        private static final int SUB_BUCKET_BITS = 3;
+
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private static final int DECAY_INTERVAL = 1000;
+
+        private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BUCKET_BITS) * SUB_BUCKETS);
+
+        private final AtomicLong recorded = new AtomicLong();
+
+        private void record(long nanos) {
+            counts.incrementAndGet(index(Math.max(0, nanos)));
+            if (recorded.incrementAndGet() % DECAY_INTERVAL == 0) {
+                for (int i = 0; i < counts.length(); i++) {
+                    counts.getAndUpdate(i, count -> count >>> 1);
+                }
+            }
+        }
+
+        /**
+         * @return the upper bound of the bucket holding the percentile, or -1 with fewer samples than required
+         */
+        private long percentile(double percentile, int minSamples) {
+            long total = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                total += counts.get(i);
+            }
+            if (total < minSamples) {
+                return -1;
+            }
+
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return upperBound(i);
+                }
+            }
+            return upperBound(counts.length() - 1);
+        }
+
+        private static int index(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int magnitude = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        private static long upperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = index / SUB_BUCKETS - 1;
+            long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+            return lower + (1L << shift) - 1;
+        }
+
+    }
+
+}
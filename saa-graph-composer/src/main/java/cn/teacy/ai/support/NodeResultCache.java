@@ -0,0 +1,444 @@
+package cn.teacy.ai.support;
+
+import jakarta.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache of node outputs with W-TinyLFU style admission.
+ * <p>
+ * New entries enter a small LRU window. An entry leaving the window only replaces the least recently
+ * used entry of the main segmented LRU if it was requested more often, as estimated by a count-min
+ * sketch that is halved periodically so that the estimates follow the recent workload. This keeps
+ * one-off keys from flushing the frequently requested ones.
+ * <p>
+ * Besides the number of entries, the cache may be bounded by the size of the keys and outputs as
+ * estimated by {@link StateSizeEstimator}, evicting with the same policy until both bounds hold.
+ * An output larger than that bound on its own is not cached.
+ * <p>
+ * Lookups only take the eviction lock if it is free, so the recency order is approximate under
+ * contention, while the entries themselves are held in a {@link ConcurrentHashMap}.
+ * <p>
+ * Outputs are copied shallowly when they are put and returned: the maps are independent, but the
+ * values are shared between the cache and every hit, so they must not be mutated.
+ *
+ * @see cn.teacy.ai.annotation.NodeCache
+ * @since 0.4.0
+ */
+public final class NodeResultCache {
+
+    private static final int WINDOW = 0;
+
+    private static final int PROBATION = 1;
+
+    private static final int PROTECTED = 2;
+
+    private final String name;
+
+    private final int maxSize;
+
+    private final long maxBytes;
+
+    @Nullable
+    private final Duration ttl;
+
+    private final Map<List<Object>, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final FrequencySketch sketch;
+
+    private final AccessOrder window = new AccessOrder();
+
+    private final AccessOrder probation = new AccessOrder();
+
+    private final AccessOrder protectedSegment = new AccessOrder();
+
+    private final int maxWindow;
+
+    private final int maxProtected;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * The estimated size of the cached entries. Guarded by the eviction lock.
+     */
+    private long weightedSize;
+
+    /**
+     * @param name    the name of the cache, e.g. the node id
+     * @param maxSize the maximum number of cached outputs
+     * @param ttl     how long an output stays cached after it was put, or null to keep it until evicted
+     */
+    public NodeResultCache(String name, int maxSize, @Nullable Duration ttl) {
+        this(name, maxSize, 0, ttl);
+    }
+
+    /**
+     * @param name     the name of the cache, e.g. the node id
+     * @param maxSize  the maximum number of cached outputs
+     * @param maxBytes the maximum estimated size of the cached keys and outputs, or 0 for no limit
+     * @param ttl      how long an output stays cached after it was put, or null to keep it until evicted
+     */
+    public NodeResultCache(String name, int maxSize, long maxBytes, @Nullable Duration ttl) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1, but was " + maxSize);
+        }
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative, but was " + maxBytes);
+        }
+        if (ttl != null && (ttl.isNegative() || ttl.isZero())) {
+            throw new IllegalArgumentException("ttl must be positive, but was " + ttl);
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+        this.maxWindow = Math.max(1, maxSize / 100);
+        this.maxProtected = (int) ((maxSize - maxWindow) * 0.8);
+        this.sketch = new FrequencySketch(maxSize);
+    }
+
+    /**
+     * Returns a shallow copy of the cached output for the key, or null on a miss.
+     */
+    @Nullable
+    public Map<String, Object> get(List<Object> key) {
+        sketch.increment(key);
+        Entry entry = entries.get(key);
+        if (entry == null || entry.isExpired(System.nanoTime())) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        if (evictionLock.tryLock()) {
+            try {
+                onAccess(entry);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        return new HashMap<>(entry.value);
+    }
+
+    /**
+     * Caches a shallow copy of the output for the key, evicting other entries if the cache is full.
+     * A null output is cached as an empty one, which the graph treats the same.
+     */
+    public void put(List<Object> key, @Nullable Map<String, Object> value) {
+        long expiresAt = ttl != null ? System.nanoTime() + ttl.toNanos() : Long.MAX_VALUE;
+        Map<String, Object> copy = value != null ? Collections.unmodifiableMap(new HashMap<>(value)) : Map.of();
+        long weight = maxBytes > 0 ? StateSizeEstimator.estimate(key) + StateSizeEstimator.estimate(copy) : 0;
+
+        evictionLock.lock();
+        try {
+            Entry existing = entries.get(key);
+            if (weight > maxBytes && maxBytes > 0) {
+                // would evict every other entry and still not fit
+                if (existing != null) {
+                    remove(existing);
+                }
+                return;
+            }
+            if (existing != null) {
+                existing.value = copy;
+                existing.expiresAt = expiresAt;
+                weightedSize += weight - existing.weight;
+                existing.weight = weight;
+                onAccess(existing);
+                evict();
+                return;
+            }
+
+            Entry entry = new Entry(key, copy, expiresAt);
+            entry.weight = weight;
+            weightedSize += weight;
+            entries.put(key, entry);
+            window.addFirst(entry);
+            entry.segment = WINDOW;
+            evict();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the maximum estimated size of the cached keys and outputs, or 0 for no limit.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the estimated size of the cached keys and outputs, or 0 if the cache has no
+     * {@link #getMaxBytes() size limit}.
+     */
+    public long getWeightedSize() {
+        evictionLock.lock();
+        try {
+            return weightedSize;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of cached outputs, including expired ones not evicted yet.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private void onAccess(Entry entry) {
+        if (!entry.linked()) {
+            return;
+        }
+        switch (entry.segment) {
+            case WINDOW -> window.moveToFirst(entry);
+            case PROBATION -> {
+                probation.remove(entry);
+                protectedSegment.addFirst(entry);
+                entry.segment = PROTECTED;
+                if (protectedSegment.size > maxProtected) {
+                    Entry demoted = protectedSegment.removeLast();
+                    probation.addFirst(demoted);
+                    demoted.segment = PROBATION;
+                }
+            }
+            default -> protectedSegment.moveToFirst(entry);
+        }
+    }
+
+    private void evict() {
+        while (window.size > maxWindow) {
+            Entry candidate = window.removeLast();
+            probation.addFirst(candidate);
+            candidate.segment = PROBATION;
+        }
+
+        while (entries.size() > maxSize || maxBytes > 0 && weightedSize > maxBytes) {
+            Entry victim = probation.last != null ? probation.last : protectedSegment.last;
+            Entry candidate = probation.first;
+            if (victim == null || candidate == null) {
+                victim = window.last;
+                candidate = victim;
+            }
+
+            // the newest entry of the probation segment competes with its least recently used one
+            Entry evicted = candidate != victim && expiredOrLessFrequent(victim, candidate) ? victim : candidate;
+            remove(evicted);
+        }
+    }
+
+    private boolean expiredOrLessFrequent(Entry victim, Entry candidate) {
+        return victim.isExpired(System.nanoTime()) || sketch.frequency(candidate.key) > sketch.frequency(victim.key);
+    }
+
+    private void remove(Entry entry) {
+        switch (entry.segment) {
+            case WINDOW -> window.remove(entry);
+            case PROBATION -> probation.remove(entry);
+            default -> protectedSegment.remove(entry);
+        }
+        entries.remove(entry.key, entry);
+        weightedSize -= entry.weight;
+        evictions.increment();
+    }
+
+    private static final class Entry {
+
+        private final List<Object> key;
+
+        private volatile Map<String, Object> value;
+
+        private volatile long expiresAt;
+
+        private long weight;
+
+        private int segment;
+
+        private Entry prev;
+
+        private Entry next;
+
+        private AccessOrder owner;
+
+        private Entry(List<Object> key, Map<String, Object> value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+
+        private boolean linked() {
+            return owner != null;
+        }
+
+    }
+
+    /**
+     * A doubly linked list of entries, most recently used first. Guarded by the eviction lock.
+     */
+    private static final class AccessOrder {
+
+        private Entry first;
+
+        private Entry last;
+
+        private int size;
+
+        private void addFirst(Entry entry) {
+            entry.owner = this;
+            entry.prev = null;
+            entry.next = first;
+            if (first != null) {
+                first.prev = entry;
+            } else {
+                last = entry;
+            }
+            first = entry;
+            size++;
+        }
+
+        private void remove(Entry entry) {
+            if (entry.owner != this) {
+                return;
+            }
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                first = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            } else {
+                last = entry.prev;
+            }
+            entry.prev = entry.next = null;
+            entry.owner = null;
+            size--;
+        }
+
+        private Entry removeLast() {
+            Entry entry = last;
+            remove(entry);
+            return entry;
+        }
+
+        private void moveToFirst(Entry entry) {
+            if (first != entry) {
+                remove(entry);
+                addFirst(entry);
+            }
+        }
+
+    }
+
+    /**
+     * A count-min sketch of 4 rows of saturating 4 bit counters, halved after every
+     * {@code 10 * maxSize} increments. Updates are not synchronized, lost increments only make the
+     * estimates slightly less accurate.
+     */
+    private static final class FrequencySketch {
+
+        private static final int MAX_COUNT = 15;
+
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final byte[][] rows;
+
+        private final int mask;
+
+        private final int sampleSize;
+
+        private int additions;
+
+        private FrequencySketch(int maxSize) {
+            int width = Integer.highestOneBit(Math.max(16, maxSize * 2 - 1)) << 1;
+            this.rows = new byte[SEEDS.length][width];
+            this.mask = width - 1;
+            this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * maxSize);
+        }
+
+        private void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < rows.length; i++) {
+                int index = index(hash, i);
+                if (rows[i][index] < MAX_COUNT) {
+                    rows[i][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = MAX_COUNT;
+            for (int i = 0; i < rows.length; i++) {
+                frequency = Math.min(frequency, rows[i][index(hash, i)]);
+            }
+            return frequency;
+        }
+
+        private void reset() {
+            for (byte[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = (byte) (row[i] >>> 1);
+                }
+            }
+            additions = 0;
+        }
+
+        private int index(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % SEEDS.length];
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private static int spread(int hash) {
+            hash ^= hash >>> 16;
+            hash *= 0x45D9F3B;
+            return hash ^ (hash >>> 16);
+        }
+
+    }
+
+}
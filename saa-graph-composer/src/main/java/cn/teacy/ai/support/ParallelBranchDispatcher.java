@@ -0,0 +1,171 @@
+package cn.teacy.ai.support;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dispatches the parallel branches of a fan-out node onto an executor.
+ * <p>
+ * Each run gets an executor of its own from {@link #forRun(Executor)}, which starts at most
+ * {@code maxParallelism} branches of the run at the same time. Branches beyond the limit are queued
+ * instead of blocking a thread, and started by the branch finishing before them.
+ *
+ * @see cn.teacy.ai.annotation.ParallelBranches
+ * @since 0.4.0
+ */
+public final class ParallelBranchDispatcher {
+
+    private final String name;
+
+    private final int maxParallelism;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LongAdder dispatched = new LongAdder();
+
+    private final List<WaitObserver> observers = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param name           the name of the dispatcher, e.g. the node id
+     * @param maxParallelism the maximum number of branches of a run running at the same time, or 0 for no limit
+     */
+    public ParallelBranchDispatcher(String name, int maxParallelism) {
+        if (maxParallelism < 0) {
+            throw new IllegalArgumentException("maxParallelism must not be negative, but was " + maxParallelism);
+        }
+        this.name = name;
+        this.maxParallelism = maxParallelism;
+    }
+
+    /**
+     * Returns the executor for the branches of a single run.
+     *
+     * @param executor the executor running the branches
+     */
+    public Executor forRun(Executor executor) {
+        return new RunExecutor(executor);
+    }
+
+    /**
+     * Registers an observer notified whenever a branch starts.
+     */
+    public void addObserver(WaitObserver observer) {
+        observers.add(observer);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxParallelism() {
+        return maxParallelism;
+    }
+
+    /**
+     * Returns the number of branches dispatched but not yet started, across all runs.
+     */
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    /**
+     * Returns the number of branches dispatched.
+     */
+    public long getDispatchCount() {
+        return dispatched.sum();
+    }
+
+    /**
+     * Notified whenever a branch starts.
+     */
+    @FunctionalInterface
+    public interface WaitObserver {
+
+        /**
+         * @param waitNanos how long the branch waited since it was dispatched, in nanoseconds
+         */
+        void onBranchStart(long waitNanos);
+
+    }
+
+    private final class RunExecutor implements Executor {
+
+        private final Executor executor;
+
+        /**
+         * The branches waiting for a free slot and the number of running ones, guarded by this.
+         */
+        private final Queue<Runnable> pending = new ArrayDeque<>();
+
+        private int running;
+
+        private RunExecutor(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            long dispatchedAt = System.nanoTime();
+            dispatched.increment();
+            waiting.incrementAndGet();
+            Runnable branch = () -> {
+                waiting.decrementAndGet();
+                long waitNanos = System.nanoTime() - dispatchedAt;
+                for (WaitObserver observer : observers) {
+                    observer.onBranchStart(waitNanos);
+                }
+                try {
+                    command.run();
+                } finally {
+                    if (maxParallelism > 0) {
+                        release();
+                    }
+                }
+            };
+
+            if (maxParallelism > 0) {
+                synchronized (this) {
+                    if (running >= maxParallelism) {
+                        pending.add(branch);
+                        return;
+                    }
+                    running++;
+                }
+            }
+            try {
+                executor.execute(branch);
+            } catch (RejectedExecutionException e) {
+                waiting.decrementAndGet();
+                if (maxParallelism > 0) {
+                    release();
+                }
+                throw e;
+            }
+        }
+
+        private void release() {
+            Runnable next;
+            synchronized (this) {
+                next = pending.poll();
+                if (next == null) {
+                    running--;
+                    return;
+                }
+            }
+            try {
+                executor.execute(next);
+            } catch (RejectedExecutionException e) {
+                // the branch was accepted when it was dispatched, so it runs on the thread that freed its slot
+                next.run();
+            }
+        }
+
+    }
+
+}
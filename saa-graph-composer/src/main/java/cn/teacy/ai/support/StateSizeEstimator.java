@@ -0,0 +1,173 @@
+package cn.teacy.ai.support;
+
+import cn.teacy.ai.strategy.Histogram;
+import jakarta.annotation.Nullable;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.RandomAccess;
+
+/**
+ * Estimates the heap size of state values, in bytes.
+ * <p>
+ * The estimate is cheap rather than exact: strings count two bytes per character, collections,
+ * maps and object arrays are extrapolated from a sample of their elements, which shrinks with the
+ * nesting depth, and other objects are walked field by field up to a fixed depth. Objects whose
+ * fields cannot be read, e.g. most JDK internals, count as a small fixed size, and values offloaded
+ * to a {@link BlobStore} as the size of their handle.
+ *
+ * @see StateSizeMonitor
+ * @since 0.4.0
+ */
+public final class StateSizeEstimator {
+
+    private static final int MAX_SAMPLES = 16;
+
+    private static final int MAX_DEPTH = 6;
+
+    private static final int MAX_FIELDS = 16;
+
+    private static final long OBJECT_BYTES = 16;
+
+    private static final long REFERENCE_BYTES = 8;
+
+    private static final ClassValue<Field[]> instanceFields = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()
+                            && field.trySetAccessible()) {
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields.toArray(Field[]::new);
+        }
+    };
+
+    private StateSizeEstimator() {
+    }
+
+    /**
+     * Returns the estimated size of a value and of everything it references, in bytes.
+     */
+    public static long estimate(@Nullable Object value) {
+        return estimate(value, 0);
+    }
+
+    private static long estimate(@Nullable Object value, int depth) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence text) {
+            return 40 + 2L * text.length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum<?>) {
+            return 24;
+        }
+        if (value instanceof BlobRef) {
+            // offloaded values are not on the heap
+            return OBJECT_BYTES + 2 * REFERENCE_BYTES;
+        }
+        if (value instanceof Histogram) {
+            return 128 + Histogram.BUCKETS * 8L;
+        }
+        if (value instanceof Optional<?> optional) {
+            return OBJECT_BYTES + estimate(optional.orElse(null), depth);
+        }
+        if (value instanceof ByteBuffer buffer) {
+            return 48 + (buffer.isDirect() ? 0 : buffer.capacity());
+        }
+        Class<?> type = value.getClass();
+        if (type.isArray()) {
+            return estimateArray(value, type.getComponentType(), depth);
+        }
+        if (depth >= MAX_DEPTH) {
+            return OBJECT_BYTES;
+        }
+        if (value instanceof Collection<?> collection) {
+            return 40 + collection.size() * REFERENCE_BYTES * 2 + sampled(collection, collection.size(), depth);
+        }
+        if (value instanceof Map<?, ?> map) {
+            return 48 + map.size() * 32L + sampled(map.entrySet(), map.size(), depth);
+        }
+        if (value instanceof Map.Entry<?, ?> entry) {
+            return estimate(entry.getKey(), depth) + estimate(entry.getValue(), depth);
+        }
+        return estimateFields(value, type, depth);
+    }
+
+    private static long estimateArray(Object array, Class<?> componentType, int depth) {
+        int length = Array.getLength(array);
+        if (componentType == byte.class || componentType == boolean.class) {
+            return OBJECT_BYTES + length;
+        }
+        if (componentType == char.class || componentType == short.class) {
+            return OBJECT_BYTES + 2L * length;
+        }
+        if (componentType == int.class || componentType == float.class) {
+            return OBJECT_BYTES + 4L * length;
+        }
+        if (componentType == long.class || componentType == double.class) {
+            return OBJECT_BYTES + 8L * length;
+        }
+        long size = OBJECT_BYTES + length * REFERENCE_BYTES;
+        if (depth >= MAX_DEPTH) {
+            return size;
+        }
+        return size + sampled(Arrays.asList((Object[]) array), length, depth);
+    }
+
+    /**
+     * Extrapolates the size of the elements from a sample, evenly spread over random access lists.
+     * Collections modified by another branch while they are sampled are extrapolated from the
+     * elements sampled so far.
+     */
+    private static long sampled(Collection<?> elements, int size, int depth) {
+        int samples = Math.min(size, Math.max(1, MAX_SAMPLES >> depth));
+        int taken = 0;
+        long sampledBytes = 0;
+        try {
+            if (elements instanceof List<?> list && list instanceof RandomAccess) {
+                for (; taken < samples; taken++) {
+                    sampledBytes += estimate(list.get((int) ((long) taken * size / samples)), depth + 1);
+                }
+            } else {
+                Iterator<?> iterator = elements.iterator();
+                for (; taken < samples && iterator.hasNext(); taken++) {
+                    sampledBytes += estimate(iterator.next(), depth + 1);
+                }
+            }
+        } catch (ConcurrentModificationException | IndexOutOfBoundsException | NoSuchElementException e) {
+            // extrapolated from the elements sampled so far
+        }
+        return taken == 0 ? 0 : sampledBytes * size / taken;
+    }
+
+    private static long estimateFields(Object value, Class<?> type, int depth) {
+        Field[] fields = instanceFields.get(type);
+        long size = OBJECT_BYTES + fields.length * REFERENCE_BYTES;
+        for (int i = 0; i < Math.min(fields.length, MAX_FIELDS); i++) {
+            try {
+                size += estimate(fields[i].get(value), depth + 1);
+            } catch (IllegalAccessException | RuntimeException e) {
+                // unreadable fields count as references only
+            }
+        }
+        return size;
+    }
+
+}
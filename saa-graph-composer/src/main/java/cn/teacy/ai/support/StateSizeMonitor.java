@@ -0,0 +1,351 @@
+package cn.teacy.ai.support;
+
+import cn.teacy.ai.annotation.GraphComposer.StateOverflow;
+import cn.teacy.ai.strategy.BoundedAppendStrategy;
+import cn.teacy.ai.strategy.Histogram;
+import cn.teacy.ai.strategy.HistogramStrategy;
+import cn.teacy.ai.strategy.MaxDoubleStrategy;
+import cn.teacy.ai.strategy.OffloadStrategy;
+import cn.teacy.ai.strategy.PersistentAppendStrategy;
+import cn.teacy.ai.strategy.PersistentMergeStrategy;
+import cn.teacy.ai.strategy.SumLongStrategy;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.state.AppenderChannel;
+import com.alibaba.cloud.ai.graph.state.ReplaceAllWith;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import com.alibaba.cloud.ai.graph.state.strategy.MergeStrategy;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accounts the size of the state of a graph's runs and enforces a per-run budget.
+ * <p>
+ * After a node action completes, the state it leaves behind is estimated by
+ * {@link StateSizeEstimator}, projecting the updated keys by their strategy: replaced keys count
+ * with the size of their new value, appended keys with both values, trimmed to the bound of a
+ * {@link BoundedAppendStrategy}, merged maps with the entries the update adds or replaces, the
+ * numeric accumulators with their fixed size, and offloaded keys with the handles the update
+ * leaves in the state. Without a budget only every {@code sampleInterval}-th
+ * execution is measured; with a budget every execution is, since the state of any run may outgrow
+ * it. To keep that cheap, a key holding the same value as when it was last measured reuses that
+ * size, and only every {@value #FULL_ESTIMATE_INTERVAL}th measurement estimates every key again.
+ * The measured sizes are recorded in a histogram for the whole state and one for each accounted key.
+ *
+ * @see cn.teacy.ai.annotation.GraphComposer#maxStateBytes()
+ * @since 0.4.0
+ */
+public final class StateSizeMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(StateSizeMonitor.class);
+
+    private static final int FULL_ESTIMATE_INTERVAL = 16;
+
+    private static final long NUMBER_BYTES = StateSizeEstimator.estimate(0L);
+
+    private static final long HISTOGRAM_BYTES = StateSizeEstimator.estimate(new Histogram());
+
+    private static final long ENTRY_BYTES = 32;
+
+    private static final long ELEMENT_BYTES = 16;
+
+    private static final long HANDLE_BYTES = StateSizeEstimator.estimate(new BlobRef("", 0, null));
+
+    private final String name;
+
+    private final long maxBytes;
+
+    private final StateOverflow overflow;
+
+    private final int sampleInterval;
+
+    private final Histogram stateSizes = new Histogram();
+
+    private final Map<String, Histogram> keySizes;
+
+    private final AtomicLong executions = new AtomicLong();
+
+    private final AtomicLong measurements = new AtomicLong();
+
+    /**
+     * The last measured size of each key, with the value it was measured for.
+     */
+    private final Map<String, MeasuredValue> measuredValues = new ConcurrentHashMap<>();
+
+    private final LongAdder exceeded = new LongAdder();
+
+    private final List<SizeObserver> observers = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param name           the name of the monitor, e.g. the graph id
+     * @param keys           the keys whose sizes are recorded separately, e.g. those declared by {@code @GraphKey}
+     * @param maxBytes       the maximum estimated size of the state of a run, or 0 for no limit
+     * @param overflow       what happens to an update exceeding the budget
+     * @param sampleInterval how many executions pass between two measurements without a budget, or 0 to
+     *                       only measure with a budget
+     */
+    public StateSizeMonitor(String name, Collection<String> keys, long maxBytes, StateOverflow overflow, int sampleInterval) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative, but was " + maxBytes);
+        }
+        if (sampleInterval < 0) {
+            throw new IllegalArgumentException("sampleInterval must not be negative, but was " + sampleInterval);
+        }
+        this.name = name;
+        this.maxBytes = maxBytes;
+        this.overflow = overflow;
+        this.sampleInterval = sampleInterval;
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        for (String key : keys) {
+            histograms.put(key, new Histogram());
+        }
+        this.keySizes = Collections.unmodifiableMap(histograms);
+    }
+
+    /**
+     * Measures the state a node action leaves behind and enforces the budget.
+     *
+     * @param nodeId the node whose action returned the update
+     * @param state  the state the action was given
+     * @param update the update returned by the action
+     * @return the update, or an empty one if it exceeded the budget and is discarded
+     * @throws IllegalStateException if the update exceeds the budget and the run fails
+     */
+    public Map<String, Object> check(String nodeId, OverAllState state, Map<String, Object> update) {
+        if (maxBytes == 0 && (sampleInterval == 0 || executions.getAndIncrement() % sampleInterval != 0)) {
+            return update;
+        }
+
+        boolean full = measurements.getAndIncrement() % FULL_ESTIMATE_INTERVAL == 0;
+        Map<String, KeyStrategy> strategies = state.keyStrategies();
+        Map<String, Long> sizes = new HashMap<>();
+        for (Map.Entry<String, Object> entry : state.data().entrySet()) {
+            String key = entry.getKey();
+            long size = measure(key, entry.getValue(), full);
+            if (update.containsKey(key)) {
+                size = project(entry.getValue(), size, update.get(key), strategies.get(key));
+            }
+            sizes.put(key, size);
+        }
+        for (Map.Entry<String, Object> entry : update.entrySet()) {
+            sizes.computeIfAbsent(entry.getKey(), key -> project(null, 0, entry.getValue(), strategies.get(key)));
+        }
+
+        long total = 0;
+        String largestKey = null;
+        for (Map.Entry<String, Long> size : sizes.entrySet()) {
+            total += size.getValue();
+            if (largestKey == null || size.getValue() > sizes.get(largestKey)) {
+                largestKey = size.getKey();
+            }
+        }
+
+        if (maxBytes > 0 && total > maxBytes) {
+            exceeded.increment();
+            String message = String.format(
+                    "State of '%s' would grow to about %d bytes after node '%s', exceeding its budget of %d bytes. The largest key is '%s' with about %d bytes.",
+                    name, total, nodeId, maxBytes, largestKey, sizes.get(largestKey));
+            if (overflow == StateOverflow.FAIL) {
+                throw new IllegalStateException(message);
+            }
+            log.warn("{} Discarding the update of keys {}.", message, update.keySet());
+            return Map.of();
+        }
+
+        stateSizes.record(total);
+        Map<String, Long> accounted = new HashMap<>();
+        for (Map.Entry<String, Histogram> histogram : keySizes.entrySet()) {
+            Long size = sizes.get(histogram.getKey());
+            if (size != null) {
+                histogram.getValue().record(size);
+                accounted.put(histogram.getKey(), size);
+            }
+        }
+        for (SizeObserver observer : observers) {
+            observer.onMeasure(total, accounted);
+        }
+        return update;
+    }
+
+    /**
+     * Estimates the value of a key, or reuses the size measured last time if the key still holds
+     * the same value.
+     */
+    private long measure(String key, Object value, boolean full) {
+        MeasuredValue measured = full ? null : measuredValues.get(key);
+        if (measured != null && measured.value().get() == value) {
+            return measured.size();
+        }
+        long size = StateSizeEstimator.estimate(value);
+        measuredValues.put(key, new MeasuredValue(new WeakReference<>(value), size));
+        return size;
+    }
+
+    /**
+     * Projects the size of a key after the strategy merged the update into its value.
+     */
+    private static long project(@Nullable Object oldValue, long oldSize, @Nullable Object newValue,
+                                @Nullable KeyStrategy strategy) {
+        if (newValue instanceof Optional<?> optional) {
+            newValue = optional.orElse(null);
+        }
+        if (strategy instanceof OffloadStrategy offload) {
+            // the state holds the handles of the offloaded values, merged by the delegate
+            if (offload.getDelegate() instanceof ReplaceStrategy) {
+                return newValue != null ? HANDLE_BYTES : 0;
+            }
+            return newValue != null ? projectAppend(oldValue, oldSize, newValue, offload.getDelegate(), true) : oldSize;
+        }
+        if (strategy == null || strategy instanceof ReplaceStrategy) {
+            return StateSizeEstimator.estimate(newValue);
+        }
+        if (newValue == null) {
+            return oldSize;
+        }
+        if (strategy instanceof SumLongStrategy || strategy instanceof MaxDoubleStrategy) {
+            return NUMBER_BYTES;
+        }
+        if (strategy instanceof HistogramStrategy) {
+            return HISTOGRAM_BYTES;
+        }
+        if (strategy instanceof MergeStrategy || strategy instanceof PersistentMergeStrategy) {
+            if (oldValue instanceof Optional<?> optional) {
+                oldValue = optional.orElse(null);
+            }
+            return oldValue instanceof Map<?, ?> oldMap && newValue instanceof Map<?, ?> newMap
+                    ? oldSize + mergedBytes(oldMap, newMap)
+                    : StateSizeEstimator.estimate(newValue);
+        }
+        if (strategy instanceof AppendStrategy || strategy instanceof PersistentAppendStrategy
+                || strategy instanceof BoundedAppendStrategy) {
+            return projectAppend(oldValue, oldSize, newValue, strategy, false);
+        }
+        return oldSize + StateSizeEstimator.estimate(newValue);
+    }
+
+    /**
+     * Returns how much merging the new entries grows a map, counting the entries replacing
+     * existing ones with the difference of their values.
+     */
+    private static long mergedBytes(Map<?, ?> oldMap, Map<?, ?> newMap) {
+        long bytes = 0;
+        for (Map.Entry<?, ?> entry : newMap.entrySet()) {
+            long valueBytes = StateSizeEstimator.estimate(entry.getValue());
+            bytes += oldMap.containsKey(entry.getKey())
+                    ? valueBytes - StateSizeEstimator.estimate(oldMap.get(entry.getKey()))
+                    : ENTRY_BYTES + StateSizeEstimator.estimate(entry.getKey()) + valueBytes;
+        }
+        return bytes;
+    }
+
+    private static long projectAppend(@Nullable Object oldValue, long oldSize, Object newValue, KeyStrategy strategy,
+                                      boolean offloaded) {
+        if (newValue instanceof AppenderChannel.RemoveIdentifier<?>) {
+            return oldSize;
+        }
+        long entries = oldValue instanceof Collection<?> collection ? collection.size() : 0;
+        if (newValue instanceof ReplaceAllWith<?> replacement) {
+            newValue = replacement.newValues();
+            oldSize = 0;
+            entries = 0;
+        }
+
+        long size = oldSize;
+        if (newValue instanceof Collection<?> values) {
+            entries += values.size();
+            size += offloaded ? values.size() * (ELEMENT_BYTES + HANDLE_BYTES) : StateSizeEstimator.estimate(values);
+        } else if (newValue instanceof Object[] values) {
+            entries += values.length;
+            size += offloaded ? values.length * (ELEMENT_BYTES + HANDLE_BYTES) : StateSizeEstimator.estimate(values);
+        } else {
+            entries++;
+            size += ELEMENT_BYTES + (offloaded ? HANDLE_BYTES : StateSizeEstimator.estimate(newValue));
+        }
+
+        // the oldest entries are dropped or summarized down to the bound
+        if (strategy instanceof BoundedAppendStrategy bounded && entries > bounded.getMaxEntries()) {
+            size = size * bounded.getMaxEntries() / entries;
+        }
+        return size;
+    }
+
+    /**
+     * Registers an observer notified whenever the state is measured within the budget.
+     */
+    public void addObserver(SizeObserver observer) {
+        observers.add(observer);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the maximum estimated size of the state of a run, or 0 for no limit.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public StateOverflow getOverflow() {
+        return overflow;
+    }
+
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    /**
+     * Returns the histogram of the measured sizes of the whole state, in bytes.
+     */
+    public Histogram getStateSizes() {
+        return stateSizes;
+    }
+
+    /**
+     * Returns the histograms of the measured sizes of the accounted keys, in bytes.
+     */
+    public Map<String, Histogram> getKeySizes() {
+        return keySizes;
+    }
+
+    /**
+     * Returns the number of updates that exceeded the budget.
+     */
+    public long getExceededCount() {
+        return exceeded.sum();
+    }
+
+    private record MeasuredValue(WeakReference<Object> value, long size) {
+    }
+
+    /**
+     * Notified whenever the state is measured within the budget.
+     */
+    @FunctionalInterface
+    public interface SizeObserver {
+
+        /**
+         * @param stateBytes the estimated size of the whole state
+         * @param keyBytes   the estimated sizes of the accounted keys present in the state
+         */
+        void onMeasure(long stateBytes, Map<String, Long> keyBytes);
+
+    }
+
+}
@@ -2,8 +2,18 @@ package cn.teacy.ai.utils;
 
 import com.alibaba.cloud.ai.graph.action.*;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 
+import java.time.Duration;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class UnifyUtils {
 
@@ -43,4 +53,171 @@ public class UnifyUtils {
         throw new IllegalArgumentException("Unexpected type for Action: " + val.getClass());
     }
 
+    /**
+     * Unifies a node action like {@link #getUnifiedNodeAction(Object)}, but dispatches synchronous
+     * actions to the given executor instead of running them on the calling thread.
+     *
+     * @param executor the executor for synchronous actions, or null to run them on the calling thread
+     * @since 0.4.0
+     */
+    @Nonnull
+    public static AsyncNodeActionWithConfig getUnifiedNodeAction(@Nonnull Object val, @Nullable Executor executor) {
+        if (executor == null || !isSynchronousNodeAction(val)) {
+            return getUnifiedNodeAction(val);
+        }
+
+        if (val instanceof NodeActionWithConfig action) {
+            return (state, config) -> dispatch(executor, () -> action.apply(state, config));
+        }
+        NodeAction action = (NodeAction) val;
+        return (state, config) -> dispatch(executor, () -> action.apply(state));
+    }
+
+    /**
+     * Whether the value is a node action that blocks the calling thread until it completes.
+     *
+     * @since 0.4.0
+     */
+    public static boolean isSynchronousNodeAction(@Nonnull Object val) {
+        return !(val instanceof AsyncNodeActionWithConfig || val instanceof AsyncNodeAction)
+                && (val instanceof NodeActionWithConfig || val instanceof NodeAction);
+    }
+
+    /**
+     * Bounds the time a node action may take. Once the timeout elapses, the returned future fails
+     * with a {@link TimeoutException} and the future of the action is cancelled. The thread running
+     * the action is interrupted, whether it is the calling thread of a synchronous action or the
+     * worker it was dispatched to by {@link #getUnifiedNodeAction(Object, Executor)}.
+     *
+     * @param name the name of the node, used in the timeout message
+     * @since 0.4.0
+     */
+    @Nonnull
+    public static AsyncNodeActionWithConfig withTimeout(@Nonnull AsyncNodeActionWithConfig action,
+                                                        @Nonnull Duration timeout, @Nonnull String name) {
+        long timeoutNanos = timeout.toNanos();
+        return (state, config) -> {
+            CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+            Interruption interruption = new Interruption();
+            // registered first, so that a synchronous action blocking the calling thread is interrupted
+            result.whenComplete((update, e) -> {
+                if (e != null) {
+                    interruption.interrupt();
+                }
+            });
+            result.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS);
+
+            interruption.enter();
+
+            CompletableFuture<Map<String, Object>> pending;
+            try {
+                pending = action.apply(state, config);
+            } catch (Throwable e) {
+                pending = CompletableFuture.failedFuture(e);
+            } finally {
+                interruption.exit();
+            }
+
+            CompletableFuture<Map<String, Object>> underlying = pending;
+            result.whenComplete((update, e) -> {
+                if (e != null) {
+                    underlying.cancel(true);
+                }
+            });
+            underlying.whenComplete((update, e) -> {
+                if (e != null) {
+                    result.completeExceptionally(e);
+                } else {
+                    result.complete(update);
+                }
+            });
+
+            return result.exceptionallyCompose(e -> CompletableFuture.failedFuture(e instanceof TimeoutException
+                    ? new TimeoutException(String.format("Node '%s' did not complete within %s.", name, timeout))
+                    : e));
+        };
+    }
+
+    private static CompletableFuture<Map<String, Object>> dispatch(Executor executor, Callable<Map<String, Object>> task) {
+        CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        Interruption interruption = new Interruption();
+        // cancelling the future, e.g. on a timeout, interrupts the worker running the task
+        result.whenComplete((update, e) -> {
+            if (result.isCancelled()) {
+                interruption.interrupt();
+            }
+        });
+
+        try {
+            executor.execute(() -> {
+                if (!interruption.enter()) {
+                    return;
+                }
+                try {
+                    result.complete(task.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    interruption.exit();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Interrupts the thread running a task at most while it runs the task, so that a late
+     * interruption never leaks into whatever the thread runs next.
+     */
+    private static final class Interruption {
+
+        private static final Object NEW = new Object();
+
+        private static final Object INTERRUPTING = new Object();
+
+        private static final Object DONE = new Object();
+
+        private final AtomicReference<Object> state = new AtomicReference<>(NEW);
+
+        /**
+         * @return false if the task was interrupted before it started
+         */
+        boolean enter() {
+            return state.compareAndSet(NEW, Thread.currentThread());
+        }
+
+        void exit() {
+            if (state.compareAndSet(Thread.currentThread(), DONE)) {
+                return;
+            }
+            while (state.get() == INTERRUPTING) {
+                Thread.onSpinWait();
+            }
+            // clear the interruption meant for the task
+            Thread.interrupted();
+        }
+
+        void interrupt() {
+            while (true) {
+                Object current = state.get();
+                if (current instanceof Thread thread) {
+                    if (state.compareAndSet(current, INTERRUPTING)) {
+                        thread.interrupt();
+                        state.set(DONE);
+                        return;
+                    }
+                } else if (current == NEW) {
+                    if (state.compareAndSet(NEW, DONE)) {
+                        return;
+                    }
+                } else {
+                    return;
+                }
+            }
+        }
+
+    }
+
 }
@@ -0,0 +1,149 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.BatchNode;
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.exception.GraphDefinitionException;
+import cn.teacy.ai.interfaces.BatchNodeAction;
+import cn.teacy.ai.support.NodeBatcher;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BatchNodeTest {
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should invoke the batch action once for concurrent runs")
+    void shouldBatchConcurrentRuns() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.setDefaultExecutor(workers);
+        EmbedComposer composer = new EmbedComposer();
+        CompiledGraph graph = compiler.compile(composer);
+
+        List<CompletableFuture<OverAllState>> runs = new ArrayList<>();
+        for (String text : List.of("a", "bb", "ccc", "dddd")) {
+            runs.add(CompletableFuture.supplyAsync(() -> graph.invoke(Map.of(EmbedComposer.KEY_TEXT, text)).orElseThrow()));
+        }
+
+        assertThat(runs.stream().map(run -> run.join().value(EmbedComposer.KEY_VECTOR).orElseThrow()))
+                .containsExactlyInAnyOrder(1, 2, 3, 4);
+        assertThat(composer.batchSizes).containsExactly(4);
+    }
+
+    @Test
+    @DisplayName("Should dispatch a partial batch once the maximum wait has passed")
+    void shouldFlushAfterMaxWait() {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        List<Long> queueing = new CopyOnWriteArrayList<>();
+        NodeBatcher batcher = new NodeBatcher("test", 10, Duration.ofMillis(20), states -> {
+            batchSizes.add(states.size());
+            return states.stream().map(state -> Map.<String, Object>of("done", true)).toList();
+        }, null);
+        batcher.addObserver((size, queueingNanos) -> {
+            for (long nanos : queueingNanos) {
+                queueing.add(nanos);
+            }
+        });
+
+        CompletableFuture<Map<String, Object>> first = batcher.submit(new OverAllState());
+        CompletableFuture<Map<String, Object>> second = batcher.submit(new OverAllState());
+
+        assertThat(first).succeedsWithin(Duration.ofSeconds(5)).isEqualTo(Map.of("done", true));
+        assertThat(second).succeedsWithin(Duration.ofSeconds(5)).isEqualTo(Map.of("done", true));
+        assertThat(batchSizes).containsExactly(2);
+        assertThat(queueing).hasSize(2);
+        assertThat(queueing.get(0)).isGreaterThanOrEqualTo(Duration.ofMillis(20).toNanos());
+        assertThat(batcher.getQueueDepth()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fail every run of a batch when the action returns the wrong number of updates")
+    void shouldFailOnUpdateMismatch() {
+        NodeBatcher batcher = new NodeBatcher("test", 2, Duration.ofSeconds(1), states -> List.of(Map.of()), null);
+
+        CompletableFuture<Map<String, Object>> first = batcher.submit(new OverAllState());
+        CompletableFuture<Map<String, Object>> second = batcher.submit(new OverAllState());
+
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second).failsWithin(Duration.ZERO).withThrowableOfType(Exception.class)
+                .havingCause().isInstanceOf(IllegalStateException.class).withMessageContaining("returned 1 updates for a batch of 2");
+    }
+
+    @Test
+    @DisplayName("Should reject batch nodes without @BatchNode and @BatchNode on other nodes")
+    void shouldRejectInvalidDeclarations() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+
+        assertThatThrownBy(() -> compiler.compile(new UndeclaredComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("does not declare @BatchNode");
+        assertThatThrownBy(() -> compiler.compile(new MisplacedComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("only supported on BatchNodeAction fields");
+    }
+
+    @GraphComposer(id = "embed")
+    static class EmbedComposer {
+
+        @GraphKey
+        static final String KEY_TEXT = "text";
+
+        @GraphKey
+        static final String KEY_VECTOR = "vector";
+
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        @GraphNode(isStart = true, next = StateGraph.END)
+        @BatchNode(maxBatchSize = 4, maxWait = "5s")
+        final BatchNodeAction embed = states -> {
+            batchSizes.add(states.size());
+            return states.stream()
+                    .map(state -> Map.<String, Object>of(KEY_VECTOR, state.value(KEY_TEXT, "").length()))
+                    .toList();
+        };
+
+    }
+
+    @GraphComposer(id = "undeclaredBatch")
+    static class UndeclaredComposer {
+
+        @GraphNode(isStart = true, next = StateGraph.END)
+        final BatchNodeAction node = states -> List.of();
+
+    }
+
+    @GraphComposer(id = "misplacedBatch")
+    static class MisplacedComposer {
+
+        @GraphNode(isStart = true, next = StateGraph.END)
+        @BatchNode(maxBatchSize = 2)
+        final NodeAction node = state -> Map.of();
+
+    }
+
+}
@@ -0,0 +1,122 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.ConditionalEdge;
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphCompileConfig;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.EdgeAction;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the heap retained by a long agent loop appending a message to its history on every
+ * step, with an unbounded and a bounded append key.
+ * <p>
+ * Skipped by default, run it with {@code mvn test -Dtest=BoundedAppendBenchmarkTest -Dgraph.benchmark=true}.
+ * The retained heap includes the checkpoints the graph keeps of every step. The engine chains the
+ * steps of a run reactively, which limits the number of steps a run can take on the default stack.
+ */
+@EnabledIfSystemProperty(named = "graph.benchmark", matches = "true")
+public class BoundedAppendBenchmarkTest {
+
+    private static final int STEPS = Integer.getInteger("graph.benchmark.steps", 200);
+
+    private static final int MAX_ENTRIES = 100;
+
+    private static final int MESSAGE_SIZE = Integer.getInteger("graph.benchmark.message-size", 256);
+
+    @Test
+    @DisplayName("Retained heap of a long loop with unbounded and bounded histories")
+    void compareHistories() {
+        report("append", new UnboundedComposer(), STEPS);
+        report("bounded(" + MAX_ENTRIES + ")", new BoundedComposer(), MAX_ENTRIES);
+    }
+
+    private void report(String mode, Object composer, int expectedEntries) {
+        CompiledGraph graph = new ReflectiveGraphCompiler().compile(composer);
+
+        long before = usedHeap();
+        long start = System.nanoTime();
+        OverAllState state = graph.invoke(Map.of()).orElseThrow();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        long retained = usedHeap() - before;
+
+        assertThat(state.value(UnboundedComposer.KEY_HISTORY, List.of())).hasSize(expectedEntries);
+        System.out.printf("%s: %d steps in %d ms, %d KiB retained by the graph and its final state%n",
+                mode, STEPS, elapsed.toMillis(), retained / 1024);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static Map<String, Object> step(OverAllState state) {
+        int count = state.value(UnboundedComposer.KEY_COUNT, 0) + 1;
+        return Map.of(UnboundedComposer.KEY_COUNT, count,
+                UnboundedComposer.KEY_HISTORY, count + ":" + "x".repeat(MESSAGE_SIZE));
+    }
+
+    private static String loop(OverAllState state) {
+        return state.value(UnboundedComposer.KEY_COUNT, 0) < STEPS ? "step" : StateGraph.END;
+    }
+
+    @GraphComposer(id = "unboundedHistory")
+    static class UnboundedComposer {
+
+        @GraphKey(strategy = AppendStrategy.class)
+        static final String KEY_HISTORY = "history";
+
+        @GraphKey
+        static final String KEY_COUNT = "count";
+
+        @GraphNode(id = "step", isStart = true)
+        final NodeAction step = BoundedAppendBenchmarkTest::step;
+
+        @ConditionalEdge(source = "step", routes = {"step", StateGraph.END})
+        final EdgeAction loop = BoundedAppendBenchmarkTest::loop;
+
+        @GraphCompileConfig
+        final CompileConfig config = CompileConfig.builder().recursionLimit(STEPS * 2 + 10).build();
+
+    }
+
+    @GraphComposer(id = "boundedHistory")
+    static class BoundedComposer {
+
+        @GraphKey(strategy = AppendStrategy.class, maxEntries = MAX_ENTRIES)
+        static final String KEY_HISTORY = "history";
+
+        @GraphKey
+        static final String KEY_COUNT = "count";
+
+        @GraphNode(id = "step", isStart = true)
+        final NodeAction step = BoundedAppendBenchmarkTest::step;
+
+        @ConditionalEdge(source = "step", routes = {"step", StateGraph.END})
+        final EdgeAction loop = BoundedAppendBenchmarkTest::loop;
+
+        @GraphCompileConfig
+        final CompileConfig config = CompileConfig.builder().recursionLimit(STEPS * 2 + 10).build();
+
+    }
+
+}
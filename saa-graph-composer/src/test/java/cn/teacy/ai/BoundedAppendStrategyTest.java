@@ -0,0 +1,133 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.ConditionalEdge;
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.exception.GraphDefinitionException;
+import cn.teacy.ai.interfaces.AppendOverflowHook;
+import cn.teacy.ai.strategy.BoundedAppendStrategy;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.EdgeAction;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BoundedAppendStrategyTest {
+
+    @Test
+    @DisplayName("Should keep the newest entries of a bounded append key over a loop")
+    void shouldKeepNewestEntries() {
+        CompiledGraph graph = new ReflectiveGraphCompiler().compile(new LoopComposer());
+
+        OverAllState state = graph.invoke(Map.of()).orElseThrow();
+
+        assertThat(state.value(LoopComposer.KEY_COUNT)).contains(10);
+        assertThat(state.value(LoopComposer.KEY_HISTORY)).contains(List.of("step 8", "step 9", "step 10"));
+    }
+
+    @Test
+    @DisplayName("Should share one strategy instance between keys with the same bounds")
+    void shouldCacheBoundedStrategies() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+
+        KeyStrategy first = compiler.compile(new LoopComposer()).getKeyStrategyMap().get(LoopComposer.KEY_HISTORY);
+        KeyStrategy second = compiler.compile(new LoopComposer()).getKeyStrategyMap().get(LoopComposer.KEY_HISTORY);
+
+        assertThat(first).isInstanceOf(BoundedAppendStrategy.class).isSameAs(second);
+        assertThat(((BoundedAppendStrategy) first).getMaxEntries()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should replace the oldest entries with the summary of the overflow hook")
+    void shouldSummarizeOldestEntries() {
+        BoundedAppendStrategy strategy = new BoundedAppendStrategy(4, GraphKey.Overflow.SUMMARIZE_HOOK, new CountingSummarizer());
+
+        Object history = null;
+        for (int i = 1; i <= 5; i++) {
+            history = strategy.apply(history, "m" + i);
+        }
+        assertThat(history).isEqualTo(List.of("summary of 3", "m4", "m5"));
+
+        // earlier summaries are passed to the hook again with the next overflow
+        history = strategy.apply(history, List.of("m6", "m7"));
+        assertThat(history).isEqualTo(List.of("summary of 3", "m6", "m7"));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid bounds")
+    void shouldRejectInvalidBounds() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+
+        assertThatThrownBy(() -> compiler.compile(new ReplaceWithBoundComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("Invalid @GraphKey on field 'KEY_VALUE'")
+                .hasMessageContaining("maxEntries requires AppendStrategy");
+        assertThatThrownBy(() -> compiler.compile(new MissingHookComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("SUMMARIZE_HOOK requires an overflow hook");
+    }
+
+    public static class CountingSummarizer implements AppendOverflowHook {
+
+        @Override
+        public List<?> summarize(List<Object> evicted) {
+            return List.of("summary of " + evicted.size());
+        }
+
+    }
+
+    @GraphComposer(id = "boundedLoop")
+    static class LoopComposer {
+
+        @GraphKey(strategy = AppendStrategy.class, maxEntries = 3)
+        static final String KEY_HISTORY = "history";
+
+        @GraphKey
+        static final String KEY_COUNT = "count";
+
+        @GraphNode(id = "step", isStart = true)
+        final NodeAction step = state -> {
+            int count = state.value(KEY_COUNT, 0) + 1;
+            return Map.of(KEY_COUNT, count, KEY_HISTORY, "step " + count);
+        };
+
+        @ConditionalEdge(source = "step", routes = {"step", StateGraph.END})
+        final EdgeAction loop = state -> state.value(KEY_COUNT, 0) < 10 ? "step" : StateGraph.END;
+
+    }
+
+    @GraphComposer(id = "replaceWithBound")
+    static class ReplaceWithBoundComposer {
+
+        @GraphKey(maxEntries = 3)
+        static final String KEY_VALUE = "value";
+
+        @GraphNode(isStart = true, next = StateGraph.END)
+        final NodeAction node = state -> Map.of();
+
+    }
+
+    @GraphComposer(id = "missingHook")
+    static class MissingHookComposer {
+
+        @GraphKey(strategy = AppendStrategy.class, maxEntries = 3, overflow = GraphKey.Overflow.SUMMARIZE_HOOK)
+        static final String KEY_HISTORY = "history";
+
+        @GraphNode(isStart = true, next = StateGraph.END)
+        final NodeAction node = state -> Map.of();
+
+    }
+
+}
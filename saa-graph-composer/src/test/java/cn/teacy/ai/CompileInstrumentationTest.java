@@ -0,0 +1,149 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.exception.GraphDefinitionException;
+import cn.teacy.ai.interfaces.GraphCompileListener;
+import cn.teacy.ai.interfaces.GraphCompileListener.Phase;
+import cn.teacy.ai.tests.instrumented.InstrumentedGraphComposer;
+import cn.teacy.ai.tests.instrumented.InstrumentedTestGraphConfig;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.metrics.StartupStep;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CompileInstrumentationTest {
+
+    record RecordedPhase(String graphId, Phase phase, boolean failed) {}
+
+    static class RecordingListener implements GraphCompileListener {
+
+        final List<RecordedPhase> phases = new CopyOnWriteArrayList<>();
+
+        @Override
+        public PhaseScope onPhaseStart(String graphId, Class<?> composerType, Phase phase) {
+            return failure -> phases.add(new RecordedPhase(graphId, phase, failure != null));
+        }
+
+    }
+
+    @Configuration
+    static class ListenerConfiguration {
+
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+
+    }
+
+    @Test
+    @DisplayName("Should report every compile phase to the listeners")
+    void shouldReportPhases() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        RecordingListener listener = new RecordingListener();
+        compiler.addCompileListener(listener);
+
+        compiler.compile(new InstrumentedGraphComposer());
+
+        assertThat(listener.phases).containsExactly(
+                new RecordedPhase("instrumented", Phase.COLLECT_DEFINITION, false),
+                new RecordedPhase("instrumented", Phase.AFTER_KEY_REGISTRATION, false),
+                new RecordedPhase("instrumented", Phase.REPLAY_OPERATIONS, false),
+                new RecordedPhase("instrumented", Phase.BEFORE_COMPILE, false),
+                new RecordedPhase("instrumented", Phase.COMPILE, false));
+    }
+
+    @Test
+    @DisplayName("Should report the phase that failed")
+    void shouldReportFailedPhase() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        RecordingListener listener = new RecordingListener();
+        compiler.addCompileListener(listener);
+
+        assertThatThrownBy(() -> compiler.compile(new DanglingEdgeComposer()))
+                .isInstanceOf(GraphDefinitionException.class);
+
+        assertThat(listener.phases).last().isEqualTo(new RecordedPhase("dangling", Phase.COMPILE, true));
+    }
+
+    @Test
+    @DisplayName("Should report scanning and compile phases as startup steps")
+    void shouldRecordStartupSteps() {
+        BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(1000);
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.setApplicationStartup(applicationStartup);
+            context.register(InstrumentedTestGraphConfig.class, ListenerConfiguration.class);
+            context.refresh();
+
+            assertThat(context.getBean(RecordingListener.class).phases)
+                    .extracting(RecordedPhase::phase)
+                    .contains(Phase.COLLECT_DEFINITION, Phase.COMPILE);
+        }
+
+        List<StartupStep> steps = applicationStartup.getBufferedTimeline().getEvents().stream()
+                .map(StartupTimeline.TimelineEvent::getStartupStep)
+                .toList();
+
+        assertThat(steps).anySatisfy(step -> {
+            assertThat(step.getName()).isEqualTo("graph-composer.scan");
+            assertThat(step.getTags()).anySatisfy(tag -> assertThat(tag.getValue()).isEqualTo("cn.teacy.ai.tests.instrumented"));
+        });
+        assertThat(steps).anySatisfy(step -> {
+            assertThat(step.getName()).isEqualTo("graph-composer.compile.compile");
+            assertThat(step.getTags()).anySatisfy(tag -> assertThat(tag.getValue()).isEqualTo("instrumented"));
+        });
+    }
+
+    @Test
+    @DisplayName("Should emit JFR events for compile phases")
+    void shouldEmitJfrEvents(@TempDir Path tempDir) throws Exception {
+        Path dump = tempDir.resolve("compile.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("cn.teacy.ai.GraphCompilePhase").withThreshold(Duration.ZERO);
+            recording.start();
+
+            new ReflectiveGraphCompiler().compile(new InstrumentedGraphComposer());
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+
+        assertThat(events)
+                .filteredOn(event -> "instrumented".equals(event.getString("graphId")))
+                .extracting(event -> event.getString("phase"))
+                .containsExactly("collect-definition", "after-key-registration", "replay-operations", "before-compile", "compile");
+    }
+
+    @GraphComposer(id = "dangling")
+    static class DanglingEdgeComposer {
+
+        @GraphNode(isStart = true, next = "missing")
+        final NodeAction start = state -> Map.of();
+
+    }
+
+}
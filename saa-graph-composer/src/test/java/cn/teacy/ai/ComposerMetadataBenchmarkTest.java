@@ -0,0 +1,261 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Compares the time and the allocations of compiling a composer of 60 nodes repeatedly, with the
+ * composer metadata cached per class and derived from the fields on every compile.
+ * <p>
+ * A compiler overriding a field based hook opts out of the cache, which makes the uncached
+ * baseline. Skipped by default, run it with
+ * {@code mvn test -Dtest=ComposerMetadataBenchmarkTest -Dgraph.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "graph.benchmark", matches = "true")
+public class ComposerMetadataBenchmarkTest {
+
+    private static final int COMPILES = Integer.getInteger("graph.benchmark.compiles", 2_000);
+
+    @Test
+    @DisplayName("Time and allocations of compiling a large composer repeatedly")
+    void compareMetadataCache() {
+        for (int round = 0; round < 2; round++) {
+            // the first round warms up the JIT
+            boolean print = round == 1;
+            report("fields", new UncachedCompiler(), print);
+            report("cached metadata", new ReflectiveGraphCompiler(), print);
+        }
+    }
+
+    private static void report(String mode, ReflectiveGraphCompiler compiler, boolean print) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < COMPILES; i++) {
+            compiler.compile(new LargeComposer());
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        if (print) {
+            System.out.printf("%s: %d compiles in %d ms, %d us and %d KB allocated per compile%n",
+                    mode, COMPILES, elapsed.toMillis(), elapsed.toNanos() / 1_000 / COMPILES, allocated / 1024 / COMPILES);
+        }
+    }
+
+    /**
+     * Overrides a field based hook, so that every compile reads the fields and their annotations.
+     */
+    static class UncachedCompiler extends ReflectiveGraphCompiler {
+
+        @Override
+        protected void handleOtherField(CompileContext context, Field field) {
+            super.handleOtherField(context, field);
+        }
+
+    }
+
+    @GraphComposer(id = "metadataBenchmark")
+    static class LargeComposer {
+
+        @GraphKey(strategy = AppendStrategy.class)
+        static final String KEY_STEP = "step";
+
+        @GraphNode(id = "n0", isStart = true, next = "n1")
+        final NodeAction n0 = state -> Map.of(KEY_STEP, 0);
+
+        @GraphNode(id = "n1", next = "n2")
+        final NodeAction n1 = state -> Map.of(KEY_STEP, 1);
+
+        @GraphNode(id = "n2", next = "n3")
+        final NodeAction n2 = state -> Map.of(KEY_STEP, 2);
+
+        @GraphNode(id = "n3", next = "n4")
+        final NodeAction n3 = state -> Map.of(KEY_STEP, 3);
+
+        @GraphNode(id = "n4", next = "n5")
+        final NodeAction n4 = state -> Map.of(KEY_STEP, 4);
+
+        @GraphNode(id = "n5", next = "n6")
+        final NodeAction n5 = state -> Map.of(KEY_STEP, 5);
+
+        @GraphNode(id = "n6", next = "n7")
+        final NodeAction n6 = state -> Map.of(KEY_STEP, 6);
+
+        @GraphNode(id = "n7", next = "n8")
+        final NodeAction n7 = state -> Map.of(KEY_STEP, 7);
+
+        @GraphNode(id = "n8", next = "n9")
+        final NodeAction n8 = state -> Map.of(KEY_STEP, 8);
+
+        @GraphNode(id = "n9", next = "n10")
+        final NodeAction n9 = state -> Map.of(KEY_STEP, 9);
+
+        @GraphNode(id = "n10", next = "n11")
+        final NodeAction n10 = state -> Map.of(KEY_STEP, 10);
+
+        @GraphNode(id = "n11", next = "n12")
+        final NodeAction n11 = state -> Map.of(KEY_STEP, 11);
+
+        @GraphNode(id = "n12", next = "n13")
+        final NodeAction n12 = state -> Map.of(KEY_STEP, 12);
+
+        @GraphNode(id = "n13", next = "n14")
+        final NodeAction n13 = state -> Map.of(KEY_STEP, 13);
+
+        @GraphNode(id = "n14", next = "n15")
+        final NodeAction n14 = state -> Map.of(KEY_STEP, 14);
+
+        @GraphNode(id = "n15", next = "n16")
+        final NodeAction n15 = state -> Map.of(KEY_STEP, 15);
+
+        @GraphNode(id = "n16", next = "n17")
+        final NodeAction n16 = state -> Map.of(KEY_STEP, 16);
+
+        @GraphNode(id = "n17", next = "n18")
+        final NodeAction n17 = state -> Map.of(KEY_STEP, 17);
+
+        @GraphNode(id = "n18", next = "n19")
+        final NodeAction n18 = state -> Map.of(KEY_STEP, 18);
+
+        @GraphNode(id = "n19", next = "n20")
+        final NodeAction n19 = state -> Map.of(KEY_STEP, 19);
+
+        @GraphNode(id = "n20", next = "n21")
+        final NodeAction n20 = state -> Map.of(KEY_STEP, 20);
+
+        @GraphNode(id = "n21", next = "n22")
+        final NodeAction n21 = state -> Map.of(KEY_STEP, 21);
+
+        @GraphNode(id = "n22", next = "n23")
+        final NodeAction n22 = state -> Map.of(KEY_STEP, 22);
+
+        @GraphNode(id = "n23", next = "n24")
+        final NodeAction n23 = state -> Map.of(KEY_STEP, 23);
+
+        @GraphNode(id = "n24", next = "n25")
+        final NodeAction n24 = state -> Map.of(KEY_STEP, 24);
+
+        @GraphNode(id = "n25", next = "n26")
+        final NodeAction n25 = state -> Map.of(KEY_STEP, 25);
+
+        @GraphNode(id = "n26", next = "n27")
+        final NodeAction n26 = state -> Map.of(KEY_STEP, 26);
+
+        @GraphNode(id = "n27", next = "n28")
+        final NodeAction n27 = state -> Map.of(KEY_STEP, 27);
+
+        @GraphNode(id = "n28", next = "n29")
+        final NodeAction n28 = state -> Map.of(KEY_STEP, 28);
+
+        @GraphNode(id = "n29", next = "n30")
+        final NodeAction n29 = state -> Map.of(KEY_STEP, 29);
+
+        @GraphNode(id = "n30", next = "n31")
+        final NodeAction n30 = state -> Map.of(KEY_STEP, 30);
+
+        @GraphNode(id = "n31", next = "n32")
+        final NodeAction n31 = state -> Map.of(KEY_STEP, 31);
+
+        @GraphNode(id = "n32", next = "n33")
+        final NodeAction n32 = state -> Map.of(KEY_STEP, 32);
+
+        @GraphNode(id = "n33", next = "n34")
+        final NodeAction n33 = state -> Map.of(KEY_STEP, 33);
+
+        @GraphNode(id = "n34", next = "n35")
+        final NodeAction n34 = state -> Map.of(KEY_STEP, 34);
+
+        @GraphNode(id = "n35", next = "n36")
+        final NodeAction n35 = state -> Map.of(KEY_STEP, 35);
+
+        @GraphNode(id = "n36", next = "n37")
+        final NodeAction n36 = state -> Map.of(KEY_STEP, 36);
+
+        @GraphNode(id = "n37", next = "n38")
+        final NodeAction n37 = state -> Map.of(KEY_STEP, 37);
+
+        @GraphNode(id = "n38", next = "n39")
+        final NodeAction n38 = state -> Map.of(KEY_STEP, 38);
+
+        @GraphNode(id = "n39", next = "n40")
+        final NodeAction n39 = state -> Map.of(KEY_STEP, 39);
+
+        @GraphNode(id = "n40", next = "n41")
+        final NodeAction n40 = state -> Map.of(KEY_STEP, 40);
+
+        @GraphNode(id = "n41", next = "n42")
+        final NodeAction n41 = state -> Map.of(KEY_STEP, 41);
+
+        @GraphNode(id = "n42", next = "n43")
+        final NodeAction n42 = state -> Map.of(KEY_STEP, 42);
+
+        @GraphNode(id = "n43", next = "n44")
+        final NodeAction n43 = state -> Map.of(KEY_STEP, 43);
+
+        @GraphNode(id = "n44", next = "n45")
+        final NodeAction n44 = state -> Map.of(KEY_STEP, 44);
+
+        @GraphNode(id = "n45", next = "n46")
+        final NodeAction n45 = state -> Map.of(KEY_STEP, 45);
+
+        @GraphNode(id = "n46", next = "n47")
+        final NodeAction n46 = state -> Map.of(KEY_STEP, 46);
+
+        @GraphNode(id = "n47", next = "n48")
+        final NodeAction n47 = state -> Map.of(KEY_STEP, 47);
+
+        @GraphNode(id = "n48", next = "n49")
+        final NodeAction n48 = state -> Map.of(KEY_STEP, 48);
+
+        @GraphNode(id = "n49", next = "n50")
+        final NodeAction n49 = state -> Map.of(KEY_STEP, 49);
+
+        @GraphNode(id = "n50", next = "n51")
+        final NodeAction n50 = state -> Map.of(KEY_STEP, 50);
+
+        @GraphNode(id = "n51", next = "n52")
+        final NodeAction n51 = state -> Map.of(KEY_STEP, 51);
+
+        @GraphNode(id = "n52", next = "n53")
+        final NodeAction n52 = state -> Map.of(KEY_STEP, 52);
+
+        @GraphNode(id = "n53", next = "n54")
+        final NodeAction n53 = state -> Map.of(KEY_STEP, 53);
+
+        @GraphNode(id = "n54", next = "n55")
+        final NodeAction n54 = state -> Map.of(KEY_STEP, 54);
+
+        @GraphNode(id = "n55", next = "n56")
+        final NodeAction n55 = state -> Map.of(KEY_STEP, 55);
+
+        @GraphNode(id = "n56", next = "n57")
+        final NodeAction n56 = state -> Map.of(KEY_STEP, 56);
+
+        @GraphNode(id = "n57", next = "n58")
+        final NodeAction n57 = state -> Map.of(KEY_STEP, 57);
+
+        @GraphNode(id = "n58", next = "n59")
+        final NodeAction n58 = state -> Map.of(KEY_STEP, 58);
+
+        @GraphNode(id = "n59", next = StateGraph.END)
+        final NodeAction n59 = state -> Map.of(KEY_STEP, 59);
+
+    }
+
+}
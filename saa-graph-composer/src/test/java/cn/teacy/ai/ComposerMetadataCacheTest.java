@@ -0,0 +1,149 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.ConditionalEdge;
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.annotation.Hedge;
+import cn.teacy.ai.annotation.NodeConcurrency;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.metadata.ComposerMetadata;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.AsyncNodeAction;
+import com.alibaba.cloud.ai.graph.action.EdgeAction;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ComposerMetadataCacheTest {
+
+    static class ExposingCompiler extends ReflectiveGraphCompiler {
+
+        ComposerMetadata metadataOf(Class<?> composerClass) {
+            return resolveComposerMetadata(composerClass);
+        }
+
+    }
+
+    static class HookCountingCompiler extends ExposingCompiler {
+
+        final AtomicInteger nodeHookCalls = new AtomicInteger();
+
+        @Override
+        protected void handleGraphNode(CompileContext context, Field field, GraphNode annotation) {
+            nodeHookCalls.incrementAndGet();
+            super.handleGraphNode(context, field, annotation);
+        }
+
+    }
+
+    @Test
+    @DisplayName("Should derive the composer metadata once per class")
+    void shouldCacheMetadataPerClass() {
+        ExposingCompiler compiler = new ExposingCompiler();
+
+        ComposerMetadata metadata = compiler.metadataOf(RoutingComposer.class);
+
+        assertThat(new ExposingCompiler().metadataOf(RoutingComposer.class)).isSameAs(metadata);
+        assertThat(metadata.keys()).extracting(ComposerMetadata.KeyMetadata::key).containsExactly("result");
+        assertThat(metadata.nodes()).extracting(ComposerMetadata.NodeMetadata::nodeId).containsExactly("left", "right");
+        assertThat(metadata.edges().get(0).routes()).containsEntry("l", "left").containsEntry("right", "right");
+    }
+
+    @Test
+    @DisplayName("Should read the timeout and the policies of nodes into the metadata")
+    void shouldReadNodePolicies() {
+        ComposerMetadata metadata = new ExposingCompiler().metadataOf(PolicyComposer.class);
+
+        ComposerMetadata.NodePolicies policies = metadata.nodes().get(0).policies();
+        assertThat(policies.timeout()).isEqualTo("1s");
+        assertThat(policies.timeoutErrorKey()).isNull();
+        assertThat(policies.concurrency()).isEqualTo(new ComposerMetadata.NodePolicies.ConcurrencyPolicy(1, 2, "5s"));
+        assertThat(policies.hedge()).isEqualTo(new ComposerMetadata.NodePolicies.HedgePolicy("", 0.9, 2));
+        assertThat(policies.cache()).isNull();
+        assertThat(metadata.nodes().get(1).policies()).isEqualTo(ComposerMetadata.NodePolicies.NONE);
+    }
+
+    @Test
+    @DisplayName("Should derive the composer metadata again once it is invalidated")
+    void shouldInvalidateMetadata() {
+        ExposingCompiler compiler = new ExposingCompiler();
+
+        ComposerMetadata metadata = compiler.metadataOf(RoutingComposer.class);
+        ReflectiveGraphCompiler.invalidateMetadata(RoutingComposer.class);
+
+        ComposerMetadata derived = compiler.metadataOf(RoutingComposer.class);
+        assertThat(derived).isNotSameAs(metadata);
+        assertThat(derived.nodes()).extracting(ComposerMetadata.NodeMetadata::nodeId).containsExactly("left", "right");
+        assertThat(compiler.metadataOf(RoutingComposer.class)).isSameAs(derived);
+    }
+
+    @Test
+    @DisplayName("Should read field values from each composer instance")
+    void shouldReadFieldValuesPerInstance() {
+        ExposingCompiler compiler = new ExposingCompiler();
+
+        RoutingComposer first = new RoutingComposer("first");
+        RoutingComposer second = new RoutingComposer("second");
+
+        OverAllState firstState = compiler.compile(first).invoke(Map.of()).orElseThrow();
+        OverAllState secondState = compiler.compile(second).invoke(Map.of()).orElseThrow();
+
+        assertThat(firstState.value(RoutingComposer.KEY_RESULT)).contains("first");
+        assertThat(secondState.value(RoutingComposer.KEY_RESULT)).contains("second");
+    }
+
+    @Test
+    @DisplayName("Should keep calling the field hooks when a compiler overrides them")
+    void shouldUseFieldHooksWhenOverridden() {
+        HookCountingCompiler compiler = new HookCountingCompiler();
+
+        assertThat(compiler.metadataOf(RoutingComposer.class)).isNull();
+
+        compiler.compile(new RoutingComposer("hooked"));
+        assertThat(compiler.nodeHookCalls).hasValue(2);
+    }
+
+    @GraphComposer
+    static class PolicyComposer {
+
+        @NodeConcurrency(maxConcurrent = 1, maxQueued = 2, queueTimeout = "5s")
+        @Hedge(percentile = 0.9)
+        @GraphNode(isStart = true, next = "plain", timeout = "1s")
+        final AsyncNodeAction guarded = state -> CompletableFuture.completedFuture(Map.of());
+
+        @GraphNode(next = StateGraph.END)
+        final NodeAction plain = state -> Map.of();
+
+    }
+
+    @GraphComposer
+    static class RoutingComposer {
+
+        @GraphKey
+        static final String KEY_RESULT = "result";
+
+        @ConditionalEdge(source = StateGraph.START, routes = "right", mappings = {"l", "left"})
+        final EdgeAction route = state -> "l";
+
+        @GraphNode(next = StateGraph.END)
+        final NodeAction left;
+
+        @GraphNode(next = StateGraph.END)
+        final NodeAction right = state -> Map.of(KEY_RESULT, "right");
+
+        RoutingComposer(String result) {
+            this.left = state -> Map.of(KEY_RESULT, result);
+        }
+
+    }
+
+}
@@ -0,0 +1,100 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the throughput of concurrent graph runs whose blocking nodes run on platform threads
+ * with runs whose nodes run on virtual threads.
+ * <p>
+ * Skipped by default, run it with {@code mvn test -Dtest=ExecutionModeBenchmarkTest -Dgraph.benchmark=true}.
+ * The virtual thread part needs JDK 21 or later.
+ */
+@EnabledIfSystemProperty(named = "graph.benchmark", matches = "true")
+public class ExecutionModeBenchmarkTest {
+
+    private static final int RUNS = Integer.getInteger("graph.benchmark.runs", 10_000);
+
+    private static final int PLATFORM_THREADS = Integer.getInteger("graph.benchmark.platform-threads", 200);
+
+    private static final long NODE_LATENCY_MILLIS = Long.getLong("graph.benchmark.node-latency", 50);
+
+    @Test
+    @DisplayName("Throughput of concurrent graph runs on platform and virtual threads")
+    void compareExecutionModes() {
+        ExecutorService platform = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        try {
+            report("platform(" + PLATFORM_THREADS + ")", platform);
+        } finally {
+            platform.shutdownNow();
+        }
+
+        if (Runtime.version().feature() >= 21) {
+            report("virtual", new VirtualThreadTaskExecutor("graph-node-"));
+        } else {
+            System.out.printf("virtual: skipped, requires JDK 21+ (running on %s)%n", Runtime.version());
+        }
+    }
+
+    private void report(String mode, Executor executor) {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.setDefaultExecutor(executor);
+        CompiledGraph graph = compiler.compile(new BlockingComposer());
+
+        // warm up the graph runtime before measuring
+        run(graph, Math.min(RUNS, 500));
+
+        long start = System.nanoTime();
+        long completed = run(graph, RUNS);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(completed).isEqualTo(RUNS);
+        System.out.printf("%s: %d runs in %d ms, %.0f runs/s%n",
+                mode, RUNS, elapsed.toMillis(), RUNS * 1000.0 / Math.max(1, elapsed.toMillis()));
+    }
+
+    private long run(CompiledGraph graph, int runs) {
+        Long completed = Flux.range(0, runs)
+                .flatMap(i -> graph.stream(Map.of(BlockingComposer.KEY_INPUT, i)).last(), runs)
+                .count()
+                .block();
+        return completed == null ? 0 : completed;
+    }
+
+    @GraphComposer(id = "blocking")
+    static class BlockingComposer {
+
+        @GraphKey
+        static final String KEY_INPUT = "input";
+
+        @GraphKey
+        static final String KEY_OUTPUT = "output";
+
+        @GraphNode(isStart = true, next = StateGraph.END)
+        final NodeAction remoteCall = state -> {
+            // stands in for a blocking call to a remote model
+            Thread.sleep(NODE_LATENCY_MILLIS);
+            return Map.of(KEY_OUTPUT, state.value(KEY_INPUT).orElseThrow());
+        };
+
+    }
+
+}
@@ -0,0 +1,114 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.core.GeneratedGraphCompiler;
+import cn.teacy.ai.interfaces.GeneratedGraphDefinition;
+import cn.teacy.ai.metadata.ComposerMetadata;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeneratedGraphCompilerTest {
+
+    private DefaultListableBeanFactory beanFactory;
+    private GeneratedGraphCompiler compiler;
+
+    @BeforeEach
+    void setUp() {
+        beanFactory = new DefaultListableBeanFactory();
+        compiler = new GeneratedGraphCompiler(beanFactory);
+    }
+
+    @Test
+    @DisplayName("Should compile from the generated definition when present")
+    void shouldUseGeneratedDefinition() {
+        int before = GeneratedGraphCompilerTest_IndexedComposerGraphDefinition.ACCESSES.get();
+
+        CompiledGraph graph = compiler.compile(new IndexedComposer());
+
+        assertThat(GeneratedGraphCompilerTest_IndexedComposerGraphDefinition.ACCESSES.get()).isEqualTo(before + 1);
+
+        OverAllState state = graph.invoke(Map.of()).orElseThrow();
+        assertThat(state.value(IndexedComposer.KEY_RESULT).orElseThrow()).isEqualTo("indexed");
+    }
+
+    @Test
+    @DisplayName("Should resolve null fields from the bean factory on the generated path")
+    void shouldResolveMissingFieldOnGeneratedPath() {
+        NodeAction fromContext = state -> Map.of(IndexedComposer.KEY_RESULT, "from context");
+        beanFactory.registerSingleton("node", fromContext);
+
+        IndexedComposer composer = new IndexedComposer();
+        composer.node = null;
+
+        OverAllState state = compiler.compile(composer).invoke(Map.of()).orElseThrow();
+        assertThat(state.value(IndexedComposer.KEY_RESULT).orElseThrow()).isEqualTo("from context");
+    }
+
+    @Test
+    @DisplayName("Should fall back to reflection when no generated definition exists")
+    void shouldFallBackToReflection() {
+        OverAllState state = compiler.compile(new PlainComposer()).invoke(Map.of()).orElseThrow();
+        assertThat(state.value(PlainComposer.KEY_RESULT).orElseThrow()).isEqualTo("reflected");
+    }
+
+    @GraphComposer
+    static class IndexedComposer {
+
+        @GraphKey
+        static final String KEY_RESULT = "result";
+
+        @GraphNode(isStart = true, next = StateGraph.END)
+        NodeAction node = state -> Map.of(KEY_RESULT, "indexed");
+
+    }
+
+    @GraphComposer
+    static class PlainComposer {
+
+        @GraphKey
+        static final String KEY_RESULT = "result";
+
+        @GraphNode(isStart = true, next = StateGraph.END)
+        final NodeAction node = state -> Map.of(KEY_RESULT, "reflected");
+
+    }
+
+}
+
+/**
+ * Mirrors what the annotation processor generates for {@link GeneratedGraphCompilerTest.IndexedComposer}.
+ */
+final class GeneratedGraphCompilerTest_IndexedComposerGraphDefinition implements GeneratedGraphDefinition {
+
+    static final AtomicInteger ACCESSES = new AtomicInteger();
+
+    @Override
+    public ComposerMetadata metadata() {
+        return new ComposerMetadata(
+                GeneratedGraphCompilerTest.IndexedComposer.class,
+                List.of(new ComposerMetadata.KeyMetadata("KEY_RESULT", "result", ReplaceStrategy.class)),
+                List.of(new ComposerMetadata.NodeMetadata("node", "node", List.of(StateGraph.END), true, composer -> {
+                    ACCESSES.incrementAndGet();
+                    return ((GeneratedGraphCompilerTest.IndexedComposer) composer).node;
+                })),
+                List.of(),
+                null
+        );
+    }
+
+}
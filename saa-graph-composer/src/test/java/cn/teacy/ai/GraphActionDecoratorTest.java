@@ -0,0 +1,144 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.ConditionalEdge;
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.interfaces.GraphActionDecorator;
+import cn.teacy.ai.metadata.EdgeDescriptor;
+import cn.teacy.ai.metadata.NodeDescriptor;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.AsyncCommandAction;
+import com.alibaba.cloud.ai.graph.action.AsyncNodeActionWithConfig;
+import com.alibaba.cloud.ai.graph.action.Command;
+import com.alibaba.cloud.ai.graph.action.EdgeAction;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import org.junit.jupiter.api.DisplayName;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GraphActionDecoratorTest {
+
+    static class RecordingDecorator implements GraphActionDecorator {
+
+        final List<NodeDescriptor> nodes = new CopyOnWriteArrayList<>();
+
+        final List<EdgeDescriptor> edges = new CopyOnWriteArrayList<>();
+
+        @Override
+        public AsyncNodeActionWithConfig decorateNode(NodeDescriptor node, AsyncNodeActionWithConfig action) {
+            nodes.add(node);
+            return (state, config) -> action.apply(state, config).thenApply(update -> {
+                Map<String, Object> decorated = new HashMap<>(update);
+                decorated.put(DecoratedComposer.KEY_TRACE, node.nodeId());
+                return decorated;
+            });
+        }
+
+        @Override
+        public AsyncCommandAction decorateEdge(EdgeDescriptor edge, AsyncCommandAction action) {
+            edges.add(edge);
+            // always take the "right" route
+            return (state, config) -> action.apply(state, config).thenApply(command -> new Command("r", command.update()));
+        }
+
+    }
+
+    @Test
+    @DisplayName("Should apply decorators to node and conditional edge actions")
+    void shouldDecorateActions() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        RecordingDecorator decorator = new RecordingDecorator();
+        compiler.addActionDecorator(decorator);
+
+        OverAllState state = compiler.compile(new DecoratedComposer()).invoke(Map.of()).orElseThrow();
+
+        assertThat(state.value(DecoratedComposer.KEY_TRACE)).contains("right");
+
+        assertThat(decorator.nodes)
+                .extracting(NodeDescriptor::nodeId)
+                .containsExactlyInAnyOrder("start", "left", "right");
+        assertThat(decorator.nodes)
+                .allSatisfy(node -> {
+                    assertThat(node.graphId()).isEqualTo("decorated");
+                    assertThat(node.findAnnotation(GraphNode.class)).isNotNull();
+                });
+
+        assertThat(decorator.edges).singleElement().satisfies(edge -> {
+            assertThat(edge.sourceNodeId()).isEqualTo("start");
+            assertThat(edge.routes()).containsEntry("l", "left").containsEntry("r", "right");
+            assertThat(edge.field()).isNotNull();
+        });
+    }
+
+    @Test
+    @DisplayName("Should emit JFR events for node executions and route decisions")
+    void shouldEmitJfrEvents(@TempDir Path tempDir) throws Exception {
+        Path dump = tempDir.resolve("execution.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("cn.teacy.ai.GraphNodeExecution").withThreshold(Duration.ZERO);
+            recording.enable("cn.teacy.ai.GraphRouteDecision").withThreshold(Duration.ZERO);
+            recording.start();
+
+            new ReflectiveGraphCompiler().compile(new DecoratedComposer()).invoke(Map.of());
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+
+        assertThat(events)
+                .filteredOn(event -> event.getEventType().getName().equals("cn.teacy.ai.GraphNodeExecution"))
+                .filteredOn(event -> "decorated".equals(event.getString("graphId")))
+                .extracting(event -> event.getString("nodeId"))
+                .containsExactly("start", "left");
+        assertThat(events)
+                .filteredOn(event -> event.getEventType().getName().equals("cn.teacy.ai.GraphRouteDecision"))
+                .filteredOn(event -> "decorated".equals(event.getString("graphId")))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getString("sourceNodeId")).isEqualTo("start");
+                    assertThat(event.getString("route")).isEqualTo("l");
+                    assertThat(event.getString("targetNodeId")).isEqualTo("left");
+                    assertThat(event.getString("outcome")).isEqualTo("success");
+                    assertThat(event.getThread("invokingThread")).isNotNull();
+                });
+    }
+
+    @GraphComposer(id = "decorated")
+    static class DecoratedComposer {
+
+        @GraphKey
+        static final String KEY_TRACE = "trace";
+
+        @GraphNode(isStart = true)
+        final NodeAction start = state -> Map.of();
+
+        @ConditionalEdge(source = "start", mappings = {"l", "left", "r", "right"})
+        final EdgeAction route = state -> "l";
+
+        @GraphNode(next = StateGraph.END)
+        final NodeAction left = state -> Map.of();
+
+        @GraphNode(next = StateGraph.END)
+        final NodeAction right = state -> Map.of();
+
+    }
+
+}
@@ -0,0 +1,97 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.constants.ComposerConfigConstants;
+import cn.teacy.ai.tests.indexed.IndexedTestGraphConfig;
+import cn.teacy.ai.tests.indexed.IndexedWorkflow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+public class GraphComposerIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(IndexedTestGraphConfig.class);
+
+    @Test
+    @DisplayName("Should register only the composers listed in the index without scanning")
+    void shouldUseIndexInsteadOfScanning() throws IOException {
+        runner.withClassLoader(indexLoader(IndexedWorkflow.class.getName()))
+                .run(context -> {
+                    assertThat(context).hasBean("indexedWorkflowCompiled");
+                    assertThat(context).doesNotHaveBean("unindexedWorkflowCompiled");
+                });
+    }
+
+    @Test
+    @DisplayName("Should fall back to scanning with a warning when the index is stale")
+    void shouldFallBackToScanningWhenIndexIsStale(CapturedOutput output) throws IOException {
+        runner.withClassLoader(indexLoader("cn.teacy.ai.tests.indexed.RemovedWorkflow"))
+                .run(context -> {
+                    assertThat(context).hasBean("indexedWorkflowCompiled");
+                    assertThat(context).hasBean("unindexedWorkflowCompiled");
+                });
+
+        assertThat(output).contains("Graph composer index is stale");
+    }
+
+    @Test
+    @DisplayName("Should scan the packages without indexed composers")
+    void shouldScanPackagesMissingFromIndex() throws IOException {
+        runner.withClassLoader(indexLoader("cn.teacy.ai.tests.elsewhere.ElsewhereWorkflow"))
+                .run(context -> {
+                    assertThat(context).hasBean("indexedWorkflowCompiled");
+                    assertThat(context).hasBean("unindexedWorkflowCompiled");
+                });
+    }
+
+    @Test
+    @DisplayName("Should ignore the index when asked to")
+    void shouldIgnoreIndex() throws IOException {
+        runner.withClassLoader(indexLoader(IndexedWorkflow.class.getName()))
+                .withPropertyValues(ComposerConfigConstants.IGNORE_COMPOSER_INDEX_PROPERTY + "=true")
+                .run(context -> assertThat(context).hasBean("unindexedWorkflowCompiled"));
+    }
+
+    @Test
+    @DisplayName("Should scan when no index is present")
+    void shouldScanWithoutIndex() {
+        runner.run(context -> {
+            assertThat(context).hasBean("indexedWorkflowCompiled");
+            assertThat(context).hasBean("unindexedWorkflowCompiled");
+        });
+    }
+
+    private ClassLoader indexLoader(String... entries) throws IOException {
+        Path index = Files.write(tempDir.resolve("saa-graph-composers.idx"), List.of(entries));
+        URL indexUrl = index.toUri().toURL();
+
+        return new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            public Enumeration<URL> getResources(String name) throws IOException {
+                if (ComposerConfigConstants.COMPOSER_INDEX_LOCATION.equals(name)) {
+                    return Collections.enumeration(List.of(indexUrl));
+                }
+                return super.getResources(name);
+            }
+        };
+    }
+
+}
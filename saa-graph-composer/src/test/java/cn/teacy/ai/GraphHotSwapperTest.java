@@ -0,0 +1,84 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.core.GraphCompiler;
+import cn.teacy.ai.core.SpringReflectiveGraphCompiler;
+import cn.teacy.ai.support.GraphHotSwapper;
+import cn.teacy.ai.tests.hotswap.EmbeddingGraphComposer;
+import cn.teacy.ai.tests.hotswap.HotSwapTestGraphConfig;
+import cn.teacy.ai.tests.hotswap.SwappableGraphComposer;
+import cn.teacy.ai.tests.hotswap.UnrelatedGraphComposer;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GraphHotSwapperTest {
+
+    @Configuration
+    public static class HotSwapConfiguration {
+
+        @Bean
+        public GraphCompiler graphCompiler(ConfigurableListableBeanFactory beanFactory) {
+            return new SpringReflectiveGraphCompiler(beanFactory);
+        }
+
+        @Bean
+        public GraphHotSwapper graphHotSwapper(ConfigurableListableBeanFactory beanFactory) {
+            return new GraphHotSwapper(beanFactory);
+        }
+
+    }
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(HotSwapConfiguration.class, HotSwapTestGraphConfig.class);
+
+    @BeforeEach
+    void setUp() {
+        SwappableGraphComposer.RESULT.set("before");
+    }
+
+    @Test
+    @DisplayName("Should swap the changed graph and the graphs embedding it behind the same beans")
+    void shouldSwapChangedAndEmbeddingGraphs() {
+        runner.run(context -> {
+            CompiledGraph swappable = context.getBean("swappableGraph", CompiledGraph.class);
+            CompiledGraph embedding = context.getBean("embeddingGraph", CompiledGraph.class);
+
+            assertThat(swappable.invoke(Map.of()).orElseThrow().value(SwappableGraphComposer.KEY_RESULT)).contains("before");
+            assertThat(embedding.invoke(Map.of()).orElseThrow().value(EmbeddingGraphComposer.KEY_RESULT)).contains("before");
+
+            Object previousComposer = context.getBean("swappableGraphComposer");
+            SwappableGraphComposer.RESULT.set("after");
+
+            List<String> swapped = context.getBean(GraphHotSwapper.class).refresh(List.of(SwappableGraphComposer.class));
+
+            assertThat(swapped).containsExactly("swappableGraph", "embeddingGraph");
+            assertThat(context.getBean("swappableGraph")).isSameAs(swappable);
+            assertThat(context.getBean("swappableGraphComposer")).isNotSameAs(previousComposer);
+
+            assertThat(swappable.invoke(Map.of()).orElseThrow().value(SwappableGraphComposer.KEY_RESULT)).contains("after");
+            assertThat(embedding.invoke(Map.of()).orElseThrow().value(EmbeddingGraphComposer.KEY_RESULT)).contains("after");
+        });
+    }
+
+    @Test
+    @DisplayName("Should leave graphs of unchanged composers alone")
+    void shouldIgnoreUnrelatedGraphs() {
+        runner.run(context -> {
+            GraphHotSwapper swapper = context.getBean(GraphHotSwapper.class);
+
+            assertThat(swapper.refresh(List.of(UnrelatedGraphComposer.class))).containsExactly("unrelatedGraph");
+            assertThat(swapper.refresh(List.of(String.class))).isEmpty();
+        });
+    }
+
+}
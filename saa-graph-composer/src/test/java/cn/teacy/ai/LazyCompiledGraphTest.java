@@ -0,0 +1,92 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.core.GraphCompiler;
+import cn.teacy.ai.core.SpringReflectiveGraphCompiler;
+import cn.teacy.ai.support.LazyCompiledGraphFactoryBean;
+import cn.teacy.ai.tests.lazy.LazyGraphComposer;
+import cn.teacy.ai.tests.lazy.LazyTestGraphConfig;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LazyCompiledGraphTest {
+
+    @Configuration
+    public static class GraphCompilerConfiguration {
+
+        @Bean
+        public GraphCompiler graphCompiler(ConfigurableListableBeanFactory beanFactory) {
+            return new SpringReflectiveGraphCompiler(beanFactory);
+        }
+
+    }
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(GraphCompilerConfiguration.class, LazyTestGraphConfig.class);
+
+    @BeforeEach
+    void setUp() {
+        LazyGraphComposer.COMPILATIONS.set(0);
+    }
+
+    @Test
+    @DisplayName("Lazy graph should be compiled exactly once, on first use")
+    void shouldCompileLazyGraphOnFirstUse() {
+        runner.run(context -> {
+            CompiledGraph graph = context.getBean("lazyGraph", CompiledGraph.class);
+
+            assertThat(context.getBeanFactory().containsSingleton("lazyGraphComposer")).isFalse();
+            assertThat(LazyGraphComposer.COMPILATIONS).hasValue(0);
+
+            List<CompletableFuture<OverAllState>> invocations = IntStream.range(0, 8)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> graph.invoke(Map.of()).orElseThrow()))
+                    .toList();
+
+            for (CompletableFuture<OverAllState> invocation : invocations) {
+                assertThat(invocation.join().value(LazyGraphComposer.KEY_RESULT)).contains("lazy");
+            }
+
+            assertThat(LazyGraphComposer.COMPILATIONS).hasValue(1);
+            assertThat(context.getBeanFactory().containsSingleton("lazyGraphComposer")).isTrue();
+        });
+    }
+
+    @Test
+    @DisplayName("Lazy graph should be resolved when embedded as a subgraph")
+    void shouldResolveLazySubGraph() {
+        runner.run(context -> {
+            CompiledGraph parent = context.getBean("parentOfLazyGraph", CompiledGraph.class);
+
+            OverAllState state = parent.invoke(Map.of()).orElseThrow();
+            assertThat(state.value(LazyGraphComposer.KEY_RESULT)).contains("lazy");
+
+            CompiledGraph lazyGraph = context.getBean("lazyGraph", CompiledGraph.class);
+            assertThat(LazyCompiledGraphFactoryBean.resolve(lazyGraph)).isNotSameAs(lazyGraph);
+            assertThat(LazyCompiledGraphFactoryBean.resolve(lazyGraph).stateGraph).isNotNull();
+            assertThat(LazyGraphComposer.COMPILATIONS).hasValue(1);
+        });
+    }
+
+    @Test
+    @DisplayName("Composer with autoRegister disabled should not get a CompiledGraph bean")
+    void shouldHonorAutoRegister() {
+        runner.run(context -> {
+            assertThat(context).hasBean("skippedGraphComposer");
+            assertThat(context).doesNotHaveBean("skippedGraph");
+        });
+    }
+
+}
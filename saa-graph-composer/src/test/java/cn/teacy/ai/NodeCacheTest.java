@@ -0,0 +1,211 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.annotation.NodeCache;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.exception.GraphDefinitionException;
+import cn.teacy.ai.interfaces.NodePolicyListener;
+import cn.teacy.ai.metadata.NodeDescriptor;
+import cn.teacy.ai.support.NodeResultCache;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NodeCacheTest {
+
+    @Test
+    @DisplayName("Should return cached outputs for the same key values without invoking the node")
+    void shouldCacheNodeOutputs() {
+        AtomicReference<NodeResultCache> cache = new AtomicReference<>();
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.addPolicyListener(new NodePolicyListener() {
+            @Override
+            public void onCache(NodeDescriptor node, NodeResultCache resultCache) {
+                cache.set(resultCache);
+            }
+        });
+        ClassifyComposer composer = new ClassifyComposer();
+        CompiledGraph graph = compiler.compile(composer);
+
+        assertThat(graph.invoke(Map.of(ClassifyComposer.KEY_TEXT, "hello", ClassifyComposer.KEY_NOISE, 1))
+                .orElseThrow().value(ClassifyComposer.KEY_LABEL)).contains("label-5");
+        assertThat(graph.invoke(Map.of(ClassifyComposer.KEY_TEXT, "hello", ClassifyComposer.KEY_NOISE, 2))
+                .orElseThrow().value(ClassifyComposer.KEY_LABEL)).contains("label-5");
+        assertThat(graph.invoke(Map.of(ClassifyComposer.KEY_TEXT, "hi"))
+                .orElseThrow().value(ClassifyComposer.KEY_LABEL)).contains("label-2");
+
+        assertThat(composer.invocations).hasValue(2);
+        assertThat(cache.get().getHitCount()).isEqualTo(1);
+        assertThat(cache.get().getMissCount()).isEqualTo(2);
+        assertThat(cache.get().size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep frequently requested outputs when flooded with one-off keys")
+    void shouldAdmitByFrequency() {
+        NodeResultCache cache = new NodeResultCache("test", 100, null);
+
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 100; i++) {
+                if (cache.get(List.of("hot", i)) == null) {
+                    cache.put(List.of("hot", i), Map.of("value", i));
+                }
+            }
+        }
+        for (int i = 0; i < 1000; i++) {
+            cache.put(List.of("cold", i), Map.of("value", i));
+        }
+
+        int retained = 0;
+        for (int i = 0; i < 100; i++) {
+            if (cache.get(List.of("hot", i)) != null) {
+                retained++;
+            }
+        }
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(retained).isGreaterThanOrEqualTo(90);
+        assertThat(cache.getEvictionCount()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Should evict by the estimated size of the outputs, and not cache outputs larger than the bound")
+    void shouldBoundByWeight() {
+        NodeResultCache cache = new NodeResultCache("test", 100, 64 * 1024, null);
+        String document = "x".repeat(10_000);
+
+        for (int i = 0; i < 10; i++) {
+            cache.put(List.of(i), Map.of("document", document));
+        }
+
+        // each output takes about 20 KB
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.getWeightedSize()).isLessThanOrEqualTo(64 * 1024).isGreaterThan(60_000);
+        assertThat(cache.getEvictionCount()).isEqualTo(7);
+
+        cache.put(List.of("large"), Map.of("document", document.repeat(4)));
+        assertThat(cache.get(List.of("large"))).isNull();
+        assertThat(cache.size()).isEqualTo(3);
+        assertThatThrownBy(() -> new NodeResultCache("test", 10, -1, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should keep finding outputs whose key values were mutated in place after they were cached")
+    void shouldSnapshotKeyValues() {
+        AtomicReference<NodeResultCache> cache = new AtomicReference<>();
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.addPolicyListener(new NodePolicyListener() {
+            @Override
+            public void onCache(NodeDescriptor node, NodeResultCache resultCache) {
+                cache.set(resultCache);
+            }
+        });
+        TaggingComposer composer = new TaggingComposer();
+        CompiledGraph graph = compiler.compile(composer);
+
+        for (int i = 0; i < 3; i++) {
+            graph.invoke(Map.of(TaggingComposer.KEY_TAGS, new ArrayList<>(List.of("a"))));
+        }
+
+        assertThat(composer.invocations).hasValue(1);
+        assertThat(cache.get().getHitCount()).isEqualTo(2);
+        assertThat(cache.get().getMaxBytes()).isEqualTo(1024 * 1024);
+    }
+
+    @Test
+    @DisplayName("Should cache null outputs as empty ones")
+    void shouldCacheNullOutputs() {
+        NodeResultCache cache = new NodeResultCache("test", 10, null);
+        cache.put(List.of("key"), null);
+
+        assertThat(cache.get(List.of("key"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should expire cached outputs after their time to live")
+    void shouldExpireOutputs() throws InterruptedException {
+        NodeResultCache cache = new NodeResultCache("test", 10, Duration.ofMillis(20));
+        cache.put(List.of("key"), Map.of("value", 1));
+        assertThat(cache.get(List.of("key"))).containsEntry("value", 1);
+
+        Thread.sleep(40);
+
+        assertThat(cache.get(List.of("key"))).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject caches without keys")
+    void shouldRejectCacheWithoutKeys() {
+        assertThatThrownBy(() -> new ReflectiveGraphCompiler().compile(new KeylessComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("Invalid @NodeCache")
+                .hasMessageContaining("keys must not be empty");
+    }
+
+    @GraphComposer(id = "classify")
+    static class ClassifyComposer {
+
+        @GraphKey
+        static final String KEY_TEXT = "text";
+
+        @GraphKey
+        static final String KEY_NOISE = "noise";
+
+        @GraphKey
+        static final String KEY_LABEL = "label";
+
+        final AtomicInteger invocations = new AtomicInteger();
+
+        @GraphNode(isStart = true, next = StateGraph.END)
+        @NodeCache(keys = KEY_TEXT, maxSize = 10)
+        final NodeAction classify = state -> {
+            invocations.incrementAndGet();
+            return Map.of(KEY_LABEL, "label-" + state.value(KEY_TEXT, "").length());
+        };
+
+    }
+
+    @GraphComposer(id = "tagging")
+    static class TaggingComposer {
+
+        @GraphKey
+        static final String KEY_TAGS = "tags";
+
+        final AtomicInteger invocations = new AtomicInteger();
+
+        @GraphNode(isStart = true, next = StateGraph.END)
+        @NodeCache(keys = KEY_TAGS, maxBytes = "1MB")
+        @SuppressWarnings("unchecked")
+        final NodeAction tag = state -> {
+            invocations.incrementAndGet();
+            // mutates the list of the key in place
+            state.value(KEY_TAGS, List.class).ifPresent(tags -> tags.add("seen"));
+            return Map.of();
+        };
+
+    }
+
+    @GraphComposer(id = "keyless")
+    static class KeylessComposer {
+
+        @GraphNode(isStart = true, next = StateGraph.END)
+        @NodeCache(keys = {})
+        final NodeAction node = state -> Map.of();
+
+    }
+
+}
@@ -0,0 +1,184 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.Coalesce;
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.exception.GraphDefinitionException;
+import cn.teacy.ai.interfaces.NodePolicyListener;
+import cn.teacy.ai.metadata.NodeDescriptor;
+import cn.teacy.ai.support.NodeCoalescer;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NodeCoalesceTest {
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should share one execution between concurrent runs with the same key values")
+    void shouldCoalesceConcurrentRuns() throws InterruptedException {
+        AtomicReference<NodeCoalescer> coalescer = new AtomicReference<>();
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.setDefaultExecutor(workers);
+        compiler.addPolicyListener(new NodePolicyListener() {
+            @Override
+            public void onCoalesce(NodeDescriptor node, NodeCoalescer nodeCoalescer) {
+                coalescer.set(nodeCoalescer);
+            }
+        });
+        PromptComposer composer = new PromptComposer();
+        CompiledGraph graph = compiler.compile(composer);
+
+        List<CompletableFuture<OverAllState>> runs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            runs.add(CompletableFuture.supplyAsync(() -> graph.invoke(Map.of(PromptComposer.KEY_PROMPT, "popular")).orElseThrow()));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.get().getJoinCount() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        composer.release.countDown();
+
+        for (CompletableFuture<OverAllState> run : runs) {
+            assertThat(run.join().value(PromptComposer.KEY_ANSWER)).contains("answer to popular");
+        }
+        assertThat(composer.invocations).hasValue(1);
+        assertThat(coalescer.get().getExecutionCount()).isOne();
+        assertThat(coalescer.get().getInFlightCount()).isZero();
+
+        // nothing is kept once the shared execution completed
+        graph.invoke(Map.of(PromptComposer.KEY_PROMPT, "popular"));
+        assertThat(composer.invocations).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should hand out copies of the output and keep different keys apart")
+    void shouldCopyOutputs() {
+        NodeCoalescer coalescer = new NodeCoalescer("test");
+        CompletableFuture<Map<String, Object>> execution = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+
+        CompletableFuture<Map<String, Object>> first = coalescer.execute(List.of("a"), () -> {
+            started.incrementAndGet();
+            return execution;
+        });
+        CompletableFuture<Map<String, Object>> second = coalescer.execute(List.of("a"), () -> {
+            started.incrementAndGet();
+            return execution;
+        });
+        CompletableFuture<Map<String, Object>> other = coalescer.execute(List.of("b"), () -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture(Map.of("value", "b"));
+        });
+        execution.complete(new HashMap<>(Map.of("value", "a")));
+
+        first.join().put("value", "changed");
+        assertThat(second).isCompletedWithValue(Map.of("value", "a"));
+        assertThat(other).isCompletedWithValue(Map.of("value", "b"));
+        assertThat(started).hasValue(2);
+        assertThat(coalescer.getJoinCount()).isOne();
+    }
+
+    @Test
+    @DisplayName("Should hand a null output to every caller")
+    void shouldShareNullOutputs() {
+        NodeCoalescer coalescer = new NodeCoalescer("test");
+        CompletableFuture<Map<String, Object>> execution = new CompletableFuture<>();
+
+        CompletableFuture<Map<String, Object>> first = coalescer.execute(List.of("a"), () -> execution);
+        CompletableFuture<Map<String, Object>> second = coalescer.execute(List.of("a"), () -> execution);
+        execution.complete(null);
+
+        assertThat(first).isCompletedWithValue(null);
+        assertThat(second).isCompletedWithValue(null);
+        assertThat(coalescer.getInFlightCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should only cancel the shared execution once every caller cancelled")
+    void shouldCancelWhenAllCallersCancel() {
+        NodeCoalescer coalescer = new NodeCoalescer("test");
+        CompletableFuture<Map<String, Object>> execution = new CompletableFuture<>();
+
+        CompletableFuture<Map<String, Object>> first = coalescer.execute(List.of("a"), () -> execution);
+        CompletableFuture<Map<String, Object>> second = coalescer.execute(List.of("a"), () -> execution);
+
+        first.cancel(true);
+        assertThat(execution).isNotDone();
+
+        second.cancel(true);
+        assertThat(execution).failsWithin(Duration.ZERO);
+        assertThat(execution).isCancelled();
+        assertThat(coalescer.getInFlightCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject coalescing without keys")
+    void shouldRejectCoalesceWithoutKeys() {
+        assertThatThrownBy(() -> new ReflectiveGraphCompiler().compile(new KeylessComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("Invalid @Coalesce")
+                .hasMessageContaining("keys must not be empty");
+    }
+
+    @GraphComposer(id = "prompt")
+    static class PromptComposer {
+
+        @GraphKey
+        static final String KEY_PROMPT = "prompt";
+
+        @GraphKey
+        static final String KEY_ANSWER = "answer";
+
+        final AtomicInteger invocations = new AtomicInteger();
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @GraphNode(isStart = true, next = StateGraph.END)
+        @Coalesce(keys = KEY_PROMPT)
+        final NodeAction answer = state -> {
+            invocations.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return Map.of(KEY_ANSWER, "answer to " + state.value(KEY_PROMPT, ""));
+        };
+
+    }
+
+    @GraphComposer(id = "keylessCoalesce")
+    static class KeylessComposer {
+
+        @GraphNode(isStart = true, next = StateGraph.END)
+        @Coalesce(keys = {})
+        final NodeAction node = state -> Map.of();
+
+    }
+
+}
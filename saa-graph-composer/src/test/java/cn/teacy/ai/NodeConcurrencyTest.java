@@ -0,0 +1,190 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.annotation.NodeConcurrency;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.exception.GraphDefinitionException;
+import cn.teacy.ai.interfaces.NodePolicyListener;
+import cn.teacy.ai.metadata.NodeDescriptor;
+import cn.teacy.ai.support.NodeBulkhead;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NodeConcurrencyTest {
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should limit the concurrent executions of a node across graph runs")
+    void shouldLimitConcurrency() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.addExecutor("workers", workers);
+        LimitedComposer composer = new LimitedComposer();
+        CompiledGraph graph = compiler.compile(composer);
+
+        List<CompletableFuture<?>> runs = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            runs.add(CompletableFuture.runAsync(() -> graph.invoke(Map.of())));
+        }
+        CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(composer.completed).hasValue(6);
+        assertThat(composer.maxRunning.get()).isBetween(1, 2);
+    }
+
+    @Test
+    @DisplayName("Should reject executions when the queue is full or they waited too long")
+    void shouldRejectExecutions() throws Exception {
+        NodeBulkhead bulkhead = new NodeBulkhead("test", 1, 1, Duration.ofMillis(50));
+        CompletableFuture<String> blocker = new CompletableFuture<>();
+
+        CompletableFuture<String> running = bulkhead.execute(() -> blocker);
+        CompletableFuture<String> queued = bulkhead.execute(() -> CompletableFuture.completedFuture("queued"));
+        CompletableFuture<String> rejected = bulkhead.execute(() -> CompletableFuture.completedFuture("rejected"));
+
+        assertThat(bulkhead.getAvailablePermits()).isZero();
+        assertThat(rejected).failsWithin(Duration.ZERO).withThrowableOfType(Exception.class)
+                .havingCause().isInstanceOf(RejectedExecutionException.class).withMessageContaining("is full");
+        assertThat(queued).failsWithin(Duration.ofSeconds(5)).withThrowableOfType(Exception.class)
+                .havingCause().isInstanceOf(RejectedExecutionException.class).withMessageContaining("waited longer");
+        assertThat(bulkhead.getQueueDepth()).isZero();
+
+        blocker.complete("done");
+        assertThat(running).isCompletedWithValue("done");
+        assertThat(bulkhead.getAvailablePermits()).isOne();
+    }
+
+    @Test
+    @DisplayName("Should start queued executions when a permit is released")
+    void shouldStartQueuedExecutions() {
+        NodeBulkhead bulkhead = new NodeBulkhead("test", 1, 2, null);
+        CompletableFuture<String> blocker = new CompletableFuture<>();
+
+        bulkhead.execute(() -> blocker);
+        CompletableFuture<String> first = bulkhead.execute(() -> CompletableFuture.completedFuture("first"));
+        CompletableFuture<String> second = bulkhead.execute(() -> CompletableFuture.completedFuture("second"));
+        assertThat(bulkhead.getQueueDepth()).isEqualTo(2);
+
+        blocker.complete("done");
+
+        assertThat(first).isCompletedWithValue("first");
+        assertThat(second).isCompletedWithValue("second");
+        assertThat(bulkhead.getQueueDepth()).isZero();
+        assertThat(bulkhead.getAvailablePermits()).isOne();
+    }
+
+    @Test
+    @DisplayName("Should start queued inline executions one after another instead of recursively")
+    void shouldStartQueuedInlineExecutionsIteratively() {
+        NodeBulkhead bulkhead = new NodeBulkhead("test", 1, 5_000, null);
+        CompletableFuture<Integer> blocker = new CompletableFuture<>();
+        AtomicInteger maxDepth = new AtomicInteger();
+
+        bulkhead.execute(() -> blocker);
+        List<CompletableFuture<Integer>> queued = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            int value = i;
+            queued.add(bulkhead.execute(() -> {
+                maxDepth.accumulateAndGet(Thread.currentThread().getStackTrace().length, Math::max);
+                return CompletableFuture.completedFuture(value);
+            }));
+        }
+        assertThat(bulkhead.getQueueDepth()).isEqualTo(5_000);
+
+        blocker.complete(-1);
+
+        assertThat(queued).allSatisfy(future -> assertThat(future).isDone());
+        assertThat(queued.get(4_999)).isCompletedWithValue(4_999);
+        assertThat(maxDepth.get()).isLessThan(200);
+        assertThat(bulkhead.getQueueDepth()).isZero();
+        assertThat(bulkhead.getAvailablePermits()).isOne();
+    }
+
+    @Test
+    @DisplayName("Should notify policy listeners of node bulkheads")
+    void shouldNotifyPolicyListeners() {
+        List<String> bulkheads = new ArrayList<>();
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.addExecutor("workers", workers);
+        compiler.addPolicyListener(new NodePolicyListener() {
+            @Override
+            public void onBulkhead(NodeDescriptor node, NodeBulkhead bulkhead) {
+                bulkheads.add(node.nodeId() + ":" + bulkhead.getMaxConcurrent() + ":" + bulkhead.getMaxQueued());
+            }
+        });
+
+        compiler.compile(new LimitedComposer());
+
+        assertThat(bulkheads).containsExactly("limited:2:10");
+    }
+
+    @Test
+    @DisplayName("Should reject invalid bulkhead settings")
+    void shouldRejectInvalidSettings() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+
+        assertThatThrownBy(() -> compiler.compile(new InvalidComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("Invalid @NodeConcurrency")
+                .hasMessageContaining("maxConcurrent");
+    }
+
+    @GraphComposer(id = "limited", executor = "workers")
+    static class LimitedComposer {
+
+        final AtomicInteger running = new AtomicInteger();
+
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        final AtomicInteger completed = new AtomicInteger();
+
+        @GraphNode(id = "limited", isStart = true, next = StateGraph.END)
+        @NodeConcurrency(maxConcurrent = 2, maxQueued = 10, queueTimeout = "10s")
+        final NodeAction limited = state -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                new CountDownLatch(1).await(50, TimeUnit.MILLISECONDS);
+            } finally {
+                running.decrementAndGet();
+            }
+            completed.incrementAndGet();
+            return Map.of();
+        };
+
+    }
+
+    @GraphComposer(id = "invalid")
+    static class InvalidComposer {
+
+        @GraphNode(isStart = true, next = StateGraph.END)
+        @NodeConcurrency(maxConcurrent = 0)
+        final NodeAction node = state -> Map.of();
+
+    }
+
+}
@@ -0,0 +1,174 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.core.SpringReflectiveGraphCompiler;
+import cn.teacy.ai.exception.GraphDefinitionException;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.AsyncNodeAction;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NodeExecutorTest {
+
+    private final ExecutorService io = Executors.newFixedThreadPool(2, runnable -> new Thread(runnable, "io-worker"));
+
+    private final ExecutorService cpu = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "cpu-worker"));
+
+    @AfterEach
+    void shutdown() {
+        io.shutdownNow();
+        cpu.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should dispatch synchronous actions to the node or graph executor")
+    void shouldDispatchToExecutors() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.addExecutor("io", io);
+        compiler.addExecutor("cpu", cpu);
+
+        OverAllState state = compiler.compile(new ThreadsComposer()).invoke(Map.of()).orElseThrow();
+
+        assertThat(state.value(ThreadsComposer.KEY_DEFAULT)).contains("io-worker");
+        assertThat(state.value(ThreadsComposer.KEY_OVERRIDDEN)).contains("cpu-worker");
+        // asynchronous actions are left as they are and run on whichever thread drives the graph
+        assertThat(state.value(ThreadsComposer.KEY_ASYNC)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should fall back to the default executor of the compiler")
+    void shouldUseDefaultExecutor() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.addExecutor("io", io);
+        compiler.addExecutor("cpu", cpu);
+        compiler.setDefaultExecutor(cpu);
+
+        OverAllState state = compiler.compile(new ParallelComposer()).invoke(Map.of()).orElseThrow();
+        assertThat(state.value(ParallelComposer.KEY_FORK)).contains("cpu-worker");
+
+        // the executor of the composer still takes precedence over the default one
+        state = compiler.compile(new ThreadsComposer()).invoke(Map.of()).orElseThrow();
+        assertThat(state.value(ThreadsComposer.KEY_DEFAULT)).contains("io-worker");
+    }
+
+    @Test
+    @DisplayName("Should overlap blocking parallel branches running on an executor")
+    void shouldOverlapParallelBranches() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.addExecutor("io", io);
+
+        OverAllState state = compiler.compile(new ParallelComposer()).invoke(Map.of()).orElseThrow();
+
+        assertThat(state.value(ParallelComposer.KEY_LEFT)).contains(true);
+        assertThat(state.value(ParallelComposer.KEY_RIGHT)).contains(true);
+    }
+
+    @Test
+    @DisplayName("Should resolve executor beans and report missing ones")
+    void shouldResolveExecutorBeans() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("io", io);
+
+        assertThatThrownBy(() -> new SpringReflectiveGraphCompiler(beanFactory).compile(new ThreadsComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("No executor named 'cpu'");
+
+        beanFactory.registerSingleton("cpu", cpu);
+        OverAllState state = new SpringReflectiveGraphCompiler(beanFactory).compile(new ThreadsComposer()).invoke(Map.of()).orElseThrow();
+        assertThat(state.value(ThreadsComposer.KEY_OVERRIDDEN)).contains("cpu-worker");
+    }
+
+    @Test
+    @DisplayName("Should reject executors on asynchronous actions")
+    void shouldRejectExecutorOnAsyncAction() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.addExecutor("io", io);
+
+        assertThatThrownBy(() -> compiler.compile(new AsyncWithExecutorComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("only NodeAction, NodeActionWithConfig and BatchNodeAction");
+    }
+
+    @GraphComposer(id = "threads", executor = "io")
+    static class ThreadsComposer {
+
+        @GraphKey
+        static final String KEY_DEFAULT = "default";
+
+        @GraphKey
+        static final String KEY_OVERRIDDEN = "overridden";
+
+        @GraphKey
+        static final String KEY_ASYNC = "async";
+
+        @GraphNode(isStart = true, next = "overridden")
+        final NodeAction byDefault = state -> Map.of(KEY_DEFAULT, Thread.currentThread().getName());
+
+        @GraphNode(id = "overridden", next = "async", executor = "cpu")
+        final NodeAction overridden = state -> Map.of(KEY_OVERRIDDEN, Thread.currentThread().getName());
+
+        @GraphNode(id = "async", next = StateGraph.END)
+        final AsyncNodeAction async = state -> CompletableFuture.completedFuture(Map.of(KEY_ASYNC, Thread.currentThread().getName()));
+
+    }
+
+    @GraphComposer(id = "parallel")
+    static class ParallelComposer {
+
+        @GraphKey
+        static final String KEY_LEFT = "left";
+
+        @GraphKey
+        static final String KEY_RIGHT = "right";
+
+        @GraphKey
+        static final String KEY_FORK = "fork";
+
+        // both branches wait for each other, so they only complete when they run concurrently
+        final CountDownLatch bothStarted = new CountDownLatch(2);
+
+        @GraphNode(isStart = true, next = {"left", "right"})
+        final NodeAction fork = state -> Map.of(KEY_FORK, Thread.currentThread().getName());
+
+        @GraphNode(id = "left", next = "join", executor = "io")
+        final NodeAction left = state -> Map.of(KEY_LEFT, awaitOther());
+
+        @GraphNode(id = "right", next = "join", executor = "io")
+        final NodeAction right = state -> Map.of(KEY_RIGHT, awaitOther());
+
+        @GraphNode(id = "join", next = StateGraph.END)
+        final NodeAction join = state -> Map.of();
+
+        private boolean awaitOther() throws InterruptedException {
+            bothStarted.countDown();
+            return bothStarted.await(5, TimeUnit.SECONDS);
+        }
+
+    }
+
+    @GraphComposer(id = "asyncWithExecutor")
+    static class AsyncWithExecutorComposer {
+
+        @GraphNode(isStart = true, next = StateGraph.END, executor = "io")
+        final AsyncNodeAction async = state -> CompletableFuture.completedFuture(Map.of());
+
+    }
+
+}
@@ -0,0 +1,168 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.annotation.Hedge;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.exception.GraphDefinitionException;
+import cn.teacy.ai.interfaces.NodePolicyListener;
+import cn.teacy.ai.metadata.NodeDescriptor;
+import cn.teacy.ai.support.NodeHedger;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NodeHedgeTest {
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should start another attempt after the delay and cancel the slower one")
+    void shouldHedgeSlowAttempts() {
+        NodeHedger hedger = new NodeHedger("test", Duration.ofMillis(20), 0.95, 3);
+        List<CompletableFuture<String>> attempts = new ArrayList<>();
+
+        CompletableFuture<String> result = hedger.execute(() -> {
+            CompletableFuture<String> attempt = attempts.isEmpty()
+                    ? new CompletableFuture<>()
+                    : CompletableFuture.completedFuture("hedged");
+            attempts.add(attempt);
+            return attempt;
+        });
+
+        assertThat(result).succeedsWithin(Duration.ofSeconds(5)).isEqualTo("hedged");
+        assertThat(attempts).hasSize(2);
+        assertThat(attempts.get(0)).isCancelled();
+        assertThat(hedger.getHedgeCount()).isOne();
+        assertThat(hedger.getHedgeWinCount()).isOne();
+    }
+
+    @Test
+    @DisplayName("Should only fail once every attempt has failed")
+    void shouldFailWhenAllAttemptsFail() {
+        NodeHedger hedger = new NodeHedger("test", Duration.ofMillis(10), 0.95, 2);
+        AtomicInteger started = new AtomicInteger();
+
+        CompletableFuture<String> result = hedger.execute(() -> started.getAndIncrement() == 0
+                ? CompletableFuture.supplyAsync(() -> {
+                    throw new IllegalStateException("first");
+                }, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS))
+                : CompletableFuture.failedFuture(new IllegalStateException("second")));
+
+        assertThat(result).failsWithin(Duration.ofSeconds(5)).withThrowableOfType(Exception.class)
+                .havingRootCause().isInstanceOf(IllegalStateException.class).withMessage("first");
+        assertThat(started).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should derive the delay from the observed latencies")
+    void shouldAdaptDelay() {
+        NodeHedger hedger = new NodeHedger("test", null, 0.9, 2);
+        assertThat(hedger.getCurrentDelay()).isNull();
+
+        for (int i = 0; i < 20; i++) {
+            hedger.execute(() -> CompletableFuture.completedFuture("fast")).join();
+        }
+
+        assertThat(hedger.getCurrentDelay()).isNotNull().isLessThan(Duration.ofMillis(10));
+        assertThat(hedger.getHedgeCount()).isZero();
+
+        // every tenth attempt is slow, between 20 and 80ms, so the 95th percentile lies around 50ms
+        NodeHedger bimodal = new NodeHedger("bimodal", null, 0.95, 2);
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 300; i++) {
+            bimodal.execute(() -> {
+                int call = calls.getAndIncrement();
+                return call % 10 != 0
+                        ? CompletableFuture.completedFuture("fast")
+                        : CompletableFuture.supplyAsync(() -> "slow",
+                        CompletableFuture.delayedExecutor(20 + call * 7 % 61, TimeUnit.MILLISECONDS));
+            }).join();
+        }
+
+        assertThat(bimodal.getHedgeCount()).isPositive();
+        assertThat(bimodal.getCurrentDelay()).isBetween(Duration.ofMillis(30), Duration.ofMillis(90));
+    }
+
+    @Test
+    @DisplayName("Should hedge synchronous nodes running on a node executor")
+    void shouldHedgeGraphNodes() throws InterruptedException {
+        AtomicReference<NodeHedger> hedger = new AtomicReference<>();
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.setDefaultExecutor(workers);
+        compiler.addPolicyListener(new NodePolicyListener() {
+            @Override
+            public void onHedge(NodeDescriptor node, NodeHedger nodeHedger) {
+                hedger.set(nodeHedger);
+            }
+        });
+        ReplicatedComposer composer = new ReplicatedComposer();
+
+        OverAllState state = compiler.compile(composer).invoke(Map.of()).orElseThrow();
+
+        assertThat(state.value(ReplicatedComposer.KEY_REPLICA)).contains(1);
+        assertThat(composer.interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(hedger.get().getMaxAttempts()).isEqualTo(2);
+        assertThat(hedger.get().getHedgeWinCount()).isOne();
+    }
+
+    @Test
+    @DisplayName("Should reject hedged synchronous nodes without an executor")
+    void shouldRejectInlineNodes() {
+        assertThatThrownBy(() -> new ReflectiveGraphCompiler().compile(new ReplicatedComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("node executor");
+    }
+
+    @GraphComposer(id = "replicated")
+    static class ReplicatedComposer {
+
+        @GraphKey
+        static final String KEY_REPLICA = "replica";
+
+        final AtomicInteger attempts = new AtomicInteger();
+
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @GraphNode(isStart = true, next = StateGraph.END)
+        @Hedge(delay = "20ms")
+        final NodeAction lookup = state -> {
+            int replica = attempts.getAndIncrement();
+            if (replica == 0) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+            }
+            return Map.of(KEY_REPLICA, replica);
+        };
+
+    }
+
+}
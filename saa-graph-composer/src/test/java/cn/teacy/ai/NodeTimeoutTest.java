@@ -0,0 +1,198 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.exception.GraphDefinitionException;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NodeTimeoutTest {
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should fail the run and interrupt a node running inline past its timeout")
+    void shouldInterruptInlineNode() throws InterruptedException {
+        BlockingComposer composer = new BlockingComposer();
+        CompiledGraph graph = new ReflectiveGraphCompiler().compile(composer);
+
+        assertThatThrownBy(() -> graph.invoke(Map.of()))
+                .hasRootCauseInstanceOf(TimeoutException.class)
+                .rootCause().hasMessageContaining("Node 'blocking' did not complete within PT0.05S");
+        assertThat(composer.interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should fail the run and interrupt a node running on an executor past its timeout")
+    void shouldInterruptDispatchedNode() throws InterruptedException {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.setDefaultExecutor(workers);
+        BlockingComposer composer = new BlockingComposer();
+        CompiledGraph graph = compiler.compile(composer);
+
+        assertThatThrownBy(() -> graph.invoke(Map.of()))
+                .hasRootCauseInstanceOf(TimeoutException.class);
+        assertThat(composer.interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should record the timeout and route to the fallback node")
+    void shouldRouteToFallback() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.setDefaultExecutor(workers);
+        FallbackComposer composer = new FallbackComposer();
+        CompiledGraph graph = compiler.compile(composer);
+
+        OverAllState slow = graph.invoke(Map.of(FallbackComposer.KEY_DELAY, 5_000L)).orElseThrow();
+        assertThat(slow.value(FallbackComposer.KEY_RESULT)).contains("fallback");
+        assertThat(slow.value(FallbackComposer.KEY_ERROR, "")).contains("did not complete within");
+
+        OverAllState fast = compiler.compile(composer).invoke(Map.of(FallbackComposer.KEY_DELAY, 0L)).orElseThrow();
+        assertThat(fast.value(FallbackComposer.KEY_RESULT)).contains("primary");
+        assertThat(fast.value(FallbackComposer.KEY_ERROR)).isEmpty();
+        // the internal route is only written on a timeout, and removed once it was followed
+        assertThat(slow.data().keySet()).noneMatch(key -> key.startsWith("_timeout_route_"));
+        assertThat(fast.data().keySet()).noneMatch(key -> key.startsWith("_timeout_route_"));
+    }
+
+    @Test
+    @DisplayName("Should apply the default timeout of the composer unless a node disables it")
+    void shouldApplyComposerDefault() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.setDefaultExecutor(workers);
+
+        OverAllState state = compiler.compile(new DefaultTimeoutComposer()).invoke(Map.of()).orElseThrow();
+
+        assertThat(state.value(DefaultTimeoutComposer.KEY_ERROR, "")).contains("Node 'bounded'");
+        assertThat(state.value(DefaultTimeoutComposer.KEY_RESULT)).contains("unbounded");
+    }
+
+    @Test
+    @DisplayName("Should reject fallbacks without a timeout or a single next node")
+    void shouldRejectInvalidSettings() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+
+        assertThatThrownBy(() -> compiler.compile(new MissingTimeoutComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("no timeout");
+        assertThatThrownBy(() -> compiler.compile(new AmbiguousFallbackComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("exactly one other next node");
+    }
+
+    @GraphComposer(id = "blocking")
+    static class BlockingComposer {
+
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @GraphNode(id = "blocking", isStart = true, next = StateGraph.END, timeout = "50ms")
+        final NodeAction blocking = state -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return Map.of();
+        };
+
+    }
+
+    @GraphComposer(id = "fallback")
+    static class FallbackComposer {
+
+        @GraphKey
+        static final String KEY_DELAY = "delay";
+
+        @GraphKey
+        static final String KEY_RESULT = "result";
+
+        @GraphKey
+        static final String KEY_ERROR = "error";
+
+        @GraphNode(id = "primary", isStart = true, next = StateGraph.END,
+                timeout = "50ms", timeoutFallback = "fallback", timeoutErrorKey = KEY_ERROR)
+        final NodeAction primary = state -> {
+            Thread.sleep(state.value(KEY_DELAY, 0L));
+            return Map.of(KEY_RESULT, "primary");
+        };
+
+        @GraphNode(id = "fallback", next = StateGraph.END)
+        final NodeAction fallback = state -> Map.of(KEY_RESULT, "fallback");
+
+    }
+
+    @GraphComposer(id = "defaultTimeout", nodeTimeout = "50ms")
+    static class DefaultTimeoutComposer {
+
+        @GraphKey
+        static final String KEY_RESULT = "result";
+
+        @GraphKey
+        static final String KEY_ERROR = "error";
+
+        @GraphNode(id = "bounded", isStart = true, next = "unbounded", timeoutErrorKey = KEY_ERROR)
+        final NodeAction bounded = state -> {
+            Thread.sleep(5_000);
+            return Map.of(KEY_RESULT, "bounded");
+        };
+
+        @GraphNode(id = "unbounded", next = StateGraph.END, timeout = "0")
+        final NodeAction unbounded = state -> {
+            Thread.sleep(100);
+            return Map.of(KEY_RESULT, "unbounded");
+        };
+
+    }
+
+    @GraphComposer(id = "missingTimeout")
+    static class MissingTimeoutComposer {
+
+        @GraphNode(id = "node", isStart = true, next = StateGraph.END, timeoutFallback = "other")
+        final NodeAction node = state -> Map.of();
+
+        @GraphNode(id = "other", next = StateGraph.END)
+        final NodeAction other = state -> Map.of();
+
+    }
+
+    @GraphComposer(id = "ambiguousFallback")
+    static class AmbiguousFallbackComposer {
+
+        @GraphNode(id = "node", isStart = true, next = {"a", "b"}, timeout = "1s", timeoutFallback = "c")
+        final NodeAction node = state -> Map.of();
+
+        @GraphNode(id = "a", next = StateGraph.END)
+        final NodeAction a = state -> Map.of();
+
+        @GraphNode(id = "b", next = StateGraph.END)
+        final NodeAction b = state -> Map.of();
+
+        @GraphNode(id = "c", next = StateGraph.END)
+        final NodeAction c = state -> Map.of();
+
+    }
+
+}
@@ -0,0 +1,71 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.strategy.HistogramStrategy;
+import cn.teacy.ai.strategy.MaxDoubleStrategy;
+import cn.teacy.ai.strategy.SumLongStrategy;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+/**
+ * Compares the time and the allocations of summing, maximizing and collecting many numbers with
+ * boxing strategies and the numeric accumulator strategies.
+ * <p>
+ * Skipped by default, run it with {@code mvn test -Dtest=NumericStrategyBenchmarkTest -Dgraph.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "graph.benchmark", matches = "true")
+public class NumericStrategyBenchmarkTest {
+
+    private static final int UPDATES = Integer.getInteger("graph.benchmark.updates", 100_000);
+
+    @Test
+    @DisplayName("Allocations of accumulating numbers, update by update")
+    void compareStrategies() {
+        // the updates are boxed up front, so that only the allocations of the strategies are measured
+        Object[] longs = new Object[UPDATES];
+        Object[] doubles = new Object[UPDATES];
+        for (int i = 0; i < UPDATES; i++) {
+            longs[i] = (long) i;
+            doubles[i] = i * 0.5;
+        }
+        KeyStrategy boxedSum = (oldValue, newValue) ->
+                oldValue == null ? newValue : (Long) (((Number) oldValue).longValue() + ((Number) newValue).longValue());
+        KeyStrategy boxedMax = (oldValue, newValue) ->
+                oldValue == null ? newValue : (Double) Math.max(((Number) oldValue).doubleValue(), ((Number) newValue).doubleValue());
+
+        for (int round = 0; round < 2; round++) {
+            // the first round warms up the JIT
+            boolean print = round == 1;
+            report("boxed sum", boxedSum, longs, print);
+            report("sum long", new SumLongStrategy(), longs, print);
+            report("boxed max", boxedMax, doubles, print);
+            report("max double", new MaxDoubleStrategy(), doubles, print);
+            report("append values", KeyStrategy.APPEND, doubles, print);
+            report("histogram", new HistogramStrategy(), doubles, print);
+        }
+    }
+
+    private static void report(String mode, KeyStrategy strategy, Object[] updates, boolean print) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        Object value = null;
+        for (Object update : updates) {
+            value = strategy.apply(value, update);
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        if (print) {
+            System.out.printf("%s: %d updates in %d ms, %d bytes allocated per update%n",
+                    mode, updates.length, elapsed.toMillis(), allocated / updates.length);
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.strategy.DoubleMax;
+import cn.teacy.ai.strategy.Histogram;
+import cn.teacy.ai.strategy.HistogramStrategy;
+import cn.teacy.ai.strategy.LongSum;
+import cn.teacy.ai.strategy.MaxDoubleStrategy;
+import cn.teacy.ai.strategy.SumLongStrategy;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NumericStrategyTest {
+
+    @Test
+    @DisplayName("Should accumulate numbers in place, from plain numbers, snapshots and other accumulators")
+    void shouldAccumulateInPlace() {
+        KeyStrategy sum = new SumLongStrategy();
+        Object total = sum.apply(null, 1);
+        assertThat(sum.apply(total, 2L)).isSameAs(total);
+        assertThat(sum.apply(total, null)).isSameAs(total);
+        assertThat(((Number) total).longValue()).isEqualTo(3);
+        assertThat(((Number) sum.apply(10, new LongSum(5))).longValue()).isEqualTo(15);
+        assertThatThrownBy(() -> sum.apply(total, "1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Expected a number");
+
+        KeyStrategy max = new MaxDoubleStrategy();
+        Object best = max.apply(0.5, 0.2);
+        assertThat(best).isInstanceOf(DoubleMax.class);
+        max.apply(best, Double.NaN);
+        max.apply(best, 0.9f);
+        assertThat(((Number) best).doubleValue()).isEqualTo(0.9f);
+
+        KeyStrategy histogramStrategy = new HistogramStrategy();
+        Object recorded = histogramStrategy.apply(null, List.of(1, 2, 3));
+        histogramStrategy.apply(recorded, 1000.0);
+        Histogram histogram = (Histogram) histogramStrategy.apply(((Histogram) recorded).toMap(), recorded);
+        assertThat(histogram.getCount()).isEqualTo(8);
+        assertThat(histogram.getMin()).isEqualTo(1);
+        assertThat(histogram.getMax()).isEqualTo(1000);
+        assertThat(histogram.percentile(0.5)).isEqualTo(2);
+        assertThat(histogram.percentile(1)).isEqualTo(1000);
+        assertThat(histogram.getBucketCount(0)).isZero();
+        assertThatThrownBy(() -> Histogram.fromMap(Map.of("count", 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Not a histogram");
+    }
+
+    @Test
+    @DisplayName("Should merge concurrent updates into the same accumulators without losing any")
+    void shouldMergeConcurrentUpdates() throws Exception {
+        KeyStrategy sum = new SumLongStrategy();
+        KeyStrategy max = new MaxDoubleStrategy();
+        KeyStrategy histogramStrategy = new HistogramStrategy();
+        Object total = sum.apply(null, 0);
+        Object best = max.apply(null, 0.0);
+        Object histogram = histogramStrategy.apply(null, new Histogram());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 1; i <= 10_000; i++) {
+                        sum.apply(total, i);
+                        max.apply(best, thread * 10_000.0 + i);
+                        histogramStrategy.apply(histogram, i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(((Number) total).longValue()).isEqualTo(8 * 50_005_000L);
+        assertThat(((Number) best).doubleValue()).isEqualTo(80_000.0);
+        assertThat(((Histogram) histogram).getCount()).isEqualTo(80_000);
+        assertThat(((Histogram) histogram).getSum()).isEqualTo(8 * 50_005_000.0);
+    }
+
+    @Test
+    @DisplayName("Should keep the values of an earlier serialized snapshot after later merges")
+    void shouldKeepSnapshotValues() throws Exception {
+        KeyStrategy sum = new SumLongStrategy();
+        KeyStrategy max = new MaxDoubleStrategy();
+        Map<String, Object> state = new HashMap<>();
+        state.put("tokens", sum.apply(null, 10));
+        state.put("score", max.apply(null, 0.5));
+
+        Object snapshot = roundTrip(state);
+        sum.apply(state.get("tokens"), 5);
+        max.apply(state.get("score"), 0.9);
+
+        assertThat(snapshot).isEqualTo(Map.of("tokens", 10L, "score", 0.5));
+        assertThat(roundTrip(state)).isEqualTo(Map.of("tokens", 15L, "score", 0.9));
+    }
+
+    @Test
+    @DisplayName("Should reduce the results of parallel branches, with JDK numbers in the snapshots")
+    void shouldReduceParallelBranches() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        FanOutComposer composer = new FanOutComposer();
+        CompiledGraph graph = compiler.compile(composer);
+
+        OverAllState state = graph.invoke(Map.of()).orElseThrow();
+
+        // the nodes see the accumulators, while the snapshots of the state hold JDK values
+        assertThat(composer.types).containsExactlyInAnyOrder(LongSum.class, DoubleMax.class, Histogram.class);
+        assertThat(state.value(FanOutComposer.KEY_TOKENS, Number.class))
+                .hasValueSatisfying(tokens -> assertThat(tokens.longValue()).isEqualTo(101));
+        assertThat(state.value(FanOutComposer.KEY_SCORE, Number.class))
+                .hasValueSatisfying(score -> assertThat(score.doubleValue()).isEqualTo(0.4));
+        assertThat(state.value(FanOutComposer.KEY_LATENCY, Map.class))
+                .hasValueSatisfying(latency -> assertThat(Histogram.fromMap(latency).getCount()).isEqualTo(4));
+
+        CompiledGraph other = compiler.compile(new FanOutComposer());
+        for (String key : List.of(FanOutComposer.KEY_TOKENS, FanOutComposer.KEY_SCORE, FanOutComposer.KEY_LATENCY)) {
+            assertThat(graph.getKeyStrategyMap().get(key)).isSameAs(other.getKeyStrategyMap().get(key));
+        }
+    }
+
+    private static Object roundTrip(Object value) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
+
+    @GraphComposer(id = "numericFanOut")
+    static class FanOutComposer {
+
+        @GraphKey(strategy = SumLongStrategy.class)
+        static final String KEY_TOKENS = "tokens";
+
+        @GraphKey(strategy = MaxDoubleStrategy.class)
+        static final String KEY_SCORE = "score";
+
+        @GraphKey(strategy = HistogramStrategy.class)
+        static final String KEY_LATENCY = "latency";
+
+        final Set<Class<?>> types = ConcurrentHashMap.newKeySet();
+
+        @GraphNode(isStart = true, next = {"a", "b", "c", "d"})
+        final NodeAction fork = state -> Map.of(KEY_TOKENS, 1);
+
+        @GraphNode(id = "a", next = "join")
+        final NodeAction a = state -> branch(10, 0.1);
+
+        @GraphNode(id = "b", next = "join")
+        final NodeAction b = state -> branch(20, 0.4);
+
+        @GraphNode(id = "c", next = "join")
+        final NodeAction c = state -> branch(30, 0.3);
+
+        @GraphNode(id = "d", next = "join")
+        final NodeAction d = state -> branch(40, 0.2);
+
+        @GraphNode(id = "join", next = StateGraph.END)
+        final NodeAction join = state -> {
+            for (String key : List.of(KEY_TOKENS, KEY_SCORE, KEY_LATENCY)) {
+                state.value(key).ifPresent(value -> types.add(value.getClass()));
+            }
+            return Map.of();
+        };
+
+        private static Map<String, Object> branch(long tokens, double score) {
+            return Map.of(KEY_TOKENS, tokens, KEY_SCORE, score, KEY_LATENCY, tokens * 1.5);
+        }
+
+    }
+
+}
@@ -0,0 +1,201 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.exception.GraphDefinitionException;
+import cn.teacy.ai.support.BlobRef;
+import cn.teacy.ai.support.BlobStore;
+import cn.teacy.ai.support.StateSizeEstimator;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import com.alibaba.cloud.ai.graph.state.strategy.MergeStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OffloadTest {
+
+    private static final String DOCUMENT = "x".repeat(100_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should store values in memory-mapped segments and read them back on demand")
+    void shouldStoreValues() throws Exception {
+        BlobStore store = new BlobStore(directory, 4096);
+
+        BlobRef text = store.put("hello");
+        BlobRef bytes = store.put(new byte[]{1, 2, 3});
+        BlobRef embedding = store.put(new float[]{0.5f, -1f});
+        BlobRef chunk = store.put(new Chunk("text", 3));
+        BlobRef large = store.put(DOCUMENT);
+
+        assertThat(text.get()).isEqualTo("hello");
+        assertThat(bytes.get(byte[].class)).containsExactly(1, 2, 3);
+        assertThat(embedding.get(float[].class)).containsExactly(0.5f, -1f);
+        assertThat(chunk.get()).isEqualTo(new Chunk("text", 3));
+        assertThat(large.get(String.class)).isEqualTo(DOCUMENT);
+        assertThat(large.size()).isEqualTo(DOCUMENT.length());
+        assertThat(store.put(text)).isSameAs(text);
+        assertThat(store.getBlobCount()).isEqualTo(5);
+        // the large value got a segment of its own
+        assertThat(store.getSegmentCount()).isEqualTo(2);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).hasSize(2);
+        }
+        assertThatThrownBy(() -> store.put(new Object()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Can not offload a value of type java.lang.Object");
+
+        store.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+        assertThatThrownBy(text::get)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("is no longer available");
+        assertThatThrownBy(() -> store.put("again")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Should only read back classes the store serialized, from an owner-only directory")
+    void shouldRestrictSerializedValues() throws Exception {
+        Path nested = directory.resolve("blobs");
+        BlobStore store = new BlobStore(nested, 4096);
+
+        BlobRef chunks = store.put(new ArrayList<>(List.of(new Chunk("text", 1), new Chunk("more", 2))));
+        // both values share the first segment, the second one starts where the first one ends
+        long offset = store.getStoredBytes();
+        BlobRef chunk = store.put(new Chunk("x".repeat(1_000), 3));
+
+        assertThat(chunks.get()).isEqualTo(List.of(new Chunk("text", 1), new Chunk("more", 2)));
+        Path segment;
+        try (Stream<Path> files = Files.list(nested)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        if (nested.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(nested))).isEqualTo("rwx------");
+            assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(segment))).isEqualTo("rw-------");
+        }
+
+        // replace the serialized chunk in the segment file with a class the store never wrote
+        ByteArrayOutputStream tampered = new ByteArrayOutputStream();
+        tampered.write(4);
+        try (ObjectOutputStream out = new ObjectOutputStream(tampered)) {
+            out.writeObject(new Foreign("foreign"));
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(tampered.toByteArray()), offset);
+        }
+
+        assertThatThrownBy(chunk::get)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("did not write");
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Should hold handles in the state of offloaded keys, and release the values once they are unreachable")
+    void shouldOffloadKeys() throws InterruptedException {
+        BlobStore store = new BlobStore(directory, 1024 * 1024);
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.setBlobStore(store);
+
+        assertThat(runAndCheck(compiler)).isEqualTo(DOCUMENT.length());
+        assertThat(store.getBlobCount()).isPositive();
+
+        // the run, its snapshots and the compiled graph are unreachable now
+        for (int i = 0; i < 100 && store.getBlobCount() > 0; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertThat(store.getBlobCount()).isZero();
+        assertThat(store.getStoredBytes()).isZero();
+        assertThat(store.getReleasedCount()).isEqualTo(3);
+        store.close();
+    }
+
+    private static int runAndCheck(ReflectiveGraphCompiler compiler) {
+        OverAllState state = compiler.compile(new OffloadComposer()).invoke(Map.of()).orElseThrow();
+
+        assertThat(state.value(OffloadComposer.KEY_LENGTH, 0)).isEqualTo(DOCUMENT.length());
+        // the snapshot holds handles, which still resolve after the run
+        BlobRef document = state.value(OffloadComposer.KEY_DOCUMENT, BlobRef.class).orElseThrow();
+        assertThat(document.get()).isEqualTo(DOCUMENT);
+        List<?> chunks = state.value(OffloadComposer.KEY_CHUNKS, List.class).orElseThrow();
+        assertThat(chunks).hasSize(2).allSatisfy(chunk -> assertThat(chunk).isInstanceOf(BlobRef.class));
+        assertThat(((BlobRef) chunks.get(1)).get()).isEqualTo(new Chunk("second", 2));
+        assertThat(StateSizeEstimator.estimate(state.data())).isLessThan(1_000);
+        return state.value(OffloadComposer.KEY_LENGTH, 0);
+    }
+
+    @Test
+    @DisplayName("Should reject offloading keys merged by other strategies")
+    void shouldRejectUnsupportedStrategy() {
+        assertThatThrownBy(() -> new ReflectiveGraphCompiler().compile(new InvalidOffloadComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("Invalid @GraphKey on field 'KEY_METADATA'")
+                .hasMessageContaining("offload requires ReplaceStrategy, AppendStrategy or BoundedAppendStrategy");
+    }
+
+    private record Chunk(String text, int page) implements Serializable {}
+
+    private record Foreign(String text) implements Serializable {}
+
+    @GraphComposer(id = "offload")
+    static class OffloadComposer {
+
+        @GraphKey(offload = true)
+        static final String KEY_DOCUMENT = "document";
+
+        @GraphKey(strategy = AppendStrategy.class, offload = true)
+        static final String KEY_CHUNKS = "chunks";
+
+        @GraphKey
+        static final String KEY_LENGTH = "length";
+
+        @GraphNode(id = "load", isStart = true, next = "measure")
+        final NodeAction load = state -> Map.of(KEY_DOCUMENT, DOCUMENT,
+                KEY_CHUNKS, List.of(new Chunk("first", 1), new Chunk("second", 2)));
+
+        @GraphNode(id = "measure", next = StateGraph.END)
+        final NodeAction measure = state -> Map.of(KEY_LENGTH,
+                state.value(KEY_DOCUMENT, BlobRef.class).orElseThrow().get(String.class).length());
+
+    }
+
+    @GraphComposer(id = "invalidOffload")
+    static class InvalidOffloadComposer {
+
+        @GraphKey(strategy = MergeStrategy.class, offload = true)
+        static final String KEY_METADATA = "metadata";
+
+        @GraphNode(id = "noop", isStart = true, next = StateGraph.END)
+        final NodeAction noop = state -> Map.of();
+
+    }
+
+}
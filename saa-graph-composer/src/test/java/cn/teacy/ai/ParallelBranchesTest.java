@@ -0,0 +1,216 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.annotation.ParallelBranches;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.exception.GraphDefinitionException;
+import cn.teacy.ai.interfaces.NodePolicyListener;
+import cn.teacy.ai.metadata.NodeDescriptor;
+import cn.teacy.ai.support.ParallelBranchDispatcher;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.internal.node.ParallelNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ParallelBranchesTest {
+
+    private final ExecutorService branches = Executors.newFixedThreadPool(4, runnable -> new Thread(runnable, "branch-worker"));
+
+    @AfterEach
+    void shutdown() {
+        branches.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should run the branches on the declared executor with bounded parallelism")
+    void shouldRunBranchesOnExecutor() {
+        AtomicReference<ParallelBranchDispatcher> dispatcher = new AtomicReference<>();
+        List<Long> waits = new CopyOnWriteArrayList<>();
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.addExecutor("branches", branches);
+        compiler.addPolicyListener(new NodePolicyListener() {
+            @Override
+            public void onParallelBranches(NodeDescriptor node, ParallelBranchDispatcher branchDispatcher) {
+                branchDispatcher.addObserver(waits::add);
+                dispatcher.set(branchDispatcher);
+            }
+        });
+        FanOutComposer composer = new FanOutComposer();
+
+        OverAllState state = compiler.compile(composer).invoke(Map.of()).orElseThrow();
+
+        assertThat(List.of(FanOutComposer.KEY_A, FanOutComposer.KEY_B, FanOutComposer.KEY_C, FanOutComposer.KEY_D))
+                .allSatisfy(key -> assertThat(state.value(key)).contains("branch-worker"));
+        assertThat(composer.maxRunning).hasValue(2);
+        assertThat(waits).hasSize(4);
+        assertThat(dispatcher.get().getDispatchCount()).isEqualTo(4);
+        assertThat(dispatcher.get().getWaitingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should run the fan-out node through the replaced action factory of the pinned engine version")
+    void shouldReplaceParallelNodeFactory() {
+        // @ParallelBranches replaces a field internal to the engine, check it again when upgrading the engine
+        assertThat(CompiledGraph.class.getPackage().getImplementationVersion()).isEqualTo("1.1.2.0");
+        AtomicReference<ParallelBranchDispatcher> dispatcher = new AtomicReference<>();
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.addExecutor("branches", branches);
+        compiler.addPolicyListener(new NodePolicyListener() {
+            @Override
+            public void onParallelBranches(NodeDescriptor node, ParallelBranchDispatcher branchDispatcher) {
+                dispatcher.set(branchDispatcher);
+            }
+        });
+
+        CompiledGraph graph = compiler.compile(new FanOutComposer());
+        Field field = ReflectionUtils.findField(CompiledGraph.class, ReflectiveGraphCompiler.NODE_FACTORIES_FIELD, Map.class);
+        assertThat(field).isNotNull();
+        ReflectionUtils.makeAccessible(field);
+        Object factory = ((Map<?, ?>) ReflectionUtils.getField(field, graph)).get(ParallelNode.formatNodeId("fork"));
+
+        assertThat(factory).isNotNull();
+        assertThat(factory.getClass().getName()).startsWith(ReflectiveGraphCompiler.class.getName() + "$$Lambda");
+        assertThat(dispatcher.get().getDispatchCount()).isZero();
+        graph.invoke(Map.of()).orElseThrow();
+        assertThat(dispatcher.get().getDispatchCount()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should queue branches beyond the limit without holding a thread")
+    void shouldQueueBranchesBeyondLimit() throws InterruptedException {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            ParallelBranchDispatcher dispatcher = new ParallelBranchDispatcher("test", 1);
+            Executor run = dispatcher.forRun(single);
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(2);
+            List<String> order = new CopyOnWriteArrayList<>();
+
+            run.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+                order.add("first");
+                done.countDown();
+            });
+            run.execute(() -> {
+                order.add("second");
+                done.countDown();
+            });
+            // the second branch waits for a slot, not for the only thread of the executor
+            single.execute(() -> order.add("other"));
+
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(dispatcher.getWaitingCount()).isOne();
+            release.countDown();
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(order).containsExactly("first", "other", "second");
+            assertThat(dispatcher.getWaitingCount()).isZero();
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject @ParallelBranches without several next nodes or with an unknown executor")
+    void shouldRejectInvalidDeclarations() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+
+        assertThatThrownBy(() -> compiler.compile(new SingleBranchComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("requires several next nodes");
+        assertThatThrownBy(() -> compiler.compile(new FanOutComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("No executor named 'branches'");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @GraphComposer(id = "fanOut")
+    static class FanOutComposer {
+
+        @GraphKey
+        static final String KEY_A = "a";
+
+        @GraphKey
+        static final String KEY_B = "b";
+
+        @GraphKey
+        static final String KEY_C = "c";
+
+        @GraphKey
+        static final String KEY_D = "d";
+
+        final AtomicInteger running = new AtomicInteger();
+
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        @GraphNode(isStart = true, next = {"a", "b", "c", "d"})
+        @ParallelBranches(executor = "branches", maxParallelism = 2)
+        final NodeAction fork = state -> Map.of();
+
+        @GraphNode(id = "a", next = "join")
+        final NodeAction a = state -> Map.of(KEY_A, branch());
+
+        @GraphNode(id = "b", next = "join")
+        final NodeAction b = state -> Map.of(KEY_B, branch());
+
+        @GraphNode(id = "c", next = "join")
+        final NodeAction c = state -> Map.of(KEY_C, branch());
+
+        @GraphNode(id = "d", next = "join")
+        final NodeAction d = state -> Map.of(KEY_D, branch());
+
+        @GraphNode(id = "join", next = StateGraph.END)
+        final NodeAction join = state -> Map.of();
+
+        private String branch() throws InterruptedException {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            return Thread.currentThread().getName();
+        }
+
+    }
+
+    @GraphComposer(id = "singleBranch")
+    static class SingleBranchComposer {
+
+        @GraphNode(isStart = true, next = "only")
+        @ParallelBranches(maxParallelism = 2)
+        final NodeAction fork = state -> Map.of();
+
+        @GraphNode(id = "only", next = StateGraph.END)
+        final NodeAction only = state -> Map.of();
+
+    }
+
+}
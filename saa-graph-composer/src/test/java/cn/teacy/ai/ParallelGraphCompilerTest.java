@@ -0,0 +1,97 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.core.GraphCompiler;
+import cn.teacy.ai.core.ParallelGraphCompiler;
+import cn.teacy.ai.core.SpringReflectiveGraphCompiler;
+import cn.teacy.ai.tests.parallel.ParallelTestGraphConfig;
+import cn.teacy.ai.tests.parallel.broken.BrokenTestGraphConfig;
+import cn.teacy.ai.tests.parallel.graphs.BuildThreads;
+import cn.teacy.ai.tests.parallel.graphs.LeafGraphComposer;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.exception.GraphStateException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+public class ParallelGraphCompilerTest {
+
+    @Configuration
+    public static class ParallelCompilerConfiguration {
+
+        @Bean
+        public GraphCompiler graphCompiler(ConfigurableListableBeanFactory beanFactory) {
+            return new ParallelGraphCompiler(new SpringReflectiveGraphCompiler(beanFactory), beanFactory, 4);
+        }
+
+    }
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(ParallelCompilerConfiguration.class);
+
+    @BeforeEach
+    void setUp() {
+        BuildThreads.BY_GRAPH.clear();
+    }
+
+    @Test
+    @DisplayName("Should compile all graphs on the compile pool, subgraphs first")
+    void shouldCompileGraphsInParallel(CapturedOutput output) {
+        runner.withUserConfiguration(ParallelTestGraphConfig.class)
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context).hasBean("leafGraph").hasBean("otherLeafGraph").hasBean("parentGraph");
+
+                    assertThat(BuildThreads.BY_GRAPH).containsOnlyKeys("leafGraph", "otherLeafGraph", "parentGraph");
+                    assertThat(BuildThreads.BY_GRAPH.values()).allMatch(thread -> thread.startsWith("graph-compile-"));
+
+                    CompiledGraph parent = context.getBean("parentGraph", CompiledGraph.class);
+                    OverAllState state = parent.invoke(Map.of()).orElseThrow();
+                    assertThat(state.value("result").orElseThrow()).isEqualTo("otherLeaf");
+                });
+
+        assertThat(output)
+                .contains("Compiled 2 graph(s) in 1 level(s) with parallelism 4")
+                .contains("Compiled 1 graph(s) in 1 level(s) with parallelism 4");
+    }
+
+    @Test
+    @DisplayName("Should fail the refresh once with every broken graph of the level")
+    void shouldAggregateCompileFailures() {
+        runner.withUserConfiguration(BrokenTestGraphConfig.class)
+                .run(context -> {
+                    assertThat(context).hasFailed();
+                    assertThat(context.getStartupFailure())
+                            .hasRootCauseInstanceOf(GraphStateException.class)
+                            .hasMessageContaining("Failed to compile 2 graph(s)")
+                            .hasMessageContaining("firstBrokenGraph")
+                            .hasMessageContaining("secondBrokenGraph");
+                });
+    }
+
+    @Test
+    @DisplayName("Should compile a composer directly when it is not managed by the bean factory")
+    void shouldCompileUnmanagedComposer() {
+        runner.withUserConfiguration(ParallelTestGraphConfig.class)
+                .run(context -> {
+                    GraphCompiler compiler = context.getBean(GraphCompiler.class);
+                    CompiledGraph graph = compiler.compile(new LeafGraphComposer());
+
+                    assertThat(graph).isNotSameAs(context.getBean("leafGraph"));
+                    assertThat(graph.invoke(Map.of()).orElseThrow().value("result")).contains("leaf");
+                });
+    }
+
+}
@@ -0,0 +1,62 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.strategy.PersistentAppendStrategy;
+import cn.teacy.ai.strategy.PersistentMergeStrategy;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Compares the time and the allocations of applying many small updates to a list and a map key
+ * with the built-in and the persistent strategies.
+ * <p>
+ * Skipped by default, run it with {@code mvn test -Dtest=PersistentStrategyBenchmarkTest -Dgraph.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "graph.benchmark", matches = "true")
+public class PersistentStrategyBenchmarkTest {
+
+    private static final int UPDATES = Integer.getInteger("graph.benchmark.updates", 20_000);
+
+    @Test
+    @DisplayName("Allocations of appending to a list and merging into a map, update by update")
+    void compareStrategies() {
+        IntFunction<Object> message = i -> List.of("message " + i);
+        IntFunction<Object> entry = i -> Map.of("key " + i, i);
+
+        for (int round = 0; round < 2; round++) {
+            // the first round warms up the JIT
+            boolean print = round == 1;
+            report("append", KeyStrategy.APPEND, message, print);
+            report("persistent append", new PersistentAppendStrategy(), message, print);
+            report("merge", KeyStrategy.MERGE, entry, print);
+            report("persistent merge", new PersistentMergeStrategy(), entry, print);
+        }
+    }
+
+    private static void report(String mode, KeyStrategy strategy, IntFunction<Object> update, boolean print) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        Object value = null;
+        for (int i = 0; i < UPDATES; i++) {
+            value = strategy.apply(value, update.apply(i));
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        if (print) {
+            System.out.printf("%s: %d updates in %d ms, %d bytes allocated per update%n",
+                    mode, UPDATES, elapsed.toMillis(), allocated / UPDATES);
+        }
+    }
+
+}
@@ -0,0 +1,194 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.ConditionalEdge;
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.strategy.PersistentAppendStrategy;
+import cn.teacy.ai.strategy.PersistentHashMap;
+import cn.teacy.ai.strategy.PersistentMergeStrategy;
+import cn.teacy.ai.strategy.PersistentVector;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.KeyStrategy;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.EdgeAction;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.state.AppenderChannel.RemoveIdentifier;
+import com.alibaba.cloud.ai.graph.state.ReplaceAllWith;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PersistentStrategyTest {
+
+    @Test
+    @DisplayName("Should append to a persistent vector without changing previous versions")
+    void shouldAppendWithoutChangingPreviousVersions() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        List<PersistentVector<Integer>> versions = new ArrayList<>();
+        for (int i = 0; i < 40_000; i++) {
+            vector = vector.plus(i);
+            if (i % 1_000 == 0) {
+                versions.add(vector);
+            }
+        }
+
+        assertThat(vector).hasSize(40_000).isEqualTo(IntStream.range(0, 40_000).boxed().toList());
+        for (int v = 0; v < versions.size(); v++) {
+            PersistentVector<Integer> version = versions.get(v);
+            assertThat(version).hasSize(v * 1_000 + 1);
+            assertThat(version.get(version.size() - 1)).isEqualTo(v * 1_000);
+        }
+        PersistentVector<Integer> last = vector;
+        assertThat(last.minus(0).get(0)).isEqualTo(1);
+        assertThatThrownBy(() -> last.add(1)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    @DisplayName("Should behave like a hash map over random updates, including colliding and null keys")
+    void shouldBehaveLikeHashMap() {
+        Random random = new Random(42);
+        Map<Object, Object> expected = new HashMap<>();
+        PersistentHashMap<Object, Object> map = PersistentHashMap.empty();
+        PersistentHashMap<Object, Object> snapshot = null;
+        Map<Object, Object> expectedSnapshot = null;
+
+        for (int i = 0; i < 20_000; i++) {
+            Object key = random.nextInt(10) == 0 ? new CollidingKey(random.nextInt(50)) : random.nextInt(2_000);
+            if (random.nextInt(10) == 0) {
+                key = null;
+            }
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                expected.put(key, i);
+                map = map.plus(key, i);
+            }
+            if (i == 10_000) {
+                snapshot = map;
+                expectedSnapshot = new HashMap<>(expected);
+            }
+        }
+
+        assertThat(map).isEqualTo(expected).hasSameHashCodeAs(expected);
+        assertThat(map.size()).isEqualTo(expected.size());
+        assertThat(snapshot).isEqualTo(expectedSnapshot);
+        for (Object key : expected.keySet()) {
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+        for (Object key : List.copyOf(expected.keySet())) {
+            map = map.minus(key);
+        }
+        assertThat(map).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should apply updates like the append and merge strategies")
+    void shouldApplyUpdatesLikeBuiltInStrategies() throws Exception {
+        KeyStrategy append = new PersistentAppendStrategy();
+        Object list = append.apply(null, "a");
+        list = append.apply(list, List.of("b", "c"));
+        list = append.apply(list, new String[]{"d"});
+        assertThat(list).isInstanceOf(PersistentVector.class).isEqualTo(List.of("a", "b", "c", "d"));
+
+        RemoveIdentifier<Object> removeB = (element, index) -> "b".equals(element) ? 0 : 1;
+        assertThat(append.apply(list, List.of(removeB, "e"))).isEqualTo(List.of("a", "c", "d", "e"));
+        assertThat(append.apply(list, ReplaceAllWith.of(List.of("x")))).isEqualTo(List.of("x"));
+        assertThat(append.apply(List.of("a"), "b")).isEqualTo(List.of("a", "b"));
+
+        KeyStrategy merge = new PersistentMergeStrategy();
+        Object map = merge.apply(null, Map.of("a", 1, "b", 2));
+        map = merge.apply(map, Map.of("b", 3, "c", 4));
+        assertThat(map).isInstanceOf(PersistentHashMap.class).isEqualTo(Map.of("a", 1, "b", 3, "c", 4));
+        assertThat(merge.apply("old", "new")).isEqualTo("new");
+        assertThatThrownBy(() -> merge.apply("old", 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Cannot merge incompatible types");
+
+        assertThat(roundTrip(list)).isInstanceOf(PersistentVector.class).isEqualTo(list);
+        assertThat(roundTrip(map)).isInstanceOf(PersistentHashMap.class).isEqualTo(map);
+    }
+
+    @Test
+    @DisplayName("Should use the persistent strategies as predefined strategies of @GraphKey")
+    void shouldUsePersistentStrategiesInGraph() {
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        LoopComposer composer = new LoopComposer();
+        CompiledGraph graph = compiler.compile(composer);
+
+        OverAllState state = graph.invoke(Map.of()).orElseThrow();
+
+        assertThat(state.value(LoopComposer.KEY_HISTORY))
+                .contains(IntStream.rangeClosed(1, 50).mapToObj(i -> "step " + i).toList());
+        Map<?, ?> seen = state.value(LoopComposer.KEY_SEEN, Map.class).orElseThrow();
+        assertThat(seen).hasSize(50);
+        // the nodes see the persistent values, while the snapshots of the state are cloned into JDK collections
+        assertThat(composer.historyTypes).containsOnly(PersistentVector.class);
+        assertThat(graph.getKeyStrategyMap().get(LoopComposer.KEY_HISTORY))
+                .isSameAs(compiler.compile(new LoopComposer()).getKeyStrategyMap().get(LoopComposer.KEY_HISTORY));
+    }
+
+    private static Object roundTrip(Object value) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
+
+    private record CollidingKey(int id) {
+
+        @Override
+        public int hashCode() {
+            return 7;
+        }
+
+    }
+
+    @GraphComposer(id = "persistentLoop")
+    static class LoopComposer {
+
+        @GraphKey(strategy = PersistentAppendStrategy.class)
+        static final String KEY_HISTORY = "history";
+
+        @GraphKey(strategy = PersistentMergeStrategy.class)
+        static final String KEY_SEEN = "seen";
+
+        @GraphKey
+        static final String KEY_COUNT = "count";
+
+        final Set<Class<?>> historyTypes = ConcurrentHashMap.newKeySet();
+
+        @GraphNode(id = "step", isStart = true)
+        final NodeAction step = state -> {
+            state.value(KEY_HISTORY).ifPresent(history -> historyTypes.add(history.getClass()));
+            int count = state.value(KEY_COUNT, 0) + 1;
+            return Map.of(KEY_COUNT, count, KEY_HISTORY, "step " + count, KEY_SEEN, Map.of("step " + count, count));
+        };
+
+        @ConditionalEdge(source = "step", routes = {"step", StateGraph.END})
+        final EdgeAction loop = state -> state.value(KEY_COUNT, 0) < 50 ? "step" : StateGraph.END;
+
+    }
+
+}
@@ -0,0 +1,275 @@
+package cn.teacy.ai;
+
+import cn.teacy.ai.annotation.ConditionalEdge;
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.core.ReflectiveGraphCompiler;
+import cn.teacy.ai.exception.GraphDefinitionException;
+import cn.teacy.ai.interfaces.NodePolicyListener;
+import cn.teacy.ai.metadata.GraphDescriptor;
+import cn.teacy.ai.strategy.BoundedAppendStrategy;
+import cn.teacy.ai.strategy.PersistentMergeStrategy;
+import cn.teacy.ai.strategy.SumLongStrategy;
+import cn.teacy.ai.support.BlobStore;
+import cn.teacy.ai.support.StateSizeEstimator;
+import cn.teacy.ai.support.StateSizeMonitor;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.EdgeAction;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.alibaba.cloud.ai.graph.state.strategy.AppendStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class StateBudgetTest {
+
+    private static final String DOCUMENT = "x".repeat(10_000);
+
+    @Test
+    @DisplayName("Should estimate the size of state values from a sample of their elements")
+    void shouldEstimateFromSample() {
+        List<String> documents = IntStream.range(0, 100_000).mapToObj(i -> "document " + i).toList();
+        // the references held by the list, besides the documents
+        long exact = 16L * documents.size();
+        for (String document : documents) {
+            exact += StateSizeEstimator.estimate(document);
+        }
+
+        assertThat(StateSizeEstimator.estimate(DOCUMENT)).isEqualTo(20_040);
+        assertThat(StateSizeEstimator.estimate(new byte[1_000])).isEqualTo(1_016);
+        assertThat((double) StateSizeEstimator.estimate(documents)).isCloseTo(exact, within(exact * 0.1));
+        assertThat(StateSizeEstimator.estimate(Map.of("docs", List.of(new Chunk(DOCUMENT, 1)))))
+                .isGreaterThan(20_000).isLessThan(21_000);
+    }
+
+    @Test
+    @DisplayName("Should fail a run whose state outgrows its budget")
+    void shouldFailRunOverBudget() {
+        CompiledGraph graph = new ReflectiveGraphCompiler().compile(new FailingComposer());
+
+        assertThatThrownBy(() -> graph.invoke(Map.of()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("State of 'stateBudgetFail' would grow to about")
+                .hasMessageContaining("after node 'step', exceeding its budget of 65536 bytes")
+                .hasMessageContaining("The largest key is 'docs'");
+    }
+
+    @Test
+    @DisplayName("Should discard the updates that would exceed the budget, and publish the measured sizes")
+    void shouldDiscardUpdatesOverBudget() {
+        AtomicReference<StateSizeMonitor> monitor = new AtomicReference<>();
+        List<Long> measured = new CopyOnWriteArrayList<>();
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.addPolicyListener(new NodePolicyListener() {
+            @Override
+            public void onStateSize(GraphDescriptor graph, StateSizeMonitor stateSizeMonitor) {
+                assertThat(graph.graphId()).isEqualTo("stateBudgetDiscard");
+                stateSizeMonitor.addObserver((stateBytes, keyBytes) -> measured.add(stateBytes));
+                monitor.set(stateSizeMonitor);
+            }
+        });
+
+        OverAllState state = compiler.compile(new DiscardingComposer()).invoke(Map.of()).orElseThrow();
+
+        // each document takes about 20 KB, so that three of them fit into the budget
+        assertThat(state.value(DiscardingComposer.KEY_COUNT, 0)).isEqualTo(10);
+        List<?> docs = state.value(DiscardingComposer.KEY_DOCS, List.class).orElseThrow();
+        assertThat(docs).hasSize(3);
+        assertThat(monitor.get().getExceededCount()).isEqualTo(7);
+        assertThat(monitor.get().getStateSizes().getCount()).isEqualTo(13);
+        assertThat(monitor.get().getStateSizes().getMax()).isLessThanOrEqualTo(65_536).isGreaterThan(60_000);
+        assertThat(monitor.get().getKeySizes()).containsOnlyKeys(DiscardingComposer.KEY_DOCS, DiscardingComposer.KEY_COUNT);
+        assertThat(monitor.get().getKeySizes().get(DiscardingComposer.KEY_DOCS).getMax()).isGreaterThan(60_000);
+        assertThat(measured).hasSize(13);
+    }
+
+    @Test
+    @DisplayName("Should project updated keys by their strategy, counting trimmed, replaced and accumulated values once")
+    void shouldProjectByStrategy() {
+        AtomicReference<StateSizeMonitor> monitor = new AtomicReference<>();
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.addPolicyListener(new NodePolicyListener() {
+            @Override
+            public void onStateSize(GraphDescriptor graph, StateSizeMonitor stateSizeMonitor) {
+                monitor.set(stateSizeMonitor);
+            }
+        });
+
+        OverAllState state = compiler.compile(new ProjectingComposer()).invoke(Map.of()).orElseThrow();
+
+        // two recent documents and the latest one take about 60 KB, however many steps ran
+        assertThat(state.value(ProjectingComposer.KEY_COUNT, 0)).isEqualTo(10);
+        List<?> recent = state.value(ProjectingComposer.KEY_RECENT, List.class).orElseThrow();
+        assertThat(recent).hasSize(2);
+        assertThat(monitor.get().getExceededCount()).isZero();
+        assertThat(monitor.get().getStateSizes().getMax()).isLessThanOrEqualTo(65_536).isGreaterThan(60_000);
+        assertThat(monitor.get().getKeySizes().get(ProjectingComposer.KEY_TOKENS).getMax()).isLessThan(100);
+    }
+
+    @Test
+    @DisplayName("Should count the updates of offloaded keys with the size of their handles")
+    void shouldProjectOffloadedKeys(@TempDir Path directory) {
+        AtomicReference<StateSizeMonitor> monitor = new AtomicReference<>();
+        BlobStore store = new BlobStore(directory, 1024 * 1024);
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.setBlobStore(store);
+        compiler.addPolicyListener(new NodePolicyListener() {
+            @Override
+            public void onStateSize(GraphDescriptor graph, StateSizeMonitor stateSizeMonitor) {
+                monitor.set(stateSizeMonitor);
+            }
+        });
+
+        // every step writes a document of about 20 KB to each key, far beyond the budget of 4 KB
+        OverAllState state = compiler.compile(new OffloadingComposer()).invoke(Map.of()).orElseThrow();
+
+        assertThat(state.value(OffloadingComposer.KEY_COUNT, 0)).isEqualTo(10);
+        List<?> recent = state.value(OffloadingComposer.KEY_RECENT, List.class).orElseThrow();
+        assertThat(recent).hasSize(3);
+        assertThat(monitor.get().getExceededCount()).isZero();
+        assertThat(monitor.get().getStateSizes().getMax()).isLessThan(1_000);
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Should sample the state sizes of graphs without a budget, and apply the default budget")
+    void shouldApplyCompilerSettings() {
+        AtomicReference<StateSizeMonitor> monitor = new AtomicReference<>();
+        ReflectiveGraphCompiler compiler = new ReflectiveGraphCompiler();
+        compiler.setStateSampleInterval(4);
+        compiler.addPolicyListener(new NodePolicyListener() {
+            @Override
+            public void onStateSize(GraphDescriptor graph, StateSizeMonitor stateSizeMonitor) {
+                monitor.set(stateSizeMonitor);
+            }
+        });
+
+        compiler.compile(new UnlimitedComposer()).invoke(Map.of()).orElseThrow();
+
+        assertThat(monitor.get().getMaxBytes()).isZero();
+        // 10 steps and 10 ticks, of which every fourth execution is measured
+        assertThat(monitor.get().getStateSizes().getCount()).isEqualTo(5);
+
+        ReflectiveGraphCompiler limited = new ReflectiveGraphCompiler();
+        limited.setDefaultMaxStateBytes(65_536);
+        assertThatThrownBy(() -> limited.compile(new DefaultBudgetComposer()).invoke(Map.of()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("State of 'stateBudgetDefault'");
+        assertThat(limited.compile(new UnlimitedComposer()).invoke(Map.of())).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid budget")
+    void shouldRejectInvalidBudget() {
+        assertThatThrownBy(() -> new ReflectiveGraphCompiler().compile(new InvalidComposer()))
+                .isInstanceOf(GraphDefinitionException.class)
+                .hasMessageContaining("Invalid maxStateBytes 'lots' of graph 'stateBudgetInvalid'");
+    }
+
+    private record Chunk(String text, int page) {}
+
+    abstract static class LoopComposer {
+
+        @GraphKey(strategy = AppendStrategy.class)
+        static final String KEY_DOCS = "docs";
+
+        @GraphKey
+        static final String KEY_COUNT = "count";
+
+        @GraphNode(id = "step", isStart = true, next = "tick")
+        final NodeAction step = state -> Map.of(KEY_DOCS, new ArrayList<>(List.of(DOCUMENT)));
+
+        @GraphNode(id = "tick")
+        final NodeAction tick = state -> Map.of(KEY_COUNT, state.value(KEY_COUNT, 0) + 1);
+
+        @ConditionalEdge(source = "tick", routes = {"step", StateGraph.END})
+        final EdgeAction loop = state -> state.value(KEY_COUNT, 0) < 10 ? "step" : StateGraph.END;
+
+    }
+
+    @GraphComposer(id = "stateBudgetProjecting", maxStateBytes = "64KB")
+    static class ProjectingComposer {
+
+        @GraphKey(strategy = BoundedAppendStrategy.class, maxEntries = 2)
+        static final String KEY_RECENT = "recent";
+
+        @GraphKey(strategy = PersistentMergeStrategy.class)
+        static final String KEY_LATEST = "latest";
+
+        @GraphKey(strategy = SumLongStrategy.class)
+        static final String KEY_TOKENS = "tokens";
+
+        @GraphKey
+        static final String KEY_COUNT = "count";
+
+        @GraphNode(id = "step", isStart = true, next = "tick")
+        final NodeAction step = state -> Map.of(KEY_RECENT, List.of(DOCUMENT), KEY_LATEST, Map.of("document", DOCUMENT),
+                KEY_TOKENS, 100);
+
+        @GraphNode(id = "tick")
+        final NodeAction tick = state -> Map.of(KEY_COUNT, state.value(KEY_COUNT, 0) + 1);
+
+        @ConditionalEdge(source = "tick", routes = {"step", StateGraph.END})
+        final EdgeAction loop = state -> state.value(KEY_COUNT, 0) < 10 ? "step" : StateGraph.END;
+
+    }
+
+    @GraphComposer(id = "stateBudgetOffloading", maxStateBytes = "4KB")
+    static class OffloadingComposer {
+
+        @GraphKey(strategy = BoundedAppendStrategy.class, maxEntries = 3, offload = true)
+        static final String KEY_RECENT = "recent";
+
+        @GraphKey(offload = true)
+        static final String KEY_LATEST = "latest";
+
+        @GraphKey
+        static final String KEY_COUNT = "count";
+
+        @GraphNode(id = "step", isStart = true, next = "tick")
+        final NodeAction step = state -> Map.of(KEY_RECENT, List.of(DOCUMENT), KEY_LATEST, DOCUMENT);
+
+        @GraphNode(id = "tick")
+        final NodeAction tick = state -> Map.of(KEY_COUNT, state.value(KEY_COUNT, 0) + 1);
+
+        @ConditionalEdge(source = "tick", routes = {"step", StateGraph.END})
+        final EdgeAction loop = state -> state.value(KEY_COUNT, 0) < 10 ? "step" : StateGraph.END;
+
+    }
+
+    @GraphComposer(id = "stateBudgetFail", maxStateBytes = "64KB")
+    static class FailingComposer extends LoopComposer {
+    }
+
+    @GraphComposer(id = "stateBudgetDiscard", maxStateBytes = "64KB", stateOverflow = GraphComposer.StateOverflow.DISCARD)
+    static class DiscardingComposer extends LoopComposer {
+    }
+
+    @GraphComposer(id = "stateBudgetUnlimited", maxStateBytes = "0")
+    static class UnlimitedComposer extends LoopComposer {
+    }
+
+    @GraphComposer(id = "stateBudgetDefault")
+    static class DefaultBudgetComposer extends LoopComposer {
+    }
+
+    @GraphComposer(id = "stateBudgetInvalid", maxStateBytes = "lots")
+    static class InvalidComposer extends LoopComposer {
+    }
+
+}
@@ -0,0 +1,20 @@
+package cn.teacy.ai.tests.hotswap;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import org.springframework.beans.factory.annotation.Autowired;
+
+@GraphComposer(lazy = true)
+public class EmbeddingGraphComposer {
+
+    @GraphKey
+    public static final String KEY_RESULT = "result";
+
+    @Autowired
+    @GraphNode(isStart = true, next = StateGraph.END)
+    CompiledGraph swappableGraph;
+
+}
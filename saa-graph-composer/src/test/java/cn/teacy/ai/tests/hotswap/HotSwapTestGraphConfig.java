@@ -0,0 +1,10 @@
+package cn.teacy.ai.tests.hotswap;
+
+import cn.teacy.ai.annotation.EnableGraphComposer;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableGraphComposer
+public class HotSwapTestGraphConfig {
+
+}
@@ -0,0 +1,31 @@
+package cn.teacy.ai.tests.hotswap;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+@GraphComposer(lazy = true)
+public class SwappableGraphComposer {
+
+    /**
+     * Stands in for an edited node body, read when the composer is created.
+     */
+    public static final AtomicReference<String> RESULT = new AtomicReference<>();
+
+    @GraphKey
+    public static final String KEY_RESULT = "result";
+
+    @GraphNode(isStart = true, next = StateGraph.END)
+    final NodeAction swappable;
+
+    public SwappableGraphComposer() {
+        String result = RESULT.get();
+        this.swappable = state -> Map.of(KEY_RESULT, result);
+    }
+
+}
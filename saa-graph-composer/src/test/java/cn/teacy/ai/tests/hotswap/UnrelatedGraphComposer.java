@@ -0,0 +1,16 @@
+package cn.teacy.ai.tests.hotswap;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphNode;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+import java.util.Map;
+
+@GraphComposer(lazy = true)
+public class UnrelatedGraphComposer {
+
+    @GraphNode(isStart = true, next = StateGraph.END)
+    final NodeAction unrelated = state -> Map.of();
+
+}
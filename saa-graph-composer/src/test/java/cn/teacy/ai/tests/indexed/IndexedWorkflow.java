@@ -0,0 +1,16 @@
+package cn.teacy.ai.tests.indexed;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphNode;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+import java.util.Collections;
+
+@GraphComposer
+public class IndexedWorkflow {
+
+    @GraphNode(isStart = true, next = StateGraph.END)
+    final NodeAction action = state -> Collections.emptyMap();
+
+}
@@ -0,0 +1,21 @@
+package cn.teacy.ai.tests.instrumented;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.interfaces.GraphBuildLifecycle;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+import java.util.Map;
+
+@GraphComposer(id = "instrumented")
+public class InstrumentedGraphComposer implements GraphBuildLifecycle {
+
+    @GraphKey
+    public static final String KEY_RESULT = "result";
+
+    @GraphNode(isStart = true, next = StateGraph.END)
+    final NodeAction only = state -> Map.of(KEY_RESULT, "done");
+
+}
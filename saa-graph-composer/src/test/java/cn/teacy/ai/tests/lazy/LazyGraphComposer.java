@@ -0,0 +1,29 @@
+package cn.teacy.ai.tests.lazy;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.interfaces.GraphBuildLifecycle;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@GraphComposer(lazy = true)
+public class LazyGraphComposer implements GraphBuildLifecycle {
+
+    public static final AtomicInteger COMPILATIONS = new AtomicInteger();
+
+    @GraphKey
+    public static final String KEY_RESULT = "result";
+
+    @GraphNode(isStart = true, next = StateGraph.END)
+    final NodeAction lazy = state -> Map.of(KEY_RESULT, "lazy");
+
+    @Override
+    public void beforeCompile(StateGraph builder) {
+        COMPILATIONS.incrementAndGet();
+    }
+
+}
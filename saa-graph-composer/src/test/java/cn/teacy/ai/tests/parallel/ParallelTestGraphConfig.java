@@ -0,0 +1,10 @@
+package cn.teacy.ai.tests.parallel;
+
+import cn.teacy.ai.annotation.EnableGraphComposer;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableGraphComposer(basePackages = "cn.teacy.ai.tests.parallel.graphs")
+public class ParallelTestGraphConfig {
+
+}
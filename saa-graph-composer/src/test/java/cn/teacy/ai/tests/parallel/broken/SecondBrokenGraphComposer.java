@@ -0,0 +1,15 @@
+package cn.teacy.ai.tests.parallel.broken;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphNode;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+import java.util.Map;
+
+@GraphComposer
+public class SecondBrokenGraphComposer {
+
+    @GraphNode(isStart = true, next = "missing")
+    final NodeAction node = state -> Map.of();
+
+}
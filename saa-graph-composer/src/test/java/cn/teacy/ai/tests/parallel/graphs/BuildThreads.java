@@ -0,0 +1,12 @@
+package cn.teacy.ai.tests.parallel.graphs;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class BuildThreads {
+
+    public static final Map<String, String> BY_GRAPH = new ConcurrentHashMap<>();
+
+    private BuildThreads() {}
+
+}
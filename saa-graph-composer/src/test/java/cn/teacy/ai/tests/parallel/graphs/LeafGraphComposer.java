@@ -0,0 +1,26 @@
+package cn.teacy.ai.tests.parallel.graphs;
+
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.interfaces.GraphBuildLifecycle;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+
+import java.util.Map;
+
+@GraphComposer
+public class LeafGraphComposer implements GraphBuildLifecycle {
+
+    @GraphKey
+    public static final String KEY_RESULT = "result";
+
+    @GraphNode(isStart = true, next = StateGraph.END)
+    final NodeAction leaf = state -> Map.of(KEY_RESULT, "leaf");
+
+    @Override
+    public void beforeCompile(StateGraph builder) {
+        BuildThreads.BY_GRAPH.put("leafGraph", Thread.currentThread().getName());
+    }
+
+}
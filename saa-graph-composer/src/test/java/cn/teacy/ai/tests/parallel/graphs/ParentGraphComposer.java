@@ -0,0 +1,31 @@
+package cn.teacy.ai.tests.parallel.graphs;
+
+import cn.teacy.ai.annotation.CompiledFrom;
+import cn.teacy.ai.annotation.GraphComposer;
+import cn.teacy.ai.annotation.GraphKey;
+import cn.teacy.ai.annotation.GraphNode;
+import cn.teacy.ai.interfaces.GraphBuildLifecycle;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.StateGraph;
+import org.springframework.beans.factory.annotation.Autowired;
+
+@GraphComposer
+public class ParentGraphComposer implements GraphBuildLifecycle {
+
+    @GraphKey
+    public static final String KEY_RESULT = "result";
+
+    @GraphNode(isStart = true, next = "otherLeaf")
+    CompiledGraph leafGraph;
+
+    @Autowired
+    @CompiledFrom(OtherLeafGraphComposer.class)
+    @GraphNode(next = StateGraph.END)
+    CompiledGraph otherLeaf;
+
+    @Override
+    public void beforeCompile(StateGraph builder) {
+        BuildThreads.BY_GRAPH.put("parentGraph", Thread.currentThread().getName());
+    }
+
+}